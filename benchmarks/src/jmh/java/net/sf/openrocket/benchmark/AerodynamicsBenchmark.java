@@ -0,0 +1,59 @@
+package net.sf.openrocket.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import net.sf.openrocket.aerodynamics.AerodynamicForces;
+import net.sf.openrocket.aerodynamics.BarrowmanCalculator;
+import net.sf.openrocket.aerodynamics.FlightConditions;
+import net.sf.openrocket.aerodynamics.WarningSet;
+import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.util.TestSimulations;
+
+/**
+ * Benchmark of a single evaluation of {@link BarrowmanCalculator#getAerodynamicForces}, as
+ * performed on every step of a simulation.  The calculator is reused between the calls,
+ * so its per-configuration caches are warm as they are during a simulation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AerodynamicsBenchmark {
+
+	@Param({ "EstesAlphaIII", "Beta", "Falcon9Heavy" })
+	public String rocket;
+
+	@Param({ "0.3", "1.5" })
+	public double mach;
+
+	private BarrowmanCalculator calculator;
+	private FlightConfiguration configuration;
+	private FlightConditions conditions;
+	private WarningSet warnings;
+
+	@Setup
+	public void setup() {
+		BenchmarkSetup.initialize();
+		configuration = TestSimulations.getMotorConfiguration(BenchmarkSetup.createRocket(rocket));
+		calculator = new BarrowmanCalculator();
+		conditions = new FlightConditions(configuration);
+		conditions.setMach(mach);
+		conditions.setAOA(2 * Math.PI / 180);
+		conditions.setRollRate(1);
+		warnings = new WarningSet();
+	}
+
+	@Benchmark
+	public AerodynamicForces getAerodynamicForces() {
+		return calculator.getAerodynamicForces(configuration, conditions, warnings);
+	}
+
+}
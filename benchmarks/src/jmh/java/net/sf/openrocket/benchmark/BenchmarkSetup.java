@@ -0,0 +1,151 @@
+package net.sf.openrocket.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+import net.sf.openrocket.ServicesForTesting;
+import net.sf.openrocket.database.ComponentPresetDao;
+import net.sf.openrocket.database.ComponentPresetDatabase;
+import net.sf.openrocket.database.motor.MotorDatabase;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.RocketLoadException;
+import net.sf.openrocket.file.motor.MotorDatabaseFile;
+import net.sf.openrocket.l10n.DebugTranslator;
+import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.util.TestRockets;
+import net.sf.openrocket.util.TestSimulations;
+
+/**
+ * Shared set-up of the benchmarks.  The application services are the ones used by the
+ * core unit tests, with the built-in motor database and an empty component preset
+ * database, so the benchmarks do not depend on the user's preferences or on the user's
+ * motor files.
+ */
+final class BenchmarkSetup {
+
+	/** System property giving the directory of the example .ork files. */
+	static final String EXAMPLES_PROPERTY = "openrocket.benchmark.examples";
+
+	/** The built-in motor database, on the class path of the core module. */
+	private static final String MOTOR_DATABASE = "/datafiles/thrustcurves/thrustcurves." + MotorDatabaseFile.EXTENSION;
+
+	private static boolean initialized = false;
+
+	private BenchmarkSetup() {
+	}
+
+	/**
+	 * Initialize the application services, unless already initialized.
+	 */
+	static synchronized void initialize() {
+		if (initialized) {
+			return;
+		}
+		Module applicationModule = new ServicesForTesting();
+		Module overrides = new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(Translator.class).toInstance(new DebugTranslator(null));
+				bind(ComponentPresetDao.class).toInstance(new ComponentPresetDatabase());
+				bind(MotorDatabase.class).toInstance(loadMotorDatabase());
+			}
+		};
+		Injector injector = Guice.createInjector(Modules.override(applicationModule).with(overrides), new PluginModule());
+		Application.setInjector(injector);
+		initialized = true;
+	}
+
+	/**
+	 * Load the built-in motor database from the core resources.
+	 */
+	private static ThrustCurveMotorSetDatabase loadMotorDatabase() {
+		ThrustCurveMotorSetDatabase db = new ThrustCurveMotorSetDatabase();
+		try (InputStream is = BenchmarkSetup.class.getResourceAsStream(MOTOR_DATABASE)) {
+			if (is == null) {
+				throw new IllegalStateException("Motor database " + MOTOR_DATABASE + " not found");
+			}
+			for (ThrustCurveMotor m : MotorDatabaseFile.readMotors(MotorDatabaseFile.read(is))) {
+				db.addMotor(m);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to read motor database " + MOTOR_DATABASE, e);
+		}
+		return db;
+	}
+
+	/**
+	 * Return one of the rockets of {@link TestRockets} by name.
+	 */
+	static Rocket createRocket(String name) {
+		if ("EstesAlphaIII".equals(name)) {
+			return TestRockets.makeEstesAlphaIII();
+		} else if ("EstesAlphaIIIWithPods".equals(name)) {
+			return TestRockets.makeEstesAlphaIIIWithPods();
+		} else if ("Beta".equals(name)) {
+			return TestRockets.makeBeta();
+		} else if ("Simple2Stage".equals(name)) {
+			return TestRockets.makeSimple2Stage();
+		} else if ("Falcon9Heavy".equals(name)) {
+			return TestRockets.makeFalcon9Heavy();
+		}
+		throw new IllegalArgumentException("Unknown rocket " + name);
+	}
+
+	/**
+	 * Create a simulation of the rocket with fixed options, launching off-vertical
+	 * from a non-zero altitude and computing the extra flight data.
+	 */
+	static Simulation createSimulation(Rocket rocket) {
+		Simulation simulation = TestSimulations.createSimulation(rocket);
+
+		SimulationOptions opts = simulation.getOptions();
+		opts.setLaunchRodAngle(0.05);
+		opts.setLaunchRodDirection(0.3);
+		opts.setWindSpeedAverage(3);
+		opts.setWindSpeedDeviation(0.6);
+		opts.setWindDirection(1.0);
+		opts.setLaunchAltitude(100);
+		opts.setLaunchLatitude(28);
+		opts.setLaunchLongitude(-80);
+		opts.setCalculateExtras(true);
+		return simulation;
+	}
+
+	/**
+	 * Load an example .ork file by name.
+	 */
+	static OpenRocketDocument loadExample(String name) throws RocketLoadException {
+		return new GeneralRocketLoader(getExampleFile(name)).load();
+	}
+
+	/**
+	 * Return an example .ork file by name.
+	 */
+	static File getExampleFile(String name) {
+		String dir = System.getProperty(EXAMPLES_PROPERTY);
+		if (dir == null) {
+			throw new IllegalStateException("System property " + EXAMPLES_PROPERTY + " is not set");
+		}
+		File file = new File(dir, name);
+		if (!file.isFile()) {
+			throw new IllegalStateException("Example file " + file + " does not exist");
+		}
+		return file;
+	}
+
+}
@@ -0,0 +1,64 @@
+package net.sf.openrocket.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.StorageOptions;
+import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.RocketLoadException;
+import net.sf.openrocket.file.openrocket.OpenRocketSaver;
+
+/**
+ * Benchmarks of loading and saving the example .ork files.  The file contents are read
+ * into memory during set-up, so the benchmarks measure parsing and serialization rather
+ * than disk access.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileBenchmark {
+
+	@Param({ "A simple model rocket.ork", "Three-stage rocket.ork", "Parallel Staging Example.ork" })
+	public String example;
+
+	private File file;
+	private byte[] contents;
+	private OpenRocketDocument document;
+	private ByteArrayOutputStream output;
+
+	@Setup
+	public void setup() throws IOException, RocketLoadException {
+		BenchmarkSetup.initialize();
+		file = BenchmarkSetup.getExampleFile(example);
+		contents = Files.readAllBytes(file.toPath());
+		document = new GeneralRocketLoader(file).load(new ByteArrayInputStream(contents));
+		output = new ByteArrayOutputStream(contents.length * 4);
+	}
+
+	@Benchmark
+	public OpenRocketDocument load() throws RocketLoadException {
+		return new GeneralRocketLoader(file).load(new ByteArrayInputStream(contents));
+	}
+
+	@Benchmark
+	public int save() throws IOException {
+		output.reset();
+		new OpenRocketSaver().save(output, document, new StorageOptions());
+		return output.size();
+	}
+
+}
@@ -0,0 +1,44 @@
+package net.sf.openrocket.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import net.sf.openrocket.masscalc.MassCalculator;
+import net.sf.openrocket.masscalc.RigidBody;
+import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.util.TestSimulations;
+
+/**
+ * Benchmark of {@link MassCalculator#calculateLaunch}, which computes the launch mass and
+ * inertia of the whole rocket including its motors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MassBenchmark {
+
+	@Param({ "EstesAlphaIII", "Beta", "Falcon9Heavy" })
+	public String rocket;
+
+	private FlightConfiguration configuration;
+
+	@Setup
+	public void setup() {
+		BenchmarkSetup.initialize();
+		configuration = TestSimulations.getMotorConfiguration(BenchmarkSetup.createRocket(rocket));
+	}
+
+	@Benchmark
+	public RigidBody calculateLaunch() {
+		return MassCalculator.calculateLaunch(configuration);
+	}
+
+}
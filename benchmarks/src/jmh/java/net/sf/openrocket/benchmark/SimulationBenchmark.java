@@ -0,0 +1,53 @@
+package net.sf.openrocket.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.RocketLoadException;
+import net.sf.openrocket.simulation.BasicEventSimulationEngine;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.util.TestSimulations;
+
+/**
+ * Benchmark of a complete flight simulation with {@link BasicEventSimulationEngine}, from
+ * launch to ground hit.  The rocket is either one of the test rockets that have a motor
+ * configuration, or the first simulation of an example .ork file with its stored options.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SimulationBenchmark {
+
+	@Param({ "EstesAlphaIII", "EstesAlphaIIIWithPods",
+			"A simple model rocket.ork", "Three-stage rocket.ork", "Parallel Staging Example.ork" })
+	public String rocket;
+
+	private Simulation simulation;
+
+	@Setup
+	public void setup() throws RocketLoadException {
+		BenchmarkSetup.initialize();
+		if (rocket.endsWith(".ork")) {
+			simulation = BenchmarkSetup.loadExample(rocket).getSimulation(0);
+			simulation.getOptions().setRandomSeed(42);
+		} else {
+			simulation = BenchmarkSetup.createSimulation(BenchmarkSetup.createRocket(rocket));
+		}
+	}
+
+	@Benchmark
+	public FlightData simulate() throws SimulationException {
+		return new BasicEventSimulationEngine().simulate(TestSimulations.createConditions(simulation));
+	}
+
+}
@@ -19,10 +19,10 @@ import net.sf.openrocket.rocketcomponent.InstanceMap;
 import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.rocketcomponent.SymmetricComponent;
+import net.sf.openrocket.util.ComponentDispatcher;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.MathUtil;
 import net.sf.openrocket.util.PolyInterpolator;
-import net.sf.openrocket.util.Reflection;
 
 
 /**
@@ -36,6 +36,8 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	
 	private static final String BARROWMAN_PACKAGE = "net.sf.openrocket.aerodynamics.barrowman";
 	private static final String BARROWMAN_SUFFIX = "Calc";
+	private static final ComponentDispatcher CALC_CONSTRUCTOR =
+			ComponentDispatcher.forConstructor(BARROWMAN_PACKAGE, BARROWMAN_SUFFIX);
 	
 	private Map<RocketComponent, RocketComponentCalc> calcMap = null;
 	
@@ -186,11 +188,27 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		total.setCaxial(calculateAxialDrag(conditions, total.getCD()));
 		
 		// Calculate pitch and yaw damping moments
+		applyDampingMoments(configuration, conditions, total);
+
+		return total;
+	}
+	
+	
+	/**
+	 * Calculate the pitch and yaw damping moments and subtract them from the pitch and
+	 * yaw moment coefficients of the forces.
+	 * <p>
+	 * Note:  This method is package-private for {@link TabulatedAerodynamicCalculator}.
+	 */
+	void applyDampingMoments(FlightConfiguration configuration, FlightConditions conditions,
+			AerodynamicForces total) {
+		checkCache(configuration);
+		if (calcMap == null)
+			buildCalcMap(configuration);
+		
 		calculateDampingMoments(configuration, conditions, total);
 		total.setCm(total.getCm() - total.getPitchDampingMoment());
 		total.setCyaw(total.getCyaw() - total.getYawDampingMoment());
-
-		return total;
 	}
 
 
@@ -226,8 +244,10 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 
 	/**
 	 * Perform the actual CP calculation.
+	 * <p>
+	 * Note:  This method is package-private for {@link TabulatedAerodynamicCalculator}.
 	 */
-	private AerodynamicForces calculateNonAxialForces(FlightConfiguration configuration, FlightConditions conditions, WarningSet warnings) {
+	AerodynamicForces calculateNonAxialForces(FlightConfiguration configuration, FlightConditions conditions, WarningSet warnings) {
 
 		checkCache(configuration);
 
@@ -249,7 +269,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		// across the _entire_ assembly -- like a rocket, or a stage
 		final AerodynamicForces assemblyForces= new AerodynamicForces().zero();
 
-		for(Map.Entry<RocketComponent, ArrayList<InstanceContext>> mapEntry: imap.entrySet() ) {
+		for(Map.Entry<RocketComponent, List<InstanceContext>> mapEntry: imap.entrySet() ) {
 			final RocketComponent comp = mapEntry.getKey();
 			final List<InstanceContext> contextList = mapEntry.getValue();
 
@@ -322,7 +342,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param set				Set to handle 
 	 * @return friction drag for entire rocket
 	 */
-	private double calculateFrictionDrag(FlightConfiguration configuration, FlightConditions conditions,
+	double calculateFrictionDrag(FlightConfiguration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> map, WarningSet set) {
 		double c1 = 1.0, c2 = 1.0;
 		
@@ -442,91 +462,88 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		double[] roughnessLimited = new double[Finish.values().length];
 		Arrays.fill(roughnessLimited, Double.NaN);
 
-		final InstanceMap imap = configuration.getActiveInstances();
-	    for(Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry: imap.entrySet() ) {
-			final RocketComponent c = entry.getKey();
+		// iterate across all component instances
+		final List<InstanceContext> instances = configuration.getActiveInstances().getInstanceList();
+		for (int i = 0; i < instances.size(); i++) {
+			final InstanceContext context = instances.get(i);
+			final RocketComponent c = context.component;
 			
 			// Consider only SymmetricComponents and FinSets:
 			if (!(c instanceof SymmetricComponent) &&
 					!(c instanceof FinSet))
 				continue;
-
-			// iterate across component instances
-			final ArrayList<InstanceContext> contextList = entry.getValue();
-			for(InstanceContext context: contextList ) {
 			
-				// Calculate the roughness-limited friction coefficient
-				Finish finish = ((ExternalComponent) c).getFinish();
-				if (Double.isNaN(roughnessLimited[finish.ordinal()])) {
-					roughnessLimited[finish.ordinal()] =
-						0.032 * Math.pow(finish.getRoughnessSize() / configuration.getLength(), 0.2) *
-						roughnessCorrection;
-				}
+			// Calculate the roughness-limited friction coefficient
+			Finish finish = ((ExternalComponent) c).getFinish();
+			if (Double.isNaN(roughnessLimited[finish.ordinal()])) {
+				roughnessLimited[finish.ordinal()] =
+					0.032 * Math.pow(finish.getRoughnessSize() / configuration.getLength(), 0.2) *
+					roughnessCorrection;
+			}
 			
-				/*
-				 * Actual Cf is maximum of Cf and the roughness-limited value.
-				 * For perfect finish require additionally that Re > 1e6
-				 */
-				double componentCf;
-				if (configuration.getRocket().isPerfectFinish()) {
-					
-					// For perfect finish require Re > 1e6
-					if ((Re > 1.0e6) && (roughnessLimited[finish.ordinal()] > Cf)) {
-						componentCf = roughnessLimited[finish.ordinal()];
-					} else {
-						componentCf = Cf;
-					}
-					
+			/*
+			 * Actual Cf is maximum of Cf and the roughness-limited value.
+			 * For perfect finish require additionally that Re > 1e6
+			 */
+			double componentCf;
+			if (configuration.getRocket().isPerfectFinish()) {
+				
+				// For perfect finish require Re > 1e6
+				if ((Re > 1.0e6) && (roughnessLimited[finish.ordinal()] > Cf)) {
+					componentCf = roughnessLimited[finish.ordinal()];
 				} else {
-					
-					// For fully turbulent use simple max
-					componentCf = Math.max(Cf, roughnessLimited[finish.ordinal()]);
-					
+					componentCf = Cf;
 				}
+				
+			} else {
+				
+				// For fully turbulent use simple max
+				componentCf = Math.max(Cf, roughnessLimited[finish.ordinal()]);
+				
+			}
 			
-				//Handle Overriden CD for Whole Rocket
-				if(c.isCDOverridden()) {
-					continue;
-				}
+			//Handle Overriden CD for Whole Rocket
+			if(c.isCDOverridden()) {
+				continue;
+			}
 			
 			
-				// Calculate the friction drag:
-				if (c instanceof SymmetricComponent) {
-				
-					SymmetricComponent s = (SymmetricComponent) c;
-					
-					bodyFriction += componentCf * s.getComponentWetArea();
+			// Calculate the friction drag:
+			if (c instanceof SymmetricComponent) {
+			
+				SymmetricComponent s = (SymmetricComponent) c;
 				
-					if (map != null) {
-						// Corrected later
-						map.get(c).setFrictionCD(componentCf * s.getComponentWetArea()
-												 / conditions.getRefArea());
-					}
+				bodyFriction += componentCf * s.getComponentWetArea();
+			
+				if (map != null) {
+					// Corrected later
+					map.get(c).setFrictionCD(componentCf * s.getComponentWetArea()
+											 / conditions.getRefArea());
+				}
 
-					final double componentMinX = context.getLocation().x;
-					minX = Math.min(minX, componentMinX);
+				final double componentMinX = context.getLocation().x;
+				minX = Math.min(minX, componentMinX);
 
-					final double componentMaxX = componentMinX + c.getLength();
-					maxX = Math.max(maxX, componentMaxX);
+				final double componentMaxX = componentMinX + c.getLength();
+				maxX = Math.max(maxX, componentMaxX);
 
-					final double componentMaxR = Math.max(s.getForeRadius(), s.getAftRadius());
-					maxR = Math.max(maxR, componentMaxR);
-					
-				} else if (c instanceof FinSet) {
+				final double componentMaxR = Math.max(s.getForeRadius(), s.getAftRadius());
+				maxR = Math.max(maxR, componentMaxR);
 				
-					FinSet f = (FinSet) c;
-					double mac = ((FinSetCalc) calcMap.get(c)).getMACLength();
-					double cd = componentCf * (1 + 2 * f.getThickness() / mac) *
-						2 * f.getPlanformArea();
-					finFriction += cd;
-					
-					if (map != null) {
-						map.get(c).setFrictionCD(cd / conditions.getRefArea());
-					}
-					
+			} else if (c instanceof FinSet) {
+			
+				FinSet f = (FinSet) c;
+				double mac = ((FinSetCalc) calcMap.get(c)).getMACLength();
+				double cd = componentCf * (1 + 2 * f.getThickness() / mac) *
+					2 * f.getPlanformArea();
+				finFriction += cd;
+				
+				if (map != null) {
+					map.get(c).setFrictionCD(cd / conditions.getRefArea());
 				}
 				
 			}
+			
 		}
 		
 		// fB may be POSITIVE_INFINITY, but that's ok for us
@@ -555,7 +572,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param warningSet			all current warnings
 	 * @return
 	 */
-	private double calculatePressureDrag(FlightConfiguration configuration, FlightConditions conditions,
+	double calculatePressureDrag(FlightConfiguration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> forceMap, WarningSet warningSet) {
 		
 		double stagnation, base, total;
@@ -567,45 +584,41 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		base = calculateBaseCD(conditions.getMach());
 		
 		total = 0;
-		final InstanceMap imap = configuration.getActiveInstances();
-	    for(Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry: imap.entrySet() ) {
-			final RocketComponent c = entry.getKey();
+		// iterate across all component instances
+		final List<InstanceContext> instances = configuration.getActiveInstances().getInstanceList();
+		for (int i = 0; i < instances.size(); i++) {
+			final RocketComponent c = instances.get(i).component;
 			if (!c.isAerodynamic())
 				continue;
 
-			// iterate across component instances
-			final ArrayList<InstanceContext> contextList = entry.getValue();
-			for(InstanceContext context: contextList ) {
+			// Pressure fore drag
+			double cd = calcMap.get(c).calculatePressureDragForce(conditions, stagnation, base,
+																  warningSet);
+			total += cd;
 
-				// Pressure fore drag
-				double cd = calcMap.get(c).calculatePressureDragForce(conditions, stagnation, base,
-																	  warningSet);
-				total += cd;
+			if (forceMap != null) {
+				forceMap.get(c).setPressureCD(cd);
+			}
+			
+			if(c.isCDOverridden())
+				continue;					
+			
+			// Stagnation drag
+			if (c instanceof SymmetricComponent) {
+				SymmetricComponent s = (SymmetricComponent) c;
 
-				if (forceMap != null) {
-					forceMap.get(c).setPressureCD(cd);
-				}
-				
-				if(c.isCDOverridden())
-					continue;					
+				double radius = 0;
+				final SymmetricComponent prevComponent = s.getPreviousSymmetricComponent();
+				if (prevComponent != null)
+					radius = prevComponent.getAftRadius();
 				
-				// Stagnation drag
-				if (c instanceof SymmetricComponent) {
-					SymmetricComponent s = (SymmetricComponent) c;
-
-					double radius = 0;
-					final SymmetricComponent prevComponent = s.getPreviousSymmetricComponent();
-					if (prevComponent != null)
-						radius = prevComponent.getAftRadius();
+				if (radius < s.getForeRadius()) {
+					double area = Math.PI * (pow2(s.getForeRadius()) - pow2(radius));
+					cd = stagnation * area / conditions.getRefArea();
+					total += cd;
 					
-					if (radius < s.getForeRadius()) {
-						double area = Math.PI * (pow2(s.getForeRadius()) - pow2(radius));
-						cd = stagnation * area / conditions.getRefArea();
-						total += cd;
-						
-						if (forceMap != null) {
-							forceMap.get(c).setPressureCD(forceMap.get(c).getPressureCD() + cd);
-						}
+					if (forceMap != null) {
+						forceMap.get(c).setPressureCD(forceMap.get(c).getPressureCD() + cd);
 					}
 				}
 			}
@@ -624,7 +637,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param warnings				all current warnings
 	 * @return
 	 */
-	private double calculateBaseDrag(FlightConfiguration configuration, FlightConditions conditions,
+	double calculateBaseDrag(FlightConfiguration configuration, FlightConditions conditions,
 									 Map<RocketComponent, AerodynamicForces> map, WarningSet warnings) {
 		
 		double base, total;
@@ -635,51 +648,48 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		base = calculateBaseCD(conditions.getMach());
 		total = 0;
 		
-		final InstanceMap imap = configuration.getActiveInstances();
-	    for(Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry: imap.entrySet() ) {
-			final RocketComponent c = entry.getKey();
+		// iterate across all component instances
+		final List<InstanceContext> instances = configuration.getActiveInstances().getInstanceList();
+		for (int i = 0; i < instances.size(); i++) {
+			final RocketComponent c = instances.get(i).component;
 			
 			if (!(c instanceof SymmetricComponent))
 				continue;
 
 			SymmetricComponent s = (SymmetricComponent) c;
 			
-			// iterate across component instances
-			final ArrayList<InstanceContext> contextList = entry.getValue();
-			for(InstanceContext context: contextList ) {
-				if(c.isCDOverridden()) {
-					total += c.getOverrideCD();
-					continue;
-				}
-				
-				// if aft radius of previous component is greater than my forward radius, set
-				// its aft CD
-				double radius = 0;
-				final SymmetricComponent prevComponent = s.getPreviousSymmetricComponent();
-				if (prevComponent != null) {
-					radius = prevComponent.getAftRadius();
-				}
-				
-				if (radius > s.getForeRadius()) {
-					double area = Math.PI * (pow2(radius) - pow2(s.getForeRadius()));
-					double cd = base * area / conditions.getRefArea();
-					total += cd;
-					if ((map != null) && (prevComponent != null)) {
-						map.get(prevComponent).setBaseCD(cd);
-					}
+			if(c.isCDOverridden()) {
+				total += c.getOverrideCD();
+				continue;
+			}
+			
+			// if aft radius of previous component is greater than my forward radius, set
+			// its aft CD
+			double radius = 0;
+			final SymmetricComponent prevComponent = s.getPreviousSymmetricComponent();
+			if (prevComponent != null) {
+				radius = prevComponent.getAftRadius();
+			}
+			
+			if (radius > s.getForeRadius()) {
+				double area = Math.PI * (pow2(radius) - pow2(s.getForeRadius()));
+				double cd = base * area / conditions.getRefArea();
+				total += cd;
+				if ((map != null) && (prevComponent != null)) {
+					map.get(prevComponent).setBaseCD(cd);
 				}
-				
-				// if I'm the last component, set my base CD
-				// note:  the iterator *should* serve up the next component.... buuuut ....
-				//        this code has is tested, and there's no compelling reason to change.
-				final SymmetricComponent n = s.getNextSymmetricComponent();
-				if ((n == null) || !configuration.isStageActive(n.getStageNumber())) {
-					double area = Math.PI * pow2(s.getAftRadius());
-					double cd = base * area / conditions.getRefArea();
-					total += cd;
-					if (map != null) {
-						map.get(s).setBaseCD(cd);
-					}
+			}
+			
+			// if I'm the last component, set my base CD
+			// note:  the iterator *should* serve up the next component.... buuuut ....
+			//        this code has is tested, and there's no compelling reason to change.
+			final SymmetricComponent n = s.getNextSymmetricComponent();
+			if ((n == null) || !configuration.isStageActive(n.getStageNumber())) {
+				double area = Math.PI * pow2(s.getAftRadius());
+				double cd = base * area / conditions.getRefArea();
+				total += cd;
+				if (map != null) {
+					map.get(s).setBaseCD(cd);
 				}
 			}
 		}
@@ -745,7 +755,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param cd
 	 * @return
 	 */
-	private double calculateAxialDrag(FlightConditions conditions, double cd) {
+	static double calculateAxialDrag(FlightConditions conditions, double cd) {
 		double aoa = MathUtil.clamp(conditions.getAOA(), 0, Math.PI);
 		double mul;
 		
@@ -857,7 +867,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 			if (!comp.isAerodynamic())
 				continue;
 
-			RocketComponentCalc calcObj = (RocketComponentCalc) Reflection.construct(BARROWMAN_PACKAGE, comp, BARROWMAN_SUFFIX, comp);
+			RocketComponentCalc calcObj = (RocketComponentCalc) CALC_CONSTRUCTOR.invoke(comp);
 
 			calcMap.put(comp, calcObj ); 
 		}
@@ -0,0 +1,947 @@
+package net.sf.openrocket.aerodynamics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.models.atmosphere.AtmosphericConditions;
+import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.MathUtil;
+
+
+/**
+ * An aerodynamic calculator that interpolates the coefficients of the extended Barrowman
+ * method from tables, instead of computing every component on every call.
+ * <p>
+ * The geometry of a rocket does not change during a flight, so the coefficients only
+ * depend on the flight conditions.  The tables are sampled from a {@link BarrowmanCalculator}
+ * on a grid defined by a {@link Grid}:
+ * <ul>
+ *   <li>the non-axial forces on Mach number x angle of attack (x lateral wind direction,
+ *       if the rocket is not rotationally symmetric)</li>
+ *   <li>the roll damping on Mach number x reduced roll rate (roll rate x reference length
+ *       / velocity)</li>
+ *   <li>the friction drag on Mach number x log10 of the Reynolds number</li>
+ *   <li>the pressure and base drag on Mach number</li>
+ * </ul>
+ * The grid points are computed on first use, so only the part of the grid that the flight
+ * actually passes through is computed.  A separate set of tables is kept for each
+ * combination of active stages.  The pitch and yaw damping moments depend on the CG
+ * position and are computed directly.  Conditions outside of the grid are computed
+ * directly as well.
+ * <p>
+ * The tables are shared by all calculators using the same grid for the same rocket,
+ * identified by the rocket ID and its aerodynamic and tree modification IDs, so
+ * consecutive and concurrent simulations of an unchanged rocket only compute each grid
+ * point once.  The tables of the few most recently used rockets are kept.
+ * <p>
+ * The accuracy of the interpolation can be monitored by comparing every n:th call to
+ * the direct computation, see {@link #setErrorSampleInterval(int)} and
+ * {@link #getErrorReport()}.
+ * <p>
+ * This class is not thread-safe, the error statistics are kept for each instance.
+ * Use {@link #newInstance()} for each simulation.
+ */
+public class TabulatedAerodynamicCalculator extends AbstractAerodynamicCalculator {
+	private static final Logger log = LoggerFactory.getLogger(TabulatedAerodynamicCalculator.class);
+
+	/** The angle of attack above which a large AOA warning is produced, as in BarrowmanCalculator. */
+	private static final double LARGE_AOA = 17.5 * Math.PI / 180;
+
+	/** The roll rate below which the roll damping is zero, as in the fin calculations. */
+	private static final double MIN_ROLL_RATE = 0.1;
+
+	/** The Mach number used for sampling Mach-dependent values at zero velocity. */
+	private static final double MIN_SAMPLE_MACH = 0.001;
+
+	/** The number of rockets whose tables are kept. */
+	private static final int MAX_SHARED_TABLES = 8;
+
+	// Indices of the non-axial force values of a grid point
+	private static final int CN = 0;
+	private static final int CM = 1;
+	private static final int CSIDE = 2;
+	private static final int CYAW = 3;
+	private static final int CROLL_FORCE = 4;
+	private static final int CNA = 5;
+	private static final int CP_MOMENT = 6;
+	private static final int CP_WEIGHT = 7;
+	private static final int NON_AXIAL_VALUES = 8;
+
+
+	/**
+	 * The grid on which the coefficient tables are sampled.
+	 */
+	public static final class Grid {
+
+		/** The default grid. */
+		public static final Grid DEFAULT = new Grid(0.05, 3.0, Math.PI / 180, 36, 0.05, 2.0, 0.05, 4, 9);
+
+		private final double machStep;
+		private final double maxMach;
+		private final double aoaStep;
+		private final int thetaDivisions;
+		private final double rollStep;
+		private final double maxRoll;
+		private final double reynoldsStep;
+		private final double minReynolds;
+		private final double maxReynolds;
+
+		/**
+		 * Sole constructor.
+		 *
+		 * @param machStep			the Mach number step.
+		 * @param maxMach			the maximum tabulated Mach number.
+		 * @param aoaStep			the angle of attack step, the angle of attack is tabulated over 0...pi.
+		 * @param thetaDivisions	the number of lateral wind directions, used only for rockets
+		 * 							that are not rotationally symmetric.
+		 * @param rollStep			the reduced roll rate step.
+		 * @param maxRoll			the maximum tabulated absolute reduced roll rate.
+		 * @param reynoldsStep		the step of log10 of the Reynolds number.
+		 * @param minReynolds		log10 of the minimum tabulated Reynolds number.  The friction
+		 * 							coefficient is constant below 1e4.
+		 * @param maxReynolds		log10 of the maximum tabulated Reynolds number.
+		 */
+		public Grid(double machStep, double maxMach, double aoaStep, int thetaDivisions,
+				double rollStep, double maxRoll, double reynoldsStep, double minReynolds, double maxReynolds) {
+			if (!(machStep > 0) || !(maxMach >= machStep) || !(aoaStep > 0) || aoaStep > Math.PI ||
+					thetaDivisions <= 0 || !(rollStep > 0) || !(maxRoll >= rollStep) ||
+					!(reynoldsStep > 0) || !(maxReynolds >= minReynolds + reynoldsStep)) {
+				throw new IllegalArgumentException("Invalid aerodynamic table grid");
+			}
+			this.machStep = machStep;
+			this.maxMach = maxMach;
+			this.aoaStep = aoaStep;
+			this.thetaDivisions = thetaDivisions;
+			this.rollStep = rollStep;
+			this.maxRoll = maxRoll;
+			this.reynoldsStep = reynoldsStep;
+			this.minReynolds = minReynolds;
+			this.maxReynolds = maxReynolds;
+		}
+
+		public double getMachStep() {
+			return machStep;
+		}
+
+		public double getMaxMach() {
+			return maxMach;
+		}
+
+		public double getAOAStep() {
+			return aoaStep;
+		}
+
+		public int getThetaDivisions() {
+			return thetaDivisions;
+		}
+
+		public double getRollStep() {
+			return rollStep;
+		}
+
+		public double getMaxRoll() {
+			return maxRoll;
+		}
+
+		public double getReynoldsStep() {
+			return reynoldsStep;
+		}
+
+		public double getMinReynolds() {
+			return minReynolds;
+		}
+
+		public double getMaxReynolds() {
+			return maxReynolds;
+		}
+
+		private int getMachCount() {
+			return (int) Math.ceil(maxMach / machStep - 1e-9) + 1;
+		}
+
+		private int getAOACount() {
+			return (int) Math.ceil(Math.PI / aoaStep - 1e-9) + 1;
+		}
+
+		private int getRollCount() {
+			return 2 * ((int) Math.ceil(maxRoll / rollStep - 1e-9)) + 1;
+		}
+
+		private int getReynoldsCount() {
+			return (int) Math.ceil((maxReynolds - minReynolds) / reynoldsStep - 1e-9) + 1;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Grid))
+				return false;
+			Grid other = (Grid) obj;
+			return machStep == other.machStep && maxMach == other.maxMach && aoaStep == other.aoaStep &&
+					thetaDivisions == other.thetaDivisions && rollStep == other.rollStep &&
+					maxRoll == other.maxRoll && reynoldsStep == other.reynoldsStep &&
+					minReynolds == other.minReynolds && maxReynolds == other.maxReynolds;
+		}
+
+		@Override
+		public int hashCode() {
+			return Double.hashCode(machStep) + 31 * Double.hashCode(aoaStep) + 961 * thetaDivisions;
+		}
+
+		@Override
+		public String toString() {
+			return "Grid[machStep=" + machStep + ", maxMach=" + maxMach + ", aoaStep=" + aoaStep +
+					", thetaDivisions=" + thetaDivisions + ", rollStep=" + rollStep + ", maxRoll=" + maxRoll +
+					", reynoldsStep=" + reynoldsStep + ", minReynolds=" + minReynolds +
+					", maxReynolds=" + maxReynolds + "]";
+		}
+	}
+
+
+	/**
+	 * The differences between the interpolated and the directly computed coefficients
+	 * of the sampled calls, and statistics of the table usage.
+	 */
+	public static final class ErrorReport {
+		private final int samples;
+		private final double maxCN, rmsCN;
+		private final double maxCm, rmsCm;
+		private final double maxCD, rmsCD;
+		private final double maxCroll, rmsCroll;
+		private final long tabulatedCalls;
+		private final long directCalls;
+		private final int gridPoints;
+
+		private ErrorReport(int samples, double[] max, double[] sumSquares, long tabulatedCalls,
+				long directCalls, int gridPoints) {
+			this.samples = samples;
+			this.maxCN = max[0];
+			this.maxCm = max[1];
+			this.maxCD = max[2];
+			this.maxCroll = max[3];
+			this.rmsCN = rms(sumSquares[0], samples);
+			this.rmsCm = rms(sumSquares[1], samples);
+			this.rmsCD = rms(sumSquares[2], samples);
+			this.rmsCroll = rms(sumSquares[3], samples);
+			this.tabulatedCalls = tabulatedCalls;
+			this.directCalls = directCalls;
+			this.gridPoints = gridPoints;
+		}
+
+		private static double rms(double sumSquares, int samples) {
+			return (samples > 0) ? Math.sqrt(sumSquares / samples) : 0;
+		}
+
+		/** Return the number of calls compared to the direct computation. */
+		public int getSamples() {
+			return samples;
+		}
+
+		/** Return the maximum absolute error of the normal force coefficient. */
+		public double getMaxCNError() {
+			return maxCN;
+		}
+
+		/** Return the root mean square error of the normal force coefficient. */
+		public double getRMSCNError() {
+			return rmsCN;
+		}
+
+		/** Return the maximum absolute error of the pitch moment coefficient. */
+		public double getMaxCmError() {
+			return maxCm;
+		}
+
+		/** Return the root mean square error of the pitch moment coefficient. */
+		public double getRMSCmError() {
+			return rmsCm;
+		}
+
+		/** Return the maximum absolute error of the drag coefficient. */
+		public double getMaxCDError() {
+			return maxCD;
+		}
+
+		/** Return the root mean square error of the drag coefficient. */
+		public double getRMSCDError() {
+			return rmsCD;
+		}
+
+		/** Return the maximum absolute error of the roll moment coefficient. */
+		public double getMaxCrollError() {
+			return maxCroll;
+		}
+
+		/** Return the root mean square error of the roll moment coefficient. */
+		public double getRMSCrollError() {
+			return rmsCroll;
+		}
+
+		/** Return the number of calls answered from the tables. */
+		public long getTabulatedCalls() {
+			return tabulatedCalls;
+		}
+
+		/** Return the number of calls outside of the grid that were computed directly. */
+		public long getDirectCalls() {
+			return directCalls;
+		}
+
+		/** Return the number of grid points computed. */
+		public int getGridPoints() {
+			return gridPoints;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("ErrorReport[samples=%d, CN max=%.3g rms=%.3g, Cm max=%.3g rms=%.3g, " +
+					"CD max=%.3g rms=%.3g, Croll max=%.3g rms=%.3g, tabulated=%d, direct=%d, gridPoints=%d]",
+					samples, maxCN, rmsCN, maxCm, rmsCm, maxCD, rmsCD, maxCroll, rmsCroll,
+					tabulatedCalls, directCalls, gridPoints);
+		}
+	}
+
+
+	// The tables of the most recently used rockets, shared by all calculators
+	private static final Map<TableKey, TableSet> sharedTables = new LinkedHashMap<TableKey, TableSet>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<TableKey, TableSet> eldest) {
+			return size() > MAX_SHARED_TABLES;
+		}
+	};
+	
+	
+	private final Grid grid;
+	private final BarrowmanCalculator barrowman = new BarrowmanCalculator();
+
+	// The shared tables of the current rocket, looked up on first use
+	private TableSet tableSet = null;
+
+	private int errorSampleInterval = 0;
+	private int callsUntilSample = 0;
+	private int samples = 0;
+	private final double[] maxError = new double[4];
+	private final double[] sumSquaredError = new double[4];
+	private long tabulatedCalls = 0;
+	private long directCalls = 0;
+
+
+	/**
+	 * Construct a calculator using the default grid.
+	 */
+	public TabulatedAerodynamicCalculator() {
+		this(Grid.DEFAULT);
+	}
+
+	/**
+	 * Construct a calculator using the specified grid.
+	 *
+	 * @param grid	the grid on which the coefficients are tabulated.
+	 */
+	public TabulatedAerodynamicCalculator(Grid grid) {
+		this.grid = grid;
+	}
+
+
+	@Override
+	public TabulatedAerodynamicCalculator newInstance() {
+		TabulatedAerodynamicCalculator calculator = new TabulatedAerodynamicCalculator(grid);
+		calculator.setErrorSampleInterval(errorSampleInterval);
+		return calculator;
+	}
+
+
+	public Grid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Return the interval of the calls that are compared to the direct computation.
+	 */
+	public int getErrorSampleInterval() {
+		return errorSampleInterval;
+	}
+
+	/**
+	 * Set the interval of the calls to {@link #getAerodynamicForces} that are compared to
+	 * the direct computation for the error report.  Each compared call computes the
+	 * coefficients both ways, so small intervals cost the benefit of the tables.
+	 *
+	 * @param interval	compare every <code>interval</code>:th call, or zero not to compare.
+	 */
+	public void setErrorSampleInterval(int interval) {
+		if (interval < 0) {
+			throw new IllegalArgumentException("Invalid error sample interval " + interval);
+		}
+		this.errorSampleInterval = interval;
+		this.callsUntilSample = interval;
+	}
+
+	/**
+	 * Return the errors of the calls compared so far and the table usage statistics.
+	 * The number of grid points is that of the tables shared for the current rocket.
+	 */
+	public ErrorReport getErrorReport() {
+		int gridPoints = (tableSet != null) ? tableSet.gridPoints : 0;
+		return new ErrorReport(samples, maxError, sumSquaredError, tabulatedCalls, directCalls, gridPoints);
+	}
+
+
+	@Override
+	public Coordinate getCP(FlightConfiguration configuration, FlightConditions conditions,
+			WarningSet warnings) {
+		return barrowman.getCP(configuration, conditions, warnings);
+	}
+
+	@Override
+	public Map<RocketComponent, AerodynamicForces> getForceAnalysis(FlightConfiguration configuration,
+			FlightConditions conditions, WarningSet warnings) {
+		return barrowman.getForceAnalysis(configuration, conditions, warnings);
+	}
+
+	@Override
+	public boolean isContinuous(Rocket rkt) {
+		return barrowman.isContinuous(rkt);
+	}
+
+
+	@Override
+	public AerodynamicForces getAerodynamicForces(FlightConfiguration configuration,
+			FlightConditions conditions, WarningSet warnings) {
+		checkCache(configuration);
+
+		final double mach = conditions.getMach();
+		final double aoa = conditions.getAOA();
+		final double rollRate = conditions.getRollRate();
+		final double velocity = conditions.getVelocity();
+		final double reducedRoll = (Math.abs(rollRate) < MIN_ROLL_RATE) ? 0 :
+				rollRate * conditions.getRefLength() / velocity;
+		final double logReynolds = Math.log10(velocity * configuration.getLength() /
+				conditions.getAtmosphericConditions().getKinematicViscosity());
+
+		if (!(mach <= grid.maxMach) || !(Math.abs(reducedRoll) <= grid.maxRoll) ||
+				!(logReynolds <= grid.maxReynolds) || Double.isNaN(aoa)) {
+			directCalls++;
+			return barrowman.getAerodynamicForces(configuration, conditions, warnings);
+		}
+		tabulatedCalls++;
+
+		if (tableSet == null) {
+			tableSet = getSharedTables(configuration.getRocket(), grid);
+		}
+		final TableSet.Table table = tableSet.getTable(configuration, conditions.getRefLength());
+
+		if (warnings == null)
+			warnings = ignoreWarningSet;
+		if (aoa > LARGE_AOA)
+			warnings.add(new Warning.LargeAOA(aoa));
+		warnings.addAll(table.warnings);
+
+		final AerodynamicForces total = new AerodynamicForces().zero();
+		table.interpolateNonAxialForces(configuration, mach, aoa, conditions.getTheta(), total);
+
+		final double rollDamp = (reducedRoll == 0) ? 0 : table.interpolateRollDamping(configuration, mach, reducedRoll);
+		total.setCrollDamp(rollDamp);
+		total.setCroll(total.getCrollForce() - rollDamp);
+
+		total.setFrictionCD(table.interpolateFrictionDrag(configuration, mach, logReynolds));
+		total.setPressureCD(table.interpolatePressureDrag(configuration, mach));
+		total.setBaseCD(table.interpolateBaseDrag(configuration, mach));
+		total.setCD(total.getFrictionCD() + total.getPressureCD() + total.getBaseCD());
+		total.setCaxial(BarrowmanCalculator.calculateAxialDrag(conditions, total.getCD()));
+
+		barrowman.applyDampingMoments(configuration, conditions, total);
+
+		if (errorSampleInterval > 0 && --callsUntilSample <= 0) {
+			callsUntilSample = errorSampleInterval;
+			sampleError(configuration, conditions, total);
+		}
+
+		return total;
+	}
+
+
+	/**
+	 * Compare interpolated forces to the directly computed forces.
+	 */
+	private void sampleError(FlightConfiguration configuration, FlightConditions conditions,
+			AerodynamicForces interpolated) {
+		AerodynamicForces direct = barrowman.getAerodynamicForces(configuration, conditions, null);
+		double[] errors = {
+				interpolated.getCN() - direct.getCN(),
+				interpolated.getCm() - direct.getCm(),
+				interpolated.getCD() - direct.getCD(),
+				interpolated.getCroll() - direct.getCroll()
+		};
+		for (int i = 0; i < errors.length; i++) {
+			double e = Math.abs(errors[i]);
+			if (Double.isNaN(e))
+				continue;
+			maxError[i] = Math.max(maxError[i], e);
+			sumSquaredError[i] += e * e;
+		}
+		samples++;
+	}
+
+
+	/**
+	 * Return the tables of the current state of the rocket, creating new empty tables
+	 * if no calculator has used them yet.
+	 */
+	private static TableSet getSharedTables(Rocket rocket, Grid grid) {
+		TableKey key = new TableKey(rocket, grid);
+		synchronized (sharedTables) {
+			TableSet set = sharedTables.get(key);
+			if (set == null) {
+				set = new TableSet(grid);
+				sharedTables.put(key, set);
+			}
+			return set;
+		}
+	}
+
+	private static long getActiveStages(FlightConfiguration configuration) {
+		long stages = 0;
+		int count = Math.min(configuration.getStageCount(), 63);
+		for (int i = 0; i < count; i++) {
+			if (configuration.isStageActive(i)) {
+				stages |= 1L << i;
+			}
+		}
+		return stages;
+	}
+
+	private static AtomicLongArray newTable(int size) {
+		AtomicLongArray table = new AtomicLongArray(size);
+		long nan = Double.doubleToRawLongBits(Double.NaN);
+		for (int i = 0; i < size; i++) {
+			table.set(i, nan);
+		}
+		return table;
+	}
+
+	private static double get(AtomicLongArray table, int index) {
+		return Double.longBitsToDouble(table.get(index));
+	}
+
+	private static void set(AtomicLongArray table, int index, double value) {
+		table.set(index, Double.doubleToRawLongBits(value));
+	}
+
+
+	@Override
+	protected void voidAerodynamicCache() {
+		super.voidAerodynamicCache();
+
+		tableSet = null;
+	}
+
+	@Override
+	public int getModID() {
+		// Only cached data is stored, return constant mod ID
+		return 0;
+	}
+
+
+	/**
+	 * The identity of the tables of a rocket:  the rocket ID, the aerodynamic and tree
+	 * modification IDs and the grid.  Copies of a rocket keep the ID and the modification
+	 * IDs, so the simulations of a copy use the same tables.
+	 */
+	private static final class TableKey {
+		private final String rocketID;
+		private final int aeroModID;
+		private final int treeModID;
+		private final Grid grid;
+
+		private TableKey(Rocket rocket, Grid grid) {
+			this.rocketID = rocket.getID();
+			this.aeroModID = rocket.getAerodynamicModID();
+			this.treeModID = rocket.getTreeModID();
+			this.grid = grid;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof TableKey))
+				return false;
+			TableKey other = (TableKey) obj;
+			return aeroModID == other.aeroModID && treeModID == other.treeModID &&
+					rocketID.equals(other.rocketID) && grid.equals(other.grid);
+		}
+
+		@Override
+		public int hashCode() {
+			return rocketID.hashCode() + 31 * (aeroModID + 31 * treeModID);
+		}
+	}
+
+
+	/**
+	 * The tables of one rocket for each combination of active stages.  The tables may be
+	 * read by several threads at once.  The grid points are computed while holding the
+	 * lock of the table set, and published through atomic arrays.
+	 */
+	private static final class TableSet {
+		private final Grid grid;
+
+		// Samples the grid points, guarded by this
+		private final BarrowmanCalculator barrowman = new BarrowmanCalculator();
+
+		// Replaced when a table is added
+		private volatile Table[] tables = new Table[0];
+
+		// Written only while holding the lock
+		private volatile int gridPoints = 0;
+
+		private TableSet(Grid grid) {
+			this.grid = grid;
+		}
+
+		/**
+		 * Return the table for the active stages of the configuration.
+		 */
+		private Table getTable(FlightConfiguration configuration, double refLength) {
+			long stages = getActiveStages(configuration);
+			Table t = findTable(stages, refLength);
+			if (t != null) {
+				return t;
+			}
+
+			synchronized (this) {
+				t = findTable(stages, refLength);
+				if (t != null) {
+					return t;
+				}
+				t = new Table(configuration, stages, refLength);
+				Table[] newTables = Arrays.copyOf(tables, tables.length + 1);
+				newTables[tables.length] = t;
+				tables = newTables;
+			}
+			log.debug("Created aerodynamic tables for stages " + Long.toBinaryString(stages) +
+					", theta dependent=" + (t.thetaCount > 1));
+			return t;
+		}
+
+		private Table findTable(long stages, double refLength) {
+			for (Table t : tables) {
+				if (t.stages == stages && t.refLength == refLength) {
+					return t;
+				}
+			}
+			return null;
+		}
+
+
+		/**
+		 * The coefficient tables of one combination of active stages.  The grid points
+		 * are NaN until they are computed.
+		 */
+		private class Table {
+			private final long stages;
+			private final double refLength;
+
+			private final int machCount = grid.getMachCount();
+			private final int aoaCount = grid.getAOACount();
+			private final int rollCount = grid.getRollCount();
+			private final int reynoldsCount = grid.getReynoldsCount();
+			private final int thetaCount;
+
+			// The non-axial forces for each Mach and AOA, with the values of each theta
+			private final AtomicReferenceArray<double[]> nonAxial;
+			private final AtomicLongArray rollDamping;
+			private final AtomicLongArray frictionDrag;
+			private final AtomicLongArray pressureDrag;
+			private final AtomicLongArray baseDrag;
+
+			// The geometry warnings found while sampling, replaced when a warning is added
+			private volatile WarningSet warnings = new WarningSet();
+
+			// Conditions reused for sampling, guarded by the table set
+			private final FlightConditions sample = new FlightConditions(null);
+			private final WarningSet sampleWarnings = new WarningSet();
+
+			private Table(FlightConfiguration configuration, long stages, double refLength) {
+				this.stages = stages;
+				this.refLength = refLength;
+				sample.setRefLength(refLength);
+
+				nonAxial = new AtomicReferenceArray<double[]>(machCount * aoaCount);
+				rollDamping = newTable(machCount * rollCount);
+				frictionDrag = newTable(machCount * reynoldsCount);
+				pressureDrag = newTable(machCount);
+				baseDrag = newTable(machCount);
+
+				thetaCount = isThetaDependent(configuration) ? grid.thetaDivisions : 1;
+			}
+
+
+			/**
+			 * Check whether the non-axial forces depend on the lateral wind direction.
+			 */
+			private boolean isThetaDependent(FlightConfiguration configuration) {
+				AerodynamicForces reference = null;
+				for (int i = 0; i < grid.thetaDivisions; i++) {
+					AerodynamicForces f = computeNonAxial(configuration, 0.3, 5 * Math.PI / 180,
+							2 * Math.PI * i / grid.thetaDivisions);
+					if (reference == null) {
+						reference = f;
+					} else if (!equal(f.getCN(), reference.getCN()) || !equal(f.getCm(), reference.getCm()) ||
+							!equal(f.getCside(), reference.getCside()) || !equal(f.getCyaw(), reference.getCyaw())) {
+						return true;
+					}
+				}
+				return false;
+			}
+
+			private boolean equal(double a, double b) {
+				return Math.abs(a - b) <= 1e-9 * (1 + Math.abs(a) + Math.abs(b));
+			}
+
+
+			private AerodynamicForces computeNonAxial(FlightConfiguration configuration, double mach,
+					double aoa, double theta) {
+				sample.setMach(mach);
+				sample.setAOA(aoa);
+				sample.setTheta(theta);
+				sample.setRollRate(0);
+				sampleWarnings.clear();
+				AerodynamicForces f = barrowman.calculateNonAxialForces(configuration, sample, sampleWarnings);
+				addGeometryWarnings();
+				return f;
+			}
+
+			private void addGeometryWarnings() {
+				WarningSet added = null;
+				for (Warning w : sampleWarnings) {
+					if (!(w instanceof Warning.LargeAOA) && !warnings.contains(w)) {
+						if (added == null) {
+							added = warnings.clone();
+						}
+						added.add(w);
+					}
+				}
+				if (added != null) {
+					warnings = added;
+				}
+			}
+
+
+			/**
+			 * Interpolate the non-axial forces into the given forces object.
+			 */
+			private void interpolateNonAxialForces(FlightConfiguration configuration, double mach, double aoa,
+					double theta, AerodynamicForces forces) {
+				double m = mach / grid.machStep;
+				int i = Math.min((int) m, machCount - 2);
+				double fm = m - i;
+
+				double a = aoa / grid.aoaStep;
+				int j = Math.min((int) a, aoaCount - 2);
+				double fa = a - j;
+
+				int k0 = 0, k1 = 0;
+				double ft = 0;
+				if (thetaCount > 1) {
+					double t = theta / (2 * Math.PI) * thetaCount;
+					t -= Math.floor(t / thetaCount) * thetaCount;
+					k0 = Math.min((int) t, thetaCount - 1);
+					k1 = (k0 + 1) % thetaCount;
+					ft = t - k0;
+				}
+
+				double[] values = new double[NON_AXIAL_VALUES];
+				addCorner(configuration, i, j, k0, k1, ft, (1 - fm) * (1 - fa), values);
+				addCorner(configuration, i + 1, j, k0, k1, ft, fm * (1 - fa), values);
+				addCorner(configuration, i, j + 1, k0, k1, ft, (1 - fm) * fa, values);
+				addCorner(configuration, i + 1, j + 1, k0, k1, ft, fm * fa, values);
+
+				forces.setCN(values[CN]);
+				forces.setCm(values[CM]);
+				forces.setCside(values[CSIDE]);
+				forces.setCyaw(values[CYAW]);
+				forces.setCrollForce(values[CROLL_FORCE]);
+				forces.setCNa(values[CNA]);
+				if (values[CP_WEIGHT] > MathUtil.EPSILON) {
+					forces.setCP(new Coordinate(values[CP_MOMENT] / values[CP_WEIGHT], 0, 0, values[CP_WEIGHT]));
+				} else {
+					forces.setCP(new Coordinate(0, 0, 0, values[CP_WEIGHT]));
+				}
+			}
+
+			private void addCorner(FlightConfiguration configuration, int i, int j, int k0, int k1,
+					double ft, double weight, double[] values) {
+				if (weight == 0)
+					return;
+				double[] row = getNonAxialRow(configuration, i, j);
+				int p0 = k0 * NON_AXIAL_VALUES;
+				int p1 = k1 * NON_AXIAL_VALUES;
+				for (int n = 0; n < NON_AXIAL_VALUES; n++) {
+					values[n] += weight * ((1 - ft) * row[p0 + n] + ft * row[p1 + n]);
+				}
+			}
+
+			private double[] getNonAxialRow(FlightConfiguration configuration, int i, int j) {
+				int index = i * aoaCount + j;
+				double[] row = nonAxial.get(index);
+				if (row != null) {
+					return row;
+				}
+				synchronized (TableSet.this) {
+					row = nonAxial.get(index);
+					if (row == null) {
+						row = new double[thetaCount * NON_AXIAL_VALUES];
+						double aoa = Math.min(j * grid.aoaStep, Math.PI);
+						for (int k = 0; k < thetaCount; k++) {
+							AerodynamicForces f = computeNonAxial(configuration, i * grid.machStep, aoa,
+									2 * Math.PI * k / thetaCount);
+							int p = k * NON_AXIAL_VALUES;
+							Coordinate cp = f.getCP();
+							row[p + CN] = f.getCN();
+							row[p + CM] = f.getCm();
+							row[p + CSIDE] = f.getCside();
+							row[p + CYAW] = f.getCyaw();
+							row[p + CROLL_FORCE] = f.getCrollForce();
+							row[p + CNA] = f.getCNa();
+							row[p + CP_MOMENT] = cp.isNaN() ? 0 : cp.x * cp.weight;
+							row[p + CP_WEIGHT] = cp.isNaN() ? 0 : cp.weight;
+						}
+						nonAxial.set(index, row);
+						gridPoints += thetaCount;
+					}
+					return row;
+				}
+			}
+
+
+			private double interpolateRollDamping(FlightConfiguration configuration, double mach, double reducedRoll) {
+				double m = mach / grid.machStep;
+				int i = Math.min((int) m, machCount - 2);
+				double fm = m - i;
+
+				double r = reducedRoll / grid.rollStep + (rollCount - 1) / 2;
+				int j = MathUtil.clamp((int) r, 0, rollCount - 2);
+				double fr = r - j;
+
+				return (1 - fm) * ((1 - fr) * getRollDamping(configuration, i, j) + fr * getRollDamping(configuration, i, j + 1)) +
+						fm * ((1 - fr) * getRollDamping(configuration, i + 1, j) + fr * getRollDamping(configuration, i + 1, j + 1));
+			}
+
+			private double getRollDamping(FlightConfiguration configuration, int i, int j) {
+				int index = i * rollCount + j;
+				double value = get(rollDamping, index);
+				if (!Double.isNaN(value)) {
+					return value;
+				}
+				synchronized (TableSet.this) {
+					value = get(rollDamping, index);
+					if (Double.isNaN(value)) {
+						sample.setMach(Math.max(i * grid.machStep, MIN_SAMPLE_MACH));
+						sample.setAOA(0);
+						sample.setTheta(0);
+						sample.setRollRate((j - (rollCount - 1) / 2) * grid.rollStep * sample.getVelocity() / refLength);
+						sampleWarnings.clear();
+						value = barrowman.calculateNonAxialForces(configuration, sample, sampleWarnings).getCrollDamp();
+						addGeometryWarnings();
+						set(rollDamping, index, value);
+						gridPoints++;
+					}
+					return value;
+				}
+			}
+
+
+			private double interpolateFrictionDrag(FlightConfiguration configuration, double mach, double logReynolds) {
+				double m = mach / grid.machStep;
+				int i = Math.min((int) m, machCount - 2);
+				double fm = m - i;
+
+				// The friction coefficient is constant below the minimum Reynolds number
+				double r = Math.max(logReynolds - grid.minReynolds, 0) / grid.reynoldsStep;
+				int j = Math.min((int) r, reynoldsCount - 2);
+				double fr = r - j;
+
+				return (1 - fm) * ((1 - fr) * getFrictionDrag(configuration, i, j) + fr * getFrictionDrag(configuration, i, j + 1)) +
+						fm * ((1 - fr) * getFrictionDrag(configuration, i + 1, j) + fr * getFrictionDrag(configuration, i + 1, j + 1));
+			}
+
+			private double getFrictionDrag(FlightConfiguration configuration, int i, int j) {
+				int index = i * reynoldsCount + j;
+				double value = get(frictionDrag, index);
+				if (!Double.isNaN(value)) {
+					return value;
+				}
+				synchronized (TableSet.this) {
+					value = get(frictionDrag, index);
+					if (Double.isNaN(value)) {
+						// The kinematic viscosity is inversely proportional to the pressure, so the
+						// Reynolds number is set by the pressure independent of the Mach number
+						double reynolds = Math.pow(10, grid.minReynolds + j * grid.reynoldsStep);
+						AtmosphericConditions standard = new AtmosphericConditions();
+						double velocity = Math.max(i * grid.machStep, MIN_SAMPLE_MACH) * standard.getMachSpeed();
+						double standardReynolds = velocity * configuration.getLength() / standard.getKinematicViscosity();
+						sample.setAtmosphericConditions(new AtmosphericConditions(standard.getTemperature(),
+								standard.getPressure() * reynolds / standardReynolds));
+						sample.setMach(Math.max(i * grid.machStep, MIN_SAMPLE_MACH));
+
+						value = barrowman.calculateFrictionDrag(configuration, sample, null, sampleWarnings);
+						sample.setAtmosphericConditions(standard);
+						set(frictionDrag, index, value);
+						gridPoints++;
+					}
+					return value;
+				}
+			}
+
+
+			private double interpolatePressureDrag(FlightConfiguration configuration, double mach) {
+				return interpolateMach(configuration, pressureDrag, mach);
+			}
+
+			private double interpolateBaseDrag(FlightConfiguration configuration, double mach) {
+				return interpolateMach(configuration, baseDrag, mach);
+			}
+
+			private double interpolateMach(FlightConfiguration configuration, AtomicLongArray table, double mach) {
+				double m = mach / grid.machStep;
+				int i = Math.min((int) m, machCount - 2);
+				double fm = m - i;
+				return (1 - fm) * getMachDrag(configuration, table, i) + fm * getMachDrag(configuration, table, i + 1);
+			}
+
+			private double getMachDrag(FlightConfiguration configuration, AtomicLongArray table, int i) {
+				double value = get(table, i);
+				if (!Double.isNaN(value)) {
+					return value;
+				}
+				synchronized (TableSet.this) {
+					if (Double.isNaN(get(table, i))) {
+						sample.setMach(i * grid.machStep);
+						sample.setAOA(0);
+						sampleWarnings.clear();
+						set(pressureDrag, i, barrowman.calculatePressureDrag(configuration, sample, null, sampleWarnings));
+						set(baseDrag, i, barrowman.calculateBaseDrag(configuration, sample, null, sampleWarnings));
+						addGeometryWarnings();
+						gridPoints++;
+					}
+					return get(table, i);
+				}
+			}
+		}
+	}
+
+}
@@ -1,8 +1,14 @@
 package net.sf.openrocket.database;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -11,10 +17,18 @@ import org.slf4j.LoggerFactory;
 import net.sf.openrocket.preset.ComponentPreset;
 import net.sf.openrocket.startup.Application;
 
+/**
+ * The database of component presets.  The presets are indexed by type, by manufacturer
+ * and part number and by preference key, so that the queries take time proportional to
+ * the size of their result.  The indexes are rebuilt on the first query after the
+ * database has been modified.
+ */
 public class ComponentPresetDatabase extends Database<ComponentPreset> implements ComponentPresetDao {
 
 	private static final Logger logger = LoggerFactory.getLogger(ComponentPresetDatabase.class);
 	
+	private volatile Index index = null;
+	
 	public ComponentPresetDatabase() {
 		super();
 	}
@@ -27,6 +41,29 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	@Override
 	public void insert( ComponentPreset preset ) {
 		list.add(preset);
+		index = null;
+	}
+
+	/*
+	 * The index is dropped before the listeners are notified, since they may query the
+	 * database for the presets that were just added.
+	 */
+	@Override
+	protected void fireAddEvent( ComponentPreset preset ) {
+		index = null;
+		super.fireAddEvent(preset);
+	}
+
+	@Override
+	protected void fireAddEvent( Collection<ComponentPreset> presets ) {
+		index = null;
+		super.fireAddEvent(presets);
+	}
+
+	@Override
+	protected void fireRemoveEvent( ComponentPreset preset ) {
+		index = null;
+		super.fireRemoveEvent(preset);
 	}
 
 	@Override
@@ -35,15 +72,7 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 			return Collections.emptyList();
 		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
-
-		for( ComponentPreset preset : list ) {
-			if ( preset.get(ComponentPreset.TYPE).equals(type) ) {
-				result.add(preset);
-			}
-		}
-		return result;
-
+		return new ArrayList<ComponentPreset>(getIndex().forType(type));
 	}
 
 	/**
@@ -60,15 +89,18 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 			return listForType(type);
 		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
-
+		Index index = getIndex();
 		Set<String> favorites = Application.getPreferences().getComponentFavorites(type);
 
-		for( ComponentPreset preset : list ) {
-			if ( preset.get(ComponentPreset.TYPE).equals(type) && favorites.contains(preset.preferenceKey())) {
-				result.add(preset);
+		List<ComponentPreset> result = new ArrayList<ComponentPreset>(favorites.size());
+		for( String key : favorites ) {
+			for( ComponentPreset preset : index.forPreferenceKey(key) ) {
+				if ( preset.get(ComponentPreset.TYPE).equals(type) ) {
+					result.add(preset);
+				}
 			}
 		}
+		index.sort(result);
 		return result;
 	}
 
@@ -82,18 +114,17 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 			return listForType(type[0]);
 		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
-
-		for( ComponentPreset preset : list ) {
-			ComponentPreset.Type presetType = preset.get(ComponentPreset.TYPE);
-			typeLoop: for( int i=0; i<type.length; i++ ) {
-				if ( presetType.equals(type[i]) ) {
-					result.add(preset);
-					break typeLoop; // from inner loop.
+		Index index = getIndex();
+		List<ComponentPreset> result = new ArrayList<ComponentPreset>();
+		typeLoop: for( int i=0; i<type.length; i++ ) {
+			for( int j=0; j<i; j++ ) {
+				if ( type[i] == type[j] ) {
+					continue typeLoop; // type listed twice.
 				}
 			}
-
+			result.addAll(index.forType(type[i]));
 		}
+		index.sort(result);
 		return result;
 	}
 
@@ -104,13 +135,7 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 
 	@Override
 	public List<ComponentPreset> find(String manufacturer, String partNo) {
-		List<ComponentPreset> presets = new ArrayList<ComponentPreset>();
-		for( ComponentPreset preset : list ) {
-			if ( preset.getManufacturer().getSimpleName().equals(manufacturer) && preset.getPartNo().equals(partNo) ) {
-				presets.add(preset);
-			}
-		}
-		return presets;
+		return new ArrayList<ComponentPreset>(getIndex().forPart(manufacturer, partNo));
 	}
 
 	@Override
@@ -119,4 +144,92 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 		this.fireAddEvent(preset);
 	}
 
+	/**
+	 * Return the indexes of the current presets, building them if the database has been
+	 * modified since they were last built.
+	 */
+	private Index getIndex() {
+		Index i = index;
+		if ( i == null ) {
+			synchronized( this ) {
+				i = index;
+				if ( i == null ) {
+					i = new Index(list);
+					index = i;
+				}
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * Immutable indexes of the presets.  The lists of the indexes are in database order.
+	 */
+	private static class Index {
+		private final Map<ComponentPreset.Type, List<ComponentPreset>> byType =
+				new EnumMap<ComponentPreset.Type, List<ComponentPreset>>(ComponentPreset.Type.class);
+		private final Map<String, Map<String, List<ComponentPreset>>> byPart =
+				new HashMap<String, Map<String, List<ComponentPreset>>>();
+		private final Map<String, List<ComponentPreset>> byPreferenceKey =
+				new HashMap<String, List<ComponentPreset>>();
+		private final Map<ComponentPreset, Integer> position = new IdentityHashMap<ComponentPreset, Integer>();
+		private final Comparator<ComponentPreset> order = new Comparator<ComponentPreset>() {
+			@Override
+			public int compare( ComponentPreset p1, ComponentPreset p2 ) {
+				return position.get(p1) - position.get(p2);
+			}
+		};
+
+		Index( List<ComponentPreset> presets ) {
+			for( int i=0; i<presets.size(); i++ ) {
+				ComponentPreset preset = presets.get(i);
+				position.put(preset, i);
+				add(byType, preset.get(ComponentPreset.TYPE), preset);
+				Map<String, List<ComponentPreset>> parts = byPart.get(preset.getManufacturer().getSimpleName());
+				if ( parts == null ) {
+					parts = new HashMap<String, List<ComponentPreset>>();
+					byPart.put(preset.getManufacturer().getSimpleName(), parts);
+				}
+				add(parts, preset.getPartNo(), preset);
+				add(byPreferenceKey, preset.preferenceKey(), preset);
+			}
+			logger.debug("Indexed " + presets.size() + " component presets");
+		}
+
+		private static <K> void add( Map<K, List<ComponentPreset>> map, K key, ComponentPreset preset ) {
+			List<ComponentPreset> presets = map.get(key);
+			if ( presets == null ) {
+				presets = new ArrayList<ComponentPreset>();
+				map.put(key, presets);
+			}
+			presets.add(preset);
+		}
+
+		List<ComponentPreset> forType( ComponentPreset.Type type ) {
+			return nonNull(byType.get(type));
+		}
+
+		List<ComponentPreset> forPart( String manufacturer, String partNo ) {
+			Map<String, List<ComponentPreset>> parts = byPart.get(manufacturer);
+			return parts == null ? Collections.<ComponentPreset> emptyList() : nonNull(parts.get(partNo));
+		}
+
+		List<ComponentPreset> forPreferenceKey( String key ) {
+			return nonNull(byPreferenceKey.get(key));
+		}
+
+		/**
+		 * Sort presets from different index lists into database order.
+		 */
+		void sort( List<ComponentPreset> presets ) {
+			if ( presets.size() > 1 ) {
+				Collections.sort(presets, order);
+			}
+		}
+
+		private static List<ComponentPreset> nonNull( List<ComponentPreset> presets ) {
+			return presets == null ? Collections.<ComponentPreset> emptyList() : presets;
+		}
+	}
+
 }
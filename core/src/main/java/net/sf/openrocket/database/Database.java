@@ -2,6 +2,7 @@ package net.sf.openrocket.database;
 
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -56,6 +57,56 @@ public class Database<T extends Comparable<T>> extends AbstractSet<T> {
 		return true;
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The elements are sorted once instead of being inserted one at a time, and a
+	 * single add event is fired for all the elements added.
+	 */
+	@Override
+	public boolean addAll(Collection<? extends T> elements) {
+		List<T> sorted = new ArrayList<T>(elements);
+		Collections.sort(sorted);
+		
+		List<T> added = new ArrayList<T>(sorted.size());
+		for (T element : sorted) {
+			if (!containsSorted(list, element) && !containsSorted(added, element)) {
+				added.add(element);
+			}
+		}
+		if (added.isEmpty()) {
+			return false;
+		}
+		
+		// Merging two sorted runs is linear
+		list.addAll(added);
+		Collections.sort(list);
+		fireAddEvent(added);
+		return true;
+	}
+	
+	/**
+	 * Return whether a list sorted in natural order contains the element.
+	 */
+	private static <T extends Comparable<T>> boolean containsSorted(List<T> sorted, T element) {
+		int index = Collections.binarySearch(sorted, element);
+		if (index < 0) {
+			return false;
+		}
+		// Check all elements that compare equal to the element
+		for (int i = index; i >= 0 && sorted.get(i).compareTo(element) == 0; i--) {
+			if (sorted.get(i).equals(element)) {
+				return true;
+			}
+		}
+		for (int i = index + 1; i < sorted.size() && sorted.get(i).compareTo(element) == 0; i++) {
+			if (sorted.get(i).equals(element)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	
 	/**
 	 * Get the element with the specified index.
@@ -105,6 +156,18 @@ public class Database<T extends Comparable<T>> extends AbstractSet<T> {
 		}
 	}
 	
+	/**
+	 * wake up call for database listeners for when several elements are added at once
+	 * @param elements	the elements added
+	 */
+	@SuppressWarnings("unchecked")
+	protected void fireAddEvent(Collection<T> elements) {
+		Object[] array = listeners.toArray();
+		for (Object l : array) {
+			((DatabaseListener<T>) l).elementsAdded(elements, this);
+		}
+	}
+	
 	/**
 	 * wake up call for database listeners when elements are removed
 	 * @param element	the removed element
@@ -1,5 +1,7 @@
 package net.sf.openrocket.database;
 
+import java.util.Collection;
+
 /**
  * interface defining listeners for database
  *
@@ -14,6 +16,18 @@ public interface DatabaseListener<T extends Comparable<T>> {
 	 */
 	public void elementAdded(T element, Database<T> source);
 	
+	/**
+	 * action for when several elements are added at once.  By default calls
+	 * {@link #elementAdded(Comparable, Database)} for each element.
+	 * @param elements	the elements added
+	 * @param source	the database of which the elements were added
+	 */
+	public default void elementsAdded(Collection<T> elements, Database<T> source) {
+		for (T element : elements) {
+			elementAdded(element, source);
+		}
+	}
+	
 	/**
 	 * action for when elements are removed
 	 * @param element	the removed element
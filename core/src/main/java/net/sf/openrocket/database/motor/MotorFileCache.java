@@ -0,0 +1,155 @@
+package net.sf.openrocket.database.motor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.openrocket.file.motor.MotorDatabaseFile;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.util.PersistentCache;
+
+/**
+ * A persistent cache of the motors parsed from thrust curve files.  The entries are
+ * keyed by the absolute path, size and modification time of the file, so a file that
+ * has not changed since it was cached does not need to be parsed again.
+ * <p>
+ * The cache file contains an index of the cached files followed by the motors of all
+ * the files in the {@link MotorDatabaseFile} format.  Only the files that were looked
+ * up or added since the cache was loaded are saved, so files that no longer exist are
+ * dropped from the cache.  A cache file that cannot be read is ignored.
+ * <p>
+ * This class is thread-safe.
+ */
+public class MotorFileCache extends PersistentCache {
+
+	/** The magic number at the start of the cache file, "ORMC". */
+	private static final int MAGIC = 0x4F524D43;
+	private static final int VERSION = 1;
+
+	// The entries read from the cache file
+	private final Map<String, Entry> cached = new LinkedHashMap<String, Entry>();
+	// The entries to save
+	private final Map<String, Entry> used = new LinkedHashMap<String, Entry>();
+
+	/**
+	 * Sole constructor.  The cache is empty until {@link #load()} is called.
+	 *
+	 * @param cacheFile		the file the cache is stored in.
+	 */
+	public MotorFileCache(File cacheFile) {
+		super(cacheFile, MAGIC, VERSION, "motor cache");
+	}
+
+
+	@Override
+	protected void clearEntries() {
+		cached.clear();
+	}
+
+
+	@Override
+	protected int readEntries(DataInputStream in) throws IOException {
+		List<Entry> entries = new ArrayList<Entry>();
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			entries.add(new Entry(in.readUTF(), in.readLong(), in.readLong(), in.readInt()));
+		}
+		List<ThrustCurveMotor> motors = MotorDatabaseFile.readMotors(MotorDatabaseFile.read(in));
+
+		int position = 0;
+		for (Entry e : entries) {
+			if (e.motorCount < 0 || position + e.motorCount > motors.size()) {
+				throw new IOException("Invalid motor count " + e.motorCount + " of " + e.path);
+			}
+			e.motors = Collections.unmodifiableList(motors.subList(position, position + e.motorCount));
+			position += e.motorCount;
+			cached.put(e.path, e);
+		}
+		return cached.size();
+	}
+
+
+	/**
+	 * Return the cached motors of a file, or <code>null</code> if the file is not cached
+	 * or has changed since it was cached.
+	 *
+	 * @param file	the thrust curve file.
+	 * @return		the motors of the file, or <code>null</code>.
+	 */
+	public synchronized List<ThrustCurveMotor> get(File file) {
+		String path = file.getAbsolutePath();
+		Entry e = cached.get(path);
+		if (e == null || e.length != file.length() || e.lastModified != file.lastModified()) {
+			return null;
+		}
+		used.put(path, e);
+		return e.motors;
+	}
+
+
+	/**
+	 * Add the motors parsed from a file to the cache.  The size and modification time of
+	 * the file must be obtained before parsing it, so that a file modified while it was
+	 * being parsed is parsed again the next time.
+	 *
+	 * @param file			the thrust curve file.
+	 * @param length		the size of the file before it was parsed.
+	 * @param lastModified	the modification time of the file before it was parsed.
+	 * @param motors		the motors parsed from the file.
+	 */
+	public synchronized void put(File file, long length, long lastModified, List<ThrustCurveMotor> motors) {
+		Entry e = new Entry(file.getAbsolutePath(), length, lastModified, motors.size());
+		e.motors = new ArrayList<ThrustCurveMotor>(motors);
+		used.put(e.path, e);
+		setModified();
+	}
+
+
+	/**
+	 * Return whether files have been added, or files were not looked up since loading
+	 * and have to be dropped from the cache file.
+	 */
+	@Override
+	protected boolean needsSave() {
+		return super.needsSave() || used.size() != cached.size();
+	}
+
+
+	@Override
+	protected int writeEntries(DataOutputStream out) throws IOException {
+		List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>();
+		out.writeInt(used.size());
+		for (Entry e : used.values()) {
+			out.writeUTF(e.path);
+			out.writeLong(e.length);
+			out.writeLong(e.lastModified);
+			out.writeInt(e.motorCount);
+			motors.addAll(e.motors);
+		}
+		MotorDatabaseFile.write(motors, out);
+		return used.size();
+	}
+
+
+	private static class Entry {
+		private final String path;
+		private final long length;
+		private final long lastModified;
+		private final int motorCount;
+		private List<ThrustCurveMotor> motors;
+
+		private Entry(String path, long length, long lastModified, int motorCount) {
+			this.path = path;
+			this.length = length;
+			this.lastModified = lastModified;
+			this.motorCount = motorCount;
+		}
+	}
+
+}
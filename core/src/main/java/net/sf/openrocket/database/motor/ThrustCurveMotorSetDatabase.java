@@ -2,25 +2,61 @@ package net.sf.openrocket.database.motor;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sf.openrocket.motor.Manufacturer;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 
 /**
  * A database containing ThrustCurveMotorSet objects and allowing adding a motor
  * to the database.
+ * <p>
+ * The motor sets are indexed by common name, designation, digest, manufacturer, type,
+ * diameter and length, so that adding motors and searching for them does not scale
+ * with the size of the database.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	private static final Logger log = LoggerFactory.getLogger(ThrustCurveMotorSetDatabase.class);
 	
+	/** The tolerance of diameter and length matches in {@link #findMotors}. */
+	private static final double DIMENSION_TOLERANCE = 0.005;
+	
 	private final List<ThrustCurveMotorSet> motorSets = new ArrayList<ThrustCurveMotorSet>();
 	
+	// The position of each set in motorSets, used to return search results in database order
+	private final Map<ThrustCurveMotorSet, Integer> setOrder = new IdentityHashMap<ThrustCurveMotorSet, Integer>();
+	
+	// Sets by lower case common name, in creation order
+	private final Map<String, List<ThrustCurveMotorSet>> commonNameIndex = new HashMap<String, List<ThrustCurveMotorSet>>();
+	// Sets by lower case designation and common name of any of their motors
+	private final Map<String, List<ThrustCurveMotorSet>> designationIndex = new HashMap<String, List<ThrustCurveMotorSet>>();
+	// Sets by the digest of any of their motors
+	private final Map<String, List<ThrustCurveMotorSet>> digestIndex = new HashMap<String, List<ThrustCurveMotorSet>>();
+	private final Map<Manufacturer, List<ThrustCurveMotorSet>> manufacturerIndex = new HashMap<Manufacturer, List<ThrustCurveMotorSet>>();
+	private final Map<Motor.Type, List<ThrustCurveMotorSet>> typeIndex = new HashMap<Motor.Type, List<ThrustCurveMotorSet>>();
+	private final NavigableMap<Double, List<ThrustCurveMotorSet>> diameterIndex = new TreeMap<Double, List<ThrustCurveMotorSet>>();
+	private final NavigableMap<Double, List<ThrustCurveMotorSet>> lengthIndex = new TreeMap<Double, List<ThrustCurveMotorSet>>();
+	
+	private final Comparator<ThrustCurveMotorSet> orderComparator = new Comparator<ThrustCurveMotorSet>() {
+		@Override
+		public int compare(ThrustCurveMotorSet o1, ThrustCurveMotorSet o2) {
+			return setOrder.get(o1) - setOrder.get(o2);
+		}
+	};
+	
 	@Override
 	public List<ThrustCurveMotor> findMotors(String digest, Motor.Type type, String manufacturer, String designation,
 			double diameter, double length) {
@@ -30,37 +66,17 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 
 		// Apply filters to see if we can find any motors that match the given criteria.  We'll return
 		// the most restrictive nonempty list we find, or empty list if no matches at all
-		for (ThrustCurveMotorSet set : motorSets) {
-			for (ThrustCurveMotor m : set.getMotors()) {
-				boolean matchDescription = true;
-				boolean matchDigest = true;
-
-				// unlike the description, digest must be present in search criteria to get a match
-				if (digest == null || digest != m.getDigest())
-					matchDigest = false;
-
-				// match description
-				if (type != null && type != set.getType())
-					matchDescription = false;
-				else if (manufacturer != null && !m.getManufacturer().matches(manufacturer))
-					matchDescription = false;
-				else if (designation != null &&
-						 !designation.equalsIgnoreCase(m.getDesignation()) &&
-						 !designation.equalsIgnoreCase(m.getCommonName()))
-					matchDescription = false;
-				else if (!Double.isNaN(diameter) && (Math.abs(diameter - m.getDiameter()) > 0.005))
-					matchDescription = false;
-				else if (!Double.isNaN(length) && (Math.abs(length - m.getLength()) > 0.005))
-					matchDescription = false;
 
-				if (matchDigest)
-					digestMatches.add(m);
-
-				if (matchDescription)
-					descriptionMatches.add(m);
-
-				if (matchDigest && matchDescription)
-					fullMatches.add(m);
+		// unlike the description, digest must be present in search criteria to get a match
+		if (digest != null) {
+			for (ThrustCurveMotorSet set : sortedSets(digestIndex.get(digest))) {
+				for (ThrustCurveMotor m : set.getMotors()) {
+					if (digest.equals(m.getDigest())) {
+						digestMatches.add(m);
+						if (matchesDescription(set, m, type, manufacturer, designation, diameter, length))
+							fullMatches.add(m);
+					}
+				}
 			}
 		}
 		
@@ -70,11 +86,106 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 		if (!digestMatches.isEmpty())
 			return digestMatches;
 
+		for (ThrustCurveMotorSet set : findCandidateSets(type, manufacturer, designation, diameter, length)) {
+			for (ThrustCurveMotor m : set.getMotors()) {
+				if (matchesDescription(set, m, type, manufacturer, designation, diameter, length))
+					descriptionMatches.add(m);
+			}
+		}
 		return descriptionMatches;
 
 	}
 	
 	
+	/**
+	 * Check whether a motor matches the description search criteria of {@link #findMotors}.
+	 * Criteria that are <code>null</code> or NaN match any motor.
+	 */
+	private static boolean matchesDescription(ThrustCurveMotorSet set, ThrustCurveMotor m, Motor.Type type,
+			String manufacturer, String designation, double diameter, double length) {
+		if (type != null && type != set.getType())
+			return false;
+		if (manufacturer != null && !m.getManufacturer().matches(manufacturer))
+			return false;
+		if (designation != null &&
+				!designation.equalsIgnoreCase(m.getDesignation()) &&
+				!designation.equalsIgnoreCase(m.getCommonName()))
+			return false;
+		if (!Double.isNaN(diameter) && (Math.abs(diameter - m.getDiameter()) > DIMENSION_TOLERANCE))
+			return false;
+		if (!Double.isNaN(length) && (Math.abs(length - m.getLength()) > DIMENSION_TOLERANCE))
+			return false;
+		return true;
+	}
+	
+	
+	/**
+	 * Return the motor sets that may contain motors matching the description search criteria,
+	 * in database order.  The smallest of the indexed candidate lists is used; the diameter
+	 * and length ranges are only used if none of the other criteria is given.
+	 */
+	private List<ThrustCurveMotorSet> findCandidateSets(Motor.Type type, String manufacturer, String designation,
+			double diameter, double length) {
+		List<ThrustCurveMotorSet> candidates = null;
+		
+		if (designation != null) {
+			candidates = smaller(candidates, designationIndex.get(designation.toLowerCase(Locale.ENGLISH)));
+		}
+		if (manufacturer != null) {
+			List<ThrustCurveMotorSet> list = new ArrayList<ThrustCurveMotorSet>();
+			for (Map.Entry<Manufacturer, List<ThrustCurveMotorSet>> entry : manufacturerIndex.entrySet()) {
+				if (entry.getKey().matches(manufacturer)) {
+					list.addAll(entry.getValue());
+				}
+			}
+			candidates = smaller(candidates, list);
+		}
+		if (type != null) {
+			candidates = smaller(candidates, typeIndex.get(type));
+		}
+		
+		if (candidates == null && !Double.isNaN(diameter)) {
+			candidates = findRange(diameterIndex, diameter);
+		}
+		if (candidates == null && !Double.isNaN(length)) {
+			candidates = findRange(lengthIndex, length);
+		}
+		
+		if (candidates == null) {
+			return motorSets;
+		}
+		return sortedSets(candidates);
+	}
+	
+	private static List<ThrustCurveMotorSet> smaller(List<ThrustCurveMotorSet> current, List<ThrustCurveMotorSet> list) {
+		if (list == null) {
+			return Collections.emptyList();
+		}
+		if (current == null || list.size() < current.size()) {
+			return list;
+		}
+		return current;
+	}
+	
+	private static List<ThrustCurveMotorSet> findRange(NavigableMap<Double, List<ThrustCurveMotorSet>> index, double value) {
+		List<ThrustCurveMotorSet> list = new ArrayList<ThrustCurveMotorSet>();
+		for (List<ThrustCurveMotorSet> sets : index.subMap(value - DIMENSION_TOLERANCE, true,
+				value + DIMENSION_TOLERANCE, true).values()) {
+			list.addAll(sets);
+		}
+		return list;
+	}
+	
+	private List<ThrustCurveMotorSet> sortedSets(List<ThrustCurveMotorSet> sets) {
+		if (sets == null || sets.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<ThrustCurveMotorSet> sorted = new ArrayList<ThrustCurveMotorSet>(sets);
+		Collections.sort(sorted, orderComparator);
+		return sorted;
+	}
+	
+	
 	/**
 	 * Return a list of all ThrustCurveMotorSets.
 	 */
@@ -91,18 +202,69 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	 * @param motor		the motor to add
 	 */
 	public void addMotor(ThrustCurveMotor motor) {
-		// Iterate from last to first, as this is most likely to hit early when loading files
-		for (int i = motorSets.size() - 1; i >= 0; i--) {
-			ThrustCurveMotorSet set = motorSets.get(i);
-			if (set.matches(motor)) {
-				set.addMotor(motor);
-				return;
+		// Only sets with the same common name can match.  Iterate from last to first,
+		// as this is most likely to hit early when loading files.
+		List<ThrustCurveMotorSet> sameName = commonNameIndex.get(motor.getCommonName().toLowerCase(Locale.ENGLISH));
+		if (sameName != null) {
+			for (int i = sameName.size() - 1; i >= 0; i--) {
+				ThrustCurveMotorSet set = sameName.get(i);
+				if (set.matches(motor)) {
+					Motor.Type oldType = set.getType();
+					set.addMotor(motor);
+					if (set.getType() != oldType) {
+						typeIndex.get(oldType).remove(set);
+						addToIndex(typeIndex, set.getType(), set);
+					}
+					indexMotor(set, motor);
+					return;
+				}
 			}
 		}
 		
 		ThrustCurveMotorSet newSet = new ThrustCurveMotorSet();
 		newSet.addMotor(motor);
+		setOrder.put(newSet, motorSets.size());
 		motorSets.add(newSet);
+		
+		addToIndex(commonNameIndex, newSet.getCommonName().toLowerCase(Locale.ENGLISH), newSet);
+		addToIndex(manufacturerIndex, newSet.getManufacturer(), newSet);
+		addToIndex(typeIndex, newSet.getType(), newSet);
+		addToIndex(diameterIndex, newSet.getDiameter(), newSet);
+		addToIndex(lengthIndex, newSet.getLength(), newSet);
+		indexMotor(newSet, motor);
+	}
+	
+	/**
+	 * Add the per-motor keys of a motor added to a set to the indexes.
+	 */
+	private void indexMotor(ThrustCurveMotorSet set, ThrustCurveMotor motor) {
+		addToIndexIfAbsent(designationIndex, motor.getDesignation().toLowerCase(Locale.ENGLISH), set);
+		addToIndexIfAbsent(designationIndex, motor.getCommonName().toLowerCase(Locale.ENGLISH), set);
+		addToIndexIfAbsent(digestIndex, motor.getDigest(), set);
+	}
+	
+	private static <K> void addToIndex(Map<K, List<ThrustCurveMotorSet>> index, K key, ThrustCurveMotorSet set) {
+		List<ThrustCurveMotorSet> list = index.get(key);
+		if (list == null) {
+			list = new ArrayList<ThrustCurveMotorSet>(2);
+			index.put(key, list);
+		}
+		list.add(set);
+	}
+	
+	private static <K> void addToIndexIfAbsent(Map<K, List<ThrustCurveMotorSet>> index, K key, ThrustCurveMotorSet set) {
+		List<ThrustCurveMotorSet> list = index.get(key);
+		if (list == null) {
+			list = new ArrayList<ThrustCurveMotorSet>(2);
+			index.put(key, list);
+		}
+		// The sets of a key are few, and a set is usually the last one added to the key
+		for (int i = list.size() - 1; i >= 0; i--) {
+			if (list.get(i) == set) {
+				return;
+			}
+		}
+		list.add(set);
 	}
 	
 }
@@ -64,9 +64,10 @@ public class OpenRocketDocument implements ComponentChangeListener {
 	
 	/** 
 	 * The undo history of the rocket.   Whenever a new undo position is created while the
-	 * rocket is in "dirty" state, the rocket is copied here.
+	 * rocket is in "dirty" state, a snapshot of the rocket is stored here.  The snapshots
+	 * share the copies of the components that have not been modified in between.
 	 */
-	private final LinkedList<Rocket> undoHistory = new LinkedList<Rocket>();
+	private final LinkedList<RocketSnapshot> undoHistory = new LinkedList<RocketSnapshot>();
 	private final LinkedList<String> undoDescription = new LinkedList<String>();
 	
 	/**
@@ -82,6 +83,15 @@ public class OpenRocketDocument implements ComponentChangeListener {
 	private String nextDescription = null;
 	private String storedDescription = null;
 	
+	/**
+	 * The snapshot the rocket was equal to when the modified components were last
+	 * reset, and the IDs of the components modified since then.  If the modifications
+	 * cannot be tracked by component, the next snapshot copies the whole rocket.
+	 */
+	private RocketSnapshot trackedSnapshot = null;
+	private final Set<String> modifiedComponents = new HashSet<String>();
+	private boolean untrackedModification = false;
+	
 	
 	private final ArrayList<UndoRedoListener> undoRedoListeners = new ArrayList<UndoRedoListener>(2);
 	
@@ -518,7 +528,7 @@ public class OpenRocketDocument implements ComponentChangeListener {
 	 */
 	private void addStateToUndoHistory(String description) {
 		// Add the current state to the undo history
-		undoHistory.add(rocket.copyWithOriginalID());
+		undoHistory.add(takeSnapshot());
 		undoDescription.add(null);
 		nextDescription = description;
 		undoPosition++;
@@ -607,7 +617,7 @@ public class OpenRocketDocument implements ComponentChangeListener {
 		undoHistory.clear();
 		undoDescription.clear();
 		
-		undoHistory.add(rocket.copyWithOriginalID());
+		undoHistory.add(takeSnapshot(null));
 		undoDescription.add(null);
 		undoPosition = 0;
 		
@@ -619,6 +629,7 @@ public class OpenRocketDocument implements ComponentChangeListener {
 	public void componentChanged(ComponentChangeEvent e) {
 		
 		if (!e.isUndoChange()) {
+			trackModification(e);
 			if (undoPosition < undoHistory.size() - 1) {
 				log.info("Rocket changed while in undo history, removing redo information for " + this +
 						" undoPosition=" + undoPosition + " undoHistory.size=" + undoHistory.size() +
@@ -722,12 +733,12 @@ public class OpenRocketDocument implements ComponentChangeListener {
 				logUndoError("undo position inconsistency");
 			}
 			// Modifications have been made, save the state and restore previous state
-			undoHistory.add(rocket.copyWithOriginalID());
+			undoHistory.add(takeSnapshot());
 			undoDescription.add(null);
 		}
 		
 		rocket.checkComponentStructure();
-		rocket.loadFrom(undoHistory.get(undoPosition));
+		loadSnapshot(undoHistory.get(undoPosition));
 		rocket.checkComponentStructure();
 	}
 	
@@ -749,7 +760,7 @@ public class OpenRocketDocument implements ComponentChangeListener {
 		
 		undoPosition++;
 		
-		rocket.loadFrom(undoHistory.get(undoPosition).copyWithOriginalID());
+		loadSnapshot(undoHistory.get(undoPosition));
 	}
 	
 	
@@ -758,6 +769,60 @@ public class OpenRocketDocument implements ComponentChangeListener {
 	}
 	
 	
+	/**
+	 * Record the component modified by a (non-undo) change event.  Changes of the
+	 * tree structure, changes fired by the rocket itself and the events merged when
+	 * the rocket is thawed may affect any component, so they cause the next snapshot
+	 * to copy the whole rocket.
+	 */
+	private void trackModification(ComponentChangeEvent e) {
+		Object source = e.getSource();
+		if (e.isTreeChange() || e.isMerged() || !(source instanceof RocketComponent) || source instanceof Rocket) {
+			untrackedModification = true;
+		} else {
+			modifiedComponents.add(((RocketComponent) source).getID());
+		}
+	}
+	
+	/**
+	 * Take a snapshot of the current rocket, sharing the unmodified components
+	 * with the previous snapshot.
+	 */
+	private RocketSnapshot takeSnapshot() {
+		if (untrackedModification) {
+			return takeSnapshot(null);
+		}
+		return takeSnapshot(trackedSnapshot);
+	}
+	
+	private RocketSnapshot takeSnapshot(RocketSnapshot base) {
+		RocketSnapshot snapshot;
+		if (base == null) {
+			snapshot = RocketSnapshot.of(rocket);
+		} else {
+			snapshot = base.derive(rocket, modifiedComponents);
+		}
+		log.debug("Took undo snapshot, copied " + snapshot.getCopiedComponentCount() + " of " +
+				snapshot.getComponentCount() + " components");
+		resetTracking(snapshot);
+		return snapshot;
+	}
+	
+	/**
+	 * Load the state of a snapshot into the rocket.
+	 */
+	private void loadSnapshot(RocketSnapshot snapshot) {
+		resetTracking(snapshot);
+		rocket.loadFrom(snapshot.toRocket());
+	}
+	
+	private void resetTracking(RocketSnapshot snapshot) {
+		trackedSnapshot = snapshot;
+		modifiedComponents.clear();
+		untrackedModification = false;
+	}
+	
+	
 	/**
 	 * Log a non-fatal undo/redo error or inconsistency.  Reports it to the user the first 
 	 * time it occurs, but not on subsequent times.  Logs automatically the undo system state.
@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 
 import net.sf.openrocket.aerodynamics.AerodynamicCalculator;
 import net.sf.openrocket.aerodynamics.BarrowmanCalculator;
+import net.sf.openrocket.aerodynamics.TabulatedAerodynamicCalculator;
 import net.sf.openrocket.aerodynamics.WarningSet;
 import net.sf.openrocket.formatting.RocketDescriptor;
 import net.sf.openrocket.masscalc.MassCalculator;
@@ -98,6 +99,7 @@ public class Simulation implements ChangeSource, Cloneable {
 	private String simulatedConfigurationDescription = null;
 	private FlightData simulatedData = null;
 	private int simulatedRocketID = -1;
+	private TabulatedAerodynamicCalculator.ErrorReport aerodynamicErrorReport = null;
 	
 	
 	/**
@@ -378,6 +380,11 @@ public class Simulation implements ChangeSource, Cloneable {
 			simulatedConditions = options.clone();
 			simulatedConfigurationDescription = descriptor.format( this.rocket, getId());
 			simulatedRocketID = rocket.getFunctionalModID();
+			aerodynamicErrorReport = null;
+			if (simulationConditions.getAerodynamicCalculator() instanceof TabulatedAerodynamicCalculator) {
+				aerodynamicErrorReport = ((TabulatedAerodynamicCalculator) simulationConditions.getAerodynamicCalculator()).getErrorReport();
+				log.debug("Simulation: aerodynamic tables " + aerodynamicErrorReport);
+			}
 			
 			status = Status.UPTODATE;
 			fireChangeEvent();
@@ -398,6 +405,20 @@ public class Simulation implements ChangeSource, Cloneable {
 		return simulatedConditions;
 	}
 	
+	
+	/**
+	 * Return the interpolation errors and table usage of the aerodynamic coefficient
+	 * tables in the previous simulation, or <code>null</code> if the previous simulation
+	 * did not use the tables or this simulation has not been run in this session.
+	 *
+	 * @return	the error report of the previous simulation, or <code>null</code>.
+	 * @see SimulationOptions#setAerodynamicErrorSampleInterval(int)
+	 */
+	public TabulatedAerodynamicCalculator.ErrorReport getAerodynamicErrorReport() {
+		mutex.verify();
+		return aerodynamicErrorReport;
+	}
+	
 	/**
 	 * Return the warnings generated in the previous simulation, or
 	 * <code>null</code> if this simulation has not been run.  This is the same
@@ -478,6 +499,7 @@ public class Simulation implements ChangeSource, Cloneable {
 			copy.simulatedConfigurationDescription = null;
 			copy.simulatedData = null;
 			copy.simulatedRocketID = -1;
+			copy.aerodynamicErrorReport = null;
 			
 			return copy;
 			
@@ -1,10 +1,13 @@
 package net.sf.openrocket.document.attachments;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import net.sf.openrocket.document.Attachment;
@@ -24,6 +27,29 @@ public class ZipFileAttachment extends Attachment {
 	public InputStream getBytes() throws DecalNotFoundException, IOException {
 		String name = getName();
 		
+		// Read local files using random access instead of scanning through the entries
+		if ("file".equals(zipFileLocation.getProtocol())) {
+			File file;
+			try {
+				file = new File(zipFileLocation.toURI());
+			} catch (URISyntaxException | IllegalArgumentException e) {
+				file = null;
+			}
+			if (file != null) {
+				ZipFile zipFile = new ZipFile(file);
+				try {
+					ZipEntry entry = zipFile.getEntry(name);
+					if (entry == null) {
+						throw new DecalNotFoundException(name, null);
+					}
+					byte[] bytes = FileUtils.readBytes(zipFile.getInputStream(entry));
+					return new ByteArrayInputStream(bytes);
+				} finally {
+					zipFile.close();
+				}
+			}
+		}
+		
 		ZipInputStream zis = new ZipInputStream(zipFileLocation.openStream());
 		
 		try {
@@ -3,8 +3,8 @@ package net.sf.openrocket.file;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.DoubleBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -99,13 +99,13 @@ public class CSVExport {
 		int eventPosition = 0;
 
 		// List of field values
-		List<List<Double>> fieldValues = new ArrayList<List<Double>>();
-		for (FlightDataType t : fields) {
-			fieldValues.add(branch.get(t));
+		DoubleBuffer[] fieldValues = new DoubleBuffer[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			fieldValues[i] = branch.getBuffer(fields[i]);
 		}
 
 		// Time variable
-		List<Double> time = branch.get(FlightDataType.TYPE_TIME);
+		DoubleBuffer time = branch.getBuffer(FlightDataType.TYPE_TIME);
 		if (eventComments && time == null) {
 			// If time information is not available, print events at beginning of file
 			for (FlightEvent e : events) {
@@ -131,7 +131,7 @@ public class CSVExport {
 
 			// Store CSV line
 			for (int i = 0; i < fields.length; i++) {
-				double value = fieldValues.get(i).get(pos);
+				double value = fieldValues[i].get(pos);
 				writer.print(TextUtil.doubleToString(units[i].toUnit(value)));
 				if (i < fields.length - 1) {
 					writer.print(fieldSeparator);
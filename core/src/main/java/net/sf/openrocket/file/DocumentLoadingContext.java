@@ -8,6 +8,8 @@ public class DocumentLoadingContext {
 	private MotorFinder motorFinder;
 	private AttachmentFactory attachmentFactory = new FileSystemAttachmentFactory();
 	private OpenRocketDocument document;
+	private boolean loadFlightDataOnDemand = true;
+	private double minimumTimeStep = Double.POSITIVE_INFINITY;
 	
 	public int getFileVersion() {
 		return fileVersion;
@@ -41,4 +43,31 @@ public class DocumentLoadingContext {
 		this.attachmentFactory = attachmentFactory;
 	}
 	
+	/**
+	 * Return whether the data points of stored simulations are parsed only when the
+	 * simulation data is first accessed.  The summary values of the simulations are
+	 * available immediately in either case.
+	 */
+	public boolean isLoadFlightDataOnDemand() {
+		return loadFlightDataOnDemand;
+	}
+	
+	public void setLoadFlightDataOnDemand(boolean loadFlightDataOnDemand) {
+		this.loadFlightDataOnDemand = loadFlightDataOnDemand;
+	}
+	
+	/**
+	 * Return the smallest time step found in the stored flight data that is loaded on
+	 * demand, or {@link Double#POSITIVE_INFINITY} if no such data has been found.
+	 */
+	public double getMinimumTimeStep() {
+		return minimumTimeStep;
+	}
+	
+	public void updateMinimumTimeStep(double timeStep) {
+		if (timeStep < minimumTimeStep) {
+			minimumTimeStep = timeStep;
+		}
+	}
+	
 }
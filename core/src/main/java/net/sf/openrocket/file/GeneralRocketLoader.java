@@ -49,6 +49,7 @@ public class GeneralRocketLoader {
 	
 	private final MotorFinder motorFinder;
 	private AttachmentFactory attachmentFactory;
+	private boolean loadFlightDataOnDemand = true;
 	private final OpenRocketDocument doc = OpenRocketDocumentFactory.createEmptyRocket();
 	
 	public GeneralRocketLoader(File file) {
@@ -103,6 +104,15 @@ public class GeneralRocketLoader {
 		return warnings;
 	}
 	
+	/**
+	 * Set whether the data points of stored simulations are parsed only when the
+	 * simulation data is first accessed (the default).  When loading on demand,
+	 * problems in the data points are logged instead of reported as warnings.
+	 */
+	public void setLoadFlightDataOnDemand(boolean loadFlightDataOnDemand) {
+		this.loadFlightDataOnDemand = loadFlightDataOnDemand;
+	}
+	
 	/**
 	 * This method determines the type file contained in the stream then calls the appropriate loading mecahnism.
 	 * 
@@ -237,6 +247,7 @@ public class GeneralRocketLoader {
 		context.setOpenRocketDocument(doc);
 		context.setMotorFinder(motorFinder);
 		context.setAttachmentFactory(attachmentFactory);
+		context.setLoadFlightDataOnDemand(loadFlightDataOnDemand);
 		loader.load(context, source);
 		warnings.addAll(loader.getWarnings());
 	}
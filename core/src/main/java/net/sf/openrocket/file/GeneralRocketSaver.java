@@ -7,8 +7,11 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -155,7 +158,7 @@ public class GeneralRocketSaver {
 		// which follows.
 		// TODO - add support for decals in ROCKSIM files?
 		if (options.getFileType() == FileType.ROCKSIM) {
-			saveInternal(output, document, options);
+			saveInternal(output, document, options, null);
 			output.close();
 			return;
 		}
@@ -196,7 +199,8 @@ public class GeneralRocketSaver {
 			
 			ZipEntry mainFile = new ZipEntry("rocket.ork");
 			zos.putNextEntry(mainFile);
-			saveInternal(zos, document, options);
+			Map<String, byte[]> dataEntries = new LinkedHashMap<String, byte[]>();
+			saveInternal(zos, document, options, dataEntries);
 			zos.closeEntry();
 			
 			// Now we write out all the decal images files.
@@ -219,6 +223,22 @@ public class GeneralRocketSaver {
 				zos.closeEntry();
 			}
 			
+			// Binary flight data is already compressed, store it as is.  The entries are
+			// written after the document, which older versions expect to be the first entry.
+			for (Map.Entry<String, byte[]> e : dataEntries.entrySet()) {
+				byte[] bytes = e.getValue();
+				CRC32 crc = new CRC32();
+				crc.update(bytes);
+				ZipEntry data = new ZipEntry(e.getKey());
+				data.setMethod(ZipEntry.STORED);
+				data.setSize(bytes.length);
+				data.setCompressedSize(bytes.length);
+				data.setCrc(crc.getValue());
+				zos.putNextEntry(data);
+				zos.write(bytes);
+				zos.closeEntry();
+			}
+			
 			zos.flush();
 		} finally {
 			zos.close();
@@ -229,13 +249,13 @@ public class GeneralRocketSaver {
 	
 	// package scope for testing.
 	
-	private void saveInternal(OutputStream output, OpenRocketDocument document, StorageOptions options)
-			throws IOException {
+	private void saveInternal(OutputStream output, OpenRocketDocument document, StorageOptions options,
+			Map<String, byte[]> dataEntries) throws IOException {
 		
 		if (options.getFileType() == StorageOptions.FileType.ROCKSIM) {
 			new RocksimSaver().save(output, document, options);
 		} else {
-			new OpenRocketSaver().save(output, document, options);
+			new OpenRocketSaver().save(output, document, options, dataEntries);
 		}
 	}
 	
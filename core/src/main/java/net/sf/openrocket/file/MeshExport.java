@@ -0,0 +1,215 @@
+package net.sf.openrocket.file;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import net.sf.openrocket.mesh.ComponentMesh;
+import net.sf.openrocket.mesh.Mesh;
+import net.sf.openrocket.mesh.MeshCache;
+import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.rocketcomponent.InstanceContext;
+import net.sf.openrocket.rocketcomponent.InstanceMap;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.Transformation;
+
+/**
+ * Exports the tessellated geometry of the active components of a flight
+ * configuration as STL or Wavefront OBJ files.  The coordinates are written in
+ * millimeters, with the x axis along the rocket axis.
+ */
+public class MeshExport {
+
+	/** Scale from the internal units (meters) to the units of the files (millimeters). */
+	private static final double SCALE = 1000;
+
+	private static final ComponentMesh.Surface[] SURFACES = {
+			ComponentMesh.Surface.OUTSIDE, ComponentMesh.Surface.EDGES, ComponentMesh.Surface.INSIDE };
+
+	/**
+	 * Export the active components of a configuration as a binary STL file.
+	 *
+	 * @param stream			the stream to write to.
+	 * @param configuration		the configuration to export.
+	 * @param cache				the cache providing the component meshes.
+	 * @throws IOException		if an I/O exception occurs.
+	 */
+	public static void exportSTL(OutputStream stream, FlightConfiguration configuration, MeshCache cache)
+			throws IOException {
+		List<Part> parts = getParts(configuration, cache);
+
+		long triangles = 0;
+		for (Part p : parts) {
+			triangles += p.mesh.getTriangleCount();
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(50 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+		byte[] header = new byte[80];
+		byte[] name = ("OpenRocket " + configuration.getRocket().getName()).getBytes(StandardCharsets.UTF_8);
+		System.arraycopy(name, 0, header, 0, Math.min(name.length, header.length));
+		buffer.put(header);
+		buffer.putInt((int) triangles);
+
+		for (Part p : parts) {
+			float[] v = p.transformVertices();
+			int[] indices = p.mesh.getIndices();
+			for (int i = 0; i < indices.length; i += 3) {
+				int a = indices[i] * 3, b = indices[i + 1] * 3, c = indices[i + 2] * 3;
+				double ux = v[b] - v[a], uy = v[b + 1] - v[a + 1], uz = v[b + 2] - v[a + 2];
+				double wx = v[c] - v[a], wy = v[c + 1] - v[a + 1], wz = v[c + 2] - v[a + 2];
+				double nx = uy * wz - uz * wy;
+				double ny = uz * wx - ux * wz;
+				double nz = ux * wy - uy * wx;
+				double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+				if (length > 0) {
+					nx /= length;
+					ny /= length;
+					nz /= length;
+				}
+
+				if (buffer.remaining() < 50) {
+					stream.write(buffer.array(), 0, buffer.position());
+					buffer.clear();
+				}
+				buffer.putFloat((float) nx).putFloat((float) ny).putFloat((float) nz);
+				buffer.putFloat(v[a]).putFloat(v[a + 1]).putFloat(v[a + 2]);
+				buffer.putFloat(v[b]).putFloat(v[b + 1]).putFloat(v[b + 2]);
+				buffer.putFloat(v[c]).putFloat(v[c + 1]).putFloat(v[c + 2]);
+				buffer.putShort((short) 0);
+			}
+		}
+		stream.write(buffer.array(), 0, buffer.position());
+		stream.flush();
+	}
+
+	/**
+	 * Export the active components of a configuration as a Wavefront OBJ file.
+	 * Each component instance is written as a separate object, including the
+	 * normals and texture coordinates.
+	 *
+	 * @param stream			the stream to write to.
+	 * @param configuration		the configuration to export.
+	 * @param cache				the cache providing the component meshes.
+	 * @throws IOException		if an I/O exception occurs.
+	 */
+	public static void exportOBJ(OutputStream stream, FlightConfiguration configuration, MeshCache cache)
+			throws IOException {
+		DecimalFormat format = new DecimalFormat("0.######", DecimalFormatSymbols.getInstance(Locale.ROOT));
+		Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+
+		writer.write("# OpenRocket " + configuration.getRocket().getName() + "\n");
+		writer.write("# Units: millimeters\n");
+
+		String object = null;
+		int offset = 1;
+		for (Part p : getParts(configuration, cache)) {
+			String name = p.getName();
+			if (!name.equals(object)) {
+				writer.write("o " + name + "\n");
+				object = name;
+			}
+
+			float[] v = p.transformVertices();
+			float[] n = p.transformNormals();
+			float[] t = p.mesh.getTextureCoordinates();
+			for (int i = 0; i < v.length; i += 3) {
+				writer.write("v " + format.format(v[i]) + " " + format.format(v[i + 1]) + " " + format.format(v[i + 2]) + "\n");
+			}
+			for (int i = 0; i < t.length; i += 2) {
+				writer.write("vt " + format.format(t[i]) + " " + format.format(t[i + 1]) + "\n");
+			}
+			for (int i = 0; i < n.length; i += 3) {
+				writer.write("vn " + format.format(n[i]) + " " + format.format(n[i + 1]) + " " + format.format(n[i + 2]) + "\n");
+			}
+
+			int[] indices = p.mesh.getIndices();
+			for (int i = 0; i < indices.length; i += 3) {
+				writer.write("f");
+				for (int j = 0; j < 3; j++) {
+					int index = indices[i + j] + offset;
+					writer.write(" " + index + "/" + index + "/" + index);
+				}
+				writer.write("\n");
+			}
+			offset += p.mesh.getVertexCount();
+		}
+		writer.flush();
+	}
+
+
+	/**
+	 * Return the meshes of the active component instances in component tree order.
+	 */
+	private static List<Part> getParts(FlightConfiguration configuration, MeshCache cache) {
+		InstanceMap instances = configuration.getActiveInstances();
+		List<Part> parts = new ArrayList<Part>();
+		for (RocketComponent c : configuration.getRocket()) {
+			List<InstanceContext> contexts = instances.get(c);
+			if (contexts == null || !cache.getTessellator().isSupported(c)) {
+				continue;
+			}
+			ComponentMesh mesh = cache.getMesh(c);
+			for (InstanceContext context : contexts) {
+				if (!context.active) {
+					continue;
+				}
+				for (ComponentMesh.Surface surface : SURFACES) {
+					Mesh m = mesh.getMesh(surface);
+					if (!m.isEmpty()) {
+						parts.add(new Part(context, m));
+					}
+				}
+			}
+		}
+		return parts;
+	}
+
+	private static final class Part {
+		private final InstanceContext context;
+		private final Mesh mesh;
+
+		private Part(InstanceContext context, Mesh mesh) {
+			this.context = context;
+			this.mesh = mesh;
+		}
+
+		private String getName() {
+			return (context.component.getName() + "_" + (context.instanceNumber + 1)).replaceAll("\\s+", "_");
+		}
+
+		private float[] transformVertices() {
+			Transformation transform = context.transform;
+			float[] v = mesh.getVertices().clone();
+			for (int i = 0; i < v.length; i += 3) {
+				Coordinate c = transform.transform(new Coordinate(v[i], v[i + 1], v[i + 2]));
+				v[i] = (float) (c.x * SCALE);
+				v[i + 1] = (float) (c.y * SCALE);
+				v[i + 2] = (float) (c.z * SCALE);
+			}
+			return v;
+		}
+
+		private float[] transformNormals() {
+			Transformation transform = context.transform;
+			float[] n = mesh.getNormals().clone();
+			for (int i = 0; i < n.length; i += 3) {
+				Coordinate c = transform.linearTransform(new Coordinate(n[i], n[i + 1], n[i + 2]));
+				n[i] = (float) c.x;
+				n[i + 1] = (float) c.y;
+				n[i + 2] = (float) c.z;
+			}
+			return n;
+		}
+	}
+}
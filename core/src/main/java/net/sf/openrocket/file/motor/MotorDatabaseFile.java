@@ -0,0 +1,366 @@
+package net.sf.openrocket.file.motor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.motor.ThrustCurveSource;
+import net.sf.openrocket.util.Coordinate;
+
+/**
+ * Reader and writer of the compact binary motor database format used for the built-in
+ * thrust curves.
+ * <p>
+ * The file starts with a header and a string table, followed by a fixed-size index
+ * record of the metadata of each motor.  The standard delays and the thrust curves of
+ * all motors are stored after the index as columns of doubles, one column for each of
+ * the time, thrust, CG x, y, z and mass values.  The motors read are built with the
+ * metadata only; the thrust curve of a motor is decoded from the buffer when the curve
+ * is first accessed.  A buffer mapped from a file is therefore only paged in for the
+ * motors that are actually used.
+ * <p>
+ * All values are big-endian.  The format version is increased on any incompatible
+ * change, and files of other versions are rejected.
+ */
+public final class MotorDatabaseFile {
+
+	/** The file extension of motor database files. */
+	public static final String EXTENSION = "motors";
+
+	/** The magic number at the start of the file, "ORMD". */
+	static final int MAGIC = 0x4F524D44;
+	/** The current format version. */
+	static final int VERSION = 1;
+
+	// 9 string indexes, availability, 7 doubles, delay and curve start and count
+	private static final int RECORD_SIZE = 9 * 4 + 1 + 7 * 8 + 4 * 4;
+	private static final int CURVE_COLUMNS = 6;
+
+	private MotorDatabaseFile() {
+	}
+
+
+	/**
+	 * Write motors in the motor database format.  The stream is not closed.
+	 *
+	 * @param motors	the motors to write.
+	 * @param os		the stream to write to.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public static void write(List<ThrustCurveMotor> motors, OutputStream os) throws IOException {
+		List<String> strings = new ArrayList<String>();
+		Map<String, Integer> stringIndex = new HashMap<String, Integer>();
+		int delayCount = 0;
+		int pointCount = 0;
+		for (ThrustCurveMotor m : motors) {
+			for (String s : getStrings(m)) {
+				if (!stringIndex.containsKey(s)) {
+					stringIndex.put(s, strings.size());
+					strings.add(s);
+				}
+			}
+			delayCount += m.getStandardDelays().length;
+			pointCount += m.getSampleSize();
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(motors.size());
+		out.writeInt(strings.size());
+		out.writeInt(delayCount);
+		out.writeInt(pointCount);
+
+		for (String s : strings) {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		int delayStart = 0;
+		int pointStart = 0;
+		for (ThrustCurveMotor m : motors) {
+			for (String s : getStrings(m)) {
+				out.writeInt(stringIndex.get(s));
+			}
+			out.writeBoolean(m.isAvailable());
+			out.writeDouble(m.getDiameter());
+			out.writeDouble(m.getLength());
+			out.writeDouble(m.getInitialMass());
+			out.writeDouble(m.getMaxThrustEstimate());
+			out.writeDouble(m.getBurnTimeEstimate());
+			out.writeDouble(m.getAverageThrustEstimate());
+			out.writeDouble(m.getTotalImpulseEstimate());
+			int delays = m.getStandardDelays().length;
+			int points = m.getSampleSize();
+			out.writeInt(delayStart);
+			out.writeInt(delays);
+			out.writeInt(pointStart);
+			out.writeInt(points);
+			delayStart += delays;
+			pointStart += points;
+		}
+
+		for (ThrustCurveMotor m : motors) {
+			for (double d : m.getStandardDelays()) {
+				out.writeDouble(d);
+			}
+		}
+		for (int column = 0; column < CURVE_COLUMNS; column++) {
+			for (ThrustCurveMotor m : motors) {
+				for (double d : getColumn(m, column)) {
+					out.writeDouble(d);
+				}
+			}
+		}
+		out.flush();
+	}
+
+	private static String[] getStrings(ThrustCurveMotor m) {
+		return new String[] {
+				m.getManufacturer().getDisplayName(),
+				m.getMotorType().name(),
+				m.getCode(),
+				m.getCommonName(),
+				m.getDesignation(),
+				m.getDescription(),
+				m.getDigest(),
+				nonNull(m.getCaseInfo()),
+				nonNull(m.getPropellantInfo())
+		};
+	}
+
+	private static String nonNull(String s) {
+		return (s == null) ? "" : s;
+	}
+
+	private static double[] getColumn(ThrustCurveMotor m, int column) {
+		switch (column) {
+		case 0:
+			return m.getTimePoints();
+		case 1:
+			return m.getThrustPoints();
+		default:
+			Coordinate[] cg = m.getCGPoints();
+			double[] values = new double[cg.length];
+			for (int i = 0; i < cg.length; i++) {
+				values[i] = getCoordinate(cg[i], column);
+			}
+			return values;
+		}
+	}
+
+	private static double getCoordinate(Coordinate c, int column) {
+		switch (column) {
+		case 2:
+			return c.x;
+		case 3:
+			return c.y;
+		case 4:
+			return c.z;
+		default:
+			return c.weight;
+		}
+	}
+
+
+	/**
+	 * Map a motor database file into memory.
+	 *
+	 * @param file	the file to map.
+	 * @return		a read-only buffer of the file contents.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public static ByteBuffer map(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/**
+	 * Read a motor database from a stream into a direct buffer, for files that cannot be
+	 * mapped, such as those within a JAR file.  The stream is not closed.
+	 *
+	 * @param is	the stream to read.
+	 * @return		a buffer of the stream contents.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public static ByteBuffer read(InputStream is) throws IOException {
+		byte[] bytes = is.readAllBytes();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes);
+		buffer.flip();
+		return buffer.asReadOnlyBuffer();
+	}
+
+
+	/**
+	 * Read the motors of a motor database.  The thrust curves of the motors refer to
+	 * the buffer, so the buffer must not be modified afterwards.
+	 *
+	 * @param buffer	the contents of the motor database, from position zero.
+	 * @return			the motors of the database.
+	 * @throws IOException	if the buffer does not contain a valid motor database of
+	 * 						the supported version.
+	 */
+	public static List<ThrustCurveMotor> readMotors(ByteBuffer buffer) throws IOException {
+		ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+		in.position(0);
+		try {
+			if (in.getInt() != MAGIC) {
+				throw new IOException("Not a motor database file");
+			}
+			int version = in.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported motor database version " + version);
+			}
+			int motorCount = in.getInt();
+			int stringCount = in.getInt();
+			int delayCount = in.getInt();
+			int pointCount = in.getInt();
+
+			String[] strings = new String[stringCount];
+			for (int i = 0; i < stringCount; i++) {
+				byte[] bytes = new byte[in.getInt()];
+				in.get(bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			int indexStart = in.position();
+			int delayBlock = indexStart + motorCount * RECORD_SIZE;
+			int curveBlock = delayBlock + delayCount * 8;
+			if (curveBlock + (long) CURVE_COLUMNS * pointCount * 8 > in.limit()) {
+				throw new IOException("Truncated motor database file");
+			}
+			Curves curves = new Curves(buffer.duplicate().order(ByteOrder.BIG_ENDIAN), curveBlock, pointCount);
+
+			// Manufacturer lookups are slow, so they are done once per name
+			Manufacturer[] manufacturers = new Manufacturer[stringCount];
+			
+			List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>(motorCount);
+			for (int i = 0; i < motorCount; i++) {
+				int manufacturer = in.getInt();
+				if (manufacturers[manufacturer] == null) {
+					manufacturers[manufacturer] = Manufacturer.getManufacturer(strings[manufacturer]);
+				}
+				ThrustCurveMotor.Builder builder = new ThrustCurveMotor.Builder()
+						.setManufacturer(manufacturers[manufacturer])
+						.setMotorType(Motor.Type.valueOf(strings[in.getInt()]))
+						.setCode(strings[in.getInt()])
+						.setCommonName(strings[in.getInt()])
+						.setDesignation(strings[in.getInt()])
+						.setDescription(strings[in.getInt()])
+						.setDigest(strings[in.getInt()])
+						.setCaseInfo(strings[in.getInt()])
+						.setPropellantInfo(strings[in.getInt()])
+						.setAvailability(in.get() != 0)
+						.setDiameter(in.getDouble())
+						.setLength(in.getDouble())
+						.setInitialMass(in.getDouble());
+				double maxThrust = in.getDouble();
+				double burnTime = in.getDouble();
+				double averageThrust = in.getDouble();
+				double totalImpulse = in.getDouble();
+
+				int delayStart = in.getInt();
+				double[] delays = new double[in.getInt()];
+				for (int j = 0; j < delays.length; j++) {
+					delays[j] = in.getDouble(delayBlock + (delayStart + j) * 8);
+				}
+				builder.setStandardDelays(delays);
+
+				int pointStart = in.getInt();
+				int points = in.getInt();
+				if (pointStart < 0 || points < 2 || pointStart + points > pointCount) {
+					throw new IOException("Invalid thrust curve of motor " + i);
+				}
+				builder.setThrustCurveSource(new CurveSource(curves, pointStart, points),
+						maxThrust, burnTime, averageThrust, totalImpulse);
+				motors.add(builder.build());
+			}
+			return motors;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("Invalid motor database file", e);
+		}
+	}
+
+	/**
+	 * The curve columns of a database.  Absolute reads of a shared buffer do not modify it,
+	 * so the curves may be decoded concurrently.
+	 */
+	private static class Curves {
+		private final ByteBuffer buffer;
+		private final int start;
+		private final int pointCount;
+
+		Curves(ByteBuffer buffer, int start, int pointCount) {
+			this.buffer = buffer;
+			this.start = start;
+			this.pointCount = pointCount;
+		}
+
+		double get(int column, int point) {
+			return buffer.getDouble(start + (column * pointCount + point) * 8);
+		}
+	}
+
+	/**
+	 * The thrust curve of a single motor within the curve columns.
+	 */
+	private static class CurveSource implements ThrustCurveSource {
+		private final Curves curves;
+		private final int start;
+		private final int count;
+
+		CurveSource(Curves curves, int start, int count) {
+			this.curves = curves;
+			this.start = start;
+			this.count = count;
+		}
+
+		@Override
+		public double[] getTimePoints() {
+			return getColumn(0);
+		}
+
+		@Override
+		public double[] getThrustPoints() {
+			return getColumn(1);
+		}
+
+		@Override
+		public Coordinate[] getCGPoints() {
+			Coordinate[] cg = new Coordinate[count];
+			for (int i = 0; i < count; i++) {
+				cg[i] = new Coordinate(curves.get(2, start + i), curves.get(3, start + i),
+						curves.get(4, start + i), curves.get(5, start + i));
+			}
+			return cg;
+		}
+
+		private double[] getColumn(int column) {
+			double[] values = new double[count];
+			for (int i = 0; i < count; i++) {
+				values[i] = curves.get(column, start + i);
+			}
+			return values;
+		}
+	}
+
+}
@@ -0,0 +1,254 @@
+package net.sf.openrocket.file.openrocket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary columnar storage of the data points of a flight data branch.  A block
+ * is stored as a separate entry of the .ork container and referenced from the
+ * <code>data</code> attribute of the <code>&lt;databranch&gt;</code> element.
+ * <p>
+ * The block starts with a header containing the number of columns and rows and the
+ * compressed length of each column, followed by the columns in the order of the
+ * branch types.  Each column is compressed separately, so a single column (such as
+ * the time) can be read without decompressing the others.
+ * <p>
+ * The values are rounded to 16 bits of mantissa, which is more precise than the
+ * five significant digits of the text format.  Each value is stored as the XOR of
+ * its bits with the bits of the previous value, so slowly changing values produce
+ * mostly zero bits, and the bytes are grouped by their significance before compression.
+ */
+public final class FlightDataBlock {
+
+	private static final int MAGIC = 0x4f524644; // "ORFD"
+	private static final int VERSION = 1;
+
+	/** The maximum number of bytes a deflated byte can inflate to. */
+	private static final int MAX_INFLATION = 1032;
+
+	private static final int DROPPED_BITS = 52 - 16;
+	private static final long DROPPED_MASK = (1L << DROPPED_BITS) - 1;
+
+	private FlightDataBlock() {
+	}
+
+
+	/**
+	 * Encode the selected rows of the given columns.
+	 *
+	 * @param columns	the values of each column.
+	 * @param rows		the indices of the rows to store.
+	 * @return			the encoded block.
+	 */
+	public static byte[] encode(double[][] columns, int[] rows) {
+		DoubleBuffer[] buffers = new DoubleBuffer[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			buffers[i] = DoubleBuffer.wrap(columns[i]);
+		}
+		return encode(buffers, rows);
+	}
+
+	/**
+	 * Encode the selected rows of the given columns.
+	 *
+	 * @param columns	the values of each column, indexed from the start of the buffer.
+	 * @param rows		the indices of the rows to store.
+	 * @return			the encoded block.
+	 */
+	public static byte[] encode(DoubleBuffer[] columns, int[] rows) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+
+			byte[][] compressed = new byte[columns.length][];
+			for (int i = 0; i < columns.length; i++) {
+				compressed[i] = encodeColumn(columns[i], rows);
+			}
+
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeInt(columns.length);
+			out.writeInt(rows.length);
+			for (byte[] c : compressed) {
+				out.writeInt(c.length);
+			}
+			for (byte[] c : compressed) {
+				out.write(c);
+			}
+			out.flush();
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			// Cannot happen with a ByteArrayOutputStream
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] encodeColumn(DoubleBuffer values, int[] rows) {
+		int n = rows.length;
+		byte[] planes = new byte[n * 8];
+		long previous = 0;
+		for (int i = 0; i < n; i++) {
+			long bits = round(values.get(rows[i]));
+			long delta = bits ^ previous;
+			previous = bits;
+			for (int b = 0; b < 8; b++) {
+				planes[b * n + i] = (byte) (delta >>> (56 - 8 * b));
+			}
+		}
+
+		Deflater deflater = new Deflater();
+		try {
+			deflater.setInput(planes);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(n + 64);
+			byte[] buffer = new byte[4096];
+			while (!deflater.finished()) {
+				int count = deflater.deflate(buffer);
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static long round(double value) {
+		long bits = Double.doubleToLongBits(value);
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return bits;
+		}
+		return (bits + (1L << (DROPPED_BITS - 1))) & ~DROPPED_MASK;
+	}
+
+
+	/**
+	 * Return the number of rows in a block.
+	 *
+	 * @param block		the encoded block.
+	 * @return			the number of rows.
+	 * @throws IOException	if the block is not valid.
+	 */
+	public static int getRowCount(byte[] block) throws IOException {
+		return readHeader(block)[1];
+	}
+
+	/**
+	 * Decode all columns of a block.
+	 *
+	 * @param block		the encoded block.
+	 * @param columns	the expected number of columns.
+	 * @return			the values of each column.
+	 * @throws IOException	if the block is not valid or has a different number of columns.
+	 */
+	public static double[][] decode(byte[] block, int columns) throws IOException {
+		int[] header = readHeader(block);
+		if (header[0] != columns) {
+			throw new IOException("Flight data block contains " + header[0] + " columns, expected " + columns);
+		}
+		double[][] values = new double[columns][];
+		for (int i = 0; i < columns; i++) {
+			values[i] = decodeColumn(block, header, i);
+		}
+		return values;
+	}
+
+	/**
+	 * Decode a single column of a block.
+	 *
+	 * @param block		the encoded block.
+	 * @param column	the index of the column.
+	 * @return			the values of the column.
+	 * @throws IOException	if the block is not valid or does not contain the column.
+	 */
+	public static double[] decodeColumn(byte[] block, int column) throws IOException {
+		int[] header = readHeader(block);
+		if (column < 0 || column >= header[0]) {
+			throw new IOException("Flight data block does not contain column " + column);
+		}
+		return decodeColumn(block, header, column);
+	}
+
+	/*
+	 * Returns the column count, row count, offset of the first column and the
+	 * compressed lengths of the columns.
+	 */
+	private static int[] readHeader(byte[] block) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(block));
+		if (block.length < 13 || in.readInt() != MAGIC) {
+			throw new IOException("Invalid flight data block");
+		}
+		int version = in.readByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported flight data block version " + version);
+		}
+		int columns = in.readInt();
+		int rows = in.readInt();
+		if (columns < 0 || rows < 0 || columns > (block.length - 13) / 4 || rows > Integer.MAX_VALUE / 8 ||
+				(columns == 0 && rows > 0)) {
+			throw new IOException("Invalid flight data block");
+		}
+		int[] header = new int[3 + columns];
+		header[0] = columns;
+		header[1] = rows;
+		header[2] = 13 + 4 * columns;
+		long total = header[2];
+		for (int i = 0; i < columns; i++) {
+			header[3 + i] = in.readInt();
+			// Reject row counts the column could not inflate to before allocating the values
+			if (header[3 + i] < 0 || rows * 8L > header[3 + i] * (long) MAX_INFLATION) {
+				throw new IOException("Invalid flight data block");
+			}
+			total += header[3 + i];
+		}
+		if (total > block.length) {
+			throw new IOException("Truncated flight data block");
+		}
+		return header;
+	}
+
+	private static double[] decodeColumn(byte[] block, int[] header, int column) throws IOException {
+		int n = header[1];
+		int offset = header[2];
+		for (int i = 0; i < column; i++) {
+			offset += header[3 + i];
+		}
+
+		byte[] planes = new byte[n * 8];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(block, offset, header[3 + column]);
+			int count = 0;
+			while (count < planes.length) {
+				int read = inflater.inflate(planes, count, planes.length - count);
+				if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IOException("Truncated flight data column");
+				}
+				count += read;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Invalid flight data column", e);
+		} finally {
+			inflater.end();
+		}
+
+		double[] values = new double[n];
+		long previous = 0;
+		for (int i = 0; i < n; i++) {
+			long delta = 0;
+			for (int b = 0; b < 8; b++) {
+				delta = (delta << 8) | (planes[b * n + i] & 0xff);
+			}
+			previous ^= delta;
+			values[i] = Double.longBitsToDouble(previous);
+		}
+		return values;
+	}
+
+}
@@ -5,12 +5,14 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.DoubleBuffer;
 import java.util.*;
 
 import net.sf.openrocket.file.openrocket.savers.PhotoStudioSaver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sf.openrocket.aerodynamics.TabulatedAerodynamicCalculator;
 import net.sf.openrocket.aerodynamics.Warning;
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.document.Simulation;
@@ -23,12 +25,12 @@ import net.sf.openrocket.simulation.FlightDataBranch;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.FlightEvent;
 import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.simulation.SimulationStepperType;
 import net.sf.openrocket.simulation.customexpression.CustomExpression;
 import net.sf.openrocket.simulation.extension.SimulationExtension;
-import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.BuildProperties;
+import net.sf.openrocket.util.ComponentDispatcher;
 import net.sf.openrocket.util.Config;
-import net.sf.openrocket.util.Reflection;
 import net.sf.openrocket.util.TextUtil;
 
 public class OpenRocketSaver extends RocketSaver {
@@ -46,6 +48,8 @@ public class OpenRocketSaver extends RocketSaver {
 	
 	private static final String METHOD_PACKAGE = "net.sf.openrocket.file.openrocket.savers";
 	private static final String METHOD_SUFFIX = "Saver";
+	private static final ComponentDispatcher GET_ELEMENTS =
+			ComponentDispatcher.forMethod(METHOD_PACKAGE, METHOD_SUFFIX, "getElements", RocketComponent.class);
 	
 	
 	// Estimated storage used by different portions
@@ -53,16 +57,40 @@ public class OpenRocketSaver extends RocketSaver {
 	private static final int BYTES_PER_COMPONENT_COMPRESSED = 80;
 	private static final int BYTES_PER_SIMULATION_COMPRESSED = 100;
 	private static final int BYTES_PER_DATAPOINT_COMPRESSED = 100;
+	private static final int BYTES_PER_DATAPOINT_BINARY = 60;
+	
+	/** The directory of the container entries containing binary flight data. */
+	public static final String FLIGHT_DATA_DIRECTORY = "flightdata/";
 	
 	
 	private int indent;
 	private Writer dest;
+	private Map<String, byte[]> dataEntries;
 	
 	@Override
 	public void save(OutputStream output, OpenRocketDocument document, StorageOptions options) throws IOException {
+		save(output, document, options, null);
+	}
+	
+	/**
+	 * Save the document, storing the simulation data in binary form if selected in the
+	 * storage options.  The binary data is not written to the output but added to the
+	 * given map, and must be stored by the caller as entries of the same container.
+	 * 
+	 * @param output		the stream to write the document to.
+	 * @param document		the document to save.
+	 * @param options		the storage options.
+	 * @param dataEntries	the map to add the binary data entries to, keyed by the entry name,
+	 * 						or <code>null</code> to store all data as text.
+	 * @throws IOException	in case of an I/O error.
+	 */
+	public void save(OutputStream output, OpenRocketDocument document, StorageOptions options,
+			Map<String, byte[]> dataEntries) throws IOException {
 		
 		log.info("Saving .ork file");
 		
+		this.dataEntries = (options.isBinaryFlightData() ? dataEntries : null);
+		
 		dest = new BufferedWriter(new OutputStreamWriter(output, OPENROCKET_CHARSET));
 		
 		// Select file version number
@@ -109,6 +137,27 @@ public class OpenRocketSaver extends RocketSaver {
 		
 		log.debug("Writing complete, flushing buffers");
 		dest.flush();
+		this.dataEntries = null;
+	}
+	
+	/**
+	 * Write the rocket of a simulation and the settings of the simulation, without the
+	 * simulation name, status or flight data.  The output contains everything that
+	 * affects the result of simulating the rocket, and is intended for computing digests
+	 * of simulated designs rather than for storing documents.
+	 * 
+	 * @param output		the stream to write to.
+	 * @param simulation	the simulation to write.
+	 * @throws IOException	if writing fails.
+	 */
+	public void saveSimulationSetup(OutputStream output, Simulation simulation) throws IOException {
+		dest = new BufferedWriter(new OutputStreamWriter(output, OPENROCKET_CHARSET));
+		this.indent = 0;
+		
+		saveComponent(simulation.getRocket());
+		saveSimulationConditions(simulation);
+		
+		dest.flush();
 	}
 	
 	/*
@@ -178,13 +227,17 @@ public class OpenRocketSaver extends RocketSaver {
 				FlightData data = s.getSimulatedData();
 				if (data != null) {
 					for (int i = 0; i < data.getBranchCount(); i++) {
-						pointCount += countFlightDataBranchPoints(data.getBranch(i), timeSkip);
+						pointCount += selectDataPoints(data.getBranch(i), timeSkip).length;
 					}
 				}
 			}
 		}
 		
-		size += pointCount * BYTES_PER_DATAPOINT_COMPRESSED;
+		if (options.isBinaryFlightData()) {
+			size += pointCount * BYTES_PER_DATAPOINT_BINARY;
+		} else {
+			size += pointCount * BYTES_PER_DATAPOINT_COMPRESSED;
+		}
 		
 		return size;
 	}
@@ -233,49 +286,12 @@ public class OpenRocketSaver extends RocketSaver {
 	}
 	
 	
-	/**
-	 * Finds a getElements method somewhere in the *saver class hierarchy corresponding to the given component.
-	 */
-	private static Reflection.Method findGetElementsMethod(RocketComponent component) {
-		String currentclassname;
-		Class<?> currentclass;
-		String saverclassname;
-		Class<?> saverClass;
-		
-		Reflection.Method mtr = null; // method-to-return
-		
-		currentclass = component.getClass();
-		while ((currentclass != null) && (currentclass != Object.class)) {
-			currentclassname = currentclass.getSimpleName();
-			saverclassname = METHOD_PACKAGE + "." + currentclassname + METHOD_SUFFIX;
-			
-			try {
-				saverClass = Class.forName(saverclassname);
-				
-				// if class exists
-				java.lang.reflect.Method m = saverClass.getMethod("getElements", RocketComponent.class);
-				mtr = new Reflection.Method(m);
-				
-				return mtr;
-			} catch (Exception ignore) {
-			}
-			
-			currentclass = currentclass.getSuperclass();
-		}
-		
-		// if( null == mtr ){
-		throw new BugException("Unable to find saving class for component " +
-				METHOD_PACKAGE + "." + component.getClass().getSimpleName() + " ... " + METHOD_SUFFIX);
-	}
-	
 	@SuppressWarnings("unchecked")
 	private void saveComponent(RocketComponent component) throws IOException {
 		log.debug("Saving component " + component.getComponentName());
 		
-		Reflection.Method m = findGetElementsMethod(component);
-		
 		// Get the strings to save
-		List<String> list = (List<String>) m.invokeStatic(component);
+		List<String> list = (List<String>) GET_ELEMENTS.invoke(component);
 		int length = list.size();
 		
 		if (length == 0) // Nothing to do
@@ -317,8 +333,6 @@ public class OpenRocketSaver extends RocketSaver {
 	
 	
 	private void saveSimulation(Simulation simulation, double timeSkip) throws IOException {
-		SimulationOptions cond = simulation.getOptions();
-
 		Simulation.Status simStatus;
 		simStatus = timeSkip != StorageOptions.SIMULATION_DATA_NONE ? simulation.getStatus() : Simulation.Status.NOT_SIMULATED;
 
@@ -326,54 +340,7 @@ public class OpenRocketSaver extends RocketSaver {
 		indent++;
 		
 		writeln("<name>" + TextUtil.escapeXML(simulation.getName()) + "</name>");
-		// TODO: MEDIUM: Other simulators/calculators
-		
-		writeln("<simulator>RK4Simulator</simulator>");
-		writeln("<calculator>BarrowmanCalculator</calculator>");
-		
-		writeln("<conditions>");
-		indent++;
-		
-		writeElement("configid", simulation.getId().key);
-		writeElement("launchrodlength", cond.getLaunchRodLength());
-		writeElement("launchrodangle", cond.getLaunchRodAngle() * 180.0 / Math.PI);
-		writeElement("launchroddirection", cond.getLaunchRodDirection() * 360.0 / (2.0 * Math.PI));
-		writeElement("windaverage", cond.getWindSpeedAverage());
-		writeElement("windturbulence", cond.getWindTurbulenceIntensity());
-		writeElement("launchaltitude", cond.getLaunchAltitude());
-		writeElement("launchlatitude", cond.getLaunchLatitude());
-		writeElement("launchlongitude", cond.getLaunchLongitude());
-		writeElement("geodeticmethod", cond.getGeodeticComputation().name().toLowerCase(Locale.ENGLISH));
-		
-		if (cond.isISAAtmosphere()) {
-			writeln("<atmosphere model=\"isa\"/>");
-		} else {
-			writeln("<atmosphere model=\"extendedisa\">");
-			indent++;
-			writeElement("basetemperature", cond.getLaunchTemperature());
-			writeElement("basepressure", cond.getLaunchPressure());
-			indent--;
-			writeln("</atmosphere>");
-		}
-		
-		writeElement("timestep", cond.getTimeStep());
-		
-		indent--;
-		writeln("</conditions>");
-		
-		for (SimulationExtension extension : simulation.getSimulationExtensions()) {
-			Config config = extension.getConfig();
-			writeln("<extension extensionid=\"" + TextUtil.escapeXML(extension.getId()) + "\">");
-			indent++;
-			if (config != null) {
-				for (String key : config.keySet()) {
-					Object value = config.get(key, null);
-					writeEntry(key, value);
-				}
-			}
-			indent--;
-			writeln("</extension>");
-		}
+		saveSimulationConditions(simulation);
 		
 		// Write basic simulation data
 		
@@ -426,6 +393,90 @@ public class OpenRocketSaver extends RocketSaver {
 		
 	}
 
+	/*
+	 * Save the calculation settings, launch conditions and extensions of a simulation
+	 */
+	private void saveSimulationConditions(Simulation simulation) throws IOException {
+		SimulationOptions cond = simulation.getOptions();
+		
+		// TODO: MEDIUM: Other calculators
+		
+		SimulationStepperType stepperType = cond.getStepperType();
+		if (stepperType == SimulationStepperType.RK4) {
+			writeln("<simulator>" + stepperType.getSimulatorName() + "</simulator>");
+		} else {
+			writeln("<simulator tolerance=\"" + TextUtil.doubleToString(cond.getErrorTolerance()) + "\">" +
+					stepperType.getSimulatorName() + "</simulator>");
+		}
+		if (cond.isTabulatedAerodynamics()) {
+			StringBuilder sb = new StringBuilder("<calculator");
+			TabulatedAerodynamicCalculator.Grid grid = cond.getAerodynamicTableGrid();
+			if (!grid.equals(TabulatedAerodynamicCalculator.Grid.DEFAULT)) {
+				// Written exactly, since tables are shared between simulations with equal grids
+				sb.append(" machstep=\"").append(Double.toString(grid.getMachStep())).append('"');
+				sb.append(" maxmach=\"").append(Double.toString(grid.getMaxMach())).append('"');
+				sb.append(" aoastep=\"").append(Double.toString(grid.getAOAStep())).append('"');
+				sb.append(" thetadivisions=\"").append(grid.getThetaDivisions()).append('"');
+				sb.append(" rollstep=\"").append(Double.toString(grid.getRollStep())).append('"');
+				sb.append(" maxroll=\"").append(Double.toString(grid.getMaxRoll())).append('"');
+				sb.append(" reynoldsstep=\"").append(Double.toString(grid.getReynoldsStep())).append('"');
+				sb.append(" minreynolds=\"").append(Double.toString(grid.getMinReynolds())).append('"');
+				sb.append(" maxreynolds=\"").append(Double.toString(grid.getMaxReynolds())).append('"');
+			}
+			if (cond.getAerodynamicErrorSampleInterval() > 0) {
+				sb.append(" errorsampleinterval=\"").append(cond.getAerodynamicErrorSampleInterval()).append('"');
+			}
+			sb.append(">TabulatedBarrowmanCalculator</calculator>");
+			writeln(sb.toString());
+		} else {
+			writeln("<calculator>BarrowmanCalculator</calculator>");
+		}
+		
+		writeln("<conditions>");
+		indent++;
+		
+		writeElement("configid", simulation.getId().key);
+		writeElement("launchrodlength", cond.getLaunchRodLength());
+		writeElement("launchrodangle", cond.getLaunchRodAngle() * 180.0 / Math.PI);
+		writeElement("launchroddirection", cond.getLaunchRodDirection() * 360.0 / (2.0 * Math.PI));
+		writeElement("windaverage", cond.getWindSpeedAverage());
+		writeElement("windturbulence", cond.getWindTurbulenceIntensity());
+		writeElement("launchaltitude", cond.getLaunchAltitude());
+		writeElement("launchlatitude", cond.getLaunchLatitude());
+		writeElement("launchlongitude", cond.getLaunchLongitude());
+		writeElement("geodeticmethod", cond.getGeodeticComputation().name().toLowerCase(Locale.ENGLISH));
+		
+		if (cond.isISAAtmosphere()) {
+			writeln("<atmosphere model=\"isa\"/>");
+		} else {
+			writeln("<atmosphere model=\"extendedisa\">");
+			indent++;
+			writeElement("basetemperature", cond.getLaunchTemperature());
+			writeElement("basepressure", cond.getLaunchPressure());
+			indent--;
+			writeln("</atmosphere>");
+		}
+		
+		writeElement("timestep", cond.getTimeStep());
+		
+		indent--;
+		writeln("</conditions>");
+		
+		for (SimulationExtension extension : simulation.getSimulationExtensions()) {
+			Config config = extension.getConfig();
+			writeln("<extension extensionid=\"" + TextUtil.escapeXML(extension.getId()) + "\">");
+			indent++;
+			if (config != null) {
+				for (String key : config.keySet()) {
+					Object value = config.get(key, null);
+					writeEntry(key, value);
+				}
+			}
+			indent--;
+			writeln("</extension>");
+		}
+	}
+
 	private void savePhotoSettings(Map<String, String> p) throws IOException {
 		log.debug("Saving Photo Settings");
 		for (String s : PhotoStudioSaver.getElements(p))
@@ -468,8 +519,6 @@ public class OpenRocketSaver extends RocketSaver {
 	
 	private void saveFlightDataBranch(FlightDataBranch branch, double timeSkip)
 			throws IOException {
-		double previousTime = -100000;
-		
 		if (branch == null)
 			return;
 		
@@ -480,11 +529,11 @@ public class OpenRocketSaver extends RocketSaver {
 			return;
 		
 		// Retrieve the data from the branch
-		List<List<Double>> data = new ArrayList<List<Double>>(types.length);
+		DoubleBuffer[] data = new DoubleBuffer[types.length];
 		for (int i = 0; i < types.length; i++) {
-			data.add(branch.get(types[i]));
+			data[i] = branch.getBuffer(types[i]);
 		}
-		List<Double> timeData = branch.get(FlightDataType.TYPE_TIME);
+		int[] points = selectDataPoints(branch, timeSkip);
 		
 		// Build the <databranch> tag
 		StringBuilder sb = new StringBuilder();
@@ -514,6 +563,16 @@ public class OpenRocketSaver extends RocketSaver {
 			sb.append("\" ");
 		}
 		
+		// Binary data is stored in a separate entry, referenced by the data attribute
+		String dataEntry = null;
+		if (dataEntries != null && points.length > 0) {
+			dataEntry = FLIGHT_DATA_DIRECTORY + "branch" + (dataEntries.size() + 1) + ".bin";
+			dataEntries.put(dataEntry, FlightDataBlock.encode(data, points));
+			sb.append("data=\"");
+			sb.append(TextUtil.escapeXML(dataEntry));
+			sb.append("\" ");
+		}
+		
 		sb.append("types=\"");
 		for (int i = 0; i < types.length; i++) {
 			if (i > 0)
@@ -530,85 +589,69 @@ public class OpenRocketSaver extends RocketSaver {
 					+ "\" type=\"" + enumToXMLName(event.getType()) + "\"/>");
 		}
 		
-		// Write the data
-		int length = branch.getLength();
-		if (length > 0) {
-			writeDataPointString(data, 0, sb);
-			previousTime = timeData.get(0);
-		}
-		
-		for (int i = 1; i < length - 1; i++) {
-			if (timeData != null) {
-				if (Math.abs(timeData.get(i) - previousTime - timeSkip) < Math.abs(timeData.get(i + 1) - previousTime - timeSkip)) {
-					writeDataPointString(data, i, sb);
-					previousTime = timeData.get(i);
-				}
-			} else {
-				// If time data is not available, write all points
-				writeDataPointString(data, i, sb);
+		// Write the data, unless stored in binary form
+		if (dataEntry == null) {
+			for (int point : points) {
+				writeDataPointString(data, point, sb);
 			}
 		}
 		
-		if (length > 1) {
-			writeDataPointString(data, length - 1, sb);
-		}
-		
 		indent--;
 		writeln("</databranch>");
 	}
 	
-	/* TODO: LOW: This is largely duplicated from above! */
-	private int countFlightDataBranchPoints(FlightDataBranch branch, double timeSkip) {
-		int count = 0;
-		
-		double previousTime = -100000;
-		
-		if (branch == null)
-			return 0;
-		
-		// Retrieve the types from the branch
-		FlightDataType[] types = branch.getTypes();
+	/**
+	 * Select the indices of the data points to store, approximately timeSkip apart.
+	 * The first and last points are always stored, and all points if the branch
+	 * contains no time data.
+	 */
+	private int[] selectDataPoints(FlightDataBranch branch, double timeSkip) {
+		if (branch == null || branch.getTypes().length == 0)
+			return new int[0];
 		
-		if (types.length == 0)
-			return 0;
+		int length = branch.getLength();
+		int[] points = new int[length];
+		int count = 0;
 		
-		List<Double> timeData = branch.get(FlightDataType.TYPE_TIME);
+		DoubleBuffer timeData = branch.getBuffer(FlightDataType.TYPE_TIME);
 		if (timeData == null) {
-			// If time data not available, store all points
-			return branch.getLength();
+			// If time data is not available, store all points
+			for (int i = 0; i < length; i++) {
+				points[count++] = i;
+			}
+			return points;
 		}
 		
-		// Write the data
-		int length = branch.getLength();
+		double previousTime = -100000;
 		if (length > 0) {
-			count++;
+			points[count++] = 0;
 			previousTime = timeData.get(0);
 		}
 		
 		for (int i = 1; i < length - 1; i++) {
 			if (Math.abs(timeData.get(i) - previousTime - timeSkip) < Math.abs(timeData.get(i + 1) - previousTime - timeSkip)) {
-				count++;
+				points[count++] = i;
 				previousTime = timeData.get(i);
 			}
 		}
 		
 		if (length > 1) {
-			count++;
+			points[count++] = length - 1;
 		}
 		
-		return count;
+		return Arrays.copyOf(points, count);
 	}
 	
 	
 	
-	private void writeDataPointString(List<List<Double>> data, int index, StringBuilder sb)
+	private void writeDataPointString(DoubleBuffer[] data, int index, StringBuilder sb)
 			throws IOException {
 		sb.setLength(0);
 		sb.append("<datapoint>");
-		for (int j = 0; j < data.size(); j++) {
+		for (int j = 0; j < data.length; j++) {
 			if (j > 0)
 				sb.append(",");
-			sb.append(TextUtil.doubleToString(data.get(j).get(index)));
+			sb.append(TextUtil.doubleToString(data[j].get(index)));
 		}
 		sb.append("</datapoint>");
 		writeln(sb.toString());
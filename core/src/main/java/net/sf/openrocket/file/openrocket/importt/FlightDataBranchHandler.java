@@ -1,9 +1,14 @@
 package net.sf.openrocket.file.openrocket.importt;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import net.sf.openrocket.aerodynamics.WarningSet;
 import net.sf.openrocket.file.DocumentLoadingContext;
+import net.sf.openrocket.file.openrocket.FlightDataBlock;
 import net.sf.openrocket.file.simplesax.AbstractElementHandler;
 import net.sf.openrocket.file.simplesax.ElementHandler;
 import net.sf.openrocket.file.simplesax.PlainTextHandler;
@@ -15,16 +20,24 @@ import net.sf.openrocket.simulation.FlightEvent.Type;
 import net.sf.openrocket.simulation.customexpression.CustomExpression;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.unit.UnitGroup;
+import net.sf.openrocket.util.DecalNotFoundException;
+import net.sf.openrocket.util.FileUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 class FlightDataBranchHandler extends AbstractElementHandler {
-	@SuppressWarnings("unused")
 	private final DocumentLoadingContext context;
 	private final FlightDataType[] types;
 	private final FlightDataBranch branch;
 	
+	// Unparsed data points when loading the data on demand
+	private final List<String> deferredPoints;
+	private byte[] deferredBlock;
+	private final int timeIndex;
+	private double previousTime = Double.NaN;
+	private double minimumTimeStep = Double.POSITIVE_INFINITY;
+	
 	private static final Logger log = LoggerFactory.getLogger(FlightDataBranchHandler.class);
 	private final SingleSimulationHandler simHandler;
 	private static final Translator trans = Application.getTranslator();
@@ -43,6 +56,20 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		
 		// TODO: LOW: May throw an IllegalArgumentException
 		branch = new FlightDataBranch(name, types);
+		
+		if (context.isLoadFlightDataOnDemand()) {
+			deferredPoints = new ArrayList<String>();
+		} else {
+			deferredPoints = null;
+		}
+		int index = -1;
+		for (int i = 0; i < types.length; i++) {
+			if (types[i] == FlightDataType.TYPE_TIME) {
+				index = i;
+				break;
+			}
+		}
+		timeIndex = index;
 	}
 	
 	/**
@@ -105,6 +132,75 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		return branch;
 	}
 	
+	/**
+	 * Read the data points stored in binary form in a separate entry of the container.
+	 * When loading the data on demand, only the time values are decoded.
+	 * 
+	 * @param name		the name of the entry.
+	 * @param warnings	the warning set to add problems to.
+	 */
+	public void readDataEntry(String name, WarningSet warnings) {
+		byte[] block;
+		try {
+			InputStream in = context.getAttachmentFactory().getAttachment(name).getBytes();
+			try {
+				block = FileUtils.readBytes(in);
+			} finally {
+				in.close();
+			}
+		} catch (IOException | DecalNotFoundException e) {
+			log.warn("Could not read flight data entry " + name, e);
+			warnings.add("Flight data entry '" + name + "' could not be read, ignoring.");
+			return;
+		}
+		
+		if (deferredPoints == null) {
+			addPoints(branch, types, block, warnings);
+			return;
+		}
+		
+		try {
+			if (FlightDataBlock.getRowCount(block) == 0) {
+				return;
+			}
+			if (timeIndex >= 0) {
+				for (double time : FlightDataBlock.decodeColumn(block, timeIndex)) {
+					updateTimeStep(time);
+				}
+			}
+		} catch (IOException e) {
+			warnings.add("Flight data entry '" + name + "' format error, ignoring.");
+			return;
+		}
+		deferredBlock = block;
+	}
+	
+	/**
+	 * Return whether the branch contains any data points.
+	 */
+	public boolean hasPoints() {
+		if (deferredPoints != null) {
+			return !deferredPoints.isEmpty() || deferredBlock != null;
+		}
+		return branch.getLength() > 0;
+	}
+	
+	/**
+	 * Return the smallest time step between the data points that are loaded on demand.
+	 * Only the time values are parsed when reading the data points.
+	 */
+	public double getMinimumTimeStep() {
+		return minimumTimeStep;
+	}
+	
+	/**
+	 * Return the branch with the data points left unparsed, when loading the data
+	 * on demand.  The returned object does not refer to the document or this handler.
+	 */
+	public DeferredBranch getDeferredBranch() {
+		return new DeferredBranch(branch, types, deferredBlock, deferredPoints.toArray(new String[0]));
+	}
+	
 	@Override
 	public ElementHandler openElement(String element, HashMap<String, String> attributes,
 			WarningSet warnings) {
@@ -150,7 +246,64 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		}
 		
 		// element == "datapoint"
+		if (deferredPoints != null) {
+			deferredPoints.add(content);
+			readTime(content);
+			return;
+		}
+		addPoint(branch, types, content, warnings);
+	}
+	
+	private void readTime(String content) {
+		if (timeIndex < 0) {
+			return;
+		}
 		
+		// Find the time value without splitting the whole line
+		int start = 0;
+		for (int i = 0; i < timeIndex && start >= 0; i++) {
+			start = content.indexOf(',', start);
+			if (start >= 0) {
+				start++;
+			}
+		}
+		if (start < 0) {
+			return;
+		}
+		int end = content.indexOf(',', start);
+		if (end < 0) {
+			end = content.length();
+		}
+		
+		try {
+			updateTimeStep(DocumentConfig.stringToDouble(content.substring(start, end)));
+		} catch (NumberFormatException ignore) {
+		}
+	}
+	
+	private void updateTimeStep(double time) {
+		if (time - previousTime < minimumTimeStep) {
+			minimumTimeStep = time - previousTime;
+		}
+		previousTime = time;
+	}
+	
+	private static void addPoints(FlightDataBranch branch, FlightDataType[] types, byte[] block,
+			WarningSet warnings) {
+		double[][] values;
+		try {
+			values = FlightDataBlock.decode(block, types.length);
+		} catch (IOException e) {
+			log.warn("Invalid flight data block", e);
+			warnings.add("Flight data format error, ignoring data.");
+			return;
+		}
+		
+		branch.addPoints(types, values);
+	}
+	
+	private static void addPoint(FlightDataBranch branch, FlightDataType[] types, String content,
+			WarningSet warnings) {
 		
 		// Check line format
 		String[] split = content.split(",");
@@ -176,4 +329,45 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 			branch.setValue(types[i], values[i]);
 		}
 	}
-}
\ No newline at end of file
+	
+	
+	/**
+	 * A flight data branch whose data points are parsed when first requested.
+	 */
+	static class DeferredBranch {
+		private final FlightDataBranch branch;
+		private final FlightDataType[] types;
+		private byte[] block;
+		private String[] points;
+		
+		private DeferredBranch(FlightDataBranch branch, FlightDataType[] types, byte[] block, String[] points) {
+			this.branch = branch;
+			this.types = types;
+			this.block = block;
+			this.points = points;
+		}
+		
+		/**
+		 * Parse the data points and return the immutable branch.  Problems in the
+		 * data points are logged, since the loading warnings are no longer shown.
+		 */
+		public synchronized FlightDataBranch getBranch() {
+			if (points != null) {
+				WarningSet warnings = new WarningSet();
+				if (block != null) {
+					addPoints(branch, types, block, warnings);
+					block = null;
+				}
+				for (String point : points) {
+					addPoint(branch, types, point, warnings);
+				}
+				points = null;
+				branch.immute();
+				if (!warnings.isEmpty()) {
+					log.warn("Problems parsing flight data branch '" + branch.getBranchName() + "': " + warnings);
+				}
+			}
+			return branch;
+		}
+	}
+}
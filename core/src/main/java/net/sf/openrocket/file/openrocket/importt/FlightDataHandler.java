@@ -19,6 +19,8 @@ class FlightDataHandler extends AbstractElementHandler {
 	private FlightDataBranchHandler dataHandler;
 	private final WarningSet warningSet = new WarningSet();
 	private final List<FlightDataBranch> branches = new ArrayList<FlightDataBranch>();
+	private final List<FlightDataBranchHandler.DeferredBranch> deferredBranches =
+			new ArrayList<FlightDataBranchHandler.DeferredBranch>();
 	
 	private final SingleSimulationHandler simHandler;
 	private FlightData data;
@@ -65,6 +67,11 @@ class FlightDataHandler extends AbstractElementHandler {
 				}
 				dataHandler.setTimeToOptimumAltitude(timeToOptimumAltitude);
 			}
+			if (attributes.get("data") != null) {
+				dataHandler.readDataEntry(attributes.get("data"), warnings);
+				// Keep storing the data in the format it was loaded from
+				context.getOpenRocketDocument().getDefaultStorageOptions().setBinaryFlightData(true);
+			}
 			return dataHandler;
 		}
 		
@@ -78,9 +85,17 @@ class FlightDataHandler extends AbstractElementHandler {
 			String content, WarningSet warnings) {
 		
 		if (element.equals("databranch")) {
-			FlightDataBranch branch = dataHandler.getBranch();
-			if (branch.getLength() > 0) {
-				branches.add(branch);
+			if (!dataHandler.hasPoints()) {
+				return;
+			}
+			if (context.isLoadFlightDataOnDemand()) {
+				// The time step of the first branch is used for deducing the storage options
+				if (deferredBranches.isEmpty()) {
+					context.updateMinimumTimeStep(dataHandler.getMinimumTimeStep());
+				}
+				deferredBranches.add(dataHandler.getDeferredBranch());
+			} else {
+				branches.add(dataHandler.getBranch());
 			}
 		} else if (element.equals("warning")) {
 			warningSet.add(Warning.fromString(content));
@@ -101,6 +116,7 @@ class FlightDataHandler extends AbstractElementHandler {
 		if (branches.size() > 0) {
 			data = new FlightData(branches.toArray(new FlightDataBranch[0]));
 		} else {
+			// Summary values are read from the attributes, also when the branches are loaded on demand
 			double maxAltitude = Double.NaN;
 			double maxVelocity = Double.NaN;
 			double maxAcceleration = Double.NaN;
@@ -151,6 +167,9 @@ class FlightDataHandler extends AbstractElementHandler {
 			
 			data = new FlightData(maxAltitude, maxVelocity, maxAcceleration, maxMach,
 					timeToApogee, flightTime, groundHitVelocity, launchRodVelocity, deploymentVelocity);
+			if (deferredBranches.size() > 0) {
+				data.setBranchSource(new DeferredBranchSource(deferredBranches));
+			}
 		}
 		
 		data.getWarningSet().addAll(warningSet);
@@ -158,4 +177,24 @@ class FlightDataHandler extends AbstractElementHandler {
 	}
 	
 	
-}
\ No newline at end of file
+	/**
+	 * Parses the data points of the branches when the simulation data is first accessed.
+	 */
+	private static class DeferredBranchSource implements FlightData.BranchSource {
+		private final List<FlightDataBranchHandler.DeferredBranch> deferred;
+		
+		public DeferredBranchSource(List<FlightDataBranchHandler.DeferredBranch> deferred) {
+			this.deferred = deferred;
+		}
+		
+		@Override
+		public List<FlightDataBranch> createBranches() {
+			List<FlightDataBranch> list = new ArrayList<FlightDataBranch>();
+			for (FlightDataBranchHandler.DeferredBranch b : deferred) {
+				list.add(b.getBranch());
+			}
+			return list;
+		}
+	}
+	
+}
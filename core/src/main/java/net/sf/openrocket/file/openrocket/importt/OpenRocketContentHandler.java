@@ -2,12 +2,15 @@ package net.sf.openrocket.file.openrocket.importt;
 
 import java.util.HashMap;
 
+import org.xml.sax.SAXException;
+
 import net.sf.openrocket.aerodynamics.Warning;
 import net.sf.openrocket.aerodynamics.WarningSet;
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.file.DocumentLoadingContext;
 import net.sf.openrocket.file.simplesax.AbstractElementHandler;
 import net.sf.openrocket.file.simplesax.ElementHandler;
+import net.sf.openrocket.rocketcomponent.Rocket;
 
 /**
  * Handles the content of the <openrocket> tag.
@@ -72,4 +75,21 @@ class OpenRocketContentHandler extends AbstractElementHandler {
 		
 		return null;
 	}
+	
+	@Override
+	public void closeElement(String element, HashMap<String, String> attributes,
+			String content, WarningSet warnings) throws SAXException {
+		
+		if (element.equals("rocket")) {
+			// The rocket is loaded with events disabled by OpenRocketLoader.  Perform
+			// a single update of the rocket before the simulations referring to it
+			// are loaded.
+			Rocket rocket = context.getOpenRocketDocument().getRocket();
+			if (!rocket.isEventsEnabled()) {
+				rocket.enableEvents();
+			}
+		}
+		
+		super.closeElement(element, attributes, content, warnings);
+	}
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ import net.sf.openrocket.file.AbstractRocketLoader;
 import net.sf.openrocket.file.DocumentLoadingContext;
 import net.sf.openrocket.file.RocketLoadException;
 import net.sf.openrocket.file.simplesax.SimpleSAX;
+import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.simulation.FlightDataBranch;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.extension.SimulationExtension;
@@ -45,24 +46,35 @@ public class OpenRocketLoader extends AbstractRocketLoader {
 		OpenRocketHandler handler = new OpenRocketHandler(context);
 		
 		OpenRocketDocument doc = context.getOpenRocketDocument();
+		Rocket rocket = doc.getRocket();
 		
+		// Every parsed property fires a change event, which updates the whole rocket.
+		// Suppress the events while loading the rocket design, the rocket is updated
+		// once at the end of the <rocket> element by OpenRocketContentHandler.
+		rocket.enableEvents(false);
 		try {
 			SimpleSAX.readXML(xmlSource, handler, warnings);
 		} catch (SAXException e) {
 			log.warn("Malformed XML in input");
 			throw new RocketLoadException("Malformed XML in input.", e);
+		} finally {
+			if (!rocket.isEventsEnabled()) {
+				rocket.enableEvents();
+			}
 		}
 		
 		doc.getSelectedConfiguration().setAllStages();
 		
-		// Deduce suitable time skip
-		double timeSkip = StorageOptions.SIMULATION_DATA_NONE;
+		// Deduce suitable time skip, data loaded on demand was inspected while reading
+		double timeSkip = Math.min(StorageOptions.SIMULATION_DATA_NONE, context.getMinimumTimeStep());
 		for (Simulation s : doc.getSimulations()) {
 			if (s.getStatus() == Simulation.Status.EXTERNAL ||
 					s.getStatus() == Simulation.Status.NOT_SIMULATED)
 				continue;
 			if (s.getSimulatedData() == null)
 				continue;
+			if (s.getSimulatedData().isBranchCreationPending())
+				continue;
 			if (s.getSimulatedData().getBranchCount() == 0)
 				continue;
 			FlightDataBranch branch = s.getSimulatedData().getBranch(0);
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
 
+import net.sf.openrocket.aerodynamics.TabulatedAerodynamicCalculator;
 import net.sf.openrocket.aerodynamics.WarningSet;
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.document.Simulation;
@@ -16,6 +17,7 @@ import net.sf.openrocket.file.simplesax.PlainTextHandler;
 import net.sf.openrocket.rocketcomponent.FlightConfigurationId;
 import net.sf.openrocket.simulation.FlightData;
 import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.simulation.SimulationStepperType;
 import net.sf.openrocket.simulation.extension.SimulationExtension;
 import net.sf.openrocket.simulation.extension.SimulationExtensionProvider;
 import net.sf.openrocket.simulation.extension.impl.JavaCode;
@@ -32,6 +34,12 @@ class SingleSimulationHandler extends AbstractElementHandler {
 	
 	private String name;
 	
+	private SimulationStepperType stepperType = null;
+	private double errorTolerance = Double.NaN;
+	private boolean tabulatedAerodynamics = false;
+	private TabulatedAerodynamicCalculator.Grid aerodynamicTableGrid = TabulatedAerodynamicCalculator.Grid.DEFAULT;
+	private int aerodynamicErrorSampleInterval = 0;
+	
 	private SimulationConditionsHandler conditionHandler;
 	private ConfigHandler configHandler;
 	private FlightDataHandler dataHandler;
@@ -76,11 +84,23 @@ class SingleSimulationHandler extends AbstractElementHandler {
 		if (element.equals("name")) {
 			name = content;
 		} else if (element.equals("simulator")) {
-			if (!content.trim().equals("RK4Simulator")) {
+			stepperType = SimulationStepperType.fromSimulatorName(content.trim());
+			if (stepperType == null) {
 				warnings.add("Unknown simulator '" + content.trim() + "' specified, ignoring.");
 			}
+			String tolerance = attributes.get("tolerance");
+			if (tolerance != null) {
+				try {
+					errorTolerance = Double.parseDouble(tolerance);
+				} catch (NumberFormatException e) {
+					warnings.add("Illegal simulator error tolerance '" + tolerance + "' specified, ignoring.");
+				}
+			}
 		} else if (element.equals("calculator")) {
-			if (!content.trim().equals("BarrowmanCalculator")) {
+			if (content.trim().equals("TabulatedBarrowmanCalculator")) {
+				tabulatedAerodynamics = true;
+				readAerodynamicTableOptions(attributes, warnings);
+			} else if (!content.trim().equals("BarrowmanCalculator")) {
 				warnings.add("Unknown calculator '" + content.trim() + "' specified, ignoring.");
 			}
 		} else if (element.equals("listener") && content.trim().length() > 0) {
@@ -125,6 +145,15 @@ class SingleSimulationHandler extends AbstractElementHandler {
 			warnings.add("Simulation conditions not defined, using defaults.");
 			options = new SimulationOptions();
 		}
+		if (stepperType != null) {
+			options.setStepperType(stepperType);
+		}
+		if (!Double.isNaN(errorTolerance)) {
+			options.setErrorTolerance(errorTolerance);
+		}
+		options.setTabulatedAerodynamics(tabulatedAerodynamics);
+		options.setAerodynamicTableGrid(aerodynamicTableGrid);
+		options.setAerodynamicErrorSampleInterval(aerodynamicErrorSampleInterval);
 		
 		if (name == null)
 			name = "Simulation";
@@ -145,8 +174,53 @@ class SingleSimulationHandler extends AbstractElementHandler {
 		
 		doc.addSimulation(simulation);
 	}
-	
-	
+
+
+	/*
+	 * Read the table grid and the error sample interval of the tabulated calculator.
+	 * Grid values that are not specified are taken from the default grid.
+	 */
+	private void readAerodynamicTableOptions(HashMap<String, String> attributes, WarningSet warnings) {
+		TabulatedAerodynamicCalculator.Grid def = TabulatedAerodynamicCalculator.Grid.DEFAULT;
+		try {
+			aerodynamicTableGrid = new TabulatedAerodynamicCalculator.Grid(
+					parseDouble(attributes, "machstep", def.getMachStep()),
+					parseDouble(attributes, "maxmach", def.getMaxMach()),
+					parseDouble(attributes, "aoastep", def.getAOAStep()),
+					(int) parseDouble(attributes, "thetadivisions", def.getThetaDivisions()),
+					parseDouble(attributes, "rollstep", def.getRollStep()),
+					parseDouble(attributes, "maxroll", def.getMaxRoll()),
+					parseDouble(attributes, "reynoldsstep", def.getReynoldsStep()),
+					parseDouble(attributes, "minreynolds", def.getMinReynolds()),
+					parseDouble(attributes, "maxreynolds", def.getMaxReynolds()));
+		} catch (IllegalArgumentException e) {
+			warnings.add("Illegal aerodynamic table grid specified, using the default grid.");
+			aerodynamicTableGrid = def;
+		}
+
+		String interval = attributes.get("errorsampleinterval");
+		if (interval != null) {
+			try {
+				aerodynamicErrorSampleInterval = Integer.parseInt(interval.trim());
+				if (aerodynamicErrorSampleInterval < 0) {
+					throw new NumberFormatException();
+				}
+			} catch (NumberFormatException e) {
+				warnings.add("Illegal aerodynamic error sample interval '" + interval + "' specified, ignoring.");
+				aerodynamicErrorSampleInterval = 0;
+			}
+		}
+	}
+
+	private static double parseDouble(HashMap<String, String> attributes, String name, double defaultValue) {
+		String value = attributes.get(name);
+		if (value == null) {
+			return defaultValue;
+		}
+		return Double.parseDouble(value.trim());
+	}
+
+
 	private SimulationExtension compatibilityExtension(String className) {
 		JavaCode extension = Application.getInjector().getInstance(JavaCode.class);
 		extension.setClassName(className);
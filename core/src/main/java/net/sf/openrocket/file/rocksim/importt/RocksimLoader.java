@@ -14,6 +14,7 @@ import net.sf.openrocket.file.AbstractRocketLoader;
 import net.sf.openrocket.file.DocumentLoadingContext;
 import net.sf.openrocket.file.RocketLoadException;
 import net.sf.openrocket.file.simplesax.SimpleSAX;
+import net.sf.openrocket.rocketcomponent.Rocket;
 
 /**
  * This class is the main entry point for Rocksim design file imported to OpenRocket.  Currently only Rocksim v9
@@ -44,11 +45,17 @@ public class RocksimLoader extends AbstractRocketLoader {
 		InputSource xmlSource = new InputSource(source);
 		
 		RocksimHandler handler = new RocksimHandler(context);
+		Rocket rocket = context.getOpenRocketDocument().getRocket();
 		
+		// Suppress the change events fired for every imported property, the rocket
+		// is updated once after the import
+		rocket.enableEvents(false);
 		try {
 			SimpleSAX.readXML(xmlSource, handler, warnings);
 		} catch (SAXException e) {
 			throw new RocketLoadException("Malformed XML in input.", e);
+		} finally {
+			rocket.enableEvents();
 		}
 		
 		context.getOpenRocketDocument().setFile(null);
@@ -2,6 +2,7 @@ package net.sf.openrocket.masscalc;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import net.sf.openrocket.motor.Motor;
@@ -458,6 +459,72 @@ public class MassCalculation {
 		return this;
 	}
 	
+	/**
+	 * The static part of a motor mass calculation:  the component tree as walked by
+	 * {@link #calculateMotors()}, together with the transformation of each visited instance.
+	 * It depends only on the rocket structure, not on the active stages or motors.
+	 */
+	static final class MotorNode {
+		final RocketComponent component;
+		final Transformation transform;
+		final MotorNode[] children;
+		
+		private MotorNode(final RocketComponent component, final Transformation transform, final MotorNode[] children) {
+			this.component = component;
+			this.transform = transform;
+			this.children = children;
+		}
+	}
+	
+	/**
+	 * Build the motor calculation plan for the specified component and its children.
+	 */
+	static MotorNode buildMotorPlan(final RocketComponent component, final Transformation parentTransform) {
+		final int instanceCount = component.getInstanceCount();
+		Coordinate[] instanceLocations = component.getInstanceLocations();
+		
+		List<MotorNode> children = new ArrayList<MotorNode>();
+		for( int instanceNumber = 0; instanceNumber < instanceCount; ++instanceNumber) {
+			Coordinate currentLocation = instanceLocations[instanceNumber];
+			Transformation currentTransform = parentTransform.applyTransformation( Transformation.getTranslationTransform( currentLocation ));
+			
+			for (RocketComponent child : component.getChildren()) {
+				children.add( buildMotorPlan( child, currentTransform));
+			}
+		}
+		
+		return new MotorNode( component, parentTransform, children.toArray(new MotorNode[0]));
+	}
+	
+	/**
+	 * Equivalent to {@link #calculateMotors()}, but walks a precomputed plan instead of the
+	 * component tree.  The masses are merged in the same order, so the results are identical.
+	 */
+	MassCalculation calculateMotors( final MotorNode node ) {
+		if (node.component.isMotorMount()) {
+			MassCalculation motor = this.copy(node.component, node.transform);
+			
+			motor.calculateMountData();
+			
+			this.merge( motor );
+		}
+		
+		MassCalculation children = this.copy(node.component, node.transform );
+		for (MotorNode childNode : node.children) {
+			MassCalculation eachChild = copy( childNode.component, childNode.transform);
+			
+			eachChild.calculateMotors( childNode );
+			
+			children.merge( eachChild );
+		}
+		
+		if( MIN_MASS < children.getMass() ) {
+			this.merge( children );
+		}
+		
+		return this;
+	}
+	
 	/** 
 	 * MOI Calculation needs to be a two-step process:
 	 * (1) calculate overall Center-of-Mass (CM) first (down inline with data-gathering)
@@ -5,12 +5,24 @@ import java.util.HashMap;
 import java.util.Map;
 
 import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.rocketcomponent.AxialStage;
 import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.simulation.MotorClusterState;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.util.*;
 
+/**
+ * Calculates the mass properties of a rocket.
+ * <p>
+ * The static methods always perform the full calculation.  An instance of this class, as
+ * used during simulations, additionally caches the data that does not change during flight:
+ * the structure mass for each set of active stages, and the component tree walked when
+ * calculating the motor mass.  The caches are discarded whenever the rocket is modified.
+ * The cached methods may be called concurrently, since cloned simulation conditions share
+ * the same calculator instance.
+ */
 public class MassCalculator implements Monitorable {
 	
 	public static final double MIN_MASS = MathUtil.EPSILON;
@@ -19,9 +31,12 @@ public class MassCalculator implements Monitorable {
 	 * Cached data.  All CG data is in absolute coordinates.  All moments of inertia
 	 * are relative to their respective CG.
 	 */
-	//	private HashMap< Integer, MassData> stageMassCache = new HashMap<Integer, MassData >();
-	//	private MassData rocketSpentMassCache;
-	//	private MassData motorMassCache;
+	private final HashMap<Long, RigidBody> stageMassCache = new HashMap<Long, RigidBody>();
+	private MassCalculation.MotorNode motorPlanCache = null;
+	
+	private Rocket cacheRocket = null;
+	private int cacheModID = -1;
+	private int cacheInstanceModID = -1;
 
 	private final int modId = 0;
 	
@@ -96,6 +111,107 @@ public class MassCalculator implements Monitorable {
 		return calculate( MassCalculation.Type.MOTOR, status ); 
 	}
 
+	////////////////// Cached calculations ///////////////////
+	
+	/**
+	 * Return the mass data of the rocket's structure, as {@link #calculateStructure(FlightConfiguration)}.
+	 * The result is cached for each set of active stages.
+	 *  
+	 * @param config		the rocket configuration to calculate for
+	 * @return				the MassData struct of the rocket structure
+	 */
+	public synchronized RigidBody getStructureMass( final FlightConfiguration config ){
+		if( !validateCache( config.getRocket() )){
+			return calculateStructure( config );
+		}
+		
+		final long stageMask = getActiveStageMask( config );
+		if( stageMask < 0 ){
+			return calculateStructure( config );
+		}
+		
+		RigidBody structure = stageMassCache.get( stageMask );
+		if( null == structure ){
+			structure = calculateStructure( config );
+			stageMassCache.put( stageMask, structure );
+		}
+		return structure;
+	}
+	
+	/**
+	 * Return the mass data of the motors, as {@link #calculateMotor(SimulationStatus)}.
+	 * Only the motor contributions are recalculated; the walk over the component tree is cached.
+	 * 
+	 * @param status  CurrentSimulation status to calculate data with
+	 * @return  combined mass data for all propellant
+	 */
+	public RigidBody getMotorMass( final SimulationStatus status ){
+		final FlightConfiguration config = status.getConfiguration();
+		final MassCalculation.MotorNode motorPlan = getMotorPlan( config.getRocket() );
+		if( null == motorPlan ){
+			return calculateMotor( status );
+		}
+		
+		MassCalculation calculation = new MassCalculation( MassCalculation.Type.MOTOR, config, status.getSimulationTime(),
+				status.getMotors(), config.getRocket(), Transformation.IDENTITY, null);
+		MassCalculation motorCalc = calculation.copy( config.getRocket(), Transformation.IDENTITY );
+		motorCalc.calculateMotors( motorPlan );
+		calculation.merge( motorCalc );
+		return calculation.calculateMomentOfInertia();
+	}
+	
+	/**
+	 * Return the cached motor calculation plan, or <code>null</code> if caching is not possible.
+	 */
+	private synchronized MassCalculation.MotorNode getMotorPlan( final Rocket rocket ){
+		if( !validateCache( rocket )){
+			return null;
+		}
+		if( null == motorPlanCache ){
+			motorPlanCache = MassCalculation.buildMotorPlan( rocket, Transformation.IDENTITY );
+		}
+		return motorPlanCache;
+	}
+	
+	/**
+	 * Check that the cached data belongs to the current state of the rocket, clearing it if not.
+	 * 
+	 * @return	whether the cache may be used
+	 */
+	private boolean validateCache( final Rocket rocket ){
+		if( !rocket.isEventsEnabled() ){
+			// modification IDs are not updated while events are disabled
+			return false;
+		}
+		
+		if(( rocket != cacheRocket ) || ( rocket.getModID() != cacheModID ) || ( rocket.getInstanceModID() != cacheInstanceModID )){
+			stageMassCache.clear();
+			motorPlanCache = null;
+			cacheRocket = rocket;
+			cacheModID = rocket.getModID();
+			cacheInstanceModID = rocket.getInstanceModID();
+		}
+		return true;
+	}
+	
+	/**
+	 * Return a bit mask of the active stage numbers, or -1 if it cannot be represented.
+	 */
+	private static long getActiveStageMask( final FlightConfiguration config ){
+		long mask = 0;
+		for( AxialStage stage : config.getActiveStages() ){
+			if( null == stage ){
+				return -1;
+			}
+			final int stageNumber = stage.getStageNumber();
+			if(( stageNumber < 0 ) || ( stageNumber >= Long.SIZE - 1 )){
+				return -1;
+			}
+			mask |= 1L << stageNumber;
+		}
+		return mask;
+	}
+
 	////////////////// Mass property Wrappers  ///////////////////
 	// all mass calculation calls should probably call through one of these two wrappers. 
 	
@@ -0,0 +1,56 @@
+package net.sf.openrocket.mesh;
+
+/**
+ * The tessellated geometry of a single rocket component instance, in the
+ * coordinate system of the component.  The geometry is divided into the outside
+ * surface, the inside surface and the edges, which are rendered with different
+ * appearances.
+ */
+public final class ComponentMesh {
+
+	public static enum Surface {
+		OUTSIDE, INSIDE, EDGES;
+	}
+
+	/** A component mesh containing no triangles. */
+	public static final ComponentMesh EMPTY = new ComponentMesh(Mesh.EMPTY, Mesh.EMPTY, Mesh.EMPTY);
+
+	private final Mesh outside;
+	private final Mesh inside;
+	private final Mesh edges;
+
+	public ComponentMesh(Mesh outside, Mesh inside, Mesh edges) {
+		this.outside = outside;
+		this.inside = inside;
+		this.edges = edges;
+	}
+
+
+	/**
+	 * Return the mesh of a surface.
+	 */
+	public Mesh getMesh(Surface surface) {
+		switch (surface) {
+		case OUTSIDE:
+			return outside;
+		case INSIDE:
+			return inside;
+		case EDGES:
+			return edges;
+		default:
+			throw new IllegalArgumentException("Unknown surface " + surface);
+		}
+	}
+
+	/**
+	 * Return the total number of triangles of all surfaces.
+	 */
+	public int getTriangleCount() {
+		return outside.getTriangleCount() + inside.getTriangleCount() + edges.getTriangleCount();
+	}
+
+	@Override
+	public String toString() {
+		return "ComponentMesh[outside=" + outside + ", inside=" + inside + ", edges=" + edges + "]";
+	}
+}
@@ -0,0 +1,623 @@
+package net.sf.openrocket.mesh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.openrocket.rocketcomponent.AxialStage;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.EllipticalFinSet;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.LaunchLug;
+import net.sf.openrocket.rocketcomponent.MassObject;
+import net.sf.openrocket.rocketcomponent.PodSet;
+import net.sf.openrocket.rocketcomponent.RailButton;
+import net.sf.openrocket.rocketcomponent.RingComponent;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.Transition;
+import net.sf.openrocket.rocketcomponent.TubeFinSet;
+import net.sf.openrocket.util.BoundingBox;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.Transformation;
+
+/**
+ * Tessellates rocket components into triangle meshes.  The meshes are in the
+ * coordinate system of a single component instance, with the x axis along the
+ * rocket axis, and are placed in the rocket by the instance transformations of
+ * the component.
+ * <p>
+ * The outside surfaces face away from the material of the component and the
+ * inside surfaces face into the hollow interior, so the outside, inside and edge
+ * surfaces of a tube together enclose the tube wall.  The tessellation follows the
+ * 3D figure: surfaces of revolution are divided into the given number of slices,
+ * and transitions and mass objects into a number of stacks along the axis.  Unlike
+ * the immediate mode figure, the edges are not repeated facing inwards in the
+ * inside surface, so the surfaces can be exported as a closed shell.
+ */
+public class ComponentTessellator {
+
+	/** The default number of slices of the surfaces of revolution. */
+	public static final int DEFAULT_LEVEL_OF_DETAIL = 80;
+
+	private final int lod;
+
+	public ComponentTessellator() {
+		this(DEFAULT_LEVEL_OF_DETAIL);
+	}
+
+	/**
+	 * @param levelOfDetail		the number of slices of the surfaces of revolution.
+	 */
+	public ComponentTessellator(int levelOfDetail) {
+		if (levelOfDetail < 4) {
+			throw new IllegalArgumentException("Level of detail must be at least 4, was " + levelOfDetail);
+		}
+		this.lod = levelOfDetail;
+	}
+
+
+	public int getLevelOfDetail() {
+		return lod;
+	}
+
+
+	/**
+	 * Return whether the component has a tessellated representation.  Component
+	 * assemblies are supported and have an empty mesh.
+	 */
+	public boolean isSupported(RocketComponent c) {
+		return c instanceof BodyTube || c instanceof LaunchLug || c instanceof RailButton ||
+				c instanceof RingComponent || c instanceof Transition || c instanceof MassObject ||
+				c instanceof FinSet || c instanceof TubeFinSet || c instanceof AxialStage || c instanceof PodSet;
+	}
+
+
+	/**
+	 * Return a key describing the values the tessellation of the component depends on.
+	 * Two components with equal keys have equal meshes, so the key can be used to
+	 * validate a cached mesh.  Computing the key is much cheaper than the tessellation.
+	 *
+	 * @param c		the component.
+	 * @return		the geometry key.
+	 * @throws IllegalArgumentException	if the component is not supported.
+	 */
+	public Object getGeometryKey(RocketComponent c) {
+		if (c instanceof BodyTube) {
+			BodyTube t = (BodyTube) c;
+			return key(c, t.getOuterRadius(), t.getInnerRadius(), t.getLength());
+		} else if (c instanceof LaunchLug) {
+			LaunchLug l = (LaunchLug) c;
+			return key(c, l.getOuterRadius(), l.getInnerRadius(), l.getLength());
+		} else if (c instanceof RailButton) {
+			RailButton r = (RailButton) c;
+			return key(c, r.getOuterDiameter(), r.getInnerDiameter(), r.getTotalHeight(), r.getBaseHeight(),
+					r.getFlangeHeight(), r.getAngleOffset());
+		} else if (c instanceof RingComponent) {
+			RingComponent r = (RingComponent) c;
+			return key(c, r.getOuterRadius(), r.getInnerRadius(), r.getLength());
+		} else if (c instanceof Transition) {
+			Transition t = (Transition) c;
+			return key(c, t.getType(), t.getShapeParameter(), t.isClipped(), t.isFilled(), t.getLength(),
+					t.getForeRadius(), t.getAftRadius(), t.getThickness(),
+					t.getForeShoulderRadius(), t.getForeShoulderThickness(), t.getForeShoulderLength(),
+					t.isForeShoulderCapped(), t.getAftShoulderRadius(), t.getAftShoulderThickness(),
+					t.getAftShoulderLength(), t.isAftShoulderCapped());
+		} else if (c instanceof MassObject) {
+			MassObject o = (MassObject) c;
+			return key(c, o.getLength(), o.getRadius(), o.getRadialPosition(), o.getRadialDirection());
+		} else if (c instanceof FinSet) {
+			FinSet f = (FinSet) c;
+			BoundingBox bounds = f.getInstanceBoundingBox();
+			return key(c, Arrays.asList(f.getFinPointsWithTab()), f.getThickness(), f.getCantAngle(),
+					f.getLength(), bounds.min, bounds.max);
+		} else if (c instanceof TubeFinSet) {
+			TubeFinSet t = (TubeFinSet) c;
+			return key(c, t.getOuterRadius(), t.getInnerRadius(), t.getLength());
+		} else if (c instanceof AxialStage || c instanceof PodSet) {
+			return key(c);
+		}
+		throw new IllegalArgumentException("Unsupported component " + c);
+	}
+
+	private List<Object> key(RocketComponent c, Object... values) {
+		List<Object> key = new ArrayList<Object>(values.length + 2);
+		key.add(c.getClass());
+		key.add(lod);
+		key.addAll(Arrays.asList(values));
+		return key;
+	}
+
+
+	/**
+	 * Tessellate a component.
+	 *
+	 * @param c		the component.
+	 * @return		the mesh of a single instance of the component.
+	 * @throws IllegalArgumentException	if the component is not supported.
+	 */
+	public ComponentMesh tessellate(RocketComponent c) {
+		if (c instanceof BodyTube) {
+			BodyTube t = (BodyTube) c;
+			return tube(Transformation.IDENTITY, t.getOuterRadius(), t.getInnerRadius(), t.getLength());
+		} else if (c instanceof LaunchLug) {
+			LaunchLug l = (LaunchLug) c;
+			return tube(Transformation.IDENTITY, l.getOuterRadius(), l.getInnerRadius(), l.getLength());
+		} else if (c instanceof RailButton) {
+			return railButton((RailButton) c);
+		} else if (c instanceof RingComponent) {
+			return ring((RingComponent) c);
+		} else if (c instanceof Transition) {
+			return transition((Transition) c);
+		} else if (c instanceof MassObject) {
+			return massObject((MassObject) c);
+		} else if (c instanceof FinSet) {
+			return finSet((FinSet) c);
+		} else if (c instanceof TubeFinSet) {
+			TubeFinSet t = (TubeFinSet) c;
+			return tube(Transformation.getTranslationTransform(0, t.getOuterRadius(), 0),
+					t.getOuterRadius(), t.getInnerRadius(), t.getLength());
+		} else if (c instanceof AxialStage || c instanceof PodSet) {
+			return ComponentMesh.EMPTY;
+		}
+		throw new IllegalArgumentException("Unsupported component " + c);
+	}
+
+
+	private static MeshBuilder builder(Transformation frame) {
+		MeshBuilder b = new MeshBuilder();
+		b.setTransformation(frame);
+		return b;
+	}
+
+	private ComponentMesh tube(Transformation frame, double outerRadius, double innerRadius, double length) {
+		MeshBuilder outside = builder(frame);
+		MeshBuilder inside = builder(frame);
+		MeshBuilder edges = builder(frame);
+
+		revolve(outside, new double[] { 0, length }, new double[] { outerRadius, outerRadius }, false, lod);
+		revolve(inside, new double[] { 0, length }, new double[] { innerRadius, innerRadius }, true, lod);
+		disk(edges, 0, innerRadius, outerRadius, false, lod);
+		disk(edges, length, innerRadius, outerRadius, true, lod);
+
+		return new ComponentMesh(outside.build(), inside.build(), edges.build());
+	}
+
+	private ComponentMesh ring(RingComponent r) {
+		// Rings are only drawn with the outside appearance
+		MeshBuilder b = new MeshBuilder();
+		double length = r.getLength();
+		revolve(b, new double[] { 0, length }, new double[] { r.getOuterRadius(), r.getOuterRadius() }, false, lod);
+		revolve(b, new double[] { 0, length }, new double[] { r.getInnerRadius(), r.getInnerRadius() }, true, lod);
+		disk(b, 0, r.getInnerRadius(), r.getOuterRadius(), false, lod);
+		disk(b, length, r.getInnerRadius(), r.getOuterRadius(), true, lod);
+		return new ComponentMesh(b.build(), Mesh.EMPTY, Mesh.EMPTY);
+	}
+
+	private ComponentMesh railButton(RailButton r) {
+		// The axis of the button points radially outwards in the direction of the angle offset
+		final double phi = r.getAngleOffset() - Math.PI / 2;
+		final double sin = Math.sin(phi);
+		final double cos = Math.cos(phi);
+		MeshBuilder b = builder(new Transformation(new double[][] {
+				{ 0, 0, -1 },
+				{ -sin, cos, 0 },
+				{ cos, sin, 0 } }));
+
+		final double outerRadius = r.getOuterDiameter() / 2;
+		final double innerRadius = r.getInnerDiameter() / 2;
+		final double base = r.getBaseHeight();
+		final double total = r.getTotalHeight();
+		final double flange = r.getFlangeHeight();
+
+		revolve(b, new double[] { 0, total }, new double[] { innerRadius, innerRadius }, false, lod);
+
+		revolve(b, new double[] { 0, base }, new double[] { outerRadius, outerRadius }, false, lod);
+		disk(b, 0, 0, outerRadius, false, lod);
+		disk(b, base, 0, outerRadius, true, lod);
+
+		revolve(b, new double[] { total - flange, total }, new double[] { outerRadius, outerRadius }, false, lod);
+		disk(b, total - flange, 0, outerRadius, false, lod);
+		disk(b, total, 0, outerRadius, true, lod);
+
+		return new ComponentMesh(b.build(), Mesh.EMPTY, Mesh.EMPTY);
+	}
+
+	private ComponentMesh transition(Transition t) {
+		MeshBuilder outside = new MeshBuilder();
+		MeshBuilder inside = new MeshBuilder();
+		MeshBuilder edges = new MeshBuilder();
+
+		final double length = t.getLength();
+		final double thickness = t.getThickness();
+		final double foreRadius = t.getForeRadius();
+		final double aftRadius = t.getAftRadius();
+
+		if (length > 0) {
+			double[] x = transitionStations(length, t.getType() == Transition.Shape.CONICAL ? 4 : lod / 2);
+			revolve(outside, x, transitionRadii(t, x, 0), false, lod);
+			revolve(inside, x, transitionRadii(t, x, -thickness), true, lod);
+		}
+
+		// Aft edge and shoulder
+		disk(edges, length, Math.max(0, aftRadius - thickness), aftRadius, true, lod);
+		if (t.getAftShoulderLength() > 0) {
+			double r = t.getAftShoulderRadius();
+			double ir = (t.isFilled() || t.isAftShoulderCapped()) ? 0 : r - t.getAftShoulderThickness();
+			double end = length + t.getAftShoulderLength();
+			revolve(edges, new double[] { length, end }, new double[] { r, r }, false, lod);
+			disk(edges, length, ir, r, false, lod);
+			disk(edges, end, ir, r, true, lod);
+			disk(edges, length, r, aftRadius, true, lod);
+			revolve(inside, new double[] { length, end }, new double[] { ir, ir }, true, lod);
+		}
+
+		// Fore edge and shoulder
+		disk(edges, 0, Math.max(0, foreRadius - thickness), foreRadius, false, lod);
+		if (t.getForeShoulderLength() > 0) {
+			double r = t.getForeShoulderRadius();
+			double ir = (t.isFilled() || t.isForeShoulderCapped()) ? 0 : r - t.getForeShoulderThickness();
+			double start = -t.getForeShoulderLength();
+			revolve(edges, new double[] { start, 0 }, new double[] { r, r }, false, lod);
+			disk(edges, start, ir, r, false, lod);
+			disk(edges, 0, ir, r, true, lod);
+			disk(edges, 0, r, foreRadius, false, lod);
+			revolve(inside, new double[] { start, 0 }, new double[] { ir, ir }, true, lod);
+		}
+
+		return new ComponentMesh(outside.build(), inside.build(), edges.build());
+	}
+
+	/**
+	 * Return the axial stations of a transition.  The tip region is divided more
+	 * finely, since the radius of most shapes changes rapidly there.
+	 */
+	private static double[] transitionStations(double length, int stacks) {
+		double dzBase = length / stacks;
+		double[] x = new double[stacks + 16];
+		int n = 1;
+		double z = 0;
+		while (z < length) {
+			double dz = (z / length < 0.025) ? dzBase / 8 : dzBase;
+			z = Math.min(z + dz, length);
+			if (n == x.length) {
+				x = Arrays.copyOf(x, n * 2);
+			}
+			x[n++] = z;
+		}
+		return Arrays.copyOf(x, n);
+	}
+
+	private static double[] transitionRadii(Transition t, double[] x, double offset) {
+		double[] r = new double[x.length];
+		for (int i = 0; i < x.length; i++) {
+			r[i] = Math.max(0, t.getRadius(x[i]) + offset);
+		}
+		return r;
+	}
+
+	private ComponentMesh massObject(MassObject o) {
+		final double length = o.getLength();
+		if (length <= 0) {
+			return ComponentMesh.EMPTY;
+		}
+
+		MeshBuilder b = builder(Transformation.getTranslationTransform(0,
+				o.getRadialPosition() * Math.cos(o.getRadialDirection()),
+				o.getRadialPosition() * Math.sin(o.getRadialDirection())));
+
+		final int stacks = lod / 2;
+		double[] x = new double[stacks + 1];
+		double[] r = new double[stacks + 1];
+		for (int i = 0; i <= stacks; i++) {
+			x[i] = length * i / stacks;
+			r[i] = (i == stacks) ? 0 : massObjectRadius(o, x[i]);
+		}
+		revolve(b, x, r, false, lod / 2);
+
+		return new ComponentMesh(b.build(), Mesh.EMPTY, Mesh.EMPTY);
+	}
+
+	/**
+	 * Return the radius of the rounded cylinder used to represent mass objects.
+	 */
+	private static double massObjectRadius(MassObject o, double z) {
+		double arc = Math.min(o.getLength(), 2 * o.getRadius()) * 0.35;
+		double r = o.getRadius();
+		if (z == 0 || z == o.getLength())
+			return 0;
+		if (z < arc) {
+			double zz = z - arc;
+			return (r - arc) + Math.sqrt(arc * arc - zz * zz);
+		}
+		if (z > o.getLength() - arc) {
+			double zz = (z - o.getLength() + arc);
+			return (r - arc) + Math.sqrt(arc * arc - zz * zz);
+		}
+		return r;
+	}
+
+	private ComponentMesh finSet(FinSet fins) {
+		Coordinate[] points = toPolygon(fins.getFinPointsWithTab());
+		if (points.length < 3) {
+			return ComponentMesh.EMPTY;
+		}
+
+		// The fin is rotated by the cant angle around the middle of its root chord
+		final double pivot = fins.getLength() / 2;
+		Transformation frame = Transformation.getTranslationTransform(pivot, 0, 0)
+				.applyTransformation(Transformation.rotate_y(fins.getCantAngle()))
+				.applyTransformation(Transformation.getTranslationTransform(-pivot, 0, 0));
+		MeshBuilder right = builder(frame);
+		MeshBuilder left = builder(frame);
+		MeshBuilder edges = builder(frame);
+
+		final double halfThickness = fins.getThickness() / 2;
+		final BoundingBox bounds = fins.getInstanceBoundingBox();
+		final double minX = bounds.min.x;
+		final double minY = bounds.min.y;
+		final double width = (bounds.max.x > minX) ? bounds.max.x - minX : 1;
+		final double height = (bounds.max.y > minY) ? bounds.max.y - minY : 1;
+
+		// Side surfaces, the right side (+z) is drawn with the inside appearance
+		int[] triangles = triangulate(points);
+		for (Coordinate p : points) {
+			double s = (p.x - minX) / width;
+			double t = (p.y - minY) / height;
+			right.addVertex(p.x, p.y, p.z + halfThickness, 0, 0, 1, s, t);
+			left.addVertex(p.x, p.y, p.z - halfThickness, 0, 0, -1, s, t);
+		}
+		for (int i = 0; i < triangles.length; i += 3) {
+			right.addTriangle(triangles[i], triangles[i + 1], triangles[i + 2]);
+			left.addTriangle(triangles[i], triangles[i + 2], triangles[i + 1]);
+		}
+
+		// Edge strip, with flat shading except for elliptical fins
+		final boolean smooth = fins instanceof EllipticalFinSet;
+		final int n = points.length;
+		double[] nx = new double[n];
+		double[] ny = new double[n];
+		for (int i = 0; i < n; i++) {
+			Coordinate p = points[i];
+			Coordinate q = points[(i + 1) % n];
+			double length = Math.hypot(q.x - p.x, q.y - p.y);
+			nx[i] = (q.y - p.y) / length;
+			ny[i] = -(q.x - p.x) / length;
+		}
+		for (int i = 0; i < n; i++) {
+			int j = (i + 1) % n;
+			int prev = (i + n - 1) % n;
+			Coordinate p = points[i];
+			Coordinate q = points[j];
+			double pnx = smooth ? nx[prev] + nx[i] : nx[i];
+			double pny = smooth ? ny[prev] + ny[i] : ny[i];
+			double qnx = smooth ? nx[i] + nx[j] : nx[i];
+			double qny = smooth ? ny[i] + ny[j] : ny[i];
+			double ps = (p.x - minX) / width, pt = (p.y - minY) / height;
+			double qs = (q.x - minX) / width, qt = (q.y - minY) / height;
+			int a = edges.addVertex(p.x, p.y, p.z - halfThickness, pnx, pny, 0, ps, pt);
+			int b = edges.addVertex(p.x, p.y, p.z + halfThickness, pnx, pny, 0, ps, pt);
+			int c = edges.addVertex(q.x, q.y, q.z - halfThickness, qnx, qny, 0, qs, qt);
+			int d = edges.addVertex(q.x, q.y, q.z + halfThickness, qnx, qny, 0, qs, qt);
+			edges.addTriangle(a, c, b);
+			edges.addTriangle(b, c, d);
+		}
+
+		return new ComponentMesh(left.build(), right.build(), edges.build());
+	}
+
+	/**
+	 * Return the points of a fin outline as a counter-clockwise polygon without
+	 * repeated points.
+	 */
+	static Coordinate[] toPolygon(Coordinate[] outline) {
+		List<Coordinate> points = new ArrayList<Coordinate>(outline.length);
+		for (Coordinate c : outline) {
+			if (points.isEmpty() || !samePoint(points.get(points.size() - 1), c)) {
+				points.add(c);
+			}
+		}
+		while (points.size() > 1 && samePoint(points.get(0), points.get(points.size() - 1))) {
+			points.remove(points.size() - 1);
+		}
+
+		double area = 0;
+		for (int i = 0; i < points.size(); i++) {
+			Coordinate p = points.get(i);
+			Coordinate q = points.get((i + 1) % points.size());
+			area += p.x * q.y - q.x * p.y;
+		}
+		Coordinate[] polygon = new Coordinate[points.size()];
+		for (int i = 0; i < polygon.length; i++) {
+			polygon[i] = points.get(area < 0 ? polygon.length - 1 - i : i);
+		}
+		return polygon;
+	}
+
+	private static boolean samePoint(Coordinate a, Coordinate b) {
+		return a.x == b.x && a.y == b.y;
+	}
+
+	/**
+	 * Triangulate a counter-clockwise polygon in the xy plane by ear clipping.
+	 *
+	 * @return	the point indices of the counter-clockwise triangles.
+	 */
+	static int[] triangulate(Coordinate[] polygon) {
+		int count = polygon.length;
+		int[] remaining = new int[count];
+		for (int i = 0; i < count; i++) {
+			remaining[i] = i;
+		}
+		int[] triangles = new int[3 * Math.max(0, count - 2)];
+		int n = 0;
+
+		while (count > 3) {
+			int clip = -1;
+			int collinear = -1;
+			for (int k = 0; k < count && clip < 0; k++) {
+				int a = remaining[(k + count - 1) % count];
+				int b = remaining[k];
+				int c = remaining[(k + 1) % count];
+				double cross = cross(polygon[a], polygon[b], polygon[c]);
+				if (cross > 0 && isEmpty(polygon, remaining, count, a, b, c)) {
+					clip = k;
+				} else if (cross == 0 && collinear < 0) {
+					collinear = k;
+				}
+			}
+
+			if (clip < 0 && collinear >= 0) {
+				// Drop the vertex without adding a triangle
+				System.arraycopy(remaining, collinear + 1, remaining, collinear, count - collinear - 1);
+				count--;
+				continue;
+			}
+			if (clip < 0) {
+				// Self-intersecting outline, clip any vertex
+				clip = 0;
+			}
+			triangles[n++] = remaining[(clip + count - 1) % count];
+			triangles[n++] = remaining[clip];
+			triangles[n++] = remaining[(clip + 1) % count];
+			System.arraycopy(remaining, clip + 1, remaining, clip, count - clip - 1);
+			count--;
+		}
+		if (count == 3) {
+			triangles[n++] = remaining[0];
+			triangles[n++] = remaining[1];
+			triangles[n++] = remaining[2];
+		}
+		return Arrays.copyOf(triangles, n);
+	}
+
+	private static double cross(Coordinate a, Coordinate b, Coordinate c) {
+		return (b.x - a.x) * (c.y - b.y) - (b.y - a.y) * (c.x - b.x);
+	}
+
+	/**
+	 * Return whether no other remaining vertex lies inside the triangle abc.
+	 */
+	private static boolean isEmpty(Coordinate[] polygon, int[] remaining, int count, int a, int b, int c) {
+		Coordinate pa = polygon[a], pb = polygon[b], pc = polygon[c];
+		for (int k = 0; k < count; k++) {
+			int i = remaining[k];
+			if (i == a || i == b || i == c) {
+				continue;
+			}
+			Coordinate p = polygon[i];
+			if (samePoint(p, pa) || samePoint(p, pb) || samePoint(p, pc)) {
+				continue;
+			}
+			if (cross(pa, pb, p) >= 0 && cross(pb, pc, p) >= 0 && cross(pc, pa, p) >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Add a surface of revolution around the x axis.  The profile is given by the
+	 * radii at increasing axial stations, and the normals are computed from the
+	 * slope of the profile.
+	 *
+	 * @param inward	whether the surface faces towards the axis.
+	 */
+	private static void revolve(MeshBuilder b, double[] x, double[] r, boolean inward, int slices) {
+		final int n = x.length;
+		final double length = x[n - 1] - x[0];
+		final double sign = inward ? -1 : 1;
+		int[] first = new int[n];
+
+		for (int k = 0; k < n; k++) {
+			int k0 = Math.max(0, k - 1);
+			int k1 = Math.min(n - 1, k + 1);
+			double dx = x[k1] - x[k0];
+			double slope = (dx > 0) ? (r[k1] - r[k0]) / dx : 0;
+			double t = (length > 0) ? (x[k] - x[0]) / length : 0;
+
+			first[k] = b.getVertexCount();
+			for (int i = 0; i <= slices; i++) {
+				double angle = 2 * Math.PI * (i % slices) / slices;
+				double cos = Math.cos(angle);
+				double sin = Math.sin(angle);
+				b.addVertex(x[k], r[k] * cos, -r[k] * sin,
+						-slope * sign, cos * sign, -sin * sign, (double) i / slices, t);
+			}
+		}
+
+		for (int k = 0; k < n - 1; k++) {
+			if ((r[k] == 0 && r[k + 1] == 0) || (x[k] == x[k + 1] && r[k] == r[k + 1])) {
+				continue;
+			}
+			for (int i = 0; i < slices; i++) {
+				int a = first[k] + i;
+				int c = first[k + 1] + i;
+				// Skip the degenerate triangles at the tips
+				if (r[k] != 0) {
+					if (inward) {
+						b.addTriangle(a, a + 1, c);
+					} else {
+						b.addTriangle(a, c, a + 1);
+					}
+				}
+				if (r[k + 1] != 0) {
+					if (inward) {
+						b.addTriangle(a + 1, c + 1, c);
+					} else {
+						b.addTriangle(a + 1, c, c + 1);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add an annulus perpendicular to the x axis.
+	 *
+	 * @param aft	whether the annulus faces in the positive x direction.
+	 */
+	private static void disk(MeshBuilder b, double x, double innerRadius, double outerRadius, boolean aft, int slices) {
+		if (outerRadius <= innerRadius) {
+			return;
+		}
+		final double nx = aft ? 1 : -1;
+		final boolean center = innerRadius <= 0;
+
+		int outer = b.getVertexCount();
+		int inner = outer + slices + 1;
+		for (int ring = 0; ring < (center ? 1 : 2); ring++) {
+			double r = (ring == 0) ? outerRadius : innerRadius;
+			for (int i = 0; i <= slices; i++) {
+				double angle = 2 * Math.PI * (i % slices) / slices;
+				double cos = Math.cos(angle);
+				double sin = Math.sin(angle);
+				b.addVertex(x, r * cos, -r * sin, nx, 0, 0,
+						0.5 + sin * r / (2 * outerRadius), 0.5 + cos * r / (2 * outerRadius));
+			}
+		}
+		if (center) {
+			b.addVertex(x, 0, 0, nx, 0, 0, 0.5, 0.5);
+		}
+
+		for (int i = 0; i < slices; i++) {
+			int o = outer + i;
+			if (center) {
+				if (aft) {
+					b.addTriangle(inner, o + 1, o);
+				} else {
+					b.addTriangle(inner, o, o + 1);
+				}
+			} else {
+				int in = inner + i;
+				if (aft) {
+					b.addTriangle(in, in + 1, o);
+					b.addTriangle(in + 1, o + 1, o);
+				} else {
+					b.addTriangle(in, o, in + 1);
+					b.addTriangle(in + 1, o, o + 1);
+				}
+			}
+		}
+	}
+}
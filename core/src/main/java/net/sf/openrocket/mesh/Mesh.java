@@ -0,0 +1,84 @@
+package net.sf.openrocket.mesh;
+
+/**
+ * An immutable indexed triangle mesh.  Each vertex has a position, a unit normal
+ * and a texture coordinate, stored in flat arrays suitable for vertex buffers.
+ * The triangles are wound counter-clockwise when seen from the side the normals
+ * point to.
+ * <p>
+ * The arrays returned by the getters are the internal arrays of the mesh and
+ * must not be modified.
+ */
+public final class Mesh {
+
+	/** A mesh containing no triangles. */
+	public static final Mesh EMPTY = new Mesh(new float[0], new float[0], new float[0], new int[0]);
+
+	private final float[] vertices;
+	private final float[] normals;
+	private final float[] textureCoordinates;
+	private final int[] indices;
+
+	Mesh(float[] vertices, float[] normals, float[] textureCoordinates, int[] indices) {
+		this.vertices = vertices;
+		this.normals = normals;
+		this.textureCoordinates = textureCoordinates;
+		this.indices = indices;
+	}
+
+
+	/**
+	 * Return the number of vertices in the mesh.
+	 */
+	public int getVertexCount() {
+		return vertices.length / 3;
+	}
+
+	/**
+	 * Return the number of triangles in the mesh.
+	 */
+	public int getTriangleCount() {
+		return indices.length / 3;
+	}
+
+	/**
+	 * Return whether the mesh contains no triangles.
+	 */
+	public boolean isEmpty() {
+		return indices.length == 0;
+	}
+
+	/**
+	 * Return the vertex positions as consecutive (x, y, z) triplets.
+	 */
+	public float[] getVertices() {
+		return vertices;
+	}
+
+	/**
+	 * Return the vertex normals as consecutive (x, y, z) triplets.
+	 */
+	public float[] getNormals() {
+		return normals;
+	}
+
+	/**
+	 * Return the texture coordinates as consecutive (s, t) pairs.
+	 */
+	public float[] getTextureCoordinates() {
+		return textureCoordinates;
+	}
+
+	/**
+	 * Return the vertex indices of the triangles, three per triangle.
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+
+
+	@Override
+	public String toString() {
+		return "Mesh[vertices=" + getVertexCount() + ", triangles=" + getTriangleCount() + "]";
+	}
+}
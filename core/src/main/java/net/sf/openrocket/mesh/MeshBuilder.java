@@ -0,0 +1,106 @@
+package net.sf.openrocket.mesh;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.Transformation;
+
+/**
+ * A builder for {@link Mesh} objects.  Vertices are added one at a time and
+ * referenced by their index when adding triangles.  An optional transformation
+ * is applied to the positions and normals of the vertices as they are added.
+ */
+public final class MeshBuilder {
+
+	private float[] vertices = new float[3 * 64];
+	private float[] normals = new float[3 * 64];
+	private float[] textureCoordinates = new float[2 * 64];
+	private int vertexCount = 0;
+
+	private int[] indices = new int[3 * 64];
+	private int indexCount = 0;
+
+	private Transformation transformation = Transformation.IDENTITY;
+
+
+	/**
+	 * Set the transformation applied to the vertices added after this call.
+	 * The transformation must not contain scaling.
+	 */
+	public void setTransformation(Transformation transformation) {
+		this.transformation = transformation;
+	}
+
+	/**
+	 * Add a vertex.  The normal is normalized before storing it.
+	 *
+	 * @return	the index of the vertex.
+	 */
+	public int addVertex(double x, double y, double z, double nx, double ny, double nz, double s, double t) {
+		if (vertexCount * 3 == vertices.length) {
+			int size = vertices.length * 2;
+			vertices = Arrays.copyOf(vertices, size);
+			normals = Arrays.copyOf(normals, size);
+			textureCoordinates = Arrays.copyOf(textureCoordinates, size / 3 * 2);
+		}
+
+		if (!transformation.isIdentity()) {
+			Coordinate p = transformation.transform(new Coordinate(x, y, z));
+			Coordinate n = transformation.linearTransform(new Coordinate(nx, ny, nz));
+			x = p.x;
+			y = p.y;
+			z = p.z;
+			nx = n.x;
+			ny = n.y;
+			nz = n.z;
+		}
+		double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if (length > 0) {
+			nx /= length;
+			ny /= length;
+			nz /= length;
+		}
+
+		int i = vertexCount * 3;
+		vertices[i] = (float) x;
+		vertices[i + 1] = (float) y;
+		vertices[i + 2] = (float) z;
+		normals[i] = (float) nx;
+		normals[i + 1] = (float) ny;
+		normals[i + 2] = (float) nz;
+		textureCoordinates[vertexCount * 2] = (float) s;
+		textureCoordinates[vertexCount * 2 + 1] = (float) t;
+		return vertexCount++;
+	}
+
+	/**
+	 * Add a triangle.  The vertices must be given in counter-clockwise order when
+	 * seen from the front side of the triangle.
+	 */
+	public void addTriangle(int a, int b, int c) {
+		if (indexCount == indices.length) {
+			indices = Arrays.copyOf(indices, indices.length * 2);
+		}
+		indices[indexCount++] = a;
+		indices[indexCount++] = b;
+		indices[indexCount++] = c;
+	}
+
+	/**
+	 * Return the number of vertices added so far.
+	 */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Build a mesh of the vertices and triangles added so far.
+	 */
+	public Mesh build() {
+		if (indexCount == 0) {
+			return Mesh.EMPTY;
+		}
+		return new Mesh(Arrays.copyOf(vertices, vertexCount * 3), Arrays.copyOf(normals, vertexCount * 3),
+				Arrays.copyOf(textureCoordinates, vertexCount * 2), Arrays.copyOf(indices, indexCount));
+	}
+}
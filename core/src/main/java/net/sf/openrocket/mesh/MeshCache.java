@@ -0,0 +1,130 @@
+package net.sf.openrocket.mesh;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+
+/**
+ * A cache of component meshes, so that only the components whose geometry has
+ * changed are tessellated again.
+ * <p>
+ * The meshes are stored by component ID.  A cached mesh is returned directly if
+ * the rocket has not been modified since it was last requested, as given by the
+ * modification ID of the rocket.  Otherwise the geometry key of the component is
+ * compared with the key of the cached mesh.  The key is used instead of tracking
+ * change events of the component, since the geometry of a component may change
+ * without events of its own, for example when an automatic radius follows the
+ * neighbouring components or when undo replaces the component objects.
+ * <p>
+ * This class is thread-safe.
+ */
+public class MeshCache {
+
+	private final ComponentTessellator tessellator;
+	private final Map<String, Entry> entries = new HashMap<String, Entry>();
+	private int tessellationCount = 0;
+
+	public MeshCache() {
+		this(new ComponentTessellator());
+	}
+
+	public MeshCache(ComponentTessellator tessellator) {
+		this.tessellator = tessellator;
+	}
+
+
+	public ComponentTessellator getTessellator() {
+		return tessellator;
+	}
+
+
+	/**
+	 * Return the mesh of a component, tessellating it if it is not cached or its
+	 * geometry has changed.
+	 *
+	 * @param component		the component, which must be supported by the tessellator.
+	 * @return				the mesh of the component.
+	 */
+	public synchronized ComponentMesh getMesh(RocketComponent component) {
+		final int modID = getModID(component);
+		Entry entry = entries.get(component.getID());
+		if (entry != null && entry.component == component && modID >= 0 && entry.modID == modID) {
+			return entry.mesh;
+		}
+
+		Object key = tessellator.getGeometryKey(component);
+		if (entry == null || !entry.key.equals(key)) {
+			entry = new Entry(key, tessellator.tessellate(component));
+			entries.put(component.getID(), entry);
+			tessellationCount++;
+		}
+		entry.component = component;
+		entry.modID = modID;
+		return entry.mesh;
+	}
+
+	/**
+	 * Return the modification ID of the rocket containing the component, or -1 if
+	 * it cannot be used for detecting modifications.
+	 */
+	private static int getModID(RocketComponent component) {
+		RocketComponent root = component.getRoot();
+		if (root instanceof Rocket && ((Rocket) root).isEventsEnabled()) {
+			return ((Rocket) root).getModID();
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Remove the meshes of all components except the given ones.
+	 *
+	 * @param components	the components whose meshes are kept.
+	 */
+	public synchronized void retain(Collection<? extends RocketComponent> components) {
+		Set<String> ids = new HashSet<String>();
+		for (RocketComponent c : components) {
+			ids.add(c.getID());
+		}
+		entries.keySet().retainAll(ids);
+	}
+
+	/**
+	 * Remove all cached meshes.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Return the number of cached meshes.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Return the number of tessellations performed by this cache.
+	 */
+	public synchronized int getTessellationCount() {
+		return tessellationCount;
+	}
+
+
+	private static final class Entry {
+		private final Object key;
+		private final ComponentMesh mesh;
+		private RocketComponent component;
+		private int modID;
+
+		private Entry(Object key, ComponentMesh mesh) {
+			this.key = key;
+			this.mesh = mesh;
+		}
+	}
+}
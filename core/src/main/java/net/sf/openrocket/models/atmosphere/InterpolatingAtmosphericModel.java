@@ -10,25 +10,26 @@ public abstract class InterpolatingAtmosphericModel implements AtmosphericModel
 	/** Layer thickness of interpolated altitude. */
 	private static final double DELTA = 500;
 	
-	private AtmosphericConditions[] levels = null;
+	private volatile AtmosphericConditions[] levels = null;
 	
 	
 	@Override
 	public AtmosphericConditions getConditions(double altitude) {
+		AtmosphericConditions[] levels = this.levels;
 		if (levels == null)
-			computeLayers();
+			levels = computeLayers();
 		
 		if (altitude <= 0) {
 			// TODO: LOW: levels[0] returned null in some cases, see GitHub issue #952 for more information
 			if (levels[0] == null) {
-				computeLayers();
+				levels = computeLayers();
 			}
 			return levels[0];
 		}
 		if (altitude >= DELTA * (levels.length - 1)) {
 			// TODO: LOW: levels[levels.length - 1] returned null in some cases, see GitHub issue #952 for more information
 			if (levels[levels.length - 1] == null) {
-				computeLayers();
+				levels = computeLayers();
 			}
 			return levels[levels.length - 1];
 		}
@@ -43,13 +44,19 @@ public abstract class InterpolatingAtmosphericModel implements AtmosphericModel
 	}
 	
 	
-	private void computeLayers() {
+	/**
+	 * Compute the layers.  The layers are published only after they have all been computed,
+	 * so a model may be shared between simulations running concurrently.
+	 */
+	private AtmosphericConditions[] computeLayers() {
 		double max = getMaxAltitude();
 		int n = (int) (max / DELTA) + 1;
-		levels = new AtmosphericConditions[n];
+		AtmosphericConditions[] layers = new AtmosphericConditions[n];
 		for (int i = 0; i < n; i++) {
-			levels[i] = getExactConditions(i * DELTA);
+			layers[i] = getExactConditions(i * DELTA);
 		}
+		levels = layers;
+		return layers;
 	}
 	
 	
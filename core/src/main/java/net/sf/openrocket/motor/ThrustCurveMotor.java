@@ -1,5 +1,7 @@
 package net.sf.openrocket.motor;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.text.Collator;
 import java.util.Arrays;
@@ -61,6 +63,9 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	private double unitRotationalInertia;
 	private double unitLongitudinalInertia;
 	
+	// Source of the time, thrust and cg arrays if not yet decoded
+	private transient volatile ThrustCurveSource curveSource = null;
+	
 	public static class Builder {
 		
 		ThrustCurveMotor motor = new ThrustCurveMotor();
@@ -149,6 +154,27 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 			motor.available = avail;
 			return this;
 		}
+		
+		/**
+		 * Set a source from which the thrust curve is decoded on first access, instead of
+		 * setting the time, thrust and CG points.  The statistics of the curve are given
+		 * explicitly, as they are needed without decoding the curve.
+		 * 
+		 * @param source			the source of the thrust curve.
+		 * @param maxThrust			the maximum thrust of the curve.
+		 * @param burnTimeEstimate	the burn time estimate of the curve.
+		 * @param averageThrust		the average thrust estimate of the curve.
+		 * @param totalImpulse		the total impulse of the curve.
+		 */
+		public Builder setThrustCurveSource(ThrustCurveSource source, double maxThrust, double burnTimeEstimate,
+				double averageThrust, double totalImpulse) {
+			motor.curveSource = source;
+			motor.maxThrust = maxThrust;
+			motor.burnTimeEstimate = burnTimeEstimate;
+			motor.averageThrust = averageThrust;
+			motor.totalImpulse = totalImpulse;
+			return this;
+		}
 	
 		/**
 		 * Simplify a motor designation, if possible.  This attempts to reduce the designation
@@ -169,7 +195,40 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		}
 		
 		public ThrustCurveMotor build() {
-			// Check argument validity
+			// Check argument validity, a curve decoded later has been verified when stored
+			if (motor.curveSource == null) {
+				verifyCurve();
+			}
+			
+			if (motor.type != Motor.Type.SINGLE && motor.type != Motor.Type.RELOAD &&
+					motor.type != Motor.Type.HYBRID && motor.type != Motor.Type.UNKNOWN) {
+				throw new IllegalArgumentException("Illegal motor type=" + motor.type);
+			}
+			
+			motor.unitRotationalInertia = Inertia.filledCylinderRotational( motor.diameter / 2);
+			motor.unitLongitudinalInertia = Inertia.filledCylinderLongitudinal( motor.diameter / 2, motor.length);
+
+			// If I don't have a motor designation (will be the case if I read the thrustcurve from a file)
+			// use the motor code
+			if (motor.designation.equals("")) {
+				motor.designation = motor.code;
+			}
+
+			// If I don't have a motor common name (will be the case if I read the thrustcurve from a flle)
+			// apply the motor code simplification heuristics to generate a common name
+			if (motor.commonName.equals("")) {
+				motor.commonName = simplifyDesignation(motor.designation);
+			}
+				
+
+			if (motor.curveSource == null) {
+				motor.computeStatistics();
+			}
+			
+			return motor;
+		}
+		
+		private void verifyCurve() {
 			if ((motor.time.length != motor.thrust.length) || (motor.time.length != motor.cg.length)) {
 				throw new IllegalArgumentException("Array lengths do not match, " +
 						"time:" + motor.time.length + " thrust:" + motor.thrust.length +
@@ -226,31 +285,6 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 					throw new IllegalArgumentException("Negative mass " + c.weight + "at time=" + motor.time[Arrays.asList(motor.cg).indexOf(c)]);
 				}
 			}
-			
-			if (motor.type != Motor.Type.SINGLE && motor.type != Motor.Type.RELOAD &&
-					motor.type != Motor.Type.HYBRID && motor.type != Motor.Type.UNKNOWN) {
-				throw new IllegalArgumentException("Illegal motor type=" + motor.type);
-			}
-			
-			motor.unitRotationalInertia = Inertia.filledCylinderRotational( motor.diameter / 2);
-			motor.unitLongitudinalInertia = Inertia.filledCylinderLongitudinal( motor.diameter / 2, motor.length);
-
-			// If I don't have a motor designation (will be the case if I read the thrustcurve from a file)
-			// use the motor code
-			if (motor.designation.equals("")) {
-				motor.designation = motor.code;
-			}
-
-			// If I don't have a motor common name (will be the case if I read the thrustcurve from a flle)
-			// apply the motor code simplification heuristics to generate a common name
-			if (motor.commonName.equals("")) {
-				motor.commonName = simplifyDesignation(motor.designation);
-			}
-				
-
-			motor.computeStatistics();
-			
-			return motor;
 		}
 		
 	}
@@ -266,11 +300,37 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	}
 	
 	
+	/**
+	 * Decode the thrust curve from its source, if it has not been decoded yet.  This
+	 * must be called before accessing the time, thrust or cg arrays.
+	 */
+	private void loadCurve() {
+		if (curveSource != null) {
+			synchronized (this) {
+				ThrustCurveSource source = curveSource;
+				if (source != null) {
+					time = source.getTimePoints();
+					thrust = source.getThrustPoints();
+					cg = source.getCGPoints();
+					// The volatile write publishes the arrays to other threads
+					curveSource = null;
+				}
+			}
+		}
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		loadCurve();
+		out.defaultWriteObject();
+	}
+	
+	
 	/**
 	 * Return the array of time points for this thrust curve.
 	 * @return	an array of time points where the thrust is sampled
 	 */
 	public double[] getTimePoints() {
+		loadCurve();
 		return time.clone();
 	}
 	
@@ -285,6 +345,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	 * @return a pseudo index to this motor's data. 
 	 */
 	protected double getPseudoIndex( final double motorTime ){
+		loadCurve();
 		if(( time.length == 0 )||( 0 > motorTime )){
 			return Double.NaN;
 		}
@@ -335,6 +396,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	
 	@Override
 	public double getAverageThrust( final double startTime, final double endTime ) {
+		loadCurve();
 		
 		int timeIndex = 0;
 		
@@ -422,6 +484,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	 * @return	an array of thrust samples
 	 */
 	public double[] getThrustPoints() {
+		loadCurve();
 		return thrust.clone();
 	}
 	
@@ -434,6 +497,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	//	}
 	
 	public Coordinate[] getCGPoints(){
+		loadCurve();
 		return cg;
 	}
 	
@@ -530,26 +594,31 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	
 	@Override
 	public double getLaunchCGx() {
+		loadCurve();
 		return cg[0].x;//cgx[0];
 	}
 	
 	@Override
 	public double getBurnoutCGx() {
+		loadCurve();
 		return cg[cg.length - 1].x;// cgx[ cg.length - 1];
 	}
 	
 	@Override
 	public double getLaunchMass() {
+		loadCurve();
 		return cg[0].weight;//mass[0];
 	}
 	
 	@Override
 	public double getBurnoutMass() {
+		loadCurve();
 		return cg[cg.length-1].weight; //mass[mass.length - 1];
 	}	
 	
 	@Override
 	public double getBurnTime() {
+		loadCurve();
 		return time[time.length-1];
 	}
 	
@@ -610,6 +679,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	}
 	
 	protected Coordinate interpolateCenterOfMassAtIndex( final double pseudoIndex ){
+		loadCurve();
 		final double SNAP_TOLERANCE = 0.0001;
 		
 		final double upperFrac = pseudoIndex%1;
@@ -632,6 +702,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	}
 	
 	public int getDataSize() {
+		loadCurve();
 		return this.time.length;
 	}
 	
@@ -661,6 +732,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	}
 	
 	public double getCutOffTime() {
+		loadCurve();
 		return time[time.length - 1];
 	}
 	
@@ -798,6 +870,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	 * @return return the size of the data arrays
 	 */
 	public int getSampleSize(){
+		loadCurve();
 		return time.length;
 	}
 	
@@ -0,0 +1,29 @@
+package net.sf.openrocket.motor;
+
+import net.sf.openrocket.util.Coordinate;
+
+/**
+ * A source of the thrust curve data of a {@link ThrustCurveMotor} that is decoded only
+ * when the curve is first accessed.  The arrays returned must be valid thrust curve data,
+ * as they are not verified again when the curve is decoded.
+ * <p>
+ * The methods are called at most once per motor, in an arbitrary thread.
+ */
+public interface ThrustCurveSource {
+
+	/**
+	 * Return the time points of the thrust curve.
+	 */
+	public double[] getTimePoints();
+
+	/**
+	 * Return the thrust values at the time points.
+	 */
+	public double[] getThrustPoints();
+
+	/**
+	 * Return the CG and mass of the motor at the time points.
+	 */
+	public Coordinate[] getCGPoints();
+
+}
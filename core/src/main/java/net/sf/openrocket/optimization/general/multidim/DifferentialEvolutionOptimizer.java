@@ -0,0 +1,280 @@
+package net.sf.openrocket.optimization.general.multidim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.optimization.general.FunctionCache;
+import net.sf.openrocket.optimization.general.FunctionOptimizer;
+import net.sf.openrocket.optimization.general.OptimizationController;
+import net.sf.openrocket.optimization.general.OptimizationException;
+import net.sf.openrocket.optimization.general.ParallelFunctionCache;
+import net.sf.openrocket.optimization.general.Point;
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.Statistics;
+
+/**
+ * An implementation of the differential evolution algorithm by Storn and Price
+ * (DE/rand/1/bin).
+ * <p>
+ * This is a population-based global optimization algorithm.  Each generation creates
+ * one trial point per population member, and all trial points of a generation are
+ * computed in parallel using the function cache.  The population size therefore
+ * determines how many function evaluations can run concurrently; by default it is at
+ * least the number of processors available.
+ * <p>
+ * The search is performed within the unit hypercube [0,1]^n.  The step size reported
+ * to the optimization controller is the largest extent of the population along any
+ * coordinate axis, which decreases as the population converges.
+ * <p>
+ * The optimization can be aborted by interrupting the current thread.
+ */
+public class DifferentialEvolutionOptimizer implements FunctionOptimizer, Statistics {
+	private static final Logger log = LoggerFactory.getLogger(DifferentialEvolutionOptimizer.class);
+
+	/** The smallest population that allows choosing three other members for mutation */
+	private static final int MIN_POPULATION_SIZE = 4;
+	/** The population size per dimension used by default */
+	private static final int POPULATION_PER_DIMENSION = 5;
+
+	/** The differential weight */
+	private static final double DIFFERENTIAL_WEIGHT = 0.7;
+	/** The crossover probability */
+	private static final double CROSSOVER_PROBABILITY = 0.9;
+
+	private final List<Point> population = new ArrayList<Point>();
+	private Point best = null;
+
+	private ParallelFunctionCache functionExecutor;
+	private final int populationSize;
+	private final Random random;
+
+	private int generationCount = 0;
+	private int evaluationCount = 0;
+	private int trialAcceptance = 0;
+	private int bestImprovement = 0;
+
+
+	public DifferentialEvolutionOptimizer() {
+		this(null);
+	}
+
+	public DifferentialEvolutionOptimizer(ParallelFunctionCache functionCache) {
+		this(functionCache, 0, new Random());
+	}
+
+	/**
+	 * Construct an optimizer with a specific population size and random number source.
+	 *
+	 * @param functionCache		the function cache used to evaluate the function.
+	 * @param populationSize	the population size, or zero to select it based on the
+	 * 							dimensionality and the number of processors.
+	 * @param random			the random number source.
+	 */
+	public DifferentialEvolutionOptimizer(ParallelFunctionCache functionCache, int populationSize, Random random) {
+		if (populationSize != 0 && populationSize < MIN_POPULATION_SIZE) {
+			throw new IllegalArgumentException("Population size must be at least " + MIN_POPULATION_SIZE + ": " +
+					populationSize);
+		}
+		this.functionExecutor = functionCache;
+		this.populationSize = populationSize;
+		this.random = random;
+	}
+
+
+	@Override
+	public void optimize(Point initial, OptimizationController control) throws OptimizationException {
+		final int dim = initial.dim();
+		int size = populationSize;
+		if (size == 0) {
+			size = Math.max(MIN_POPULATION_SIZE,
+					Math.max(POPULATION_PER_DIMENSION * dim, Runtime.getRuntime().availableProcessors()));
+		}
+		log.info("Starting optimization at " + initial + " with population size " + size);
+
+		// The initial population is the initial point and random points within the search space
+		population.clear();
+		population.add(initial);
+		while (population.size() < size) {
+			double[] p = new double[dim];
+			for (int i = 0; i < dim; i++) {
+				p[i] = random.nextDouble();
+			}
+			population.add(new Point(p));
+		}
+		best = initial;
+
+		try {
+
+			functionExecutor.compute(population);
+			functionExecutor.waitFor(population);
+			evaluationCount += population.size();
+			best = findBest(population);
+
+			List<Point> trials = new ArrayList<Point>(size);
+			boolean continueOptimization = true;
+			while (continueOptimization) {
+
+				generationCount++;
+				Point oldBest = best;
+				double oldBestValue = functionExecutor.getValue(oldBest);
+
+				// Compute all trial points of the generation in parallel
+				trials.clear();
+				for (int i = 0; i < size; i++) {
+					trials.add(createTrial(i));
+				}
+				functionExecutor.compute(trials);
+				functionExecutor.waitFor(trials);
+				evaluationCount += trials.size();
+
+				// Select the better of each target and trial point
+				for (int i = 0; i < size; i++) {
+					Point trial = trials.get(i);
+					if (functionExecutor.getValue(trial) <= functionExecutor.getValue(population.get(i))) {
+						population.set(i, trial);
+						trialAcceptance++;
+					}
+				}
+				best = findBest(population);
+				if (functionExecutor.getValue(best) < oldBestValue) {
+					bestImprovement++;
+				}
+
+				log.debug("Generation " + generationCount + " best point " + best + " value " +
+						functionExecutor.getValue(best));
+
+				continueOptimization = control.stepTaken(oldBest, oldBestValue, best,
+						functionExecutor.getValue(best), getPopulationExtent());
+
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+			}
+
+		} catch (InterruptedException e) {
+			log.info("Optimization was interrupted with InterruptedException");
+			functionExecutor.abortAll();
+		}
+
+		log.info("Finishing optimization at point " + best + " value = " + functionExecutor.getValue(best));
+		log.info("Optimization statistics: " + getStatistics());
+	}
+
+
+	/**
+	 * Create the trial point for a population member by mutation and crossover.
+	 */
+	private Point createTrial(int target) {
+		final int size = population.size();
+		int a, b, c;
+		do {
+			a = random.nextInt(size);
+		} while (a == target);
+		do {
+			b = random.nextInt(size);
+		} while (b == target || b == a);
+		do {
+			c = random.nextInt(size);
+		} while (c == target || c == a || c == b);
+
+		Point x = population.get(target);
+		Point pa = population.get(a);
+		Point pb = population.get(b);
+		Point pc = population.get(c);
+
+		final int dim = x.dim();
+		final int forced = random.nextInt(dim);
+		double[] trial = new double[dim];
+		for (int i = 0; i < dim; i++) {
+			double current = MathUtil.clamp(x.get(i), 0, 1);
+			if (i == forced || random.nextDouble() < CROSSOVER_PROBABILITY) {
+				double v = pa.get(i) + DIFFERENTIAL_WEIGHT * (pb.get(i) - pc.get(i));
+				// Points outside the search space are moved halfway from the target to the bound
+				if (v < 0) {
+					v = current / 2;
+				} else if (v > 1) {
+					v = (current + 1) / 2;
+				}
+				trial[i] = v;
+			} else {
+				trial[i] = current;
+			}
+		}
+		return new Point(trial);
+	}
+
+	private Point findBest(List<Point> points) {
+		Point min = points.get(0);
+		for (Point p : points) {
+			if (functionExecutor.getValue(p) < functionExecutor.getValue(min)) {
+				min = p;
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Return the largest extent of the population along any coordinate axis.
+	 */
+	private double getPopulationExtent() {
+		double extent = 0;
+		for (int i = 0; i < best.dim(); i++) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (Point p : population) {
+				min = Math.min(min, p.get(i));
+				max = Math.max(max, p.get(i));
+			}
+			extent = Math.max(extent, max - min);
+		}
+		return extent;
+	}
+
+
+	@Override
+	public Point getOptimumPoint() {
+		if (best == null) {
+			throw new IllegalStateException("Optimization has not been called, population is empty");
+		}
+		return best;
+	}
+
+	@Override
+	public double getOptimumValue() {
+		return functionExecutor.getValue(getOptimumPoint());
+	}
+
+	@Override
+	public FunctionCache getFunctionCache() {
+		return functionExecutor;
+	}
+
+	@Override
+	public void setFunctionCache(FunctionCache functionCache) {
+		if (!(functionCache instanceof ParallelFunctionCache)) {
+			throw new IllegalArgumentException("Function cache needs to be a ParallelFunctionCache: " + functionCache);
+		}
+		this.functionExecutor = (ParallelFunctionCache) functionCache;
+	}
+
+	@Override
+	public String getStatistics() {
+		return "DifferentialEvolutionOptimizer[generationCount=" + generationCount +
+				", evaluationCount=" + evaluationCount +
+				", trialAcceptance=" + trialAcceptance +
+				", bestImprovement=" + bestImprovement + "]";
+	}
+
+	@Override
+	public void resetStatistics() {
+		generationCount = 0;
+		evaluationCount = 0;
+		trialAcceptance = 0;
+		bestImprovement = 0;
+	}
+
+}
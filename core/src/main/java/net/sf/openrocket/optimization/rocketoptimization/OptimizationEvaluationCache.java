@@ -0,0 +1,197 @@
+package net.sf.openrocket.optimization.rocketoptimization;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.openrocket.OpenRocketSaver;
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.BuildProperties;
+import net.sf.openrocket.util.PersistentCache;
+import net.sf.openrocket.util.TextUtil;
+
+/**
+ * A persistent, bounded cache of optimization parameter values computed by
+ * {@link RocketOptimizationFunction}.  The entries are keyed by a digest of the base
+ * simulation, the modifiers and their values and the optimized parameter, so the same
+ * cache can be shared by any number of optimization runs of any number of designs.
+ * <p>
+ * The cache holds at most a fixed number of entries, and the least recently used entries
+ * are evicted first.  The entries are stored in the cache file in the order of their use,
+ * so the order is preserved over saving and loading.  The cache file is tied to the
+ * OpenRocket version, since the simulation results may change between versions.  A cache
+ * file that cannot be read is ignored.
+ * <p>
+ * This class is thread-safe.
+ */
+public class OptimizationEvaluationCache extends PersistentCache {
+
+	/** The default maximum number of entries in the cache. */
+	public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+	/** The magic number at the start of the cache file, "OROE". */
+	private static final int MAGIC = 0x4F524F45;
+	private static final int VERSION = 1;
+
+	private final int maxEntries;
+
+	// The cached values in least recently used order
+	private final LinkedHashMap<String, Double> values;
+
+	/**
+	 * Construct a cache holding at most {@link #DEFAULT_MAX_ENTRIES} entries.  The cache
+	 * is empty until {@link #load()} is called.
+	 *
+	 * @param cacheFile		the file the cache is stored in.
+	 */
+	public OptimizationEvaluationCache(File cacheFile) {
+		this(cacheFile, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Construct a cache holding at most the specified number of entries.  The cache is
+	 * empty until {@link #load()} is called.
+	 *
+	 * @param cacheFile		the file the cache is stored in.
+	 * @param maxEntries	the maximum number of entries in the cache.
+	 */
+	public OptimizationEvaluationCache(File cacheFile, final int maxEntries) {
+		super(cacheFile, MAGIC, VERSION, "optimization cache");
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("Invalid maximum number of entries " + maxEntries);
+		}
+		this.maxEntries = maxEntries;
+		this.values = new LinkedHashMap<String, Double>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+
+	/**
+	 * Return the OpenRocket version, since the simulation results may change between
+	 * versions.
+	 */
+	@Override
+	protected String getTag() {
+		return BuildProperties.getVersion();
+	}
+
+
+	@Override
+	protected void clearEntries() {
+		values.clear();
+	}
+
+
+	@Override
+	protected int readEntries(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String key = in.readUTF();
+			values.put(key, in.readDouble());
+		}
+		return values.size();
+	}
+
+
+	/**
+	 * Return the cached value of a key, or <code>null</code> if the key is not cached.
+	 *
+	 * @param key	the key computed by the optimization function.
+	 * @return		the cached value, or <code>null</code>.
+	 */
+	public synchronized Double get(String key) {
+		return values.get(key);
+	}
+
+
+	/**
+	 * Add a value to the cache, evicting the least recently used entry if the cache is full.
+	 *
+	 * @param key		the key computed by the optimization function.
+	 * @param value		the value to cache.
+	 */
+	public synchronized void put(String key, double value) {
+		values.put(key, value);
+		setModified();
+	}
+
+
+	/**
+	 * Return the number of entries in the cache.
+	 */
+	public synchronized int size() {
+		return values.size();
+	}
+
+
+	/**
+	 * Return the maximum number of entries in the cache.
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+
+	/**
+	 * Remove all entries from the cache.  The cache file is emptied on the next save.
+	 */
+	public synchronized void clear() {
+		values.clear();
+		setModified();
+	}
+
+
+	@Override
+	protected int writeEntries(DataOutputStream out) throws IOException {
+		out.writeInt(values.size());
+		for (Map.Entry<String, Double> e : values.entrySet()) {
+			out.writeUTF(e.getKey());
+			out.writeDouble(e.getValue());
+		}
+		return values.size();
+	}
+
+
+	/**
+	 * Compute a digest of the rocket and the settings of a simulation.  Simulations that
+	 * have the same digest produce the same results, regardless of the simulation name,
+	 * status or stored flight data.
+	 *
+	 * @param simulation	the simulation.
+	 * @return				the digest as a hexadecimal string.
+	 */
+	public static String getSimulationDigest(Simulation simulation) {
+		MessageDigest md5 = newDigest();
+		try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), md5)) {
+			new OpenRocketSaver().saveSimulationSetup(out, simulation);
+		} catch (IOException e) {
+			throw new BugException("Writing to digest failed", e);
+		}
+		return TextUtil.hexString(md5.digest());
+	}
+
+
+	/**
+	 * Return a new MD5 message digest for computing cache keys.
+	 */
+	static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("MD5 digest not supported by JRE", e);
+		}
+	}
+
+}
@@ -1,5 +1,7 @@
 package net.sf.openrocket.optimization.rocketoptimization;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -11,10 +13,14 @@ import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.optimization.general.Function;
 import net.sf.openrocket.optimization.general.OptimizationException;
 import net.sf.openrocket.optimization.general.Point;
-import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.optimization.rocketoptimization.modifiers.FlightConfigurationModifier;
+import net.sf.openrocket.optimization.rocketoptimization.modifiers.GenericComponentModifier;
+import net.sf.openrocket.rocketcomponent.RocketWorkingCopy;
+import net.sf.openrocket.simulation.SimulationOptions;
 import net.sf.openrocket.unit.UnitGroup;
 import net.sf.openrocket.unit.Value;
 import net.sf.openrocket.util.Pair;
+import net.sf.openrocket.util.TextUtil;
 
 /**
  * A Function that optimizes a specific RocketOptimizationParameter to some goal
@@ -37,6 +43,15 @@ public class RocketOptimizationFunction implements Function {
 	private final SimulationDomain domain;
 	private final SimulationModifier[] modifiers;
 	
+	// The components modified by the modifiers, or null if they cannot be tracked
+	private final String[] modifiedComponentIds;
+	// The rocket of each evaluating thread, reused between evaluations
+	private final ThreadLocal<RocketWorkingCopy> workingCopy = new ThreadLocal<>();
+	
+	// The cache of parameter values and the digest of the base simulation, or null
+	private volatile OptimizationEvaluationCache evaluationCache = null;
+	private volatile String baseDigest = null;
+	
 
 	private final List<RocketOptimizationListener> listeners = new ArrayList<>();
 	
@@ -62,6 +77,21 @@ public class RocketOptimizationFunction implements Function {
 		if (modifiers.length == 0) {
 			throw new IllegalArgumentException("No SimulationModifiers specified");
 		}
+		this.modifiedComponentIds = getModifiedComponentIds(this.modifiers);
+	}
+	
+	private static String[] getModifiedComponentIds(SimulationModifier[] modifiers) {
+		String[] ids = new String[modifiers.length];
+		for (int i = 0; i < modifiers.length; i++) {
+			if (modifiers[i] instanceof GenericComponentModifier) {
+				ids[i] = ((GenericComponentModifier) modifiers[i]).getComponentId();
+			} else if (modifiers[i] instanceof FlightConfigurationModifier) {
+				ids[i] = ((FlightConfigurationModifier<?>) modifiers[i]).getComponentId();
+			} else {
+				return null;
+			}
+		}
+		return ids;
 	}
 	
 	
@@ -107,7 +137,20 @@ public class RocketOptimizationFunction implements Function {
 		}
 		
 		// Compute the optimization value
-		parameterValue = parameter.computeValue(simulation);
+		final OptimizationEvaluationCache cache = evaluationCache;
+		if (cache != null) {
+			String key = getCacheKey(simulation);
+			Double cached = cache.get(key);
+			if (cached != null) {
+				log.debug("Using cached parameter value " + cached + " at point " + point);
+				parameterValue = cached;
+			} else {
+				parameterValue = parameter.computeValue(simulation);
+				cache.put(key, parameterValue);
+			}
+		} else {
+			parameterValue = parameter.computeValue(simulation);
+		}
 		goalValue = goal.getMinimizationParameter(parameterValue);
 		
 		if (Double.isNaN(goalValue)) {
@@ -126,14 +169,113 @@ public class RocketOptimizationFunction implements Function {
 
 
 	/**
-	 * Returns a new deep copy of the simulation and rocket.
+	 * Set the cache used for storing the computed parameter values.  The parameter is
+	 * only computed for points whose value is not found in the cache.  The goal and the
+	 * domain are not part of the cache key, since they are applied to the cached value,
+	 * so a cache can be reused when only the goal or the domain changes.
+	 * <p>
+	 * The cache key contains a digest of the base simulation, which is computed by this
+	 * method.  The values modified by the modifiers are set to zero for the digest, so it
+	 * does not change when the base simulation is moved to a point of an optimization,
+	 * e.g. the best point found, and a restarted optimization reuses the earlier values.
+	 * If the modified values cannot be set, caching is disabled.
+	 * 
+	 * @param cache		the evaluation cache, or <code>null</code> for no caching.
+	 */
+	public void setEvaluationCache(OptimizationEvaluationCache cache) {
+		String digest = null;
+		if (cache != null) {
+			try {
+				digest = getBaseDigest();
+			} catch (OptimizationException | RuntimeException e) {
+				log.warn("Unable to compute the digest of the base simulation, evaluations are not cached", e);
+				cache = null;
+			}
+		}
+		this.baseDigest = digest;
+		this.evaluationCache = cache;
+	}
+	
+	/**
+	 * Return the digest of a copy of the base simulation with the modified values set to zero.
+	 */
+	private String getBaseDigest() throws OptimizationException {
+		final Simulation copy;
+		synchronized (baseSimulation) {
+			copy = baseSimulation.duplicateSimulation(baseSimulation.getRocket().copyWithOriginalID());
+		}
+		for (SimulationModifier m : modifiers) {
+			m.modifySI(copy, 0);
+		}
+		return OptimizationEvaluationCache.getSimulationDigest(copy);
+	}
+	
+	public OptimizationEvaluationCache getEvaluationCache() {
+		return evaluationCache;
+	}
+	
+	
+	/**
+	 * Return the key of a modified simulation in the evaluation cache.  The key is a digest
+	 * of the base simulation, the modifiers and their exact values in the simulation, the
+	 * optimized parameter, and the aerodynamic calculator of the simulation including the
+	 * table grid and error sampling of the tabulated calculator.
+	 */
+	private String getCacheKey(Simulation simulation) throws OptimizationException {
+		MessageDigest md5 = OptimizationEvaluationCache.newDigest();
+		StringBuilder sb = new StringBuilder(baseDigest);
+		for (int i = 0; i < modifiers.length; i++) {
+			sb.append('|').append(modifiers[i].getClass().getName());
+			sb.append('|').append(modifiers[i].getName());
+			sb.append('|').append(modifiers[i]);
+			if (modifiedComponentIds != null) {
+				sb.append('|').append(modifiedComponentIds[i]);
+			}
+			sb.append('|').append(Double.doubleToLongBits(modifiers[i].getCurrentSIValue(simulation)));
+		}
+		sb.append('|').append(parameter.getClass().getName());
+		sb.append('|').append(parameter.getName());
+		SimulationOptions options = simulation.getOptions();
+		sb.append('|').append(options.isTabulatedAerodynamics() ? "tabulated" : "barrowman");
+		if (options.isTabulatedAerodynamics()) {
+			sb.append('|').append(options.getAerodynamicTableGrid());
+			sb.append('|').append(options.getAerodynamicErrorSampleInterval());
+		}
+		return TextUtil.hexString(md5.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	
+	/**
+	 * Returns a new copy of the simulation with a rocket equal to the rocket of the
+	 * simulation.
+	 * <p>
+	 * When all modifiers modify known components of the rocket, the rocket is a working
+	 * copy reused by the current thread, in which only the components modified by the
+	 * previous evaluation are restored.  Otherwise the rocket is a new deep copy.
 	 * <p>
 	 * Note:  This method is package-private for unit testing purposes.
 	 *
-	 * @return      a new deep copy of the simulation and rocket
+	 * @return      a new copy of the simulation and rocket
 	 */
 	Simulation newSimulationInstance(Simulation simulation) {
-		return simulation.duplicateSimulation(simulation.getRocket().copyWithOriginalID());
+		// The base simulation and rocket may only be copied by one thread at a time
+		synchronized (simulation) {
+			if (modifiedComponentIds == null || !simulation.getSimulationExtensions().isEmpty()) {
+				// Modifiers and extensions may change the rocket in ways that are not tracked
+				return simulation.duplicateSimulation(simulation.getRocket().copyWithOriginalID());
+			}
+			
+			RocketWorkingCopy copy = workingCopy.get();
+			if (copy == null || copy.getOriginal() != simulation.getRocket()) {
+				copy = new RocketWorkingCopy(simulation.getRocket());
+				workingCopy.set(copy);
+			}
+			Simulation newSimulation = simulation.duplicateSimulation(copy.reset());
+			for (String id : modifiedComponentIds) {
+				copy.markModified(id);
+			}
+			return newSimulation;
+		}
 	}
 	
 	/**
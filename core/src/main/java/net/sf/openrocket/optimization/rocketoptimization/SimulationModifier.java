@@ -99,6 +99,16 @@ public interface SimulationModifier extends ChangeSource {
 	 */
 	public void modify(Simulation simulation, double scaledValue) throws OptimizationException;
 	
+	/**
+	 * Modify the specified simulation to the given value in SI units, regardless of the
+	 * min and max values.
+	 * 
+	 * @param simulation	the simulation to modify
+	 * @param value			the value in SI units
+	 * @throws OptimizationException 	if the modification fails
+	 */
+	public void modifySI(Simulation simulation, double value) throws OptimizationException;
+	
 	/**
 	 * Called once at the start of the optimization.
 	 * This method can be used to ensure the simulation or rocket are properly configured.
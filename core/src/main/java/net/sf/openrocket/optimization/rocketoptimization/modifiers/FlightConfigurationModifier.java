@@ -61,6 +61,13 @@ public class FlightConfigurationModifier<E extends FlightConfigurableParameter<E
 	}
 	
 	
+	/**
+	 * Return the ID of the component this modifier modifies.
+	 */
+	public String getComponentId() {
+		return componentId;
+	}
+	
 	@Override
 	protected E getModifiedObject(Simulation simulation) throws OptimizationException {
 		
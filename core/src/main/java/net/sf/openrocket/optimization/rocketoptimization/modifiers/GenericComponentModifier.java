@@ -37,6 +37,13 @@ public class GenericComponentModifier extends GenericModifier<RocketComponent> {
 		this.componentId = componentId;
 	}
 	
+	/**
+	 * Return the ID of the component this modifier modifies.
+	 */
+	public String getComponentId() {
+		return componentId;
+	}
+	
 	@Override
 	protected RocketComponent getModifiedObject(Simulation simulation) throws OptimizationException {
 		final RocketComponent c = simulation.getRocket().findComponent(componentId);
@@ -90,6 +90,16 @@ public abstract class GenericModifier<T> extends AbstractSimulationModifier {
 	}
 	
 	
+	@Override
+	public void modifySI(Simulation simulation, double value) throws OptimizationException {
+		T modifiable = getModifiedObject(simulation);
+		if (modifiable == null) {
+			throw new OptimizationException("BUG: getModifiedObject() returned null");
+		}
+		setter.invoke(modifiable, value / multiplier);
+	}
+	
+	
 	/**
 	 * Return the object from the simulation that will be modified.
 	 * @param simulation	the simulation
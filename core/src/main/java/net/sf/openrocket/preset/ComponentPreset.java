@@ -312,6 +312,13 @@ public class ComponentPreset implements Comparable<ComponentPreset>, Serializabl
 		properties.put(key, value);
 	}
 
+	/**
+	 * Package scope so the ComponentPresetCache can call it.
+	 */
+	TypedPropertyMap getProperties() {
+		return properties;
+	}
+
 	public <T> T get(TypedKey<T> key) {
 		T value = properties.get(key);
 		if (value == null) {
@@ -0,0 +1,293 @@
+package net.sf.openrocket.preset;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import net.sf.openrocket.database.Databases;
+import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.material.Material;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.rocketcomponent.ExternalComponent.Finish;
+import net.sf.openrocket.rocketcomponent.Transition.Shape;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.PersistentCache;
+import net.sf.openrocket.util.TextUtil;
+
+/**
+ * A persistent binary snapshot of the component presets loaded from preset files.  The
+ * entries are keyed by the name of the file and the digest of its contents, so only the
+ * files that have changed since they were cached need to be parsed again.
+ * <p>
+ * The whole cache is read in a single sequential read.  Only the files that were looked
+ * up or added since the cache was loaded are saved.  Materials are stored by their base
+ * name and looked up in the material database when loading, like the preset loaders do.
+ * The base names are found from the localized material names, so a cache written in
+ * another locale is ignored.  A cache file that cannot be read is ignored as well.
+ */
+public class ComponentPresetCache extends PersistentCache {
+
+	/** The magic number at the start of the cache file, "ORPC". */
+	private static final int MAGIC = 0x4F525043;
+	private static final int VERSION = 2;
+
+	private static final Translator trans = Application.getTranslator();
+
+	private static final Map<String, TypedKey<?>> KEYS = new HashMap<String, TypedKey<?>>();
+	static {
+		for (TypedKey<?> key : ComponentPreset.ORDERED_KEY_LIST) {
+			KEYS.put(key.getName(), key);
+		}
+		KEYS.put(ComponentPreset.TYPE.getName(), ComponentPreset.TYPE);
+		KEYS.put(ComponentPreset.HEIGHT.getName(), ComponentPreset.HEIGHT);
+		KEYS.put(ComponentPreset.IMAGE.getName(), ComponentPreset.IMAGE);
+	}
+
+	// The entries read from the cache file
+	private final Map<String, CacheEntry> cached = new LinkedHashMap<String, CacheEntry>();
+	// The entries to save
+	private final Map<String, CacheEntry> used = new LinkedHashMap<String, CacheEntry>();
+
+	/**
+	 * Sole constructor.  The cache is empty until {@link #load()} is called.
+	 *
+	 * @param cacheFile		the file the cache is stored in.
+	 */
+	public ComponentPresetCache(File cacheFile) {
+		super(cacheFile, MAGIC, VERSION, "preset cache");
+	}
+
+
+	/**
+	 * Compute the digest of the contents of a preset file, used to detect changed files.
+	 *
+	 * @param contents	the contents of the file.
+	 * @return			the digest as a hex string.
+	 */
+	public static String digest(byte[] contents) {
+		try {
+			return TextUtil.hexString(MessageDigest.getInstance("MD5").digest(contents));
+		} catch (NoSuchAlgorithmException e) {
+			throw new BugException(e);
+		}
+	}
+
+
+	/**
+	 * Return the current locale, since the base names of the cached materials are found
+	 * from their localized names.
+	 */
+	@Override
+	protected String getTag() {
+		return Locale.getDefault().toString();
+	}
+
+
+	@Override
+	protected void clearEntries() {
+		cached.clear();
+	}
+
+
+	@Override
+	protected int readEntries(DataInputStream in) throws IOException {
+		Map<String, Manufacturer> manufacturers = new HashMap<String, Manufacturer>();
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			String digest = in.readUTF();
+			int presetCount = in.readInt();
+			List<ComponentPreset> presets = new ArrayList<ComponentPreset>(presetCount);
+			for (int j = 0; j < presetCount; j++) {
+				presets.add(readPreset(in, manufacturers));
+			}
+			cached.put(name, new CacheEntry(name, digest, Collections.unmodifiableList(presets)));
+		}
+		return cached.size();
+	}
+
+
+	/**
+	 * Return the cached presets of a file, or <code>null</code> if the file is not cached
+	 * or its contents have changed since it was cached.
+	 *
+	 * @param name		the name of the preset file.
+	 * @param digest	the digest of the current contents of the file.
+	 * @return			the presets of the file, or <code>null</code>.
+	 */
+	public synchronized List<ComponentPreset> get(String name, String digest) {
+		CacheEntry e = cached.get(name);
+		if (e == null || !e.digest.equals(digest)) {
+			return null;
+		}
+		used.put(name, e);
+		return e.presets;
+	}
+
+
+	/**
+	 * Add the presets parsed from a file to the cache.
+	 *
+	 * @param name		the name of the preset file.
+	 * @param digest	the digest of the contents of the file.
+	 * @param presets	the presets parsed from the file.
+	 */
+	public synchronized void put(String name, String digest, Collection<ComponentPreset> presets) {
+		used.put(name, new CacheEntry(name, digest, new ArrayList<ComponentPreset>(presets)));
+		setModified();
+	}
+
+
+	/**
+	 * Return whether files have been added, or files were not looked up since loading
+	 * and have to be dropped from the cache file.
+	 */
+	@Override
+	protected boolean needsSave() {
+		return super.needsSave() || used.size() != cached.size();
+	}
+
+
+	@Override
+	protected int writeEntries(DataOutputStream out) throws IOException {
+		Map<String, String> materialNames = new HashMap<String, String>();
+		out.writeInt(used.size());
+		for (CacheEntry e : used.values()) {
+			out.writeUTF(e.name);
+			out.writeUTF(e.digest);
+			out.writeInt(e.presets.size());
+			for (ComponentPreset preset : e.presets) {
+				writePreset(out, preset, materialNames);
+			}
+		}
+		return used.size();
+	}
+
+
+	/**
+	 * Write a preset.  Materials are stored by their base name, like in OpenRocket files,
+	 * so they are looked up in the material database the same way as the preset loaders
+	 * do.  The base names are looked up once per material name.
+	 */
+	private static void writePreset(DataOutputStream out, ComponentPreset preset, Map<String, String> materialNames)
+			throws IOException {
+		TypedPropertyMap properties = preset.getProperties();
+		out.writeInt(properties.size());
+		for (Entry<TypedKey<?>, Object> entry : properties.entrySet()) {
+			TypedKey<?> key = entry.getKey();
+			Object value = entry.getValue();
+			if (KEYS.get(key.getName()) != key) {
+				throw new IOException("Unknown preset property " + key);
+			}
+			out.writeUTF(key.getName());
+
+			Class<?> type = key.getType();
+			if (type == Double.class) {
+				out.writeDouble((Double) value);
+			} else if (type == Integer.class) {
+				out.writeInt((Integer) value);
+			} else if (type == Boolean.class) {
+				out.writeBoolean((Boolean) value);
+			} else if (type == String.class) {
+				out.writeUTF((String) value);
+			} else if (type == Manufacturer.class) {
+				out.writeUTF(((Manufacturer) value).getDisplayName());
+			} else if (type == ComponentPreset.Type.class || type == Finish.class || type == Shape.class) {
+				out.writeUTF(((Enum<?>) value).name());
+			} else if (type == Material.class) {
+				Material material = (Material) value;
+				String baseName = materialNames.get(material.getName());
+				if (baseName == null) {
+					baseName = trans.getBaseText("material", material.getName());
+					materialNames.put(material.getName(), baseName);
+				}
+				out.writeUTF(material.getType().name());
+				out.writeUTF(baseName);
+				out.writeDouble(material.getDensity());
+			} else if (type == byte[].class) {
+				byte[] bytes = (byte[]) value;
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			} else {
+				throw new IOException("Unknown preset property type " + type + " of " + key);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ComponentPreset readPreset(DataInputStream in, Map<String, Manufacturer> manufacturers) throws IOException {
+		ComponentPreset preset = new ComponentPreset();
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			@SuppressWarnings("rawtypes")
+			TypedKey key = KEYS.get(name);
+			if (key == null) {
+				throw new IOException("Unknown preset property " + name);
+			}
+
+			Class<?> type = key.getType();
+			Object value;
+			if (type == Double.class) {
+				value = in.readDouble();
+			} else if (type == Integer.class) {
+				value = in.readInt();
+			} else if (type == Boolean.class) {
+				value = in.readBoolean();
+			} else if (type == String.class) {
+				value = in.readUTF();
+			} else if (type == Manufacturer.class) {
+				// Manufacturer lookups are slow, so they are done once per name
+				String manufacturer = in.readUTF();
+				value = manufacturers.get(manufacturer);
+				if (value == null) {
+					value = Manufacturer.getManufacturer(manufacturer);
+					manufacturers.put(manufacturer, (Manufacturer) value);
+				}
+			} else if (type == ComponentPreset.Type.class) {
+				value = ComponentPreset.Type.valueOf(in.readUTF());
+			} else if (type == Finish.class) {
+				value = Finish.valueOf(in.readUTF());
+			} else if (type == Shape.class) {
+				value = Shape.valueOf(in.readUTF());
+			} else if (type == Material.class) {
+				value = Databases.findMaterial(Material.Type.valueOf(in.readUTF()), in.readUTF(), in.readDouble());
+			} else if (type == byte[].class) {
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				value = bytes;
+			} else {
+				throw new IOException("Unknown preset property type " + type + " of " + key);
+			}
+			preset.put(key, value);
+		}
+		preset.computeDigest();
+		return preset;
+	}
+
+	private static class CacheEntry {
+		private final String name;
+		private final String digest;
+		private final List<ComponentPreset> presets;
+
+		private CacheEntry(String name, String digest, List<ComponentPreset> presets) {
+			this.name = name;
+			this.digest = digest;
+			this.presets = presets;
+		}
+	}
+
+}
@@ -63,10 +63,24 @@ public class ComponentChangeEvent extends EventObject {
 			
 	private final int type;
 	
+	private final boolean merged;
+	
 	
 	public ComponentChangeEvent(RocketComponent component, final int type) {
+		this(component, type, false);
+	}
+	
+	/**
+	 * Create an event combining other events.
+	 * 
+	 * @param component	the source of the last combined event.
+	 * @param type		the combined type of the events.
+	 * @param merged	whether the event combines events of possibly other sources.
+	 */
+	ComponentChangeEvent(RocketComponent component, final int type, boolean merged) {
 		super(component);
 		this.type = type;
+		this.merged = merged;
 	}
 	
 
@@ -76,6 +90,7 @@ public class ComponentChangeEvent extends EventObject {
 			throw new IllegalArgumentException("no event type provided");
 		}
 		this.type = type.value;
+		this.merged = false;
 	}
 	
 
@@ -138,6 +153,14 @@ public class ComponentChangeEvent extends EventObject {
 		return this.type;
 	}
 	
+	/**
+	 * Return whether this event combines the events fired while the rocket was frozen.
+	 * The source of a combined event is only the source of the last combined event.
+	 */
+	public boolean isMerged() {
+		return this.merged;
+	}
+	
 	@Override
 	public String toString() {
 		String s = "";
@@ -59,6 +59,17 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 		}
 	}
 	
+	/** The active instances together with the instance modification ID they were built for. */
+	private static final class CachedInstances {
+		final int modID;
+		final InstanceMap instances;
+		
+		CachedInstances(int modID, InstanceMap instances) {
+			this.modID = modID;
+			this.instances = instances;
+		}
+	}
+	
 	/* Cached data */
 	final protected HashMap<Integer, StageFlags> stages = new HashMap<Integer, StageFlags>();
 	final protected HashMap<MotorConfigurationId, MotorConfiguration> motors = new HashMap<MotorConfigurationId, MotorConfiguration>();
@@ -70,6 +81,8 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 	private int refLengthModID = -1;
 	private double cachedRefLength = -1;
 	
+	private volatile CachedInstances cachedInstances = null;
+	
 	private int modID = 0;
 
 	/**
@@ -120,11 +133,13 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 		for (StageFlags cur : stages.values()) {
 			cur.active = _active;
 		}
+		invalidateInstances();
 	}
 
 	public void copyStages(FlightConfiguration other) {
 		for (StageFlags cur : other.stages.values())
 			stages.put(cur.stageNumber, new StageFlags(cur.stageNumber, cur.active));
+		invalidateInstances();
 	}
 	
 	/** 
@@ -182,6 +197,7 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 	private void _setStageActive(final int stageNumber, final boolean _active ) {
 		if ((0 <= stageNumber) && (stages.containsKey(stageNumber))) {
 			stages.get(stageNumber).active = _active;
+			invalidateInstances();
 			fireChangeEvent();
 			return;
 		}
@@ -193,6 +209,7 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 		if ((0 <= stageNumber) && (stages.containsKey(stageNumber))) {
 			StageFlags flags = stages.get(stageNumber);
 			flags.active = !flags.active;
+			invalidateInstances();
 			return;
 		}
 		this.updateMotors();
@@ -286,13 +303,36 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 	/*
 	 * Generates a read-only, instance-aware collection of the components for this rocket & configuration
 	 * 
+	 * The returned map is unmodifiable.  It is cached and shared between callers until the
+	 * component tree, the component positions or the active stages change.
+	 * 
 	 *  TODO: swap in this function for the 'getActiveComponents() function, above;  ONLY WHEN READY / MATURE! 
 	 */
 	public InstanceMap getActiveInstances() {
+		if (!rocket.isEventsEnabled()) {
+			// modification IDs are not updated while events are disabled
+			return buildActiveInstances();
+		}
+		
+		final int instanceModID = rocket.getInstanceModID();
+		CachedInstances cached = cachedInstances;
+		if (cached == null || cached.modID != instanceModID) {
+			cached = new CachedInstances(instanceModID, buildActiveInstances());
+			cachedInstances = cached;
+		}
+		return cached.instances;
+	}
+	
+	private InstanceMap buildActiveInstances() {
 		InstanceMap contexts = new InstanceMap();
 		getActiveContextListAt( this.rocket, contexts, Transformation.IDENTITY);
+		contexts.immute();
 		return contexts;
 	}
+	
+	private void invalidateInstances() {
+		cachedInstances = null;
+	}
 
 	private InstanceMap getActiveContextListAt(final RocketComponent component, final InstanceMap results, final Transformation parentTransform ){
 		final boolean active = this.isComponentActive(component);
@@ -370,8 +410,9 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 	 */
 	public double getReferenceLength() {
 		if (rocket.getModID() != refLengthModID) {
-			refLengthModID = rocket.getModID();
+			final int modID = rocket.getModID();
 			cachedRefLength = rocket.getReferenceType().getReferenceLength(this);
+			refLengthModID = modID;
 		}
 		return cachedRefLength;
 	}
@@ -395,6 +436,7 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 		this.modID++;
 		boundsModID = -1;
 		refLengthModID = -1;
+		invalidateInstances();
 		
 		updateStages();
 		updateMotors();
@@ -406,6 +448,7 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 		}
 
 		this.stages.clear();
+		invalidateInstances();
 		for (AxialStage curStage : this.rocket.getStageList()) {
 			
 			StageFlags flagsToAdd = new StageFlags( curStage.getStageNumber(), true);
@@ -564,7 +607,7 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 		BoundingBox rocketBounds = new BoundingBox();
 
 		InstanceMap map = getActiveInstances();
-		for (Map.Entry<RocketComponent, java.util.ArrayList<InstanceContext>>  entry : map.entrySet()) {
+		for (Map.Entry<RocketComponent, List<InstanceContext>>  entry : map.entrySet()) {
 			final RocketComponent component = entry.getKey();
 			final BoundingBox componentBounds = new BoundingBox();
 			final List<InstanceContext> contexts = entry.getValue();
@@ -627,16 +670,18 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 			rocketBounds.update(componentBounds);
 		}
 		
-		boundsModID = rocket.getModID();
-		cachedLength = rocketBounds.span().x;
 		/* Special case for the scenario that all of the stages are removed and are
 		 * inactive. Its possible that this shouldn't be allowed, but it is currently
 		 * so we'll just adjust the length here.  
 		 */
 		if (rocketBounds.isEmpty()) {
 			cachedLength = 0;
+		} else {
+			cachedLength = rocketBounds.span().x;
 		}
 		cachedBounds = rocketBounds;
+		// Set last, so that concurrent readers do not use stale values
+		boundsModID = rocket.getModID();
 	}
 	
 	/**
@@ -1,9 +1,16 @@
 package net.sf.openrocket.rocketcomponent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import net.sf.openrocket.util.Transformation;
 
@@ -13,7 +20,7 @@ import net.sf.openrocket.util.Transformation;
  * @author teyrana (aka Daniel Williams) <equipoise@gmail.com>
  *
  */
-public class InstanceMap extends HashMap<RocketComponent, ArrayList<InstanceContext>> {
+public class InstanceMap extends HashMap<RocketComponent, List<InstanceContext>> {
 
 	// =========== Public Functions ========================
 
@@ -28,6 +35,7 @@ public class InstanceMap extends HashMap<RocketComponent, ArrayList<InstanceCont
 	}
 
 	public void emplace(final RocketComponent component, boolean active, int number, final Transformation xform) {
+		checkMutable();
 		final RocketComponent key = component;
 
 		if(!containsKey(component)) {
@@ -36,21 +44,170 @@ public class InstanceMap extends HashMap<RocketComponent, ArrayList<InstanceCont
 
 		final InstanceContext context = new InstanceContext(component, active, number, xform);
 		get(key).add(context);
+		flattened = null;
 	}
 
 	public List<InstanceContext> getInstanceContexts(final RocketComponent key) {
 		return get(key);
 	}
 
+	/**
+	 * Return all instance contexts of this map as a single read-only, random-access list.
+	 * The contexts of each component are contiguous and in the same order as when iterating
+	 * over {@link #entrySet()}, so hot loops can iterate over the instances by index
+	 * without any hashing.  The list is built once and cached.
+	 * 
+	 * @return	an unmodifiable list of all instance contexts
+	 */
+	public List<InstanceContext> getInstanceList() {
+		List<InstanceContext> list = flattened;
+		if (list == null) {
+			int count = 0;
+			for (List<InstanceContext> contexts : values()) {
+				count += contexts.size();
+			}
+			final InstanceContext[] array = new InstanceContext[count];
+			int index = 0;
+			for (List<InstanceContext> contexts : values()) {
+				for (InstanceContext context : contexts) {
+					array[index++] = context;
+				}
+			}
+			list = Collections.unmodifiableList(Arrays.asList(array));
+			flattened = list;
+		}
+		return list;
+	}
+
+	/**
+	 * Make this map unmodifiable.  Afterwards any attempt to modify the map, its views or
+	 * the instance lists throws an <code>UnsupportedOperationException</code>, so the map
+	 * can be shared between callers.
+	 */
+	public void immute() {
+		if (view != null) {
+			return;
+		}
+		for (Map.Entry<RocketComponent, List<InstanceContext>> entry : super.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+		getInstanceList();
+		view = Collections.unmodifiableMap(new LinkedHashMap<RocketComponent, List<InstanceContext>>(this));
+	}
+
+	/**
+	 * Return whether this map can still be modified.
+	 */
+	public boolean isMutable() {
+		return view == null;
+	}
+
+	@Override
+	public Set<RocketComponent> keySet() {
+		return (view != null) ? view.keySet() : super.keySet();
+	}
+
+	@Override
+	public Collection<List<InstanceContext>> values() {
+		return (view != null) ? view.values() : super.values();
+	}
+
+	@Override
+	public Set<Map.Entry<RocketComponent, List<InstanceContext>>> entrySet() {
+		return (view != null) ? view.entrySet() : super.entrySet();
+	}
+
+	@Override
+	public List<InstanceContext> put(RocketComponent key, List<InstanceContext> value) {
+		checkMutable();
+		return super.put(key, value);
+	}
+
+	@Override
+	public void putAll(Map<? extends RocketComponent, ? extends List<InstanceContext>> m) {
+		checkMutable();
+		super.putAll(m);
+	}
+
+	@Override
+	public List<InstanceContext> remove(Object key) {
+		checkMutable();
+		return super.remove(key);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		checkMutable();
+		return super.remove(key, value);
+	}
+
+	@Override
+	public void clear() {
+		checkMutable();
+		super.clear();
+	}
+
+	@Override
+	public List<InstanceContext> putIfAbsent(RocketComponent key, List<InstanceContext> value) {
+		checkMutable();
+		return super.putIfAbsent(key, value);
+	}
+
+	@Override
+	public boolean replace(RocketComponent key, List<InstanceContext> oldValue, List<InstanceContext> newValue) {
+		checkMutable();
+		return super.replace(key, oldValue, newValue);
+	}
+
+	@Override
+	public List<InstanceContext> replace(RocketComponent key, List<InstanceContext> value) {
+		checkMutable();
+		return super.replace(key, value);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super RocketComponent, ? super List<InstanceContext>, ? extends List<InstanceContext>> function) {
+		checkMutable();
+		super.replaceAll(function);
+	}
+
+	@Override
+	public List<InstanceContext> computeIfAbsent(RocketComponent key,
+			Function<? super RocketComponent, ? extends List<InstanceContext>> mappingFunction) {
+		checkMutable();
+		return super.computeIfAbsent(key, mappingFunction);
+	}
+
+	@Override
+	public List<InstanceContext> computeIfPresent(RocketComponent key,
+			BiFunction<? super RocketComponent, ? super List<InstanceContext>, ? extends List<InstanceContext>> remappingFunction) {
+		checkMutable();
+		return super.computeIfPresent(key, remappingFunction);
+	}
+
+	@Override
+	public List<InstanceContext> compute(RocketComponent key,
+			BiFunction<? super RocketComponent, ? super List<InstanceContext>, ? extends List<InstanceContext>> remappingFunction) {
+		checkMutable();
+		return super.compute(key, remappingFunction);
+	}
+
+	@Override
+	public List<InstanceContext> merge(RocketComponent key, List<InstanceContext> value,
+			BiFunction<? super List<InstanceContext>, ? super List<InstanceContext>, ? extends List<InstanceContext>> remappingFunction) {
+		checkMutable();
+		return super.merge(key, value, remappingFunction);
+	}
+
 	// this is primarily for debugging.
 	@Override
 	public String toString() {
 		StringBuffer buffer = new StringBuffer();
 		int outerIndex = 0;
 		buffer.append(">> Printing InstanceMap:\n");
-		for(Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry: entrySet() ) {
+		for(Map.Entry<RocketComponent, List<InstanceContext>> entry: entrySet() ) {
 			final RocketComponent key = entry.getKey();
-			final ArrayList<InstanceContext> contexts = entry.getValue();
+			final List<InstanceContext> contexts = entry.getValue();
 			buffer.append(String.format("....[% 2d]:[%s]\n", outerIndex, key.getName()));
 			outerIndex++;
 
@@ -66,8 +223,19 @@ public class InstanceMap extends HashMap<RocketComponent, ArrayList<InstanceCont
 
 	// =========== Instance Member Variables ========================
 
+	private List<InstanceContext> flattened = null;
+
+	/** Unmodifiable copy of this map once made immutable, <code>null</code> while mutable. */
+	private Map<RocketComponent, List<InstanceContext>> view = null;
+
 	// =========== Private Instance Functions ========================
 
+	private void checkMutable() {
+		if (view != null) {
+			throw new UnsupportedOperationException("InstanceMap has been made immutable");
+		}
+	}
+
 
 }
 
@@ -48,6 +48,7 @@ public class Rocket extends ComponentAssembly {
 	private int aeroModID;
 	private int treeModID;
 	private int functionalModID;
+	private int instanceModID;
 	
 	private boolean eventsEnabled=false;
 	
@@ -77,6 +78,7 @@ public class Rocket extends ComponentAssembly {
 		aeroModID = modID;
 		treeModID = modID;
 		functionalModID = modID;
+		instanceModID = modID;
 
 		// must be after the hashmaps :P 
 		final FlightConfiguration defaultConfig = new FlightConfiguration(this, FlightConfigurationId.DEFAULT_VALUE_FCID);
@@ -190,6 +192,29 @@ public class Rocket extends ComponentAssembly {
 		return functionalModID;
 	}
 	
+	/**
+	 * Return the instance modification ID of this rocket.  This changes every time a
+	 * change occurs that may affect the structure of the rocket or the number, position
+	 * or orientation of the component instances, i.e. every tree, mass, aerodynamic or
+	 * undo/redo change.
+	 * <p>
+	 * Unlike the other modification IDs, this ID is not restored by undo/redo, since
+	 * those operations replace the component objects of the rocket.
+	 *
+	 * @return	a unique ID number for this instance modification state.
+	 */
+	public int getInstanceModID() {
+		return instanceModID;
+	}
+	
+	/**
+	 * Return whether change events are currently enabled for this rocket.  While
+	 * events are disabled, the modification IDs are not updated.
+	 */
+	public boolean isEventsEnabled() {
+		return eventsEnabled;
+	}
+	
 	public Collection<AxialStage> getStageList() {
 		return this.stageMap.values();
 	}
@@ -333,10 +358,20 @@ public class Rocket extends ComponentAssembly {
 		final Rocket copyRocket = (Rocket) super.copyWithOriginalID();
 
 		// Rocket copy is cloned, so non-trivial members must be cloned as well:
+		// Look up the copied stages by ID in a single pass over the copy
+		final Map<String, AxialStage> copiedStages = new HashMap<>();
+		for (RocketComponent component : copyRocket) {
+			if (component instanceof AxialStage) {
+				copiedStages.put(component.getID(), (AxialStage) component);
+			}
+		}
 		copyRocket.stageMap = new HashMap<>();
 		for( Map.Entry<Integer,AxialStage> entry : this.stageMap.entrySet()){
-			final AxialStage stage = (AxialStage)copyRocket.findComponent(entry.getValue().getID());
-			copyRocket.stageMap.put(entry.getKey(), stage);
+			final AxialStage stage = copiedStages.get(entry.getValue().getID());
+			// stages are missing when copying the rocket component alone
+			if (stage != null) {
+				copyRocket.stageMap.put(entry.getKey(), stage);
+			}
 		}
 
 		// these flight configurations need to reference the _new_ Rocket copy
@@ -472,6 +507,9 @@ public class Rocket extends ComponentAssembly {
 				if (cce.isFunctionalChange())
 					functionalModID = modID;
 			}
+			if (cce.isTreeChange() || cce.isMassChange() || cce.isAerodynamicChange() || cce.isUndoChange()) {
+				instanceModID = UniqueID.next();
+			}
 			
 			// Check whether frozen
 			if (freezeList != null) {
@@ -515,6 +553,21 @@ public class Rocket extends ComponentAssembly {
 		}
 	}
 
+	/**
+	 * Rebuild the stage map from the stages in the component tree, keeping their
+	 * stage numbers.  This is used by {@link RocketSnapshot} after assembling a
+	 * rocket from separately copied components.
+	 */
+	/*package-local*/ void rebuildStageMap() {
+		this.stageMap = new HashMap<>();
+		for (RocketComponent component : this) {
+			if (component instanceof AxialStage) {
+				AxialStage stage = (AxialStage) component;
+				this.stageMap.put(stage.getStageNumber(), stage);
+			}
+		}
+	}
+
 	private void updateStageMap(){
 		for( RocketComponent component : getChildren() ){
 			if (component instanceof AxialStage) {
@@ -607,7 +660,7 @@ public class Rocket extends ComponentAssembly {
 		}
 		freezeList = null;
 		
-		fireComponentChangeEvent(new ComponentChangeEvent((RocketComponent) c, type));
+		fireComponentChangeEvent(new ComponentChangeEvent((RocketComponent) c, type, true));
 	}
 	
 	
@@ -428,6 +428,68 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	}
 	
 	
+	/**
+	 * Make a copy of this component alone, without its children, while maintaining
+	 * the component ID.  The copy has no parent.  This method does not fire any events.
+	 * <p>
+	 * This is used by {@link RocketWorkingCopy} to replace a single modified component
+	 * of a working copy without copying the subtree below it.
+	 *
+	 * @return A copy of this component without children.
+	 */
+	final RocketComponent copyComponentWithOriginalID() {
+		RocketComponent detached;
+		try {
+			detached = (RocketComponent) this.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new BugException("CloneNotSupportedException encountered, report a bug!", e);
+		}
+		
+		// A detached shallow clone shares all fields with this component except for the
+		// tree structure, so copying it copies this component alone.
+		detached.mutex = SafetyMutex.newInstance();
+		detached.parent = null;
+		detached.children = new ArrayList<RocketComponent>();
+		return detached.copyWithOriginalID();
+	}
+	
+	
+	/**
+	 * Replace this component in the component tree by another component, which takes
+	 * over the parent and the children of this component.  This component is left
+	 * without a parent or children.  This method does not fire any events.
+	 * <p>
+	 * This is used by {@link RocketWorkingCopy} to restore single modified components.
+	 *
+	 * @param replacement	the component to put in place of this component, which must
+	 * 						not be in a component tree.
+	 */
+	final void replaceInTree(RocketComponent replacement) {
+		if (this.parent == null) {
+			throw new BugException("replaceInTree called for root component " + this.toDebugString());
+		}
+		if (replacement.parent != null || !replacement.children.isEmpty()) {
+			throw new BugException("replaceInTree called with component in a tree: " + replacement.toDebugString());
+		}
+		
+		final ArrayList<RocketComponent> siblings = this.parent.children;
+		for (int i = 0; i < siblings.size(); i++) {
+			if (siblings.get(i) == this) {
+				siblings.set(i, replacement);
+				break;
+			}
+		}
+		replacement.parent = this.parent;
+		replacement.children = this.children;
+		for (RocketComponent child : replacement.children) {
+			child.parent = replacement;
+		}
+		
+		this.parent = null;
+		this.children = new ArrayList<RocketComponent>();
+	}
+	
+	
 	//////////////  Methods that may not be overridden  ////////////
 	
 	
@@ -0,0 +1,207 @@
+package net.sf.openrocket.rocketcomponent;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * An immutable copy of the state of a rocket, used by the undo/redo mechanism.
+ * <p>
+ * The snapshot stores a detached copy of each component (a copy without parent
+ * or children) together with the tree structure.  A snapshot can be derived from
+ * a previous snapshot of the same rocket by copying only the components that have
+ * been modified since the previous snapshot was taken.  The copies of the other
+ * components, and the parts of the tree that contain no modified components, are
+ * shared between the snapshots, so the memory used by a snapshot scales with the
+ * modifications instead of the size of the rocket.
+ * <p>
+ * The rocket component itself is copied into every snapshot, since its
+ * modification IDs change with every modification.
+ */
+public final class RocketSnapshot {
+
+	private final Node root;
+	private final int componentCount;
+	private final int copiedCount;
+
+	private RocketSnapshot(Node root, int componentCount, int copiedCount) {
+		this.root = root;
+		this.componentCount = componentCount;
+		this.copiedCount = copiedCount;
+	}
+
+
+	/**
+	 * Take a snapshot of the current state of a rocket, copying every component.
+	 *
+	 * @param rocket	the rocket.
+	 * @return			a snapshot of the rocket.
+	 */
+	public static RocketSnapshot of(Rocket rocket) {
+		return derive(rocket, null, Collections.<String> emptySet());
+	}
+
+
+	/**
+	 * Take a snapshot of the current state of a rocket, sharing the unmodified
+	 * components with this snapshot.  The rocket must have been equal to this
+	 * snapshot apart from the modifications of the listed components, and the tree
+	 * structure must not have changed.  If the tree structure has changed, the
+	 * differing parts of the tree are copied completely.
+	 *
+	 * @param rocket		the rocket, which must have the same ID as the rocket of this snapshot.
+	 * @param modifiedIds	the IDs of the components modified since this snapshot was taken.
+	 * @return				a snapshot of the rocket.
+	 */
+	public RocketSnapshot derive(Rocket rocket, Collection<String> modifiedIds) {
+		return derive(rocket, this, modifiedIds);
+	}
+
+	private static RocketSnapshot derive(Rocket rocket, RocketSnapshot base, Collection<String> modifiedIds) {
+		if (base != null && !base.root.component.getID().equals(rocket.getID())) {
+			base = null;
+		}
+
+		int[] counts = new int[2];
+		Node[] children = new Node[rocket.getChildCount()];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = build(rocket.getChild(i), base != null ? base.root.getChild(i, rocket.getChild(i)) : null,
+					modifiedIds, counts);
+		}
+		Node root = new Node(rocket.copyComponentWithOriginalID(), children);
+		return new RocketSnapshot(root, counts[0] + 1, counts[1] + 1);
+	}
+
+	/**
+	 * Build the node of a component, reusing the corresponding node of the base
+	 * snapshot if neither the component nor any of its children have changed.
+	 */
+	private static Node build(RocketComponent component, Node base, Collection<String> modifiedIds, int[] counts) {
+		Node[] children = new Node[component.getChildCount()];
+		boolean unchanged = (base != null && base.children.length == children.length &&
+				!modifiedIds.contains(component.getID()));
+		for (int i = 0; i < children.length; i++) {
+			RocketComponent child = component.getChild(i);
+			children[i] = build(child, base != null ? base.getChild(i, child) : null, modifiedIds, counts);
+			unchanged = unchanged && (children[i] == base.children[i]);
+		}
+		counts[0]++;
+
+		if (unchanged) {
+			return base;
+		}
+
+		RocketComponent copy;
+		if (base != null && !modifiedIds.contains(component.getID())) {
+			copy = base.component;
+		} else {
+			copy = component.copyComponentWithOriginalID();
+			counts[1]++;
+		}
+		return new Node(copy, children);
+	}
+
+
+	/**
+	 * Return a new rocket with the state of this snapshot.  The returned rocket is
+	 * independent of the snapshot and is intended for loading the state into a
+	 * rocket using {@link Rocket#loadFrom(Rocket)}.
+	 *
+	 * @return	a new rocket equal to the snapshot.
+	 */
+	public Rocket toRocket() {
+		Rocket rocket = (Rocket) assemble(root);
+		rocket.rebuildStageMap();
+
+		// Recompute the values that depend on the other components
+		ComponentChangeEvent e = new ComponentChangeEvent(rocket,
+				ComponentChangeEvent.TREE_CHANGE | ComponentChangeEvent.AEROMASS_CHANGE);
+		Iterator<RocketComponent> iterator = rocket.iterator(true);
+		while (iterator.hasNext()) {
+			iterator.next().componentChanged(e);
+		}
+		return rocket;
+	}
+
+	private static RocketComponent assemble(Node node) {
+		RocketComponent component = node.component.copyComponentWithOriginalID();
+		for (Node child : node.children) {
+			RocketComponent childCopy = assemble(child);
+			// Don't use addChild(...) method since it fires events
+			component.children.add(childCopy);
+			childCopy.parent = component;
+		}
+		return component;
+	}
+
+
+	/**
+	 * Return the modification ID of the rocket at the time the snapshot was taken.
+	 */
+	public int getModID() {
+		return ((Rocket) root.component).getModID();
+	}
+
+	/**
+	 * Return the number of components in the snapshot, including the rocket.
+	 */
+	public int getComponentCount() {
+		return componentCount;
+	}
+
+	/**
+	 * Return the number of components that were copied when taking this snapshot,
+	 * the rest are shared with the snapshot it was derived from.
+	 */
+	public int getCopiedComponentCount() {
+		return copiedCount;
+	}
+
+	/**
+	 * Return the stored copy of the component with the given ID, or <code>null</code>.
+	 * The copy must not be modified.
+	 */
+	RocketComponent getComponentCopy(String id) {
+		return root.find(id);
+	}
+
+
+	/**
+	 * A component copy together with the nodes of its children.
+	 */
+	private static final class Node {
+		private final RocketComponent component;
+		private final Node[] children;
+
+		private Node(RocketComponent component, Node[] children) {
+			this.component = component;
+			this.children = children;
+		}
+
+		/**
+		 * Return the child node at the given index if it is a copy of the given
+		 * component, otherwise <code>null</code>.
+		 */
+		private Node getChild(int index, RocketComponent component) {
+			if (index < children.length && children[index].component.getID().equals(component.getID())
+					&& children[index].component.getClass() == component.getClass()) {
+				return children[index];
+			}
+			return null;
+		}
+
+		private RocketComponent find(String id) {
+			if (component.getID().equals(id)) {
+				return component;
+			}
+			for (Node child : children) {
+				RocketComponent c = child.find(id);
+				if (c != null) {
+					return c;
+				}
+			}
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package net.sf.openrocket.rocketcomponent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.util.BugException;
+
+/**
+ * A reusable copy of a rocket for evaluating many small modifications of the same
+ * design, such as during optimization.
+ * <p>
+ * The working copy is copied from the original rocket once.  Changes to the working
+ * copy are tracked by component, and {@link #reset()} restores the working copy to the
+ * state of the original rocket by replacing only the changed components with fresh
+ * copies of the corresponding original components.  The children of a replaced
+ * component are kept, so a modification of a single component costs the copy of that
+ * component alone instead of the whole component tree.
+ * <p>
+ * Changes are tracked by the component change events of the working copy.  Changes
+ * that do not fire events, such as modifications of flight configurable parameters,
+ * must be declared using {@link #markModified(String)}.  Changes of the tree structure,
+ * the rocket itself or its stages cause the whole rocket to be copied again on reset.
+ * <p>
+ * The original rocket must not be modified while the working copy is in use.  This
+ * class is not thread-safe; each thread should use its own working copy.
+ */
+public class RocketWorkingCopy {
+	private static final Logger log = LoggerFactory.getLogger(RocketWorkingCopy.class);
+
+	private final Rocket original;
+	private final Map<String, RocketComponent> originalComponents = new HashMap<String, RocketComponent>();
+
+	private Rocket rocket = null;
+	private final Set<RocketComponent> modified = Collections.newSetFromMap(new IdentityHashMap<RocketComponent, Boolean>());
+	private boolean copyAll = true;
+	private boolean resetting = false;
+
+	private final ComponentChangeListener listener = new ComponentChangeListener() {
+		@Override
+		public void componentChanged(ComponentChangeEvent e) {
+			if (resetting) {
+				return;
+			}
+			if (e.isTreeChange() || !(e.getSource() instanceof RocketComponent)) {
+				copyAll = true;
+			} else {
+				markModified(e.getSource());
+			}
+		}
+	};
+
+
+	/**
+	 * Sole constructor.
+	 *
+	 * @param original	the rocket to copy.
+	 */
+	public RocketWorkingCopy(Rocket original) {
+		this.original = original;
+		for (RocketComponent c : original) {
+			originalComponents.put(c.getID(), c);
+		}
+	}
+
+	/**
+	 * Return the original rocket.
+	 */
+	public Rocket getOriginal() {
+		return original;
+	}
+
+
+	/**
+	 * Restore the working copy to the state of the original rocket and return it.  The
+	 * returned rocket is the same object as on the previous call, unless the whole rocket
+	 * had to be copied again.
+	 *
+	 * @return	the working copy, equal to the original rocket.
+	 */
+	public Rocket reset() {
+		if (copyAll) {
+			if (rocket != null) {
+				rocket.removeComponentChangeListener(listener);
+			}
+			rocket = original.copyWithOriginalID();
+			rocket.addComponentChangeListener(listener);
+			modified.clear();
+			copyAll = false;
+			return rocket;
+		}
+		if (modified.isEmpty()) {
+			return rocket;
+		}
+
+		log.trace("Restoring " + modified.size() + " modified components of working copy");
+		resetting = true;
+		try {
+			for (RocketComponent c : modified) {
+				RocketComponent source = originalComponents.get(c.getID());
+				if (source == null) {
+					throw new BugException("Modified component " + c.toDebugString() + " not found in original rocket");
+				}
+				c.replaceInTree(source.copyComponentWithOriginalID());
+			}
+			modified.clear();
+
+			// Update the configurations and invalidate any cached values of the rocket
+			rocket.fireComponentChangeEvent(ComponentChangeEvent.TREE_CHANGE | ComponentChangeEvent.AEROMASS_CHANGE);
+		} finally {
+			resetting = false;
+		}
+		return rocket;
+	}
+
+
+	/**
+	 * Declare that the component with the given ID will be modified in the working copy,
+	 * so that it is restored on the next {@link #reset()}.  This is required for changes
+	 * that do not fire component change events.
+	 *
+	 * @param componentId	the ID of the component.
+	 */
+	public void markModified(String componentId) {
+		if (rocket == null) {
+			return;
+		}
+		RocketComponent c = rocket.findComponent(componentId);
+		if (c == null) {
+			copyAll = true;
+		} else {
+			markModified(c);
+		}
+	}
+
+	private void markModified(RocketComponent c) {
+		if (c instanceof Rocket || c instanceof AxialStage || c.getParent() == null
+				|| c.getRoot() != rocket || !originalComponents.containsKey(c.getID())) {
+			// Changes of the rocket or the stages affect the rocket structure
+			copyAll = true;
+		} else {
+			modified.add(c);
+		}
+	}
+
+}
@@ -307,6 +307,9 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 	
 	/**
 	 * Performs integration over the length of the component and updates the cached variables.
+	 * <p>
+	 * The integration is performed in local variables and each cached variable is assigned
+	 * only its final value, so that concurrent readers never observe a partial result.
 	 */
 	private void integrate() {
 		double x, r1, r2;
@@ -329,11 +332,11 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 		final double pi3 = Math.PI / 3.0;
 		r1 = getRadius(0);
 		x = 0;
-		wetArea = 0;
-		planArea = 0;
-		planCenter = 0;
-		fullVolume = 0;
-		volume = 0;
+		double wetArea = 0;
+		double planArea = 0;
+		double planCenter = 0;
+		double fullVolume = 0;
+		double volume = 0;
 		cgx = 0;
 		
 		for (int n = 1; n <= DIVISIONS; n++) {
@@ -404,6 +407,7 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 		if (planArea > 0)
 			planCenter /= planArea;
 		
+		final Coordinate cg;
 		if (volume < 0.0000000001) { // 0.1 mm^3
 			volume = 0;
 			cg = new Coordinate(length / 2, 0, 0, 0);
@@ -413,6 +417,13 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 			// includes the shoulders
 			cg = new Coordinate(cgx / volume, 0, 0, getMaterial().getDensity() * volume );
 		}
+		
+		this.wetArea = wetArea;
+		this.planArea = planArea;
+		this.planCenter = planCenter;
+		this.fullVolume = fullVolume;
+		this.volume = volume;
+		this.cg = cg;
 	}
 	
 	
@@ -429,8 +440,8 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 		
 		r1 = getRadius(0);
 		x = 0;
-		longitudinalInertia = 0;
-		rotationalInertia = 0;
+		double longitudinalInertia = 0;
+		double rotationalInertia = 0;
 		
 		double vol = 0;
 		
@@ -478,7 +489,8 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 		longitudinalInertia /= vol;
 		
 		// Shift longitudinal inertia to CG
-		longitudinalInertia = Math.max(longitudinalInertia - pow2(getComponentCG().x), 0);
+		this.longitudinalInertia = Math.max(longitudinalInertia - pow2(getComponentCG().x), 0);
+		this.rotationalInertia = rotationalInertia;
 	}
 	
 	
@@ -496,8 +508,8 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 		//System.out.println(r1);
 		x = 0;
 		
-		longitudinalInertia = 0;
-		rotationalInertia = 0;
+		double longitudinalInertia = 0;
+		double rotationalInertia = 0;
 		
 		double surface = 0;
 		
@@ -525,8 +537,8 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 		}
 		
 		if (MathUtil.equals(surface, 0)) {
-			longitudinalInertia = 0;
-			rotationalInertia = 0;
+			this.longitudinalInertia = 0;
+			this.rotationalInertia = 0;
 			return;
 		}
 		
@@ -534,7 +546,8 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 		rotationalInertia /= surface;
 		
 		// Shift longitudinal inertia to CG
-		longitudinalInertia = Math.max(longitudinalInertia - pow2(getComponentCG().x), 0);
+		this.longitudinalInertia = Math.max(longitudinalInertia - pow2(getComponentCG().x), 0);
+		this.rotationalInertia = rotationalInertia;
 	}
 	
 	
@@ -502,6 +502,8 @@ public class Transition extends SymmetricComponent implements InsideColorCompone
 	 * Numerically solve clipLength from the equation
 	 *     r1 == type.getRadius(clipLength,r2,clipLength+length)
 	 * using a binary search.  It assumes getOuterRadius() to be monotonically increasing.
+	 * The search is performed in a local variable, so concurrent readers only observe
+	 * the final value.
 	 */
 	private void calculateClip(double r1, double r2) {
 		double min = 0, max = length;
@@ -536,14 +538,16 @@ public class Transition extends SymmetricComponent implements InsideColorCompone
 		}
 
 		while (true) {
-			clipLength = (min + max) / 2;
-			if ((max - min) < CLIP_PRECISION)
+			final double clip = (min + max) / 2;
+			if ((max - min) < CLIP_PRECISION) {
+				clipLength = clip;
 				return;
-			double val = type.getRadius(clipLength, r2, clipLength + length, shapeParameter);
+			}
+			double val = type.getRadius(clip, r2, clip + length, shapeParameter);
 			if (val - r1 > 0) {
-				max = clipLength;
+				max = clip;
 			} else {
-				min = clipLength;
+				min = clip;
 			}
 		}
 	}
@@ -30,8 +30,10 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 		}
 		
 		// Compute conditions
+		long start = SimulationProfile.startSection(status);
 		double altitude = status.getRocketPosition().z + status.getSimulationConditions().getLaunchSite().getAltitude();
 		conditions = status.getSimulationConditions().getAtmosphericModel().getConditions(altitude);
+		SimulationProfile.endSection(status, SimulationProfile.Section.ATMOSPHERE, start);
 		
 		// Call post-listener
 		conditions = SimulationListenerHelper.firePostAtmosphericModel(status, conditions);
@@ -61,8 +63,10 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 		}
 		
 		// Compute conditions
+		long start = SimulationProfile.startSection(status);
 		double altitude = status.getRocketPosition().z + status.getSimulationConditions().getLaunchSite().getAltitude();
 		wind = status.getSimulationConditions().getWindModel().getWindVelocity(status.getSimulationTime(), altitude);
+		SimulationProfile.endSection(status, SimulationProfile.Section.WIND, start);
 		
 		// Call post-listener
 		wind = SimulationListenerHelper.firePostWindModel(status, wind);
@@ -91,7 +95,9 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 		}
 		
 		// Compute conditions
+		long start = SimulationProfile.startSection(status);
 		gravity = status.getSimulationConditions().getGravityModel().getGravity(status.getRocketWorldPosition());
+		SimulationProfile.endSection(status, SimulationProfile.Section.GRAVITY, start);
 		
 		// Call post-listener
 		gravity = SimulationListenerHelper.firePostGravityModel(status, gravity);
@@ -119,7 +125,14 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 			return structureMass;
 		}
 		
-		structureMass = MassCalculator.calculateStructure( status.getConfiguration() );  
+		long start = SimulationProfile.startSection(status);
+		MassCalculator massCalculator = status.getSimulationConditions().getMassCalculator();
+		if (massCalculator != null) {
+			structureMass = massCalculator.getStructureMass(status.getConfiguration());
+		} else {
+			structureMass = MassCalculator.calculateStructure(status.getConfiguration());
+		}
+		SimulationProfile.endSection(status, SimulationProfile.Section.MASS, start);
 						
 		// Call post-listener
 		structureMass = SimulationListenerHelper.firePostMassCalculation(status, structureMass);
@@ -140,8 +153,14 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 			return motorMass;
 		}
 		
-		motorMass = MassCalculator.calculateMotor( status );  
-
+		long start = SimulationProfile.startSection(status);
+		MassCalculator massCalculator = status.getSimulationConditions().getMassCalculator();
+		if (massCalculator != null) {
+			motorMass = massCalculator.getMotorMass(status);
+		} else {
+			motorMass = MassCalculator.calculateMotor(status);
+		}
+		SimulationProfile.endSection(status, SimulationProfile.Section.MASS, start);
 				
 		// Call post-listener
 		motorMass = SimulationListenerHelper.firePostMassCalculation(status, motorMass);
@@ -179,6 +198,7 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 			return thrust;
 		}
 		
+		long start = SimulationProfile.startSection(status);
 		thrust = 0;
 		final double currentTime = status.getSimulationTime() + timestep;
 		Collection<MotorClusterState> activeMotorList = status.getMotors();
@@ -186,6 +206,7 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 			thrust += currentMotorState.getAverageThrust( status.getSimulationTime(), currentTime );
 			//thrust += currentMotorState.getThrust( currentTime );
 		}
+		SimulationProfile.endSection(status, SimulationProfile.Section.THRUST, start);
 		
 		// Post-listeners
 		thrust = SimulationListenerHelper.firePostThrustCalculation(status, thrust);
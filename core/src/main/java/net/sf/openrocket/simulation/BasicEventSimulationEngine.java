@@ -34,8 +34,8 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 	private static final Translator trans = Application.getTranslator();
 	private static final Logger log = LoggerFactory.getLogger(BasicEventSimulationEngine.class);
 	
-	// TODO: MEDIUM: Allow selecting steppers
-	private final SimulationStepper flightStepper  = new RK4SimulationStepper();
+	// The flight stepper is selected by the simulation conditions
+	private SimulationStepper flightStepper  = null;
 	private final SimulationStepper landingStepper = new BasicLandingStepper();
 	private final SimulationStepper tumbleStepper  = new BasicTumbleStepper();
 	private final SimulationStepper groundStepper  = new GroundStepper();
@@ -63,6 +63,8 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 		// Set up flight data
 		FlightData flightData = new FlightData();
 		
+		flightStepper = simulationConditions.getStepperType().newStepper();
+		
 		// Set up rocket configuration
 		this.fcid = simulationConditions.getFlightConfigurationID();
 		FlightConfiguration simulationConfig = simulationConditions.getRocket().getFlightConfiguration( this.fcid).clone();
@@ -97,6 +99,7 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 							dataBranch.getLast(FlightDataType.TYPE_TIME)));
 		}while( ! toSimulate.isEmpty());
 		
+		flightData.setProfile(currentStatus.getProfile());
 		SimulationListenerHelper.fireEndSimulation(currentStatus, null);
 		
 		if (!flightData.getWarningSet().isEmpty()) {
@@ -135,6 +138,9 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 						maxStepTime = MathUtil.max(nextEvent.getTime() - currentStatus.getSimulationTime(), 0.001);
 					}
 					log.trace("Taking simulation step at t=" + currentStatus.getSimulationTime() + " altitude " + oldAlt);
+					if (currentStatus.getProfile() != null) {
+						currentStatus.getProfile().addStep(currentStepper);
+					}
 					currentStepper.step(currentStatus, maxStepTime);
 				}
 				SimulationListenerHelper.firePostStep(currentStatus);
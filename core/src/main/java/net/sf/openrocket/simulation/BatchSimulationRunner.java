@@ -0,0 +1,499 @@
+package net.sf.openrocket.simulation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.simulation.exception.SimulationCancelledException;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.SimulationListener;
+
+/**
+ * Runs a batch of simulations in parallel on an {@link ExecutorService}.
+ * <p>
+ * Simulations are submitted either as {@link Simulation} objects, which are simulated
+ * and updated as by {@link Simulation#simulate(SimulationListener...)}, or directly as
+ * {@link SimulationConditions}, which are run by a {@link BasicEventSimulationEngine}
+ * without touching any document.  Each submission returns a {@link Batch}, from which
+ * the results can be retrieved either in submission order or as they complete, and
+ * which can be cancelled.
+ * <p>
+ * The executor can be supplied by the caller, in which case it is not shut down by
+ * {@link #shutdown()}.  {@link #newVirtualThreadExecutor()} returns an executor using
+ * virtual threads when the JVM supports them.
+ */
+public class BatchSimulationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(BatchSimulationRunner.class);
+
+	private final ExecutorService executor;
+	private final boolean ownsExecutor;
+
+
+	/**
+	 * Construct a runner that uses as many threads as there are processors available.
+	 */
+	public BatchSimulationRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Construct a runner that uses the specified number of threads.  The threads that are
+	 * created are marked as daemon threads.
+	 *
+	 * @param threadCount	the number of threads to use in the executor.
+	 */
+	public BatchSimulationRunner(int threadCount) {
+		this(newDaemonExecutor(threadCount), true);
+	}
+
+	/**
+	 * Construct a runner that uses the specified executor.  The executor is not shut down
+	 * by {@link #shutdown()}.
+	 *
+	 * @param executor	the executor to run simulations on.
+	 */
+	public BatchSimulationRunner(ExecutorService executor) {
+		this(executor, false);
+	}
+
+	private BatchSimulationRunner(ExecutorService executor, boolean ownsExecutor) {
+		if (executor == null) {
+			throw new IllegalArgumentException("executor is null");
+		}
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+	}
+
+
+	/**
+	 * Return an executor that starts a new virtual thread for each task, or if the JVM does
+	 * not support virtual threads, a daemon thread pool with as many threads as there are
+	 * processors available.  Note that simulations are CPU-bound, so virtual threads mainly
+	 * help when listeners block on I/O.
+	 */
+	public static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method m = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) m.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			log.debug("Virtual threads not available, using a platform thread pool");
+			return newDaemonExecutor(Runtime.getRuntime().availableProcessors());
+		}
+	}
+
+	private static ExecutorService newDaemonExecutor(int threadCount) {
+		return new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "BatchSimulationRunner-" + count.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					}
+				});
+	}
+
+
+	/**
+	 * Return the executor used by this runner.
+	 */
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Shut down the executor if it was created by this runner.  Running batches are not
+	 * affected.
+	 */
+	public void shutdown() {
+		if (ownsExecutor) {
+			executor.shutdown();
+		}
+	}
+
+
+	/**
+	 * Simulate the given simulations.  Each simulation is updated with its new data as by
+	 * {@link Simulation#simulate(SimulationListener...)}.
+	 *
+	 * @param simulations	the simulations to run.
+	 * @param listeners		additional listeners added to every simulation.  Listeners are
+	 * 						shared between concurrent runs, so must be thread-safe.
+	 * @return				the batch of running simulations.
+	 */
+	public Batch runSimulations(Collection<Simulation> simulations, final SimulationListener... listeners) {
+		final Batch batch = new Batch(simulations.size());
+		int index = 0;
+		for (final Simulation simulation : simulations) {
+			batch.submit(executor, new Run(batch, index++, simulation, null) {
+				@Override
+				protected FlightData simulate() throws SimulationException {
+					SimulationListener[] all = Arrays.copyOf(listeners, listeners.length + 1);
+					all[listeners.length] = batch.cancelListener;
+					simulation.simulate(all);
+					return simulation.getSimulatedData();
+				}
+			});
+		}
+		return batch;
+	}
+
+	/**
+	 * Simulate the given simulation conditions using a {@link BasicEventSimulationEngine}.
+	 * The conditions are cloned before running, so they are not modified.
+	 *
+	 * @param conditions	the simulation conditions to run.
+	 * @return				the batch of running simulations.
+	 */
+	public Batch runConditions(Collection<SimulationConditions> conditions) {
+		final Batch batch = new Batch(conditions.size());
+		int index = 0;
+		for (final SimulationConditions original : conditions) {
+			batch.submit(executor, new Run(batch, index++, null, original) {
+				@Override
+				protected FlightData simulate() throws SimulationException {
+					SimulationConditions copy = original.clone();
+					copy.getSimulationListenerList().add(batch.cancelListener);
+					return new BasicEventSimulationEngine().simulate(copy);
+				}
+			});
+		}
+		return batch;
+	}
+
+
+	/**
+	 * The outcome of a single simulation in a batch.
+	 */
+	public static class Result {
+		private final int index;
+		private final Simulation simulation;
+		private final SimulationConditions conditions;
+		private final FlightData data;
+		private final Throwable error;
+		private final long queueNanos;
+		private final long runNanos;
+
+		private Result(int index, Simulation simulation, SimulationConditions conditions,
+				FlightData data, Throwable error, long queueNanos, long runNanos) {
+			this.index = index;
+			this.simulation = simulation;
+			this.conditions = conditions;
+			this.data = data;
+			this.error = error;
+			this.queueNanos = queueNanos;
+			this.runNanos = runNanos;
+		}
+
+		/** Return the index of the simulation in the submitted collection. */
+		public int getIndex() {
+			return index;
+		}
+
+		/** Return the simulation, or <code>null</code> if conditions were submitted. */
+		public Simulation getSimulation() {
+			return simulation;
+		}
+
+		/** Return the submitted conditions, or <code>null</code> if a simulation was submitted. */
+		public SimulationConditions getConditions() {
+			return conditions;
+		}
+
+		/** Return the simulated flight data, or <code>null</code> if the simulation failed. */
+		public FlightData getFlightData() {
+			return data;
+		}
+
+		/** Return the exception that ended the simulation, or <code>null</code> if it succeeded. */
+		public Throwable getError() {
+			return error;
+		}
+
+		public boolean isSuccessful() {
+			return error == null;
+		}
+
+		public boolean isCancelled() {
+			return error instanceof SimulationCancelledException;
+		}
+
+		/** Return the time in nanoseconds the simulation waited before it was started. */
+		public long getQueueNanos() {
+			return queueNanos;
+		}
+
+		/** Return the time in nanoseconds spent running the simulation. */
+		public long getRunNanos() {
+			return runNanos;
+		}
+
+		@Override
+		public String toString() {
+			return "Result[index=" + index + ", " + (isSuccessful() ? "ok" : error.toString()) +
+					", runTime=" + (runNanos / 1000000) + "ms]";
+		}
+	}
+
+
+	/**
+	 * A batch of submitted simulations.  The results can be retrieved in submission order
+	 * using {@link #get(int)} or {@link #iterator()}, or in order of completion using
+	 * {@link #take()}.  These two ways of retrieval are independent of each other.
+	 */
+	public static class Batch implements Iterable<Result> {
+
+		private final AtomicReferenceArray<Result> results;
+		private final LinkedBlockingQueue<Result> completed = new LinkedBlockingQueue<Result>();
+		private final List<Run> runs;
+		private final List<Future<?>> futures;
+		private final long submitTime = System.nanoTime();
+		private int remaining;
+		private int taken = 0;
+		private volatile boolean cancelled = false;
+
+		private final SimulationListener cancelListener = new AbstractSimulationListener() {
+			@Override
+			public void postStep(SimulationStatus status) throws SimulationException {
+				if (cancelled) {
+					throw new SimulationCancelledException("The simulation was cancelled.");
+				}
+			}
+
+			@Override
+			public boolean isSystemListener() {
+				return true;
+			}
+
+			@Override
+			public AbstractSimulationListener clone() {
+				// Must remain the same instance when conditions are cloned
+				return this;
+			}
+		};
+
+		private Batch(int size) {
+			this.results = new AtomicReferenceArray<Result>(size);
+			this.runs = new ArrayList<Run>(size);
+			this.futures = new ArrayList<Future<?>>(size);
+			this.remaining = size;
+		}
+
+		private void submit(ExecutorService executor, Run run) {
+			runs.add(run);
+			futures.add(executor.submit(run));
+		}
+
+		/**
+		 * Record a result unless one already exists for the index.
+		 */
+		private synchronized void complete(Result result) {
+			if (results.get(result.getIndex()) != null) {
+				return;
+			}
+			results.set(result.getIndex(), result);
+			remaining--;
+			completed.add(result);
+			notifyAll();
+		}
+
+
+		/** Return the number of simulations in this batch. */
+		public int size() {
+			return results.length();
+		}
+
+		/** Return whether all simulations have completed. */
+		public synchronized boolean isDone() {
+			return remaining == 0;
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Cancel the batch.  Simulations that have not started are not run, and running
+		 * simulations are aborted at their next step.  A result is still produced for every
+		 * simulation, with a {@link SimulationCancelledException} as the error unless it
+		 * completed before being cancelled.
+		 */
+		public void cancel() {
+			cancelled = true;
+			for (int i = 0; i < futures.size(); i++) {
+				if (futures.get(i).cancel(false)) {
+					Run run = runs.get(i);
+					complete(new Result(i, run.simulation, run.conditions, null,
+							new SimulationCancelledException("The simulation was cancelled."),
+							System.nanoTime() - submitTime, 0));
+				}
+			}
+		}
+
+		/**
+		 * Return the result of the simulation with the given index, waiting for it to complete.
+		 *
+		 * @throws InterruptedException	if interrupted while waiting.
+		 */
+		public Result get(int index) throws InterruptedException {
+			Result result = results.get(index);
+			if (result != null) {
+				return result;
+			}
+			synchronized (this) {
+				while ((result = results.get(index)) == null) {
+					wait();
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Return the next completed result, waiting for one if necessary, or <code>null</code>
+		 * if all results have already been taken.
+		 *
+		 * @throws InterruptedException	if interrupted while waiting.
+		 */
+		public Result take() throws InterruptedException {
+			synchronized (completed) {
+				if (taken >= size()) {
+					return null;
+				}
+				Result result = completed.take();
+				taken++;
+				return result;
+			}
+		}
+
+		/**
+		 * Return the next completed result, waiting at most the given time, or <code>null</code>
+		 * if none completed in time or all results have already been taken.
+		 *
+		 * @throws InterruptedException	if interrupted while waiting.
+		 */
+		public Result poll(long timeout, TimeUnit unit) throws InterruptedException {
+			synchronized (completed) {
+				if (taken >= size()) {
+					return null;
+				}
+				Result result = completed.poll(timeout, unit);
+				if (result != null) {
+					taken++;
+				}
+				return result;
+			}
+		}
+
+		/**
+		 * Wait for all simulations to complete and return the results in submission order.
+		 *
+		 * @throws InterruptedException	if interrupted while waiting.
+		 */
+		public List<Result> getAll() throws InterruptedException {
+			List<Result> list = new ArrayList<Result>(size());
+			for (int i = 0; i < size(); i++) {
+				list.add(get(i));
+			}
+			return list;
+		}
+
+		/**
+		 * Return an iterator over the results in submission order.  The iterator waits for
+		 * each simulation to complete, and throws an <code>IllegalStateException</code> if
+		 * interrupted while waiting.
+		 */
+		@Override
+		public Iterator<Result> iterator() {
+			return new Iterator<Result>() {
+				private int next = 0;
+
+				@Override
+				public boolean hasNext() {
+					return next < size();
+				}
+
+				@Override
+				public Result next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					try {
+						return get(next++);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IllegalStateException("Interrupted while waiting for simulation", e);
+					}
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+	}
+
+
+	/**
+	 * A single simulation task of a batch.
+	 */
+	private abstract static class Run implements Callable<Void> {
+		private final Batch batch;
+		private final int index;
+		private final Simulation simulation;
+		private final SimulationConditions conditions;
+
+		Run(Batch batch, int index, Simulation simulation, SimulationConditions conditions) {
+			this.batch = batch;
+			this.index = index;
+			this.simulation = simulation;
+			this.conditions = conditions;
+		}
+
+		protected abstract FlightData simulate() throws SimulationException;
+
+		@Override
+		public Void call() {
+			final long start = System.nanoTime();
+			FlightData data = null;
+			Throwable error = null;
+			try {
+				if (batch.cancelled) {
+					throw new SimulationCancelledException("The simulation was cancelled.");
+				}
+				data = simulate();
+			} catch (Throwable t) {
+				error = t;
+				if (!(t instanceof SimulationException)) {
+					log.warn("Unexpected exception in batch simulation " + index, t);
+				}
+			}
+			final long end = System.nanoTime();
+			batch.complete(new Result(index, simulation, conditions, data, error,
+					start - batch.submitTime, end - start));
+			return null;
+		}
+	}
+}
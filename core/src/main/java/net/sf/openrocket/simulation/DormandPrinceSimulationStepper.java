@@ -0,0 +1,491 @@
+package net.sf.openrocket.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.simulation.SimulationProfile.TimeStepLimit;
+import net.sf.openrocket.simulation.exception.SimulationCalculationException;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.Quaternion;
+import net.sf.openrocket.util.WorldCoordinate;
+
+/**
+ * A simulation stepper using the adaptive Dormand-Prince 5(4) Runge-Kutta method.
+ * <p>
+ * The physical model is the same as that of {@link RK4SimulationStepper}.  Each step is
+ * integrated with the seven stages of the Dormand-Prince pair, and the difference between
+ * the fifth and fourth order solutions estimates the local error of the step.  A step whose
+ * error exceeds the error tolerance of the simulation conditions is rejected and retried
+ * with a shorter time step, and the next time step is scaled according to the error.  This
+ * allows taking long steps during coast and descent, when the motion of the rocket is
+ * smooth, instead of the heuristic time step limits of the RK4 stepper.
+ * <p>
+ * The last stage of the Dormand-Prince pair is evaluated at the end of the step, so it is
+ * reused as the first stage of the next step ("first same as last") as long as the status
+ * has not been modified between the steps and the average thrust of the steps is equal.
+ * Coasting steps therefore take six evaluations of the derivatives instead of seven.
+ * <p>
+ * The time step is additionally limited to the user-specified time step while the motors
+ * are thrusting and when approaching apogee or the ground, so that flight events are
+ * detected as accurately as with the RK4 stepper.  On the launch rod the same limits as
+ * in the RK4 stepper apply.
+ */
+public class DormandPrinceSimulationStepper extends RK4SimulationStepper {
+
+	private static final Logger log = LoggerFactory.getLogger(DormandPrinceSimulationStepper.class);
+	private static final Translator trans = Application.getTranslator();
+
+
+	/**
+	 * A recommended relative error tolerance.
+	 */
+	public static final double RECOMMENDED_ERROR_TOLERANCE = 1e-4;
+
+	/** The smallest allowed error tolerance. */
+	public static final double MIN_ERROR_TOLERANCE = 1e-10;
+
+	/** The largest allowed error tolerance. */
+	public static final double MAX_ERROR_TOLERANCE = 1e-2;
+
+	/** The maximum time step as a multiple of the user-specified time step. */
+	private static final double MAX_TIME_STEP_MULTIPLIER = 20;
+
+	/*
+	 * Time step control.  The time step is scaled by SAFETY * error^(-1/5), but by at
+	 * least MIN_SCALE and at most MAX_SCALE.
+	 */
+	private static final double SAFETY = 0.9;
+	private static final double MIN_SCALE = 0.2;
+	private static final double MAX_SCALE = 5;
+
+	/*
+	 * The Dormand-Prince coefficients.  The last stage is evaluated at the fifth order
+	 * solution, so its coefficients A[6] are also the weights of the solution.  E contains
+	 * the differences between the fifth and fourth order weights.
+	 */
+	private static final int STAGES = 7;
+	private static final double[] C = { 0, 1.0 / 5, 3.0 / 10, 4.0 / 5, 8.0 / 9, 1, 1 };
+	private static final double[][] A = {
+			{},
+			{ 1.0 / 5 },
+			{ 3.0 / 40, 9.0 / 40 },
+			{ 44.0 / 45, -56.0 / 15, 32.0 / 9 },
+			{ 19372.0 / 6561, -25360.0 / 2187, 64448.0 / 6561, -212.0 / 729 },
+			{ 9017.0 / 3168, -355.0 / 33, 46732.0 / 5247, 49.0 / 176, -5103.0 / 18656 },
+			{ 35.0 / 384, 0, 500.0 / 1113, 125.0 / 192, -2187.0 / 6784, 11.0 / 84 }
+	};
+	private static final double[] E = {
+			71.0 / 57600, 0, -71.0 / 16695, 71.0 / 1920, -17253.0 / 339200, 22.0 / 525, -1.0 / 40
+	};
+	private static final int SOLUTION = STAGES - 1;
+
+
+	/** Scratch buffers reused between steps. */
+	private final DataStore store = new DataStore();
+	private final double[] k = new double[STAGES * K_SIZE];
+
+	/**
+	 * The pitch and yaw randomization, kept constant during a step and drawn anew whenever
+	 * the first stage is evaluated.
+	 */
+	private final double[] pitchYawRandomization = new double[2];
+	private int pitchYawRandomizationIndex = 0;
+
+	/**
+	 * The time step proposed by the error control and the vertical acceleration at the
+	 * end of the previous step of the status <code>previousStatus</code>.
+	 */
+	private SimulationStatus previousStatus = null;
+	private double proposedTimeStep = Double.NaN;
+	private double previousAccelerationZ = Double.NaN;
+
+	/*
+	 * The state at which the last stage of the previous step was evaluated.  The position,
+	 * velocity and orientation are immutable, so comparing their identity detects any
+	 * modification by the simulation engine or listeners, and flight events modify the
+	 * flight data.
+	 */
+	private double lastStageTime = Double.NaN;
+	private double lastStageThrust = Double.NaN;
+	private Coordinate lastStagePosition = null;
+	private Coordinate lastStageVelocity = null;
+	private Coordinate lastStageRotationVelocity = null;
+	private Quaternion lastStageOrientation = null;
+	private int lastStageFlightDataModID = -1;
+
+
+	/**
+	 * Construct a stepper that reuses its integration buffers and substep status
+	 * between steps.
+	 */
+	public DormandPrinceSimulationStepper() {
+		super();
+	}
+
+	/**
+	 * Construct a stepper.
+	 *
+	 * @param reuseSubstepStatus	whether to reuse a single status object for the substeps
+	 * @see RK4SimulationStepper#RK4SimulationStepper(boolean)
+	 */
+	public DormandPrinceSimulationStepper(boolean reuseSubstepStatus) {
+		super(reuseSubstepStatus);
+	}
+
+
+	@Override
+	public RK4SimulationStatus initialize(SimulationStatus original) {
+		previousStatus = null;
+		proposedTimeStep = Double.NaN;
+		previousAccelerationZ = Double.NaN;
+		lastStagePosition = null;
+		return super.initialize(original);
+	}
+
+
+	@Override
+	public void step(SimulationStatus simulationStatus, double maxTimeStep) throws SimulationException {
+
+		RK4SimulationStatus status = (RK4SimulationStatus) simulationStatus;
+		SimulationConditions conditions = status.getSimulationConditions();
+
+		final double timeStep = MathUtil.max(conditions.getTimeStep(), MIN_TIME_STEP);
+		final double minTimeStep = conditions.getTimeStep() / 20;
+		final double tolerance = conditions.getErrorTolerance();
+
+		if (previousStatus != status) {
+			proposedTimeStep = Double.NaN;
+			previousAccelerationZ = Double.NaN;
+		}
+
+		/*
+		 * Reuse the last stage of the previous step as the first stage.  The maximum vertical
+		 * velocity is otherwise updated when evaluating the first stage.
+		 */
+		boolean firstStageKnown = isLastStageReusable(status);
+		double firstStageThrust = lastStageThrust;
+		if (firstStageKnown) {
+			System.arraycopy(k, SOLUTION * K_SIZE, k, 0, K_SIZE);
+			status.setMaxZVelocity(MathUtil.max(status.getMaxZVelocity(), status.getRocketVelocity().z));
+		}
+
+		/*
+		 * Select the time step.  Start with the time step proposed by the error control of
+		 * the previous step, and limit it to at most:
+		 *  - MAX_TIME_STEP_MULTIPLIER times the user-specified time step
+		 *  - 1/5th of the user-specified time step and 1/10th of the launch rod length
+		 *    while on the launch rod
+		 *  - slightly more than the estimated time until apogee or hitting the ground
+		 *  - the time until the next event
+		 *  - the user-specified time step while thrusting (checked below)
+		 *
+		 * The step is still at least 1/20th of the user-selected time step.
+		 */
+		double h = Double.isNaN(proposedTimeStep) ? status.getPreviousTimeStep() : proposedTimeStep;
+		TimeStepLimit limit = TimeStepLimit.ERROR_TOLERANCE;
+
+		double maxStep = timeStep * MAX_TIME_STEP_MULTIPLIER;
+		TimeStepLimit maxStepLimit = TimeStepLimit.TIME_STEP;
+		if (!status.isLaunchRodCleared()) {
+			maxStep = timeStep / 5;
+			double rodStep = conditions.getLaunchRodLength() / status.getRocketVelocity().length() / 10;
+			if (rodStep < maxStep) {
+				maxStep = rodStep;
+				maxStepLimit = TimeStepLimit.LAUNCH_ROD;
+			}
+		} else {
+			maxStep = MathUtil.min(maxStep, approachTimeStep(status, timeStep, minTimeStep));
+		}
+		if (maxTimeStep < maxStep) {
+			maxStep = maxTimeStep;
+			maxStepLimit = TimeStepLimit.NEXT_EVENT;
+		}
+		if (h >= maxStep) {
+			h = maxStep;
+			limit = maxStepLimit;
+		}
+		if (h < minTimeStep) {
+			h = minTimeStep;
+			limit = TimeStepLimit.MINIMUM_TIME_STEP;
+		}
+		checkNaN(h);
+
+		double error;
+		boolean rejected = false;
+		while (true) {
+
+			store.reset();
+			store.timestep = h;
+			store.thrustForce = calculateAverageThrust(status, h, status.getPreviousAcceleration(),
+					status.getPreviousAtmosphericConditions(), true);
+
+			// The thrust is averaged over the step, so limit the step while thrusting
+			if (store.thrustForce > 0 && h > timeStep) {
+				h = timeStep;
+				limit = TimeStepLimit.TIME_STEP;
+				continue;
+			}
+
+			// A shorter step after rejection or thrust change may still reuse the first stage
+			if (!firstStageKnown || store.thrustForce != firstStageThrust) {
+				/*
+				 * The randomization of the pitch and yaw moments is constant during the step.
+				 * Otherwise it would appear as integration error and force needlessly short
+				 * time steps.
+				 */
+				pitchYawRandomization[0] = super.getPitchYawRandomization();
+				pitchYawRandomization[1] = super.getPitchYawRandomization();
+				computeParameters(status, 0);
+				firstStageKnown = true;
+				firstStageThrust = store.thrustForce;
+			}
+			for (int stage = 1; stage < STAGES; stage++) {
+				computeParameters(stageStatus(status, stage, h), stage);
+			}
+
+			error = errorNorm(status, h, tolerance);
+			checkNaN(error);
+			if (error <= 1 || h <= minTimeStep) {
+				break;
+			}
+
+			double scale = MathUtil.max(SAFETY * Math.pow(error, -0.2), MIN_SCALE);
+			if (log.isTraceEnabled()) {
+				log.trace("Rejected time step " + h + " with error " + error + ", scaling by " + scale);
+			}
+			h = MathUtil.max(h * scale, minTimeStep);
+			limit = TimeStepLimit.ERROR_TOLERANCE;
+			rejected = true;
+		}
+
+		if (log.isTraceEnabled()) {
+			log.trace("Selected time step " + h + " (limit " + limit + ", error " + error + ")");
+		}
+		if (status.getProfile() != null) {
+			status.getProfile().addTimeStepLimit(limit);
+		}
+
+
+		//// Propose the next time step, do not grow it after rejected attempts
+		double scale = (error > 0) ? SAFETY * Math.pow(error, -0.2) : MAX_SCALE;
+		scale = MathUtil.clamp(scale, MIN_SCALE, rejected ? 1 : MAX_SCALE);
+		previousStatus = status;
+		proposedTimeStep = h * scale;
+		previousAccelerationZ = k[SOLUTION * K_SIZE + K_A + 2];
+
+
+		//// Advance to the fifth order solution, at which the last stage was evaluated
+		Coordinate v = status.getRocketVelocity();
+		Coordinate p = status.getRocketPosition();
+		Coordinate rv = status.getRocketRotationVelocity();
+		status.setRocketVelocity(new Coordinate(v.x + sum(SOLUTION, K_A, 0, h),
+				v.y + sum(SOLUTION, K_A, 1, h), v.z + sum(SOLUTION, K_A, 2, h), v.weight));
+		status.setRocketPosition(new Coordinate(p.x + sum(SOLUTION, K_V, 0, h),
+				p.y + sum(SOLUTION, K_V, 1, h), p.z + sum(SOLUTION, K_V, 2, h), p.weight));
+		status.setRocketRotationVelocity(new Coordinate(rv.x + sum(SOLUTION, K_RA, 0, h),
+				rv.y + sum(SOLUTION, K_RA, 1, h), rv.z + sum(SOLUTION, K_RA, 2, h), rv.weight));
+		status.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeft(
+				Quaternion.rotation(sum(SOLUTION, K_RV, 0, h), sum(SOLUTION, K_RV, 1, h),
+						sum(SOLUTION, K_RV, 2, h))).normalizeIfNecessary());
+
+		WorldCoordinate w = conditions.getLaunchSite();
+		w = conditions.getGeodeticComputation().addCoordinate(w, status.getRocketPosition());
+		status.setRocketWorldPosition(w);
+
+		if (!(0 <= h)) {
+			// Also catches NaN
+			throw new IllegalArgumentException("Stepping backwards in time, timestep=" + h);
+		}
+		status.setSimulationTime(status.getSimulationTime() + h);
+		status.setPreviousTimeStep(h);
+
+		storeData(status, store);
+
+		lastStageTime = status.getSimulationTime();
+		lastStageThrust = firstStageThrust;
+		lastStagePosition = status.getRocketPosition();
+		lastStageVelocity = status.getRocketVelocity();
+		lastStageRotationVelocity = status.getRocketRotationVelocity();
+		lastStageOrientation = status.getRocketOrientationQuaternion();
+		lastStageFlightDataModID = status.getFlightData().getModID();
+
+		// Verify that values don't run out of range
+		if (status.getRocketVelocity().length2() > 1e18 ||
+				status.getRocketPosition().length2() > 1e18 ||
+				status.getRocketRotationVelocity().length2() > 1e18) {
+			throw new SimulationCalculationException(trans.get("error.valuesTooLarge"));
+		}
+	}
+
+
+	/**
+	 * Return whether the last stage of the previous step was evaluated at the current state
+	 * of the status.
+	 */
+	private boolean isLastStageReusable(RK4SimulationStatus status) {
+		return previousStatus == status &&
+				lastStagePosition == status.getRocketPosition() &&
+				lastStageVelocity == status.getRocketVelocity() &&
+				lastStageRotationVelocity == status.getRocketRotationVelocity() &&
+				lastStageOrientation == status.getRocketOrientationQuaternion() &&
+				lastStageTime == status.getSimulationTime() &&
+				lastStageFlightDataModID == status.getFlightData().getModID();
+	}
+
+
+	/**
+	 * Return the maximum time step when approaching apogee or the ground.  The step ends
+	 * shortly after the estimated time of apogee or of hitting the ground, so that a data
+	 * point is close to it.  After apogee the step is limited to the user-specified time
+	 * step until the apogee has been detected.
+	 */
+	private double approachTimeStep(RK4SimulationStatus status, double timeStep, double minTimeStep) {
+		double vz = status.getRocketVelocity().z;
+		double z = status.getRocketPosition().z;
+		double maxStep = Double.MAX_VALUE;
+
+		if (!status.isApogeeReached()) {
+			if (vz <= 0) {
+				// Past apogee, but not yet detected
+				maxStep = timeStep;
+			} else if (previousAccelerationZ < 0) {
+				maxStep = vz / -previousAccelerationZ + minTimeStep;
+			}
+		}
+		if (vz < 0 && z > 0) {
+			maxStep = MathUtil.min(maxStep, z / -vz + minTimeStep);
+		}
+		return maxStep;
+	}
+
+
+	/**
+	 * Return the status at which a stage is evaluated, i.e. the status
+	 * <code>y + h * sum(A[stage][j] * kj)</code> at time <code>t + C[stage] * h</code>.
+	 */
+	private RK4SimulationStatus stageStatus(RK4SimulationStatus status, int stage, double h) {
+		RK4SimulationStatus status2 = copySubstepStatus(status);
+
+		Coordinate p = status.getRocketPosition();
+		Coordinate v = status.getRocketVelocity();
+		Coordinate rv = status.getRocketRotationVelocity();
+		status2.setSimulationTime(status.getSimulationTime() + C[stage] * h);
+		status2.setRocketPosition(new Coordinate(p.x + sum(stage, K_V, 0, h), p.y + sum(stage, K_V, 1, h),
+				p.z + sum(stage, K_V, 2, h), p.weight));
+		status2.setRocketVelocity(new Coordinate(v.x + sum(stage, K_A, 0, h), v.y + sum(stage, K_A, 1, h),
+				v.z + sum(stage, K_A, 2, h), v.weight));
+		status2.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeft(
+				Quaternion.rotation(sum(stage, K_RV, 0, h), sum(stage, K_RV, 1, h), sum(stage, K_RV, 2, h))));
+		status2.setRocketRotationVelocity(new Coordinate(rv.x + sum(stage, K_RA, 0, h),
+				rv.y + sum(stage, K_RA, 1, h), rv.z + sum(stage, K_RA, 2, h), rv.weight));
+		return status2;
+	}
+
+
+	/**
+	 * Return the weighted sum  h * sum(A[stage][j] * kj)  of one component.
+	 *
+	 * @param stage		the stage whose coefficients to use
+	 * @param param		the offset of the parameter within each kN (K_V, K_A, K_RV or K_RA)
+	 * @param axis		the axis (0=x, 1=y, 2=z)
+	 * @param h			the time step
+	 */
+	private double sum(int stage, int param, int axis, double h) {
+		double[] a = A[stage];
+		double s = 0;
+		for (int j = 0; j < a.length; j++) {
+			s += a[j] * k[j * K_SIZE + param + axis];
+		}
+		return s * h;
+	}
+
+
+	/**
+	 * Return the root-mean-square of the estimated local errors of the step relative to
+	 * the tolerance.  Each component is scaled by <code>tolerance * (1 + |y|)</code>,
+	 * where <code>|y|</code> is the larger magnitude of the component at the beginning
+	 * and end of the step.  Values larger than one exceed the tolerance.
+	 */
+	private double errorNorm(RK4SimulationStatus status, double h, double tolerance) {
+		Coordinate p = status.getRocketPosition();
+		Coordinate v = status.getRocketVelocity();
+		Coordinate rv = status.getRocketRotationVelocity();
+		double s = 0;
+		s += componentError(K_V, 0, p.x, h, tolerance);
+		s += componentError(K_V, 1, p.y, h, tolerance);
+		s += componentError(K_V, 2, p.z, h, tolerance);
+		s += componentError(K_A, 0, v.x, h, tolerance);
+		s += componentError(K_A, 1, v.y, h, tolerance);
+		s += componentError(K_A, 2, v.z, h, tolerance);
+		// Orientation changes are relative to the current orientation
+		s += componentError(K_RV, 0, Double.NaN, h, tolerance);
+		s += componentError(K_RV, 1, Double.NaN, h, tolerance);
+		s += componentError(K_RV, 2, Double.NaN, h, tolerance);
+		s += componentError(K_RA, 0, rv.x, h, tolerance);
+		s += componentError(K_RA, 1, rv.y, h, tolerance);
+		s += componentError(K_RA, 2, rv.z, h, tolerance);
+		return Math.sqrt(s / K_SIZE);
+	}
+
+
+	/**
+	 * Return the squared scaled error of one component.
+	 *
+	 * @param param		the offset of the parameter within each kN (K_V, K_A, K_RV or K_RA)
+	 * @param axis		the axis (0=x, 1=y, 2=z)
+	 * @param y0		the value of the component at the beginning of the step, or NaN to
+	 * 					use an absolute tolerance
+	 * @param h			the time step
+	 * @param tolerance	the error tolerance
+	 */
+	private double componentError(int param, int axis, double y0, double h, double tolerance) {
+		double err = 0;
+		for (int j = 0; j < STAGES; j++) {
+			err += E[j] * k[j * K_SIZE + param + axis];
+		}
+		err *= h;
+
+		double y = 0;
+		if (!Double.isNaN(y0)) {
+			y = MathUtil.max(Math.abs(y0), Math.abs(y0 + sum(SOLUTION, param, axis, h)));
+		}
+		double scaled = err / (tolerance * (1 + y));
+		return scaled * scaled;
+	}
+
+
+	/**
+	 * Compute the derivatives of a stage into the parameter buffer.
+	 */
+	private void computeParameters(RK4SimulationStatus status, int stage) throws SimulationException {
+		pitchYawRandomizationIndex = 0;
+		calculateAcceleration(status, store);
+
+		Coordinate a = store.linearAcceleration;
+		Coordinate ra = store.angularAcceleration;
+		Coordinate v = status.getRocketVelocity();
+		Coordinate rv = status.getRocketRotationVelocity();
+
+		checkNaN(a);
+		checkNaN(ra);
+		checkNaN(v);
+		checkNaN(rv);
+
+		int offset = stage * K_SIZE;
+		put(k, offset + K_A, a);
+		put(k, offset + K_RA, ra);
+		put(k, offset + K_V, v);
+		put(k, offset + K_RV, rv);
+	}
+
+
+	@Override
+	protected double getPitchYawRandomization() {
+		return pitchYawRandomization[(pitchYawRandomizationIndex++) & 1];
+	}
+
+}
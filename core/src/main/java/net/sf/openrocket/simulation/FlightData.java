@@ -39,6 +39,7 @@ public class FlightData {
 	private final Mutable mutable = new Mutable();
 	
 	private final ArrayList<FlightDataBranch> branches = new ArrayList<FlightDataBranch>();
+	private volatile BranchSource branchSource = null;
 	
 	private final WarningSet warnings = new WarningSet();
 	
@@ -52,6 +53,8 @@ public class FlightData {
 	private double launchRodVelocity = Double.NaN;
 	private double deploymentVelocity = Double.NaN;
 	
+	private SimulationProfile profile = null;
+	
 	
 	/**
 	 * Create a FlightData object with no content.  The resulting object is mutable.
@@ -119,8 +122,90 @@ public class FlightData {
 	}
 	
 	
+	/**
+	 * Return the profile of the simulation that produced this data, or <code>null</code>
+	 * if the simulation was not profiled.
+	 * 
+	 * @see net.sf.openrocket.simulation.listeners.system.SimulationProfiler
+	 */
+	public SimulationProfile getProfile() {
+		return profile;
+	}
+	
+	public void setProfile(SimulationProfile profile) {
+		mutable.check();
+		this.profile = profile;
+	}
+	
+	
+	/**
+	 * Set a source that creates the branches of this object when they are first
+	 * accessed.  This allows constructing the object from the summary values alone
+	 * and deferring the creation of the actual data, for example parsing it from a file,
+	 * until it is needed.
+	 * <p>
+	 * The summary values of this object are not recalculated when the branches are
+	 * created, except for values that are not available (NaN).
+	 * 
+	 * @param source	the source of the branches.
+	 * @throws IllegalStateException	if this object is immutable or already contains branches.
+	 */
+	public void setBranchSource(BranchSource source) {
+		mutable.check();
+		if (!branches.isEmpty() || branchSource != null) {
+			throw new IllegalStateException("FlightData already contains branches");
+		}
+		this.branchSource = source;
+	}
+	
+	/**
+	 * Return whether the branches of this object have not yet been created by the
+	 * source set using {@link #setBranchSource(BranchSource)}.
+	 */
+	public boolean isBranchCreationPending() {
+		return branchSource != null;
+	}
+	
+	private void createPendingBranches() {
+		if (branchSource == null) {
+			return;
+		}
+		synchronized (this) {
+			BranchSource source = branchSource;
+			if (source == null) {
+				return;
+			}
+			
+			List<FlightDataBranch> created = source.createBranches();
+			FlightData calculated = new FlightData(created.toArray(new FlightDataBranch[0]));
+			if (Double.isNaN(maxAltitude))
+				maxAltitude = calculated.maxAltitude;
+			if (Double.isNaN(maxVelocity))
+				maxVelocity = calculated.maxVelocity;
+			if (Double.isNaN(maxAcceleration))
+				maxAcceleration = calculated.maxAcceleration;
+			if (Double.isNaN(maxMachNumber))
+				maxMachNumber = calculated.maxMachNumber;
+			if (Double.isNaN(timeToApogee))
+				timeToApogee = calculated.timeToApogee;
+			if (Double.isNaN(flightTime))
+				flightTime = calculated.flightTime;
+			if (Double.isNaN(groundHitVelocity))
+				groundHitVelocity = calculated.groundHitVelocity;
+			if (Double.isNaN(launchRodVelocity))
+				launchRodVelocity = calculated.launchRodVelocity;
+			if (Double.isNaN(deploymentVelocity))
+				deploymentVelocity = calculated.deploymentVelocity;
+			
+			branches.addAll(calculated.branches);
+			branchSource = null;
+		}
+	}
+	
+	
 	public void addBranch(FlightDataBranch branch) {
 		mutable.check();
+		createPendingBranches();
 		
 		branch.immute();
 		branches.add(branch);
@@ -131,10 +216,12 @@ public class FlightData {
 	}
 	
 	public int getBranchCount() {
+		createPendingBranches();
 		return branches.size();
 	}
 	
 	public FlightDataBranch getBranch(int n) {
+		createPendingBranches();
 		return branches.get(n);
 	}
 	
@@ -308,4 +395,20 @@ public class FlightData {
 		
 		return max;
 	}
+	
+	
+	/**
+	 * A source of flight data branches that are created only when they are first accessed.
+	 * 
+	 * @see FlightData#setBranchSource(BranchSource)
+	 */
+	public interface BranchSource {
+		
+		/**
+		 * Create the branches.  This method is called at most once.
+		 * 
+		 * @return	the branches, which may be empty.
+		 */
+		List<FlightDataBranch> createBranches();
+	}
 }
@@ -1,10 +1,12 @@
 package net.sf.openrocket.simulation;
 
+import java.nio.DoubleBuffer;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import net.sf.openrocket.util.ArrayList;
 import net.sf.openrocket.util.Monitorable;
@@ -22,6 +24,10 @@ import net.sf.openrocket.util.Mutable;
  * will be created and all previous values will be set to NaN.
  * <p>
  * After populating a FlightDataBranch object it can be made immutable by calling {@link #immute()}.
+ * <p>
+ * The values are stored column-wise in primitive <code>double</code> arrays, one per variable
+ * type, indexed by a dense per-branch ordinal.  The arrays are grown geometrically and
+ * pre-filled with NaN, so adding a point does not touch the individual columns.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
@@ -30,11 +36,20 @@ public class FlightDataBranch implements Monitorable {
 	/** The name of this flight data branch. */
 	private final String branchName;
 	
-	private final Map<FlightDataType, ArrayList<Double>> values =
-			new LinkedHashMap<FlightDataType, ArrayList<Double>>();
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/** The column ordinal of each type in this branch. */
+	private final Map<FlightDataType, Integer> ordinals = new HashMap<FlightDataType, Integer>();
+	
+	/** The type, values, minimum and maximum of each column, indexed by ordinal. */
+	private FlightDataType[] columnTypes = new FlightDataType[0];
+	private double[][] columns = new double[0][];
+	private double[] minValues = new double[0];
+	private double[] maxValues = new double[0];
 	
-	private final Map<FlightDataType, Double> maxValues = new HashMap<FlightDataType, Double>();
-	private final Map<FlightDataType, Double> minValues = new HashMap<FlightDataType, Double>();
+	/** Number of data points, and the allocated length of each column. */
+	private int length = 0;
+	private int capacity = INITIAL_CAPACITY;
 	
 	/**
 	 * time for the rocket to reach apogee if the flight had been no recovery deployment
@@ -65,14 +80,12 @@ public class FlightDataBranch implements Monitorable {
 		this.branchName = name;
 		
 		for (FlightDataType t : types) {
-			if (values.containsKey(t)) {
+			if (ordinals.containsKey(t)) {
 				throw new IllegalArgumentException("Value type " + t + " specified multiple " +
 						"times in constructor.");
 			}
 			
-			values.put(t, new ArrayList<Double>());
-			minValues.put(t, Double.NaN);
-			maxValues.put(t, Double.NaN);
+			addColumn(t, Double.NaN);
 		}
 	}
 	
@@ -95,9 +108,68 @@ public class FlightDataBranch implements Monitorable {
 	public void addPoint() {
 		mutable.check();
 		
-		for (FlightDataType t : values.keySet()) {
-			values.get(t).add(Double.NaN);
+		if (columns.length == 0) {
+			// Without any types there are no values to add a point to
+			return;
+		}
+		if (length == capacity) {
+			capacity = capacity + (capacity >> 1);
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = newColumn(columns[i]);
+			}
+		}
+		length++;
+		modID++;
+	}
+	
+	/**
+	 * Add a number of data points at once.  This is equivalent to calling {@link #addPoint()}
+	 * and {@link #setValue(FlightDataType, double)} for each point, but copies the values
+	 * a column at a time.  The values of types not given are set to NaN.
+	 * 
+	 * @param types		the types of the values.
+	 * @param values	the values of each type, all of the same length.
+	 * @throws IllegalStateException	if this object has been made immutable.
+	 */
+	public void addPoints(FlightDataType[] types, double[][] values) {
+		mutable.check();
+		if (types.length != values.length) {
+			throw new IllegalArgumentException("Got " + types.length + " types but " + values.length + " columns");
+		}
+		if (values.length == 0 || values[0].length == 0) {
+			return;
+		}
+		int count = values[0].length;
+		
+		if (length + count > capacity) {
+			capacity = Math.max(capacity + (capacity >> 1), length + count);
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = newColumn(columns[i]);
+			}
+		}
+		
+		for (int i = 0; i < types.length; i++) {
+			if (values[i].length != count) {
+				throw new IllegalArgumentException("Columns have different lengths");
+			}
+			Integer ordinal = ordinals.get(types[i]);
+			int index = (ordinal != null) ? ordinal : addColumn(types[i], Double.NaN);
+			System.arraycopy(values[i], 0, columns[index], length, count);
+			
+			double min = minValues[index];
+			double max = maxValues[index];
+			for (double value : values[i]) {
+				if (Double.isNaN(min) || (value < min)) {
+					min = value;
+				}
+				if (Double.isNaN(max) || (value > max)) {
+					max = value;
+				}
+			}
+			minValues[index] = min;
+			maxValues[index] = max;
 		}
+		length += count;
 		modID++;
 	}
 	
@@ -113,35 +185,72 @@ public class FlightDataBranch implements Monitorable {
 	public void setValue(FlightDataType type, double value) {
 		mutable.check();
 		
-		ArrayList<Double> list = values.get(type);
+		Integer ordinal = ordinals.get(type);
+		int index = (ordinal != null) ? ordinal : addColumn(type, value);
 		
-		if (list == null) {
-			list = new ArrayList<Double>();
-			int n = getLength();
-			for (int i = 0; i < n; i++) {
-				list.add(Double.NaN);
-			}
-			values.put(type, list);
-			minValues.put(type, value);
-			maxValues.put(type, value);
-		}
-		
-		if (list.size() > 0) {
-			list.set(list.size() - 1, value);
+		if (length > 0) {
+			columns[index][length - 1] = value;
 		}
 		
-		double min = minValues.get(type);
-		double max = maxValues.get(type);
+		double min = minValues[index];
+		double max = maxValues[index];
 		
 		if (Double.isNaN(min) || (value < min)) {
-			minValues.put(type, value);
+			minValues[index] = value;
 		}
 		if (Double.isNaN(max) || (value > max)) {
-			maxValues.put(type, value);
+			maxValues[index] = value;
 		}
 		modID++;
 	}
 	
+	/**
+	 * Add a new column for the specified type, with all existing points set to NaN.
+	 * 
+	 * @return	the ordinal of the new column.
+	 */
+	private int addColumn(FlightDataType type, double initialExtreme) {
+		int index = columns.length;
+		
+		columnTypes = Arrays.copyOf(columnTypes, index + 1);
+		columns = Arrays.copyOf(columns, index + 1);
+		minValues = Arrays.copyOf(minValues, index + 1);
+		maxValues = Arrays.copyOf(maxValues, index + 1);
+		
+		columnTypes[index] = type;
+		columns[index] = newColumn(null);
+		minValues[index] = initialExtreme;
+		maxValues[index] = initialExtreme;
+		ordinals.put(type, index);
+		
+		return index;
+	}
+	
+	/**
+	 * Return a column array of the current capacity containing the values of the old column
+	 * (if any), with the remaining elements set to NaN.
+	 */
+	private double[] newColumn(double[] old) {
+		double[] column = new double[capacity];
+		int n = 0;
+		if (old != null) {
+			n = Math.min(old.length, capacity);
+			System.arraycopy(old, 0, column, 0, n);
+		}
+		Arrays.fill(column, n, capacity, Double.NaN);
+		return column;
+	}
+	
+	/**
+	 * Return the column of the specified type, or <code>null</code> if not present.
+	 */
+	private double[] column(FlightDataType type) {
+		Integer ordinal = ordinals.get(type);
+		if (ordinal == null)
+			return null;
+		return columns[ordinal];
+	}
+	
 	
 	/**
 	 * Return the branch name.
@@ -155,7 +264,7 @@ public class FlightDataBranch implements Monitorable {
 	 * natural order.
 	 */
 	public FlightDataType[] getTypes() {
-		FlightDataType[] array = values.keySet().toArray(new FlightDataType[0]);
+		FlightDataType[] array = columnTypes.clone();
 		Arrays.sort(array);
 		return array;
 	}
@@ -164,24 +273,94 @@ public class FlightDataBranch implements Monitorable {
 	 * Return the number of data points in this branch.
 	 */
 	public int getLength() {
-		for (FlightDataType t : values.keySet()) {
-			return values.get(t).size();
-		}
-		return 0;
+		return length;
 	}
 	
 	/**
-	 * Return an array of values for the specified variable type.
+	 * Return a list of values for the specified variable type.  The returned list is an
+	 * unmodifiable snapshot of the current values; use {@link #getValues(FlightDataType)}
+	 * to avoid boxing when processing large amounts of data.
 	 * 
 	 * @param type	the variable type.
 	 * @return		a list of the variable values, or <code>null</code> if
 	 * 				the variable type hasn't been added to this branch.
 	 */
 	public List<Double> get(FlightDataType type) {
-		ArrayList<Double> list = values.get(type);
-		if (list == null)
+		double[] column = column(type);
+		if (column == null)
 			return null;
-		return list.clone();
+		if (!isMutable()) {
+			// The column can no longer change, so it can be shared
+			return new ColumnList(column, length);
+		}
+		return new ColumnList(Arrays.copyOf(column, length), length);
+	}
+	
+	/**
+	 * Return the values for the specified variable type as a newly allocated array.
+	 * 
+	 * @param type	the variable type.
+	 * @return		an array of the variable values, or <code>null</code> if
+	 * 				the variable type hasn't been added to this branch.
+	 */
+	public double[] getValues(FlightDataType type) {
+		return getValues(type, 0, getLength());
+	}
+	
+	/**
+	 * Return a read-only view of the values for the specified variable type, limited to
+	 * the current number of data points.  Unlike {@link #getValues(FlightDataType)} the
+	 * values are not copied, so this is preferred when processing large amounts of data.
+	 * Points added to a mutable branch after this call are not included in the view.
+	 * 
+	 * @param type	the variable type.
+	 * @return		a view of the variable values, or <code>null</code> if
+	 * 				the variable type hasn't been added to this branch.
+	 */
+	public DoubleBuffer getBuffer(FlightDataType type) {
+		double[] column = column(type);
+		if (column == null)
+			return null;
+		return DoubleBuffer.wrap(column, 0, length).asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Return a slice of the values for the specified variable type as a newly allocated array.
+	 * 
+	 * @param type	the variable type.
+	 * @param from	the first index, inclusive.
+	 * @param to	the last index, exclusive.
+	 * @return		an array of the variable values, or <code>null</code> if
+	 * 				the variable type hasn't been added to this branch.
+	 * @throws IndexOutOfBoundsException	if the indices are outside the branch data.
+	 */
+	public double[] getValues(FlightDataType type, int from, int to) {
+		if (from < 0 || to > getLength() || from > to) {
+			throw new IndexOutOfBoundsException("from=" + from + " to=" + to + " length=" + getLength());
+		}
+		double[] column = column(type);
+		if (column == null)
+			return null;
+		return Arrays.copyOfRange(column, from, to);
+	}
+	
+	/**
+	 * Return the value of the specified type at the specified point, or NaN if the type
+	 * is unavailable.
+	 * 
+	 * @param type	the variable type.
+	 * @param index	the data point index.
+	 * @return		the value at the point, or NaN.
+	 * @throws IndexOutOfBoundsException	if the index is outside the branch data.
+	 */
+	public double getValue(FlightDataType type, int index) {
+		if (index < 0 || index >= getLength()) {
+			throw new IndexOutOfBoundsException("index=" + index + " length=" + getLength());
+		}
+		double[] column = column(type);
+		if (column == null)
+			return Double.NaN;
+		return column[index];
 	}
 	
 	/**
@@ -192,10 +371,10 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the last value in this branch, or NaN.
 	 */
 	public double getLast(FlightDataType type) {
-		ArrayList<Double> list = values.get(type);
-		if (list == null || list.isEmpty())
+		double[] column = column(type);
+		if (column == null || length == 0)
 			return Double.NaN;
-		return list.get(list.size() - 1);
+		return column[length - 1];
 	}
 	
 	/**
@@ -206,10 +385,10 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the minimum value in this branch, or NaN.
 	 */
 	public double getMinimum(FlightDataType type) {
-		Double v = minValues.get(type);
-		if (v == null)
+		Integer ordinal = ordinals.get(type);
+		if (ordinal == null)
 			return Double.NaN;
-		return v;
+		return minValues[ordinal];
 	}
 	
 	/**
@@ -220,10 +399,10 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the maximum value in this branch, or NaN.
 	 */
 	public double getMaximum(FlightDataType type) {
-		Double v = maxValues.get(type);
-		if (v == null)
+		Integer ordinal = ordinals.get(type);
+		if (ordinal == null)
 			return Double.NaN;
-		return v;
+		return maxValues[ordinal];
 	}
 	
 	
@@ -344,4 +523,31 @@ public class FlightDataBranch implements Monitorable {
 		return modID;
 	}
 	
+	
+	/**
+	 * An unmodifiable list view of a column of values.
+	 */
+	private static class ColumnList extends AbstractList<Double> implements RandomAccess {
+		private final double[] values;
+		private final int size;
+		
+		public ColumnList(double[] values, int size) {
+			this.values = values;
+			this.size = size;
+		}
+		
+		@Override
+		public Double get(int index) {
+			if (index >= size) {
+				throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+			}
+			return values[index];
+		}
+		
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+	
 }
@@ -80,6 +80,19 @@ public class RK4SimulationStatus extends SimulationStatus implements Cloneable {
 		this.startWarningTime = startWarningTime;
 	}
 	
+	@Override
+	public void copyStateFrom(SimulationStatus orig) {
+		super.copyStateFrom(orig);
+		if (orig instanceof RK4SimulationStatus) {
+			RK4SimulationStatus other = (RK4SimulationStatus) orig;
+			this.launchRodDirection = other.launchRodDirection;
+			this.previousAcceleration = other.previousAcceleration;
+			this.previousAtmosphericConditions = other.previousAtmosphericConditions;
+			this.maxZVelocity = other.maxZVelocity;
+			this.startWarningTime = other.startWarningTime;
+		}
+	}
+	
 	@Override
 	public RK4SimulationStatus clone() {
 		return (RK4SimulationStatus) super.clone();
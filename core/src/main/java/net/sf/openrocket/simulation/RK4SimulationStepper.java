@@ -58,12 +58,66 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	private static final double MAX_ROLL_RATE_CHANGE = 2 * Math.PI / 180;
 	private static final double MAX_PITCH_CHANGE = 4 * Math.PI / 180;
 	
-	private static final double MIN_TIME_STEP = 0.001;
+	protected static final double MIN_TIME_STEP = 0.001;
+	
+	/** The profiled time step limits, indexed by the limiting value of dt[]. */
+	private static final SimulationProfile.TimeStepLimit[] TIME_STEP_LIMITS = SimulationProfile.TimeStepLimit.values();
+	
+	/*
+	 * Layout of the RK4 parameter buffer.  Each of k1..k4 occupies K_SIZE consecutive
+	 * values, containing the linear velocity, linear acceleration, rotational velocity
+	 * and rotational acceleration (x, y, z each).
+	 */
+	protected static final int K_V = 0;
+	protected static final int K_A = 3;
+	protected static final int K_RV = 6;
+	protected static final int K_RA = 9;
+	protected static final int K_SIZE = 12;
+	
+	private static final int K1 = 0;
+	private static final int K2 = K_SIZE;
+	private static final int K3 = 2 * K_SIZE;
+	private static final int K4 = 3 * K_SIZE;
 	
 	
 	private Random random;
 	
+	/** Whether to reuse a single substep status instead of cloning it for each substep. */
+	private final boolean reuseSubstepStatus;
+	
+	/** Scratch buffers reused between steps. */
+	private final DataStore store = new DataStore();
+	private final double[] k = new double[4 * K_SIZE];
+	private final double[] dt = new double[8];
 	
+	/** The reusable substep status and the status it was cloned from. */
+	private RK4SimulationStatus substepStatus = null;
+	private RK4SimulationStatus substepStatusSource = null;
+	
+	/** Scratch vector for the rotations of the acceleration and flight condition computations. */
+	private final double[] vector = new double[3];
+	
+	
+	/**
+	 * Construct a stepper that reuses its integration buffers and substep status
+	 * between steps.
+	 */
+	public RK4SimulationStepper() {
+		this(true);
+	}
+	
+	/**
+	 * Construct a stepper.
+	 * <p>
+	 * If <code>reuseSubstepStatus</code> is <code>false</code>, a new clone of the simulation
+	 * status is created for each of the RK4 substeps.  This is only required if simulation
+	 * listeners retain references to the status objects they are passed during a step.
+	 * 
+	 * @param reuseSubstepStatus	whether to reuse a single status object for the RK4 substeps
+	 */
+	public RK4SimulationStepper(boolean reuseSubstepStatus) {
+		this.reuseSubstepStatus = reuseSubstepStatus;
+	}
 	
 	
 	@Override
@@ -93,12 +147,11 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	public void step(SimulationStatus simulationStatus, double maxTimeStep) throws SimulationException {
 		
 		RK4SimulationStatus status = (RK4SimulationStatus) simulationStatus;
-		DataStore store = new DataStore();
+		store.reset();
 		
 		////////  Perform RK4 integration:  ////////
 		
 		RK4SimulationStatus status2;
-		RK4Parameters k1, k2, k3, k4;
 		
 		/*
 		 * Start with previous time step which is used to compute the initial thrust estimate.
@@ -121,7 +174,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 
 		//// First position, k1 = f(t, y)
 		
-		k1 = computeParameters(status, store);
+		computeParameters(status, store, K1);
 		
 		/*
 		 * Select the actual time step to use.  It is the minimum of the following:
@@ -139,7 +192,6 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		 * 
 		 * The step is still at least 1/20th of the user-selected time step.
 		 */
-		double[] dt = new double[8];
 		Arrays.fill(dt, Double.MAX_VALUE);
 
 		// If the user selected a really small timestep, use MIN_TIME_STEP instead.
@@ -151,7 +203,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		dt[5] = Math.abs(MAX_PITCH_CHANGE / store.lateralPitchAcceleration);
 		if (!status.isLaunchRodCleared()) {
 			dt[0] /= 5.0;
-			dt[6] = status.getSimulationConditions().getLaunchRodLength() / k1.v.length() / 10;
+			dt[6] = status.getSimulationConditions().getLaunchRodLength() / length(k, K1 + K_V) / 10;
 		}
 		dt[7] = 1.5 * status.getPreviousTimeStep();
 		
@@ -164,14 +216,21 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 			}
 		}
 
+		SimulationProfile.TimeStepLimit limit = TIME_STEP_LIMITS[limitingValue];
 		double minTimeStep = status.getSimulationConditions().getTimeStep() / 20;
 		if (store.timestep < minTimeStep) {
-			log.trace("Too small time step " + store.timestep + " (limiting factor " + limitingValue + "), using " +
-					minTimeStep + " instead.");
+			if (log.isTraceEnabled()) {
+				log.trace("Too small time step " + store.timestep + " (limiting factor " + limitingValue + "), using " +
+						minTimeStep + " instead.");
+			}
 			store.timestep = minTimeStep;
-		} else {
+			limit = SimulationProfile.TimeStepLimit.MINIMUM_TIME_STEP;
+		} else if (log.isTraceEnabled()) {
 			log.trace("Selected time step " + store.timestep + " (limiting factor " + limitingValue + ")");
 		}
+		if (status.getProfile() != null) {
+			status.getProfile().addTimeStepLimit(limit);
+		}
 		checkNaN(store.timestep);
 		
 		/*
@@ -182,7 +241,9 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		double thrustEstimate = store.thrustForce;
 		store.thrustForce = calculateAverageThrust(status, store.timestep, store.longitudinalAcceleration,
 				store.atmosphericConditions, true);
-		log.trace("Thrust = " + store.thrustForce);
+		if (log.isTraceEnabled()) {
+			log.trace("Thrust = " + store.thrustForce);
+		}
 		double thrustDiff = Math.abs(store.thrustForce - thrustEstimate);
 		// Log if difference over 1%, recompute if over 10%
 		if (thrustDiff > 0.01 * thrustEstimate) {
@@ -193,8 +254,8 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 						" correct=" + store.thrustForce +
 						" timestep=" + store.timestep +
 						", recomputing k1 parameters");
-				k1 = computeParameters(status, store);
-			} else {
+				computeParameters(status, store, K1);
+			} else if (log.isTraceEnabled()) {
 				log.trace("Thrust estimate differs from correct value by " +
 						(Math.rint(1000 * (thrustDiff + 0.000001) / thrustEstimate) / 10.0) + "%," +
 						" estimate=" + thrustEstimate +
@@ -207,52 +268,35 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 
 		//// Second position, k2 = f(t + h/2, y + k1*h/2)
 		
-		status2 = status.clone();
-		status2.setSimulationTime(status.getSimulationTime() + store.timestep / 2);
-		status2.setRocketPosition(status.getRocketPosition().add(k1.v.multiply(store.timestep / 2)));
-		status2.setRocketVelocity(status.getRocketVelocity().add(k1.a.multiply(store.timestep / 2)));
-		status2.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(k1.rv.multiply(store.timestep / 2))));
-		status2.setRocketRotationVelocity(status.getRocketRotationVelocity().add(k1.ra.multiply(store.timestep / 2)));
-		
-		k2 = computeParameters(status2, store);
+		status2 = substepStatus(status, K1, store.timestep / 2);
+		computeParameters(status2, store, K2);
 		
 
 		//// Third position, k3 = f(t + h/2, y + k2*h/2)
 		
-		status2 = status.clone();
-		status2.setSimulationTime(status.getSimulationTime() + store.timestep / 2);
-		status2.setRocketPosition(status.getRocketPosition().add(k2.v.multiply(store.timestep / 2)));
-		status2.setRocketVelocity(status.getRocketVelocity().add(k2.a.multiply(store.timestep / 2)));
-		status2.setRocketOrientationQuaternion(status2.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(k2.rv.multiply(store.timestep / 2))));
-		status2.setRocketRotationVelocity(status.getRocketRotationVelocity().add(k2.ra.multiply(store.timestep / 2)));
-		
-		k3 = computeParameters(status2, store);
+		status2 = substepStatus(status, K2, store.timestep / 2);
+		computeParameters(status2, store, K3);
 		
 
 		//// Fourth position, k4 = f(t + h, y + k3*h)
 		
-		status2 = status.clone();
-		status2.setSimulationTime(status.getSimulationTime() + store.timestep);
-		status2.setRocketPosition(status.getRocketPosition().add(k3.v.multiply(store.timestep)));
-		status2.setRocketVelocity(status.getRocketVelocity().add(k3.a.multiply(store.timestep)));
-		status2.setRocketOrientationQuaternion(status2.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(k3.rv.multiply(store.timestep))));
-		status2.setRocketRotationVelocity(status.getRocketRotationVelocity().add(k3.ra.multiply(store.timestep)));
-		
-		k4 = computeParameters(status2, store);
+		status2 = substepStatus(status, K3, store.timestep);
+		computeParameters(status2, store, K4);
 		
 
 		//// Sum all together,  y(n+1) = y(n) + h*(k1 + 2*k2 + 2*k3 + k4)/6
-		Coordinate deltaV, deltaP, deltaR, deltaO;
-		deltaV = k2.a.add(k3.a).multiply(2).add(k1.a).add(k4.a).multiply(store.timestep / 6);
-		deltaP = k2.v.add(k3.v).multiply(2).add(k1.v).add(k4.v).multiply(store.timestep / 6);
-		deltaR = k2.ra.add(k3.ra).multiply(2).add(k1.ra).add(k4.ra).multiply(store.timestep / 6);
-		deltaO = k2.rv.add(k3.rv).multiply(2).add(k1.rv).add(k4.rv).multiply(store.timestep / 6);
-		
-
-		status.setRocketVelocity(status.getRocketVelocity().add(deltaV));
-		status.setRocketPosition(status.getRocketPosition().add(deltaP));
-		status.setRocketRotationVelocity(status.getRocketRotationVelocity().add(deltaR));
-		status.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(deltaO)).normalizeIfNecessary());
+		final double h6 = store.timestep / 6;
+		Coordinate v = status.getRocketVelocity();
+		Coordinate p = status.getRocketPosition();
+		Coordinate rv = status.getRocketRotationVelocity();
+		status.setRocketVelocity(new Coordinate(
+				v.x + rk4Sum(K_A, 0, h6), v.y + rk4Sum(K_A, 1, h6), v.z + rk4Sum(K_A, 2, h6), v.weight));
+		status.setRocketPosition(new Coordinate(
+				p.x + rk4Sum(K_V, 0, h6), p.y + rk4Sum(K_V, 1, h6), p.z + rk4Sum(K_V, 2, h6), p.weight));
+		status.setRocketRotationVelocity(new Coordinate(
+				rv.x + rk4Sum(K_RA, 0, h6), rv.y + rk4Sum(K_RA, 1, h6), rv.z + rk4Sum(K_RA, 2, h6), rv.weight));
+		status.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeft(
+				Quaternion.rotation(rk4Sum(K_RV, 0, h6), rk4Sum(K_RV, 1, h6), rk4Sum(K_RV, 2, h6))).normalizeIfNecessary());
 		
 		WorldCoordinate w = status.getSimulationConditions().getLaunchSite();
 		w = status.getSimulationConditions().getGeodeticComputation().addCoordinate(w, status.getRocketPosition());
@@ -276,32 +320,116 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 				status.getRocketRotationVelocity().length2() > 1e18) {
 			throw new SimulationCalculationException(trans.get("error.valuesTooLarge"));
 		}
+		
 	}
 	
 	
-
-
-
-	private RK4Parameters computeParameters(RK4SimulationStatus status, DataStore dataStore)
+	/**
+	 * Return the status at which the next RK4 substep is evaluated, i.e. the status
+	 * <code>y + kN*h</code> at time <code>t + h</code>.
+	 * 
+	 * @param status	the status at the beginning of the step
+	 * @param kOffset	the offset of the parameters kN in the parameter buffer
+	 * @param h			the length of the substep
+	 * @return			the status to use for evaluating the substep
+	 */
+	private RK4SimulationStatus substepStatus(RK4SimulationStatus status, int kOffset, double h) {
+		RK4SimulationStatus status2 = copySubstepStatus(status);
+		
+		Coordinate p = status.getRocketPosition();
+		Coordinate v = status.getRocketVelocity();
+		Coordinate rv = status.getRocketRotationVelocity();
+		int i = kOffset;
+		status2.setSimulationTime(status.getSimulationTime() + h);
+		status2.setRocketPosition(new Coordinate(p.x + k[i + K_V] * h, p.y + k[i + K_V + 1] * h,
+				p.z + k[i + K_V + 2] * h, p.weight));
+		status2.setRocketVelocity(new Coordinate(v.x + k[i + K_A] * h, v.y + k[i + K_A + 1] * h,
+				v.z + k[i + K_A + 2] * h, v.weight));
+		status2.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeft(
+				Quaternion.rotation(k[i + K_RV] * h, k[i + K_RV + 1] * h, k[i + K_RV + 2] * h)));
+		status2.setRocketRotationVelocity(new Coordinate(rv.x + k[i + K_RA] * h, rv.y + k[i + K_RA + 1] * h,
+				rv.z + k[i + K_RA + 2] * h, rv.weight));
+		return status2;
+	}
+	
+	
+	/**
+	 * Return a status object for evaluating a substep, containing a copy of the state of
+	 * <code>status</code>.  Unless disabled in the constructor, the same object is returned
+	 * for all substeps taken from the same status.
+	 * 
+	 * @param status	the status at the beginning of the step
+	 * @return			a copy of the status
+	 */
+	protected RK4SimulationStatus copySubstepStatus(RK4SimulationStatus status) {
+		RK4SimulationStatus status2;
+		if (!reuseSubstepStatus) {
+			status2 = status.clone();
+		} else if (substepStatus == null || substepStatusSource != status) {
+			status2 = status.clone();
+			substepStatus = status2;
+			substepStatusSource = status;
+		} else {
+			status2 = substepStatus;
+			status2.copyStateFrom(status);
+		}
+		return status2;
+	}
+	
+	
+	/**
+	 * Return the weighted RK4 sum  h*(k1 + 2*k2 + 2*k3 + k4)/6  of one component.
+	 * 
+	 * @param param		the offset of the parameter within each kN (K_V, K_A, K_RV or K_RA)
+	 * @param axis		the axis (0=x, 1=y, 2=z)
+	 * @param h6		the time step divided by six
+	 */
+	private double rk4Sum(int param, int axis, double h6) {
+		int i = param + axis;
+		return ((k[K2 + i] + k[K3 + i]) * 2 + k[K1 + i] + k[K4 + i]) * h6;
+	}
+	
+	
+	protected static double length(double[] array, int offset) {
+		double x = array[offset];
+		double y = array[offset + 1];
+		double z = array[offset + 2];
+		return MathUtil.safeSqrt(x * x + y * y + z * z);
+	}
+	
+	
+	protected static void put(double[] array, int offset, Coordinate c) {
+		array[offset] = c.x;
+		array[offset + 1] = c.y;
+		array[offset + 2] = c.z;
+	}
+	
+	
+	/**
+	 * Compute the RK4 parameters for the given status into the parameter buffer.
+	 * 
+	 * @param status		the status at which to evaluate the parameters
+	 * @param dataStore		the data store
+	 * @param kOffset		the offset in the parameter buffer at which to store the values
+	 */
+	private void computeParameters(RK4SimulationStatus status, DataStore dataStore, int kOffset)
 			throws SimulationException {
-		RK4Parameters params = new RK4Parameters();
-		
-		//		if (dataStore == null) {
-		//			dataStore = new DataStore();
-		//		}
 		
 		calculateAcceleration(status, dataStore);
-		params.a = dataStore.linearAcceleration;
-		params.ra = dataStore.angularAcceleration;
-		params.v = status.getRocketVelocity();
-		params.rv = status.getRocketRotationVelocity();
-		
-		checkNaN(params.a);
-		checkNaN(params.ra);
-		checkNaN(params.v);
-		checkNaN(params.rv);
-		
-		return params;
+		Coordinate a = dataStore.linearAcceleration;
+		Coordinate ra = dataStore.angularAcceleration;
+		Coordinate v = status.getRocketVelocity();
+		Coordinate rv = status.getRocketRotationVelocity();
+		
+		checkNaN(a);
+		checkNaN(ra);
+		checkNaN(v);
+		checkNaN(rv);
+		
+		put(k, kOffset + K_A, a);
+		put(k, kOffset + K_RA, ra);
+		put(k, kOffset + K_V, v);
+		put(k, kOffset + K_RV, rv);
 	}
 	
 	
@@ -315,7 +443,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	 * @param status   the status of the rocket.
 	 * @throws SimulationException 
 	 */
-	private void calculateAcceleration(RK4SimulationStatus status, DataStore store) throws SimulationException {
+	protected void calculateAcceleration(RK4SimulationStatus status, DataStore store) throws SimulationException {
 		
 		// Call pre-listeners
 		store.accelerationData = SimulationListenerHelper.firePreAccelerationCalculation(status);
@@ -347,23 +475,27 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		
 		double forceZ = store.thrustForce - store.dragForce;
 		
-		store.linearAcceleration = new Coordinate(-fN / store.rocketMass.getMass(),
-					-fSide / store.rocketMass.getMass(),
-					forceZ / store.rocketMass.getMass());
+		// The vector arithmetic is done on components to avoid temporary coordinates
+		double ax = -fN / store.rocketMass.getMass();
+		double ay = -fSide / store.rocketMass.getMass();
+		double az = forceZ / store.rocketMass.getMass();
 		
-		store.linearAcceleration = store.thetaRotation.rotateZ(store.linearAcceleration);
+		Rotation2D theta = store.thetaRotation;
+		double rx = theta.cos * ax - theta.sin * ay;
+		double ry = theta.cos * ay + theta.sin * ax;
 		
 		// Convert into rocket world coordinates
-		store.linearAcceleration = status.getRocketOrientationQuaternion().rotate(store.linearAcceleration);
+		status.getRocketOrientationQuaternion().rotate(rx, ry, az, vector);
 		
 		// add effect of gravity
 		store.gravity = modelGravity(status);
-		store.linearAcceleration = store.linearAcceleration.sub(0, 0, store.gravity);
 		
 		// add effect of Coriolis acceleration
 		store.coriolisAcceleration = status.getSimulationConditions().getGeodeticComputation()
 				.getCoriolisAcceleration(status.getRocketWorldPosition(), status.getRocketVelocity());
-		store.linearAcceleration = store.linearAcceleration.add(store.coriolisAcceleration);
+		Coordinate coriolis = store.coriolisAcceleration;
+		store.linearAcceleration = new Coordinate(vector[0] + coriolis.x, vector[1] + coriolis.y,
+				vector[2] - store.gravity + coriolis.z);
 		
 		// If still on the launch rod, project acceleration onto launch rod direction and
 		// set angular acceleration to zero.
@@ -387,19 +519,20 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 			double momZ = store.forces.getCroll() * dynP * refArea * refLength;
 			
 			// Compute acceleration in rocket coordinates
-			store.angularAcceleration = new Coordinate(momX / store.rocketMass.getLongitudinalInertia(),
-						momY / store.rocketMass.getLongitudinalInertia(),
-						momZ / store.rocketMass.getRotationalInertia());
+			double angX = momX / store.rocketMass.getLongitudinalInertia();
+			double angY = momY / store.rocketMass.getLongitudinalInertia();
+			double angZ = momZ / store.rocketMass.getRotationalInertia();
 			
-			store.rollAcceleration = store.angularAcceleration.z;
+			store.rollAcceleration = angZ;
 			// TODO: LOW: This should be hypot, but does it matter?
-			store.lateralPitchAcceleration = MathUtil.max(Math.abs(store.angularAcceleration.x),
-						Math.abs(store.angularAcceleration.y));
+			store.lateralPitchAcceleration = MathUtil.max(Math.abs(angX), Math.abs(angY));
 			
-			store.angularAcceleration = store.thetaRotation.rotateZ(store.angularAcceleration);
+			double rotX = theta.cos * angX - theta.sin * angY;
+			double rotY = theta.cos * angY + theta.sin * angX;
 			
 			// Convert to world coordinates
-			store.angularAcceleration = status.getRocketOrientationQuaternion().rotate(store.angularAcceleration);
+			status.getRocketOrientationQuaternion().rotate(rotX, rotY, angZ, vector);
+			store.angularAcceleration = new Coordinate(vector[0], vector[1], vector[2]);
 			
 		}
 		
@@ -444,14 +577,16 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		
 
 		// Calculate aerodynamic forces
+		long start = SimulationProfile.startSection(status);
 		store.forces = status.getSimulationConditions().getAerodynamicCalculator()
 				.getAerodynamicForces(status.getConfiguration(), store.flightConditions, warnings);
+		SimulationProfile.endSection(status, SimulationProfile.Section.AERODYNAMICS, start);
 		
 
 		// Add very small randomization to yaw & pitch moments to prevent over-perfect flight
 		// TODO: HIGH: This should rather be performed as a listener
-		store.forces.setCm(store.forces.getCm() + (PITCH_YAW_RANDOM * 2 * (random.nextDouble() - 0.5)));
-		store.forces.setCyaw(store.forces.getCyaw() + (PITCH_YAW_RANDOM * 2 * (random.nextDouble() - 0.5)));
+		store.forces.setCm(store.forces.getCm() + getPitchYawRandomization());
+		store.forces.setCyaw(store.forces.getCyaw() + getPitchYawRandomization());
 		
 
 		// Call post-listeners
@@ -460,6 +595,16 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	
 	
 
+	/**
+	 * Return a random amount to add to the pitch or yaw moment coefficient.  This is
+	 * called twice for each evaluation of the aerodynamic forces, first for the pitch and
+	 * then for the yaw moment.
+	 */
+	protected double getPitchYawRandomization() {
+		return PITCH_YAW_RANDOM * 2 * (random.nextDouble() - 0.5);
+	}
+	
+	
 	/**
 	 * Calculate and return the flight conditions for the current rocket status.
 	 * Listeners can override these if necessary.
@@ -491,45 +636,54 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		//// Local wind speed and direction
 		Coordinate windVelocity = modelWindVelocity(status);
 		store.windSpeed = windVelocity.length();
-		Coordinate airSpeed = status.getRocketVelocity().add(windVelocity);
-		airSpeed = status.getRocketOrientationQuaternion().invRotate(airSpeed);
+		Coordinate velocity = status.getRocketVelocity();
+		Quaternion orientation = status.getRocketOrientationQuaternion();
+		orientation.invRotate(velocity.x + windVelocity.x, velocity.y + windVelocity.y,
+				velocity.z + windVelocity.z, vector);
+		double airSpeedX = vector[0];
+		double airSpeedY = vector[1];
+		double airSpeedZ = vector[2];
 		
 
 		// Lateral direction:
-		double len = MathUtil.hypot(airSpeed.x, airSpeed.y);
+		double len = MathUtil.hypot(airSpeedX, airSpeedY);
 		if (len > 0.0001) {
-			store.thetaRotation = new Rotation2D(airSpeed.y / len, airSpeed.x / len);
-			store.flightConditions.setTheta(Math.atan2(airSpeed.y, airSpeed.x));
+			store.thetaRotation = new Rotation2D(airSpeedY / len, airSpeedX / len);
+			store.flightConditions.setTheta(Math.atan2(airSpeedY, airSpeedX));
 		} else {
 			store.thetaRotation = Rotation2D.ID;
 			store.flightConditions.setTheta(0);
 		}
 		
-		double velocity = airSpeed.length();
-		store.flightConditions.setVelocity(velocity);
-		if (velocity > 0.01) {
+		double airSpeed = MathUtil.safeSqrt(airSpeedX * airSpeedX + airSpeedY * airSpeedY + airSpeedZ * airSpeedZ);
+		store.flightConditions.setVelocity(airSpeed);
+		if (airSpeed > 0.01) {
 			// aoa must be calculated from the monotonous cosine
 			// sine can be calculated by a simple division
-			store.flightConditions.setAOA(Math.acos(airSpeed.z / velocity), len / velocity);
+			store.flightConditions.setAOA(Math.acos(airSpeedZ / airSpeed), len / airSpeed);
 		} else {
 			store.flightConditions.setAOA(0);
 		}
 		
 
 		// Roll, pitch and yaw rate
-		Coordinate rot = status.getRocketOrientationQuaternion().invRotate(status.getRocketRotationVelocity());
-		rot = store.thetaRotation.invRotateZ(rot);
-		
-		store.flightConditions.setRollRate(rot.z);
+		Coordinate rotationVelocity = status.getRocketRotationVelocity();
+		orientation.invRotate(rotationVelocity.x, rotationVelocity.y, rotationVelocity.z, vector);
+		Rotation2D theta = store.thetaRotation;
+		double rotX = theta.cos * vector[0] + theta.sin * vector[1];
+		double rotY = theta.cos * vector[1] - theta.sin * vector[0];
+		double rotZ = vector[2];
+		
+		store.flightConditions.setRollRate(rotZ);
 		if (len < 0.001) {
 			store.flightConditions.setPitchRate(0);
 			store.flightConditions.setYawRate(0);
 			store.lateralPitchRate = 0;
 		} else {
-			store.flightConditions.setPitchRate(rot.y);
-			store.flightConditions.setYawRate(rot.x);
+			store.flightConditions.setPitchRate(rotY);
+			store.flightConditions.setYawRate(rotX);
 			// TODO: LOW: set this as power of two?
-			store.lateralPitchRate = MathUtil.hypot(rot.x, rot.y);
+			store.lateralPitchRate = MathUtil.hypot(rotX, rotY);
 		}
 		
 
@@ -547,7 +701,10 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	
 	
 
-	private void storeData(RK4SimulationStatus status, DataStore store) {
+	/**
+	 * Store the data of a completed step into the flight data branch of the status.
+	 */
+	protected void storeData(RK4SimulationStatus status, DataStore store) {
 		
 		FlightDataBranch data = status.getFlightData();
 		boolean extra = status.getSimulationConditions().isCalculateExtras();
@@ -694,18 +851,10 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	
 
 
-	private static class RK4Parameters {
-		/** Linear acceleration */
-		public Coordinate a;
-		/** Linear velocity */
-		public Coordinate v;
-		/** Rotational acceleration */
-		public Coordinate ra;
-		/** Rotational velocity */
-		public Coordinate rv;
-	}
-	
-	private static class DataStore {
+	/**
+	 * The values computed during a step, used for storing the flight data.
+	 */
+	protected static class DataStore {
 		public double timestep = Double.NaN;
 		
 		public AccelerationData accelerationData;
@@ -738,6 +887,31 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		
 		public Rotation2D thetaRotation;
 		
+		/**
+		 * Reset all values to their initial state.
+		 */
+		public void reset() {
+			timestep = Double.NaN;
+			accelerationData = null;
+			atmosphericConditions = null;
+			flightConditions = null;
+			longitudinalAcceleration = Double.NaN;
+			rocketMass = null;
+			motorMass = null;
+			coriolisAcceleration = null;
+			linearAcceleration = null;
+			angularAcceleration = null;
+			forces = null;
+			windSpeed = Double.NaN;
+			gravity = Double.NaN;
+			thrustForce = Double.NaN;
+			dragForce = Double.NaN;
+			lateralPitchRate = Double.NaN;
+			rollAcceleration = Double.NaN;
+			lateralPitchAcceleration = Double.NaN;
+			thetaRotation = null;
+		}
+		
 	}
 	
 }
@@ -59,6 +59,9 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	private double timeStep = RK4SimulationStepper.RECOMMENDED_TIME_STEP;
 	private double maximumAngleStep = RK4SimulationStepper.RECOMMENDED_ANGLE_STEP;
 	
+	private SimulationStepperType stepperType = SimulationStepperType.RK4;
+	private double errorTolerance = DormandPrinceSimulationStepper.RECOMMENDED_ERROR_TOLERANCE;
+	
 	/* Whether to calculate additional data or only primary simulation figures */
 	private boolean calculateExtras = true;
 	
@@ -257,6 +260,34 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	}
 	
 	
+	/**
+	 * Return the type of the stepper used for the free flight of the rocket.
+	 */
+	public SimulationStepperType getStepperType() {
+		return stepperType;
+	}
+	
+	
+	public void setStepperType(SimulationStepperType stepperType) {
+		this.stepperType = stepperType;
+		this.modID++;
+	}
+	
+	
+	/**
+	 * Return the relative error tolerance of adaptive steppers.
+	 */
+	public double getErrorTolerance() {
+		return errorTolerance;
+	}
+	
+	
+	public void setErrorTolerance(double errorTolerance) {
+		this.errorTolerance = errorTolerance;
+		this.modID++;
+	}
+	
+	
 	public boolean isCalculateExtras() {
 		return calculateExtras;
 	}
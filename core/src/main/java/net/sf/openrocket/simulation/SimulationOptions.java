@@ -10,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.sf.openrocket.aerodynamics.BarrowmanCalculator;
+import net.sf.openrocket.aerodynamics.TabulatedAerodynamicCalculator;
 import net.sf.openrocket.masscalc.MassCalculator;
 import net.sf.openrocket.models.atmosphere.AtmosphericModel;
 import net.sf.openrocket.models.atmosphere.ExtendedISAModel;
@@ -78,6 +79,13 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	private double timeStep = preferences.getDouble(Preferences.SIMULATION_TIME_STEP, RK4SimulationStepper.RECOMMENDED_TIME_STEP);
 	private double maximumAngle = RK4SimulationStepper.RECOMMENDED_ANGLE_STEP;
 	
+	private SimulationStepperType stepperType = SimulationStepperType.RK4;
+	private double errorTolerance = DormandPrinceSimulationStepper.RECOMMENDED_ERROR_TOLERANCE;
+	
+	private boolean tabulatedAerodynamics = false;
+	private TabulatedAerodynamicCalculator.Grid aerodynamicTableGrid = TabulatedAerodynamicCalculator.Grid.DEFAULT;
+	private int aerodynamicErrorSampleInterval = 0;
+	
 	private int randomSeed = new Random().nextInt();
 	
 	private boolean calculateExtras = true;
@@ -336,6 +344,91 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	}
 	
 	
+	public SimulationStepperType getStepperType() {
+		return stepperType;
+	}
+	
+	public void setStepperType(SimulationStepperType stepperType) {
+		if (stepperType == null) {
+			throw new IllegalArgumentException("stepperType cannot be null");
+		}
+		if (this.stepperType == stepperType)
+			return;
+		this.stepperType = stepperType;
+		fireChangeEvent();
+	}
+	
+	/**
+	 * Return the relative error tolerance used by adaptive steppers.  The tolerance has
+	 * no effect on the RK4 stepper.
+	 */
+	public double getErrorTolerance() {
+		return errorTolerance;
+	}
+	
+	public void setErrorTolerance(double errorTolerance) {
+		errorTolerance = MathUtil.clamp(errorTolerance, DormandPrinceSimulationStepper.MIN_ERROR_TOLERANCE,
+				DormandPrinceSimulationStepper.MAX_ERROR_TOLERANCE);
+		if (this.errorTolerance == errorTolerance)
+			return;
+		this.errorTolerance = errorTolerance;
+		fireChangeEvent();
+	}
+	
+	
+	/**
+	 * Return whether the aerodynamic coefficients are interpolated from precomputed tables
+	 * instead of being computed on every simulation step.
+	 * 
+	 * @see TabulatedAerodynamicCalculator
+	 */
+	public boolean isTabulatedAerodynamics() {
+		return tabulatedAerodynamics;
+	}
+	
+	public void setTabulatedAerodynamics(boolean tabulatedAerodynamics) {
+		if (this.tabulatedAerodynamics == tabulatedAerodynamics)
+			return;
+		this.tabulatedAerodynamics = tabulatedAerodynamics;
+		fireChangeEvent();
+	}
+	
+	/**
+	 * Return the grid on which the aerodynamic coefficient tables are computed.
+	 */
+	public TabulatedAerodynamicCalculator.Grid getAerodynamicTableGrid() {
+		return aerodynamicTableGrid;
+	}
+	
+	public void setAerodynamicTableGrid(TabulatedAerodynamicCalculator.Grid grid) {
+		if (grid == null)
+			throw new IllegalArgumentException("grid cannot be null");
+		if (this.aerodynamicTableGrid.equals(grid))
+			return;
+		this.aerodynamicTableGrid = grid;
+		fireChangeEvent();
+	}
+	
+	/**
+	 * Return the interval of the simulation steps whose interpolated aerodynamic
+	 * coefficients are compared to the direct computation, or zero for none.
+	 * 
+	 * @see TabulatedAerodynamicCalculator#setErrorSampleInterval(int)
+	 */
+	public int getAerodynamicErrorSampleInterval() {
+		return aerodynamicErrorSampleInterval;
+	}
+	
+	public void setAerodynamicErrorSampleInterval(int interval) {
+		if (interval < 0)
+			throw new IllegalArgumentException("Invalid error sample interval " + interval);
+		if (this.aerodynamicErrorSampleInterval == interval)
+			return;
+		this.aerodynamicErrorSampleInterval = interval;
+		fireChangeEvent();
+	}
+	
+	
 	
 	public boolean getCalculateExtras() {
 		return calculateExtras;
@@ -403,6 +496,11 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		this.launchTemperature = src.launchTemperature;
 		this.maximumAngle = src.maximumAngle;
 		this.timeStep = src.timeStep;
+		this.stepperType = src.stepperType;
+		this.errorTolerance = src.errorTolerance;
+		this.tabulatedAerodynamics = src.tabulatedAerodynamics;
+		this.aerodynamicTableGrid = src.aerodynamicTableGrid;
+		this.aerodynamicErrorSampleInterval = src.aerodynamicErrorSampleInterval;
 		this.windAverage = src.windAverage;
 		this.windTurbulence = src.windTurbulence;
 		this.windDirection = src.windDirection;
@@ -457,6 +555,26 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 			isChanged = true;
 			this.timeStep = src.timeStep;
 		}
+		if (this.stepperType != src.stepperType) {
+			isChanged = true;
+			this.stepperType = src.stepperType;
+		}
+		if (this.errorTolerance != src.errorTolerance) {
+			isChanged = true;
+			this.errorTolerance = src.errorTolerance;
+		}
+		if (this.tabulatedAerodynamics != src.tabulatedAerodynamics) {
+			isChanged = true;
+			this.tabulatedAerodynamics = src.tabulatedAerodynamics;
+		}
+		if (!this.aerodynamicTableGrid.equals(src.aerodynamicTableGrid)) {
+			isChanged = true;
+			this.aerodynamicTableGrid = src.aerodynamicTableGrid;
+		}
+		if (this.aerodynamicErrorSampleInterval != src.aerodynamicErrorSampleInterval) {
+			isChanged = true;
+			this.aerodynamicErrorSampleInterval = src.aerodynamicErrorSampleInterval;
+		}
 		if (this.windAverage != src.windAverage) {
 			isChanged = true;
 			this.windAverage = src.windAverage;
@@ -502,6 +620,11 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 				MathUtil.equals(this.launchTemperature, o.launchTemperature) &&
 				MathUtil.equals(this.maximumAngle, o.maximumAngle) &&
 				MathUtil.equals(this.timeStep, o.timeStep) &&
+				this.stepperType == o.stepperType &&
+				this.errorTolerance == o.errorTolerance &&
+				this.tabulatedAerodynamics == o.tabulatedAerodynamics &&
+				this.aerodynamicTableGrid.equals(o.aerodynamicTableGrid) &&
+				this.aerodynamicErrorSampleInterval == o.aerodynamicErrorSampleInterval &&
 				MathUtil.equals(this.windAverage, o.windAverage) &&
 				MathUtil.equals(this.windTurbulence, o.windTurbulence) &&
 				MathUtil.equals(this.windDirection, o.windDirection) &&
@@ -564,11 +687,19 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		
 		conditions.setGravityModel(gravityModel);
 		
-		conditions.setAerodynamicCalculator(new BarrowmanCalculator());
+		if (isTabulatedAerodynamics()) {
+			TabulatedAerodynamicCalculator calculator = new TabulatedAerodynamicCalculator(aerodynamicTableGrid);
+			calculator.setErrorSampleInterval(aerodynamicErrorSampleInterval);
+			conditions.setAerodynamicCalculator(calculator);
+		} else {
+			conditions.setAerodynamicCalculator(new BarrowmanCalculator());
+		}
 		conditions.setMassCalculator(new MassCalculator());
 		
 		conditions.setTimeStep(getTimeStep());
 		conditions.setMaximumAngleStep(getMaximumStepAngle());
+		conditions.setStepperType(getStepperType());
+		conditions.setErrorTolerance(getErrorTolerance());
 		
 		conditions.setCalculateExtras(getCalculateExtras());
 		
@@ -594,6 +725,11 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 			.concat(String.format("    launchPressure:  %f\n", launchPressure))
 			.concat(String.format("    timeStep:  %f\n", timeStep))
 			.concat(String.format("    maximumAngle:  %f\n", maximumAngle))
+			.concat("    stepperType:  " + stepperType.name() + "\n")
+			.concat(String.format("    errorTolerance:  %g\n", errorTolerance))
+			.concat(String.format("    tabulatedAerodynamics:  %b\n", tabulatedAerodynamics))
+			.concat("    aerodynamicTableGrid:  " + aerodynamicTableGrid + "\n")
+			.concat(String.format("    aerodynamicErrorSampleInterval:  %d\n", aerodynamicErrorSampleInterval))
 			.concat(String.format("    calculateExtras:  %b\n", calculateExtras))
 			.concat("]\n");
 	}
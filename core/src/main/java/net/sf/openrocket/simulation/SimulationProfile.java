@@ -0,0 +1,259 @@
+package net.sf.openrocket.simulation;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import net.sf.openrocket.util.Statistics;
+
+/**
+ * Counters describing where the time of a single simulation was spent.  The profile
+ * records the wall time spent in each of the physical models, the number of steps taken
+ * by each simulation stepper and the limit that determined each time step of the
+ * free flight stepper.
+ * <p>
+ * A profile is only collected when a
+ * {@link net.sf.openrocket.simulation.listeners.system.SimulationProfiler} is present in
+ * the simulation listener list.  The profile of a completed simulation is available from
+ * {@link FlightData#getProfile()}.
+ * <p>
+ * This class is not thread-safe; a profile is only updated by the thread running the
+ * simulation.
+ */
+public class SimulationProfile implements Statistics {
+
+	/**
+	 * The timed sections of a simulation step.  The model sections exclude the time spent
+	 * in the listeners that are called before and after the model.
+	 */
+	public enum Section {
+		/** The aerodynamic force calculation */
+		AERODYNAMICS,
+		/** The structure and motor mass calculation */
+		MASS,
+		/** The atmospheric model */
+		ATMOSPHERE,
+		/** The wind model */
+		WIND,
+		/** The gravity model */
+		GRAVITY,
+		/** The motor thrust calculation */
+		THRUST,
+		/** All simulation listener callbacks */
+		LISTENERS
+	}
+
+	/**
+	 * The limits that may determine the length of a time step of the free flight stepper.
+	 * The first eight values are in the same order as the candidate time steps of the
+	 * {@link RK4SimulationStepper}.
+	 */
+	public enum TimeStepLimit {
+		/** The user-specified time step (or 1/5th of it if on the launch rod) */
+		TIME_STEP,
+		/** The time until the next flight event */
+		NEXT_EVENT,
+		/** The maximum pitch step angle */
+		PITCH_STEP_ANGLE,
+		/** The maximum roll step angle */
+		ROLL_STEP_ANGLE,
+		/** The maximum roll rate change */
+		ROLL_RATE_CHANGE,
+		/** The maximum pitch change */
+		PITCH_CHANGE,
+		/** 1/10th of the launch rod length */
+		LAUNCH_ROD,
+		/** 1.5 times the previous time step */
+		PREVIOUS_TIME_STEP,
+		/** The minimum time step, 1/20th of the user-specified time step */
+		MINIMUM_TIME_STEP,
+		/** The error tolerance of an adaptive stepper */
+		ERROR_TOLERANCE
+	}
+
+	private static final Section[] SECTIONS = Section.values();
+	private static final TimeStepLimit[] LIMITS = TimeStepLimit.values();
+
+	private final long[] sectionNanos = new long[SECTIONS.length];
+	private final long[] sectionCounts = new long[SECTIONS.length];
+	private final long[] limitCounts = new long[LIMITS.length];
+	private final Map<String, Long> stepCounts = new LinkedHashMap<String, Long>();
+
+	private long startNanos = Long.MIN_VALUE;
+	private long endNanos = Long.MIN_VALUE;
+
+
+	/**
+	 * Mark the start of the simulation.
+	 */
+	public void start() {
+		startNanos = System.nanoTime();
+		endNanos = Long.MIN_VALUE;
+	}
+
+	/**
+	 * Mark the end of the simulation.  If called multiple times, the last call determines
+	 * the end time.
+	 */
+	public void end() {
+		endNanos = System.nanoTime();
+	}
+
+	/**
+	 * Return the wall time of the simulation in nanoseconds, from {@link #start()} to
+	 * {@link #end()} or to the current time if not yet ended.  Returns zero if the
+	 * simulation has not been started.
+	 */
+	public long getTotalTime() {
+		if (startNanos == Long.MIN_VALUE) {
+			return 0;
+		}
+		long end = (endNanos == Long.MIN_VALUE) ? System.nanoTime() : endNanos;
+		return end - startNanos;
+	}
+
+
+	/**
+	 * Return the start time of a timed section, or zero if the simulation is not being
+	 * profiled.  The section is ended by {@link #endSection(SimulationStatus, Section, long)}.
+	 *
+	 * @param status	the simulation status.
+	 * @return			the value to pass to <code>endSection</code>.
+	 */
+	public static long startSection(SimulationStatus status) {
+		return (status.getProfile() != null) ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Add the time elapsed since {@link #startSection(SimulationStatus)} to a section of the
+	 * profile of the simulation.  Nothing is added if the simulation was not being profiled
+	 * when the section started, for example when the section itself started the profiling.
+	 *
+	 * @param status	the simulation status.
+	 * @param section	the timed section.
+	 * @param start		the value returned by <code>startSection</code>.
+	 */
+	public static void endSection(SimulationStatus status, Section section, long start) {
+		SimulationProfile profile = status.getProfile();
+		if (profile != null && start != 0) {
+			profile.addTime(section, System.nanoTime() - start);
+		}
+	}
+
+
+	/**
+	 * Add time spent in a section.
+	 *
+	 * @param section	the section.
+	 * @param nanos		the time spent, in nanoseconds.
+	 */
+	public void addTime(Section section, long nanos) {
+		sectionNanos[section.ordinal()] += nanos;
+		sectionCounts[section.ordinal()]++;
+	}
+
+	/**
+	 * Return the total time spent in a section, in nanoseconds.
+	 */
+	public long getTime(Section section) {
+		return sectionNanos[section.ordinal()];
+	}
+
+	/**
+	 * Return the number of times a section was entered.
+	 */
+	public long getCount(Section section) {
+		return sectionCounts[section.ordinal()];
+	}
+
+
+	/**
+	 * Count a step taken by a simulation stepper.
+	 *
+	 * @param stepper	the stepper that took the step.
+	 */
+	public void addStep(SimulationStepper stepper) {
+		String name = stepper.getClass().getSimpleName();
+		Long count = stepCounts.get(name);
+		stepCounts.put(name, (count == null) ? 1L : count + 1);
+	}
+
+	/**
+	 * Return the number of steps taken by a stepper class.
+	 *
+	 * @param stepper	the stepper class.
+	 */
+	public long getStepCount(Class<? extends SimulationStepper> stepper) {
+		Long count = stepCounts.get(stepper.getSimpleName());
+		return (count == null) ? 0 : count;
+	}
+
+	/**
+	 * Return the total number of steps taken by all steppers.
+	 */
+	public long getStepCount() {
+		long total = 0;
+		for (long count : stepCounts.values()) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Return the step counts keyed by the simple class name of the stepper, in the order
+	 * the steppers were first used.
+	 */
+	public Map<String, Long> getStepCounts() {
+		return Collections.unmodifiableMap(stepCounts);
+	}
+
+
+	/**
+	 * Count a time step of the flight stepper limited by the given limit.
+	 */
+	public void addTimeStepLimit(TimeStepLimit limit) {
+		limitCounts[limit.ordinal()]++;
+	}
+
+	/**
+	 * Return the number of flight stepper time steps limited by the given limit.
+	 */
+	public long getTimeStepLimitCount(TimeStepLimit limit) {
+		return limitCounts[limit.ordinal()];
+	}
+
+
+	@Override
+	public String getStatistics() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(Locale.ENGLISH, "Simulation profile: total %.1f ms, %d steps %s%n",
+				getTotalTime() / 1e6, getStepCount(), stepCounts));
+		for (Section s : SECTIONS) {
+			sb.append(String.format(Locale.ENGLISH, "  %-14s %10.3f ms %10d calls%n",
+					s.name().toLowerCase(Locale.ENGLISH), sectionNanos[s.ordinal()] / 1e6, sectionCounts[s.ordinal()]));
+		}
+		sb.append("  time step limits:");
+		for (TimeStepLimit l : LIMITS) {
+			if (limitCounts[l.ordinal()] > 0) {
+				sb.append(' ').append(l.name().toLowerCase(Locale.ENGLISH)).append('=').append(limitCounts[l.ordinal()]);
+			}
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public void resetStatistics() {
+		for (int i = 0; i < SECTIONS.length; i++) {
+			sectionNanos[i] = 0;
+			sectionCounts[i] = 0;
+		}
+		for (int i = 0; i < LIMITS.length; i++) {
+			limitCounts[i] = 0;
+		}
+		stepCounts.clear();
+		startNanos = Long.MIN_VALUE;
+		endNanos = Long.MIN_VALUE;
+	}
+
+}
@@ -59,6 +59,9 @@ public class SimulationStatus implements Monitorable {
 	/** Nanosecond time when the simulation was started. */
 	private long simulationStartWallTime = Long.MIN_VALUE;
 	
+	/** The profile of the simulation, or null if not profiling. */
+	private SimulationProfile profile = null;
+	
 	
 	/** Set to true when a motor has ignited. */
 	private boolean motorIgnited = false;
@@ -181,6 +184,7 @@ public class SimulationStatus implements Monitorable {
 		this.rotationVelocity = orig.rotationVelocity;
 		this.effectiveLaunchRodLength = orig.effectiveLaunchRodLength;
 		this.simulationStartWallTime = orig.simulationStartWallTime;
+		this.profile = orig.profile;
 		this.motorIgnited = orig.motorIgnited;
 		this.liftoff = orig.liftoff;
 		this.launchRodCleared = orig.launchRodCleared;
@@ -352,6 +356,23 @@ public class SimulationStatus implements Monitorable {
 	}
 	
 	
+	/**
+	 * Return the profile collecting timing information of this simulation, or
+	 * <code>null</code> if the simulation is not being profiled.
+	 */
+	public SimulationProfile getProfile() {
+		return profile;
+	}
+	
+	/**
+	 * Set the profile collecting timing information of this simulation.  The profile
+	 * is not part of the simulated state, so this does not change the modification ID.
+	 */
+	public void setProfile(SimulationProfile profile) {
+		this.profile = profile;
+	}
+	
+	
 	public void setMotorIgnited(boolean motorIgnited) {
 		this.motorIgnited = motorIgnited;
 		this.modID++;
@@ -506,6 +527,48 @@ public class SimulationStatus implements Monitorable {
 		}
 	}
 	
+	/**
+	 * Overwrite the state of this object with the state of <code>orig</code>.  After the call
+	 * this object is equivalent to the result of <code>orig.clone()</code>, but no new object
+	 * is allocated.  This allows reusing a single intermediate copy during step computation.
+	 * <p>
+	 * The motor, recovery device, event and extra data collections are shared between an
+	 * object and its clones, so this method may only be called on an object that was
+	 * originally created by cloning <code>orig</code>.
+	 * 
+	 * @param orig	the status from which this object was cloned
+	 * @throws BugException	if this object is not a clone of <code>orig</code>
+	 */
+	public void copyStateFrom(SimulationStatus orig) {
+		if (this.eventQueue != orig.eventQueue || this.motorStateList != orig.motorStateList) {
+			throw new BugException("copyStateFrom called with a status that is not the clone source");
+		}
+		this.simulationConditions = orig.simulationConditions;
+		this.configuration = orig.configuration;
+		this.flightData = orig.flightData;
+		this.time = orig.time;
+		this.previousTimeStep = orig.previousTimeStep;
+		this.position = orig.position;
+		this.worldPosition = orig.worldPosition;
+		this.velocity = orig.velocity;
+		this.orientation = orig.orientation;
+		this.rotationVelocity = orig.rotationVelocity;
+		this.effectiveLaunchRodLength = orig.effectiveLaunchRodLength;
+		this.simulationStartWallTime = orig.simulationStartWallTime;
+		this.profile = orig.profile;
+		this.motorIgnited = orig.motorIgnited;
+		this.liftoff = orig.liftoff;
+		this.launchRodCleared = orig.launchRodCleared;
+		this.apogeeReached = orig.apogeeReached;
+		this.tumbling = orig.tumbling;
+		this.landed = orig.landed;
+		this.warnings = orig.warnings;
+		this.maxAlt = orig.maxAlt;
+		this.maxAltTime = orig.maxAltTime;
+		this.modID = orig.modID;
+		this.modIDadd = orig.modIDadd;
+	}
+	
 	@Override
 	public int getModID() {
 		return (modID + modIDadd + simulationConditions.getModID() + configuration.getModID() +
@@ -0,0 +1,97 @@
+package net.sf.openrocket.simulation;
+
+import java.util.Locale;
+
+import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.startup.Application;
+
+/**
+ * The integration methods available for the free flight of the rocket.  The stepper
+ * used for the other flight phases (descent under recovery devices, tumbling and on the
+ * ground) is independent of this selection.
+ */
+public enum SimulationStepperType {
+
+	/**
+	 * Fourth order Runge-Kutta integration with a time step chosen by heuristic limits
+	 * from the user-specified time step.
+	 */
+	RK4("RK4Simulator") {
+		@Override
+		public SimulationStepper newStepper() {
+			return new RK4SimulationStepper();
+		}
+	},
+
+	/**
+	 * Adaptive Dormand-Prince 5(4) integration with a time step chosen to keep the
+	 * estimated local error within the user-specified tolerance.
+	 */
+	DORMAND_PRINCE("DormandPrinceSimulator") {
+		@Override
+		public SimulationStepper newStepper() {
+			return new DormandPrinceSimulationStepper();
+		}
+	};
+
+
+	private static final Translator trans = Application.getTranslator();
+
+	private final String simulatorName;
+
+	private SimulationStepperType(String simulatorName) {
+		this.simulatorName = simulatorName;
+	}
+
+
+	/**
+	 * Create a new stepper instance of this type.
+	 */
+	public abstract SimulationStepper newStepper();
+
+
+	/**
+	 * Return the name of the simulator as stored in the <code>simulator</code> element of
+	 * OpenRocket files.
+	 */
+	public String getSimulatorName() {
+		return simulatorName;
+	}
+
+
+	/**
+	 * Return the stepper type with the given simulator name.
+	 *
+	 * @param name	the simulator name, as returned by {@link #getSimulatorName()}
+	 * @return		the stepper type, or <code>null</code> if unknown
+	 */
+	public static SimulationStepperType fromSimulatorName(String name) {
+		for (SimulationStepperType type : values()) {
+			if (type.simulatorName.equals(name)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Return the name of this stepper type.  The name is localized if possible.
+	 */
+	public String getName() {
+		return trans.get(name().toLowerCase(Locale.ENGLISH) + ".name");
+	}
+
+	/**
+	 * Return a description of the stepper type.  The description is localized if possible.
+	 */
+	public String getDescription() {
+		return trans.get(name().toLowerCase(Locale.ENGLISH) + ".desc");
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+
+}
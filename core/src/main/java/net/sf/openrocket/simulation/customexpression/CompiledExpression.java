@@ -0,0 +1,93 @@
+package net.sf.openrocket.simulation.customexpression;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import de.congrace.exp4j.Calculable;
+import de.congrace.exp4j.Variable;
+
+/**
+ * An exp4j expression that has been parsed once and can be evaluated repeatedly.
+ * <p>
+ * Only the flight data symbols that are actually referenced by the expression are
+ * declared when building it, and only those are bound from the flight data branch
+ * before each calculation.  The flight data type corresponding to each symbol is
+ * looked up once per branch.
+ * <p>
+ * Instances hold mutable state and must not be shared between simulations running
+ * in different threads.
+ */
+final class CompiledExpression {
+
+	private final Calculable calc;
+	private final String[] symbols;
+	private final FlightDataType[] types;
+
+	private FlightDataBranch branch = null;
+
+	/**
+	 * Sole constructor.
+	 *
+	 * @param calc		the built calculable.
+	 * @param symbols	the flight data symbols referenced by the expression.
+	 */
+	CompiledExpression(Calculable calc, String[] symbols) {
+		this.calc = calc;
+		this.symbols = symbols.clone();
+		this.types = new FlightDataType[symbols.length];
+	}
+
+
+	/**
+	 * Set the referenced flight data variables to the last values in the given branch.
+	 * Symbols whose type is not (yet) present in the branch are set to NaN.
+	 *
+	 * @param data	the flight data branch to read from.
+	 */
+	void bind(FlightDataBranch data) {
+		if (data != branch) {
+			branch = data;
+			Arrays.fill(types, null);
+		}
+
+		FlightDataType[] available = null;
+		for (int i = 0; i < symbols.length; i++) {
+			if (types[i] == null) {
+				if (available == null) {
+					available = data.getTypes();
+				}
+				types[i] = findType(available, symbols[i]);
+			}
+
+			double value = (types[i] == null) ? Double.NaN : data.getLast(types[i]);
+			calc.setVariable(new Variable(symbols[i], value));
+		}
+	}
+
+	/**
+	 * Set the value of a single variable, typically the result of a sub-expression.
+	 */
+	void setVariable(Variable var) {
+		calc.setVariable(var);
+	}
+
+	/**
+	 * Calculate the expression using the currently bound variable values.
+	 *
+	 * @throws java.util.EmptyStackException	if the expression is malformed.
+	 */
+	Variable calculate() {
+		return calc.calculate();
+	}
+
+
+	private static FlightDataType findType(FlightDataType[] available, String symbol) {
+		for (FlightDataType t : available) {
+			if (t.getSymbol().equals(symbol)) {
+				return t;
+			}
+		}
+		return null;
+	}
+}
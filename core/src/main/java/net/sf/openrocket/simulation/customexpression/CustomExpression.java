@@ -1,6 +1,8 @@
 package net.sf.openrocket.simulation.customexpression;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,8 +37,14 @@ public class CustomExpression implements Cloneable {
 	private String name, symbol, unit;
 	
 	protected String expression;
-	private ExpressionBuilder builder;
-	private final List<CustomExpression> subExpressions = new ArrayList<CustomExpression>();
+	private List<CustomExpression> subExpressions = new ArrayList<CustomExpression>();
+	
+	// The expression with sub-expressions replaced by their hashes, and its compiled form
+	private String parsedExpression;
+	private CompiledExpression compiled;
+	private boolean compileAttempted = false;
+	
+	private static final Pattern IDENTIFIER = Pattern.compile("[\\p{L}_$][\\p{L}\\p{Nd}_$]*");
 	
 	public CustomExpression(OpenRocketDocument doc) {
 		this.doc = doc;
@@ -79,6 +87,7 @@ public class CustomExpression implements Cloneable {
 	 */
 	public void setSymbol(String symbol) {
 		this.symbol = symbol;
+		invalidateCompiled();
 	}
 	
 	/*
@@ -93,17 +102,8 @@ public class CustomExpression implements Cloneable {
 		subExpressions.clear();
 		expression = subTimeIndexes(expression);
 		expression = subTimeRanges(expression);
-		
-		builder = new ExpressionBuilder(expression);
-		for (String n : getAllSymbols()) {
-			builder.withVariable(new Variable(n));
-		}
-		for (CustomExpression exp : this.subExpressions) {
-			builder.withVariable(new Variable(exp.hash()));
-		}
-		
-		builder.withCustomFunctions(Functions.getInstance().getAllFunction());
-		log.info("Built expression " + expression);
+		parsedExpression = expression;
+		invalidateCompiled();
 	}
 	
 	/*
@@ -343,25 +343,11 @@ public class CustomExpression implements Cloneable {
 			return false;
 		}
 		
-		
-		//// Define the available variables as empty
-		// The built in data types
-		/*
-		for (FlightDataType type : FlightDataType.ALL_TYPES){
-			builder.withVariable(new Variable(type.getSymbol()));
-		}
-		
-		for (String symb : getAllSymbols()){
-			builder.withVariable(new Variable(symb));
-		}
-		*/
-		for (FlightDataType type : doc.getFlightDataTypes()) {
-			builder.withVariable(new Variable(type.getSymbol()));
-		}
-		
-		// Try to build
+		// Try to build, with the referenced flight data symbols defined
 		try {
-			builder.build();
+			if (compile(parsedExpression) == null) {
+				return false;
+			}
 		} catch (Exception e) {
 			log.info(Markers.USER_MARKER, "Custom expression " + this.toString() + " invalid : " + e.toString());
 			return false;
@@ -379,13 +365,6 @@ public class CustomExpression implements Cloneable {
 		return result;
 	}
 	
-	/*
-	 * Builds the expression, done automatically during evaluation. Logs any errors. Returns null in case of error.
-	 */
-	protected Calculable buildExpression() {
-		return buildExpression(builder);
-	}
-	
 	/*
 	 * Builds a specified expression, log any errors and returns null in case of error.
 	 */
@@ -404,28 +383,80 @@ public class CustomExpression implements Cloneable {
 		return calc;
 	}
 	
+	/*
+	 * Compiles an expression string, declaring only the flight data symbols and sub-expression
+	 * hashes that it actually references.  Logs any errors and returns null in case of error.
+	 */
+	protected CompiledExpression compile(String expr) {
+		Set<String> known = new LinkedHashSet<String>();
+		for (FlightDataType type : doc.getFlightDataTypes()) {
+			known.add(type.getSymbol());
+		}
+		
+		Set<String> referenced = new LinkedHashSet<String>();
+		ExpressionBuilder b = new ExpressionBuilder(expr);
+		Matcher m = IDENTIFIER.matcher(expr);
+		while (m.find()) {
+			String id = m.group();
+			if (id.startsWith("$") || known.contains(id)) {
+				if (!id.startsWith("$")) {
+					referenced.add(id);
+				}
+				b.withVariable(new Variable(id));
+			}
+		}
+		b.withCustomFunctions(Functions.getInstance().getAllFunction());
+		
+		Calculable calc = buildExpression(b);
+		if (calc == null) {
+			return null;
+		}
+		return new CompiledExpression(calc, referenced.toArray(new String[0]));
+	}
+	
+	/*
+	 * Returns the compiled form of this expression, compiling it on first use.
+	 * Returns null if the expression could not be built.
+	 */
+	protected CompiledExpression getCompiled() {
+		if (!compileAttempted) {
+			compiled = compile(parsedExpression);
+			compileAttempted = true;
+		}
+		return compiled;
+	}
+	
+	/*
+	 * Discards any compiled form, which is rebuilt on the next evaluation.
+	 */
+	protected void invalidateCompiled() {
+		compiled = null;
+		compileAttempted = false;
+	}
+	
 	/*
 	 * Evaluate the expression using the last variable values from the simulation status.
 	 * Returns NaN on any error.
 	 */
 	public Variable evaluate(SimulationStatus status) {
 		
-		Calculable calc = buildExpression(builder);
+		CompiledExpression calc = getCompiled();
 		if (calc == null) {
 			return new Variable("Unknown");
 		}
 		
-		// Evaluate any sub expressions and set associated variables in the calculable
+		// Evaluate any sub expressions and set associated variables in the calculable.
+		// A failed sub expression resets its variable so no stale value is reused.
 		for (CustomExpression expr : this.subExpressions) {
-			calc.setVariable(expr.evaluate(status));
+			Variable value = expr.evaluate(status);
+			if (!value.getName().equals(expr.hash())) {
+				value = new Variable(expr.hash());
+			}
+			calc.setVariable(value);
 		}
 		
-		// Set all the built-in variables. Strictly we surely won't need all of them
-		// Going through and checking them to include only the ones used *might* give a speedup
-		for (FlightDataType type : status.getFlightData().getTypes()) {
-			double value = status.getFlightData().getLast(type);
-			calc.setVariable(new Variable(type.getSymbol(), value));
-		}
+		// Set the flight data variables referenced by the expression
+		calc.bind(status.getFlightData());
 		
 		double result = Double.NaN;
 		try {
@@ -505,7 +536,13 @@ public class CustomExpression implements Cloneable {
 	 */
 	public Object clone() {
 		try {
-			return super.clone();
+			CustomExpression copy = (CustomExpression) super.clone();
+			copy.subExpressions = new ArrayList<CustomExpression>();
+			for (CustomExpression exp : this.subExpressions) {
+				copy.subExpressions.add((CustomExpression) exp.clone());
+			}
+			copy.invalidateCompiled();
+			return copy;
 		} catch (CloneNotSupportedException e)
 		{
 			return new CustomExpression(doc,
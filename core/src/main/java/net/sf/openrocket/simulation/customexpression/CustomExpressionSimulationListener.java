@@ -1,8 +1,10 @@
 package net.sf.openrocket.simulation.customexpression;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
@@ -10,33 +12,69 @@ import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A simulation listener that evaluates the custom expressions after each step and
+ * stores the results in the flight data.
+ * <p>
+ * The listener works on private copies of the expressions, which are compiled once on
+ * first use and then reused for every step.  This allows several simulations of the same
+ * document to run concurrently.
+ */
 public class CustomExpressionSimulationListener extends AbstractSimulationListener {
-	
+
 	private static final Logger log = LoggerFactory.getLogger(CustomExpressionSimulationListener.class);
-	private final List<CustomExpression> expressions;
-	
+	private List<CustomExpression> expressions;
+	private FlightDataType[] types = null;
+
 	public CustomExpressionSimulationListener(List<CustomExpression> expressions) {
 		super();
-		this.expressions = expressions;
+		this.expressions = copy(expressions);
 	}
-	
+
 	@Override
 	public void postStep(SimulationStatus status) throws SimulationException {
 		if (expressions == null || expressions.size() == 0) {
 			return;
 		}
+		if (types == null) {
+			types = new FlightDataType[expressions.size()];
+			for (int i = 0; i < types.length; i++) {
+				types[i] = expressions.get(i).getType();
+			}
+		}
+
 		// Calculate values for custom expressions
 		FlightDataBranch data = status.getFlightData();
-		for (CustomExpression expression : expressions) {
+		for (int i = 0; i < types.length; i++) {
+			CustomExpression expression = expressions.get(i);
 			double value = expression.evaluateDouble(status);
 			//log.debug("Setting value of custom expression "+expression.toString()+" = "+value);
-			data.setValue(expression.getType(), value);
+			data.setValue(types[i], value);
 		}
 	}
-	
+
 	@Override
 	public boolean isSystemListener() {
 		return true;
 	}
-	
+
+	@Override
+	public CustomExpressionSimulationListener clone() {
+		CustomExpressionSimulationListener copy = (CustomExpressionSimulationListener) super.clone();
+		copy.expressions = copy(this.expressions);
+		copy.types = null;
+		return copy;
+	}
+
+	private static List<CustomExpression> copy(List<CustomExpression> expressions) {
+		if (expressions == null) {
+			return null;
+		}
+		List<CustomExpression> list = new ArrayList<CustomExpression>(expressions.size());
+		for (CustomExpression exp : expressions) {
+			list.add((CustomExpression) exp.clone());
+		}
+		return list;
+	}
+
 }
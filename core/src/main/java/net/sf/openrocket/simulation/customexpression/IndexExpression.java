@@ -1,11 +1,8 @@
 package net.sf.openrocket.simulation.customexpression;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import de.congrace.exp4j.Calculable;
 import de.congrace.exp4j.Variable;
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.logging.Markers;
@@ -29,7 +26,7 @@ public class IndexExpression extends CustomExpression {
 	
 	@Override
 	public Variable evaluate(SimulationStatus status){
-		Calculable calc = buildExpression();
+		CompiledExpression calc = getCompiled();
 		if (calc == null){
 			return new Variable("Unknown");
 		}
@@ -39,15 +36,12 @@ public class IndexExpression extends CustomExpression {
 		//Note: must get in a way that flight data system will figure out units. Otherwise there will be a type conflict when we get the new data.
 		FlightDataType myType = FlightDataType.getType(null, getSymbol(), null);  
 				
-		List<Double> data = status.getFlightData().get(myType);
-		List<Double> time = status.getFlightData().get(FlightDataType.TYPE_TIME);
+		double[] data = status.getFlightData().getValues(myType);
+		double[] time = status.getFlightData().getValues(FlightDataType.TYPE_TIME);
 		LinearInterpolator interp = new LinearInterpolator(time, data); 
 		
 		// Set the variables in the expression to evaluate
-		for (FlightDataType etype : status.getFlightData().getTypes()){
-			double value = status.getFlightData().getLast(etype); 
-			calc.setVariable( new Variable(etype.getSymbol(), value ) );
-		}
+		calc.bind(status.getFlightData());
 		
 		// Evaluate this expression to get the t value
 		//System.out.println("Evaluating expression to get t value "+this.getExpressionString());
@@ -4,13 +4,9 @@
 
 package net.sf.openrocket.simulation.customexpression;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import de.congrace.exp4j.Calculable;
-import de.congrace.exp4j.ExpressionBuilder;
 import de.congrace.exp4j.Variable;
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.logging.Markers;
@@ -25,7 +21,9 @@ import net.sf.openrocket.util.StringUtil;
 public class RangeExpression extends CustomExpression {
 	private static final Logger log = LoggerFactory.getLogger(RangeExpression.class);
 
-	private ExpressionBuilder startBuilder, endBuilder;
+	private String startExpression, endExpression;
+	private CompiledExpression startCompiled, endCompiled;
+	private boolean rangeCompileAttempted;
 	
 	public RangeExpression(OpenRocketDocument doc, String startTime, String endTime, String variableType) {
 		super(doc);
@@ -50,37 +48,44 @@ public class RangeExpression extends CustomExpression {
 	 */
 	private void setExpressions(String start, String end){
 		
-		startBuilder = new ExpressionBuilder(start);
-		endBuilder = new ExpressionBuilder(end);
-		for (String n : getAllSymbols()){
-			startBuilder.withVariable(new Variable(n));
-			endBuilder.withVariable(new Variable(n));
-		}
+		startExpression = start;
+		endExpression = end;
+		invalidateCompiled();
+	}
+	
+	@Override
+	protected void invalidateCompiled(){
+		super.invalidateCompiled();
+		startCompiled = null;
+		endCompiled = null;
+		rangeCompileAttempted = false;
 	}
 	
 	@Override
 	public Variable evaluate(SimulationStatus status){
 		
-		Calculable startCalc = buildExpression(startBuilder);
-		Calculable endCalc = buildExpression(endBuilder);
+		if (!rangeCompileAttempted){
+			startCompiled = compile(startExpression);
+			endCompiled = compile(endExpression);
+			rangeCompileAttempted = true;
+		}
+		CompiledExpression startCalc = startCompiled;
+		CompiledExpression endCalc = endCompiled;
 		if (startCalc == null || endCalc == null){
 			return new Variable("Unknown");
 		}
 		
 		// Set the variables in the start and end calculators
-		for (FlightDataType type : status.getFlightData().getTypes()){
-			double value = status.getFlightData().getLast(type); 
-			startCalc.setVariable( new Variable(type.getSymbol(), value ) );
-			endCalc.setVariable( new Variable(type.getSymbol(), value ) );
-		}		
+		startCalc.bind(status.getFlightData());
+		endCalc.bind(status.getFlightData());
 		
 		// From the given datatype, get the time and function values and make an interpolator
 
 		//Note: must get in a way that flight data system will figure out units. Otherwise there will be a type conflict when we get the new data.
 		FlightDataType type = FlightDataType.getType(null, getSymbol(), null);
 		
-		List<Double> data = status.getFlightData().get(type);
-		List<Double> time = status.getFlightData().get(FlightDataType.TYPE_TIME);
+		double[] data = status.getFlightData().getValues(type);
+		double[] time = status.getFlightData().getValues(FlightDataType.TYPE_TIME);
 		LinearInterpolator interp = new LinearInterpolator(time, data); 
 		
 		// Evaluate the expression to get the start and end of the range
@@ -90,7 +95,7 @@ public class RangeExpression extends CustomExpression {
 			startTime = MathUtil.clamp(startTime, 0, Double.MAX_VALUE);
 			
 			endTime = endCalc.calculate().getDoubleValue();
-			endTime = MathUtil.clamp(endTime, 0, time.get(time.size()-1));
+			endTime = MathUtil.clamp(endTime, 0, time[time.length-1]);
 		}
 		catch (java.util.EmptyStackException e){
 			log.info(Markers.USER_MARKER, "Unable to calculate time index for range expression "+getSymbol()+" due to empty stack exception");
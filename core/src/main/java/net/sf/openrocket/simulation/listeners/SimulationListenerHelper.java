@@ -15,6 +15,7 @@ import net.sf.openrocket.rocketcomponent.RecoveryDevice;
 import net.sf.openrocket.simulation.AccelerationData;
 import net.sf.openrocket.simulation.FlightEvent;
 import net.sf.openrocket.simulation.MotorClusterState;
+import net.sf.openrocket.simulation.SimulationProfile;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.util.Coordinate;
@@ -40,7 +41,9 @@ public class SimulationListenerHelper {
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
+			long start = SimulationProfile.startSection(status);
 			l.startSimulation(status);
+			SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 			if (modID != status.getModID()) {
 				warn(status, l);
 				modID = status.getModID();
@@ -56,7 +59,9 @@ public class SimulationListenerHelper {
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
+			long start = SimulationProfile.startSection(status);
 			l.endSimulation(status, exception);
+			SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 			if (modID != status.getModID()) {
 				warn(status, l);
 				modID = status.getModID();
@@ -78,7 +83,9 @@ public class SimulationListenerHelper {
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
+			long start = SimulationProfile.startSection(status);
 			b = l.preStep(status);
+			SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 			if (modID != status.getModID()) {
 				warn(status, l);
 				modID = status.getModID();
@@ -100,7 +107,9 @@ public class SimulationListenerHelper {
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
+			long start = SimulationProfile.startSection(status);
 			l.postStep(status);
+			SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 			if (modID != status.getModID()) {
 				warn(status, l);
 				modID = status.getModID();
@@ -123,7 +132,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationEventListener) {
+				long start = SimulationProfile.startSection(status);
 				b = ((SimulationEventListener) l).addFlightEvent(status, event);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -148,7 +159,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationEventListener) {
+				long start = SimulationProfile.startSection(status);
 				b = ((SimulationEventListener) l).handleFlightEvent(status, event);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -174,7 +187,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationEventListener) {
+				long start = SimulationProfile.startSection(status);
 				result = ((SimulationEventListener) l).motorIgnition(status, motorId, mount, instance);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -201,7 +216,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationEventListener) {
+				long start = SimulationProfile.startSection(status);
 				result = ((SimulationEventListener) l).recoveryDeviceDeployment(status, device);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -230,7 +247,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				conditions = ((SimulationComputationListener) l).preAtmosphericModel(status);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -257,7 +276,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				c = ((SimulationComputationListener) l).postAtmosphericModel(status, clone);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -286,7 +307,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				wind = ((SimulationComputationListener) l).preWindModel(status);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -311,7 +334,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				w = ((SimulationComputationListener) l).postWindModel(status, wind);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -339,7 +364,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				gravity = ((SimulationComputationListener) l).preGravityModel(status);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -364,7 +391,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				g = ((SimulationComputationListener) l).postGravityModel(status, gravity);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -393,7 +422,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				conditions = ((SimulationComputationListener) l).preFlightConditions(status);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -421,7 +452,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				c = ((SimulationComputationListener) l).postFlightConditions(status, clone);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -451,7 +484,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				forces = ((SimulationComputationListener) l).preAerodynamicCalculation(status);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -478,7 +513,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				f = ((SimulationComputationListener) l).postAerodynamicCalculation(status, clone);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -509,7 +546,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				mass = ((SimulationComputationListener) l).preMassCalculation(status);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -534,7 +573,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				m = ((SimulationComputationListener) l).postMassCalculation(status, mass);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -563,7 +604,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				thrust = ((SimulationComputationListener) l).preSimpleThrustCalculation(status);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -588,7 +631,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				t = ((SimulationComputationListener) l).postSimpleThrustCalculation(status, thrust);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -617,7 +662,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				acceleration = ((SimulationComputationListener) l).preAccelerationCalculation(status);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
@@ -643,7 +690,9 @@ public class SimulationListenerHelper {
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
 			if (l instanceof SimulationComputationListener) {
+				long start = SimulationProfile.startSection(status);
 				a = ((SimulationComputationListener) l).postAccelerationCalculation(status, acceleration);
+				SimulationProfile.endSection(status, SimulationProfile.Section.LISTENERS, start);
 				if (modID != status.getModID()) {
 					warn(status, l);
 					modID = status.getModID();
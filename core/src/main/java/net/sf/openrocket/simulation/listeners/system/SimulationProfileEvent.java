@@ -0,0 +1,167 @@
+package net.sf.openrocket.simulation.listeners.system;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import net.sf.openrocket.simulation.BasicLandingStepper;
+import net.sf.openrocket.simulation.BasicTumbleStepper;
+import net.sf.openrocket.simulation.DormandPrinceSimulationStepper;
+import net.sf.openrocket.simulation.GroundStepper;
+import net.sf.openrocket.simulation.RK4SimulationStepper;
+import net.sf.openrocket.simulation.SimulationProfile;
+import net.sf.openrocket.simulation.SimulationProfile.Section;
+import net.sf.openrocket.simulation.SimulationProfile.TimeStepLimit;
+import net.sf.openrocket.simulation.SimulationStatus;
+
+/**
+ * Java Flight Recorder event describing the profile of a single simulation.  The event
+ * spans the whole simulation.
+ * <p>
+ * This class is only referenced by {@link SimulationProfiler} after checking that the
+ * <code>jdk.jfr</code> module is available.
+ */
+@Name("net.sf.openrocket.SimulationProfile")
+@Label("Simulation Profile")
+@Category({ "OpenRocket", "Simulation" })
+@Description("Time spent in the models and listeners of a flight simulation")
+@StackTrace(false)
+class SimulationProfileEvent extends Event {
+	
+	private static final String KEY = SimulationProfileEvent.class.getName();
+	
+	/** Whether the event has been ended.  Branch statuses share the event of the simulation. */
+	private transient boolean ended = false;
+	
+	@Label("Rocket")
+	String rocket;
+	
+	@Label("Aerodynamics Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long aerodynamicsTime;
+	
+	@Label("Mass Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long massTime;
+	
+	@Label("Atmosphere Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long atmosphereTime;
+	
+	@Label("Wind Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long windTime;
+	
+	@Label("Gravity Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long gravityTime;
+	
+	@Label("Thrust Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long thrustTime;
+	
+	@Label("Listener Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long listenerTime;
+	
+	@Label("RK4 Steps")
+	long rk4Steps;
+	
+	@Label("Dormand-Prince Steps")
+	long dormandPrinceSteps;
+	
+	@Label("Landing Steps")
+	long landingSteps;
+	
+	@Label("Tumble Steps")
+	long tumbleSteps;
+	
+	@Label("Ground Steps")
+	long groundSteps;
+	
+	@Label("Steps Limited by Time Step")
+	long timeStepLimited;
+	
+	@Label("Steps Limited by Next Event")
+	long nextEventLimited;
+	
+	@Label("Steps Limited by Pitch Step Angle")
+	long pitchStepAngleLimited;
+	
+	@Label("Steps Limited by Roll Step Angle")
+	long rollStepAngleLimited;
+	
+	@Label("Steps Limited by Roll Rate Change")
+	long rollRateChangeLimited;
+	
+	@Label("Steps Limited by Pitch Change")
+	long pitchChangeLimited;
+	
+	@Label("Steps Limited by Launch Rod")
+	long launchRodLimited;
+	
+	@Label("Steps Limited by Previous Time Step")
+	long previousTimeStepLimited;
+	
+	@Label("Steps Limited by Minimum Time Step")
+	long minimumTimeStepLimited;
+	
+	@Label("Steps Limited by Error Tolerance")
+	long errorToleranceLimited;
+	
+	
+	/**
+	 * Begin an event for the simulation, if the event type is enabled.
+	 */
+	static void begin(SimulationStatus status) {
+		SimulationProfileEvent event = new SimulationProfileEvent();
+		if (event.isEnabled()) {
+			event.begin();
+			status.putExtraData(KEY, event);
+		}
+	}
+	
+	/**
+	 * Commit the event of the simulation, if one was begun.  Subsequent calls do nothing.
+	 */
+	static void commit(SimulationStatus status, SimulationProfile profile) {
+		Object o = status.getExtraData(KEY);
+		if (!(o instanceof SimulationProfileEvent) || ((SimulationProfileEvent) o).ended) {
+			return;
+		}
+		
+		SimulationProfileEvent event = (SimulationProfileEvent) o;
+		event.ended = true;
+		event.end();
+		if (!event.shouldCommit()) {
+			return;
+		}
+		event.rocket = status.getConfiguration().getRocket().getName();
+		event.aerodynamicsTime = profile.getTime(Section.AERODYNAMICS);
+		event.massTime = profile.getTime(Section.MASS);
+		event.atmosphereTime = profile.getTime(Section.ATMOSPHERE);
+		event.windTime = profile.getTime(Section.WIND);
+		event.gravityTime = profile.getTime(Section.GRAVITY);
+		event.thrustTime = profile.getTime(Section.THRUST);
+		event.listenerTime = profile.getTime(Section.LISTENERS);
+		event.rk4Steps = profile.getStepCount(RK4SimulationStepper.class);
+		event.dormandPrinceSteps = profile.getStepCount(DormandPrinceSimulationStepper.class);
+		event.landingSteps = profile.getStepCount(BasicLandingStepper.class);
+		event.tumbleSteps = profile.getStepCount(BasicTumbleStepper.class);
+		event.groundSteps = profile.getStepCount(GroundStepper.class);
+		event.timeStepLimited = profile.getTimeStepLimitCount(TimeStepLimit.TIME_STEP);
+		event.nextEventLimited = profile.getTimeStepLimitCount(TimeStepLimit.NEXT_EVENT);
+		event.pitchStepAngleLimited = profile.getTimeStepLimitCount(TimeStepLimit.PITCH_STEP_ANGLE);
+		event.rollStepAngleLimited = profile.getTimeStepLimitCount(TimeStepLimit.ROLL_STEP_ANGLE);
+		event.rollRateChangeLimited = profile.getTimeStepLimitCount(TimeStepLimit.ROLL_RATE_CHANGE);
+		event.pitchChangeLimited = profile.getTimeStepLimitCount(TimeStepLimit.PITCH_CHANGE);
+		event.launchRodLimited = profile.getTimeStepLimitCount(TimeStepLimit.LAUNCH_ROD);
+		event.previousTimeStepLimited = profile.getTimeStepLimitCount(TimeStepLimit.PREVIOUS_TIME_STEP);
+		event.minimumTimeStepLimited = profile.getTimeStepLimitCount(TimeStepLimit.MINIMUM_TIME_STEP);
+		event.errorToleranceLimited = profile.getTimeStepLimitCount(TimeStepLimit.ERROR_TOLERANCE);
+		event.commit();
+	}
+}
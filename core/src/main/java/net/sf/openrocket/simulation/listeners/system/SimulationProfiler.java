@@ -0,0 +1,72 @@
+package net.sf.openrocket.simulation.listeners.system;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.SimulationProfile;
+import net.sf.openrocket.simulation.SimulationStatus;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+
+
+/**
+ * A simulation listener that profiles the simulation.  When this listener is present in
+ * the listener list, a {@link SimulationProfile} is collected during the simulation and
+ * stored in the resulting {@link FlightData}.  The profile is also logged at debug level
+ * and, if Java Flight Recorder is available, emitted as an
+ * <code>net.sf.openrocket.SimulationProfile</code> event.  Nested simulations, such as the
+ * one computing the optimum ejection delay, are profiled separately.
+ * <p>
+ * The listener keeps no state of its own, so a single instance may be used by any number
+ * of simulations.
+ */
+public class SimulationProfiler extends AbstractSimulationListener {
+	
+	private static final Logger log = LoggerFactory.getLogger(SimulationProfiler.class);
+	
+	public static final SimulationProfiler INSTANCE = new SimulationProfiler();
+	
+	/** Whether the jdk.jfr module is present in the runtime. */
+	private static final boolean JFR_AVAILABLE;
+	static {
+		boolean available;
+		try {
+			Class.forName("jdk.jfr.Event");
+			available = true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			available = false;
+		}
+		JFR_AVAILABLE = available;
+	}
+	
+	@Override
+	public void startSimulation(SimulationStatus status) throws SimulationException {
+		SimulationProfile profile = new SimulationProfile();
+		profile.start();
+		status.setProfile(profile);
+		if (JFR_AVAILABLE) {
+			SimulationProfileEvent.begin(status);
+		}
+	}
+	
+	@Override
+	public void endSimulation(SimulationStatus status, SimulationException exception) {
+		SimulationProfile profile = status.getProfile();
+		if (profile == null) {
+			return;
+		}
+		profile.end();
+		if (JFR_AVAILABLE) {
+			SimulationProfileEvent.commit(status, profile);
+		}
+		if (log.isDebugEnabled()) {
+			log.debug(profile.getStatistics());
+		}
+	}
+	
+	@Override
+	public boolean isSystemListener() {
+		return true;
+	}
+}
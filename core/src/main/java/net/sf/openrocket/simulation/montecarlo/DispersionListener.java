@@ -0,0 +1,48 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import net.sf.openrocket.aerodynamics.AerodynamicForces;
+import net.sf.openrocket.simulation.SimulationStatus;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+
+/**
+ * A simulation listener that scales the motor thrust and the rocket drag coefficients of
+ * a single Monte Carlo run.
+ */
+class DispersionListener extends AbstractSimulationListener {
+
+	private final double thrustScale;
+	private final double dragScale;
+
+	DispersionListener(double thrustScale, double dragScale) {
+		this.thrustScale = thrustScale;
+		this.dragScale = dragScale;
+	}
+
+	@Override
+	public double postSimpleThrustCalculation(SimulationStatus status, double thrust) throws SimulationException {
+		if (thrustScale == 1) {
+			return Double.NaN;
+		}
+		return thrust * thrustScale;
+	}
+
+	@Override
+	public AerodynamicForces postAerodynamicCalculation(SimulationStatus status, AerodynamicForces forces) throws SimulationException {
+		if (dragScale == 1) {
+			return null;
+		}
+		forces.setCD(forces.getCD() * dragScale);
+		forces.setCaxial(forces.getCaxial() * dragScale);
+		forces.setPressureCD(forces.getPressureCD() * dragScale);
+		forces.setBaseCD(forces.getBaseCD() * dragScale);
+		forces.setFrictionCD(forces.getFrictionCD() * dragScale);
+		return forces;
+	}
+
+	@Override
+	public boolean isSystemListener() {
+		return true;
+	}
+
+}
@@ -0,0 +1,101 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import java.util.Random;
+
+/**
+ * A probability distribution of a single dispersed parameter.  Distributions are
+ * immutable and draw their values from the random number generator they are given,
+ * so a single instance may be shared between concurrent runs.
+ */
+public abstract class Distribution {
+
+	/**
+	 * Draw a value from this distribution.
+	 *
+	 * @param rnd	the random number generator to use.
+	 * @return		the sampled value.
+	 */
+	public abstract double sample(Random rnd);
+
+	/**
+	 * Return the mean value of this distribution.
+	 */
+	public abstract double getMean();
+
+
+	/**
+	 * Return a distribution that always produces the given value.
+	 */
+	public static Distribution fixed(final double value) {
+		return new Distribution() {
+			@Override
+			public double sample(Random rnd) {
+				return value;
+			}
+
+			@Override
+			public double getMean() {
+				return value;
+			}
+
+			@Override
+			public String toString() {
+				return "Fixed[" + value + "]";
+			}
+		};
+	}
+
+	/**
+	 * Return a normal (Gaussian) distribution.
+	 *
+	 * @param mean		the mean value.
+	 * @param stddev	the standard deviation, must be non-negative.
+	 */
+	public static Distribution normal(final double mean, final double stddev) {
+		if (stddev < 0 || Double.isNaN(stddev)) {
+			throw new IllegalArgumentException("Invalid standard deviation " + stddev);
+		}
+		return new Distribution() {
+			@Override
+			public double sample(Random rnd) {
+				return mean + stddev * rnd.nextGaussian();
+			}
+
+			@Override
+			public double getMean() {
+				return mean;
+			}
+
+			@Override
+			public String toString() {
+				return "Normal[mean=" + mean + ", stddev=" + stddev + "]";
+			}
+		};
+	}
+
+	/**
+	 * Return a uniform distribution over the range [min, max).
+	 */
+	public static Distribution uniform(final double min, final double max) {
+		if (!(min <= max)) {
+			throw new IllegalArgumentException("Invalid range " + min + " .. " + max);
+		}
+		return new Distribution() {
+			@Override
+			public double sample(Random rnd) {
+				return min + (max - min) * rnd.nextDouble();
+			}
+
+			@Override
+			public double getMean() {
+				return (min + max) / 2;
+			}
+
+			@Override
+			public String toString() {
+				return "Uniform[" + min + ", " + max + "]";
+			}
+		};
+	}
+
+}
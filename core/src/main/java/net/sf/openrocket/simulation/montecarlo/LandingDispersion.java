@@ -0,0 +1,129 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import net.sf.openrocket.util.Statistics;
+
+/**
+ * A streaming accumulator of landing points.  It maintains the mean landing point and the
+ * covariance of the landing positions, from which the principal axes of the dispersion
+ * ellipse are computed.  Points are not stored.  Points with NaN coordinates are ignored.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class LandingDispersion implements Statistics {
+
+	private long count = 0;
+	private double meanX = 0;
+	private double meanY = 0;
+	private double m2X = 0;
+	private double m2Y = 0;
+	private double cXY = 0;
+	private double maxDistance = Double.NaN;
+
+
+	/**
+	 * Add a landing point.
+	 *
+	 * @param x		the landing position east of the launch site (m).
+	 * @param y		the landing position north of the launch site (m).
+	 */
+	public void add(double x, double y) {
+		if (Double.isNaN(x) || Double.isNaN(y)) {
+			return;
+		}
+		count++;
+		double dx = x - meanX;
+		double dy = y - meanY;
+		meanX += dx / count;
+		meanY += dy / count;
+		m2X += dx * (x - meanX);
+		m2Y += dy * (y - meanY);
+		cXY += dx * (y - meanY);
+
+		double distance = Math.hypot(x, y);
+		maxDistance = (count == 1) ? distance : Math.max(maxDistance, distance);
+	}
+
+
+	public long getCount() {
+		return count;
+	}
+
+	/** Return the mean landing position east of the launch site, or NaN if no points have been added. */
+	public double getMeanX() {
+		return (count == 0) ? Double.NaN : meanX;
+	}
+
+	/** Return the mean landing position north of the launch site, or NaN if no points have been added. */
+	public double getMeanY() {
+		return (count == 0) ? Double.NaN : meanY;
+	}
+
+	public double getVarianceX() {
+		return (count < 2) ? Double.NaN : m2X / (count - 1);
+	}
+
+	public double getVarianceY() {
+		return (count < 2) ? Double.NaN : m2Y / (count - 1);
+	}
+
+	public double getCovariance() {
+		return (count < 2) ? Double.NaN : cXY / (count - 1);
+	}
+
+	/** Return the largest distance of a landing point from the launch site. */
+	public double getMaxDistance() {
+		return maxDistance;
+	}
+
+	/**
+	 * Return the standard deviation of the landing points along the major axis of the
+	 * dispersion ellipse.
+	 */
+	public double getMajorAxisDeviation() {
+		return Math.sqrt(eigenvalue(1));
+	}
+
+	/**
+	 * Return the standard deviation of the landing points along the minor axis of the
+	 * dispersion ellipse.
+	 */
+	public double getMinorAxisDeviation() {
+		return Math.sqrt(Math.max(eigenvalue(-1), 0));
+	}
+
+	/**
+	 * Return the direction of the major axis of the dispersion ellipse, as an angle
+	 * from the x axis towards the y axis in radians.
+	 */
+	public double getMajorAxisDirection() {
+		return 0.5 * Math.atan2(2 * getCovariance(), getVarianceX() - getVarianceY());
+	}
+
+	private double eigenvalue(int sign) {
+		double a = getVarianceX();
+		double b = getVarianceY();
+		double c = getCovariance();
+		double mid = (a + b) / 2;
+		double r = Math.sqrt((a - b) * (a - b) / 4 + c * c);
+		return mid + sign * r;
+	}
+
+
+	@Override
+	public String getStatistics() {
+		return "Landing: n=" + count + " mean=(" + getMeanX() + ", " + getMeanY() + ") axes=(" +
+				getMajorAxisDeviation() + ", " + getMinorAxisDeviation() + ") maxDistance=" + maxDistance;
+	}
+
+	@Override
+	public void resetStatistics() {
+		count = 0;
+		meanX = 0;
+		meanY = 0;
+		m2X = 0;
+		m2Y = 0;
+		cXY = 0;
+		maxDistance = Double.NaN;
+	}
+
+}
@@ -0,0 +1,17 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+/**
+ * A listener notified of each completed Monte Carlo run.
+ */
+public interface MonteCarloListener {
+
+	/**
+	 * Called when a run has completed.  Runs are reported in index order, from the thread
+	 * running the analysis.
+	 *
+	 * @param run		the completed run.
+	 * @param result	the accumulated result including this run.
+	 */
+	public void runCompleted(MonteCarloRun run, MonteCarloResult result);
+
+}
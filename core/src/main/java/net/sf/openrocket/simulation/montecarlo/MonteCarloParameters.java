@@ -0,0 +1,109 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import net.sf.openrocket.util.BugException;
+
+/**
+ * The dispersed parameters of a Monte Carlo analysis.  Each parameter is described by a
+ * {@link Distribution}; a <code>null</code> distribution means the nominal value of the
+ * base simulation conditions is used in every run.
+ * <p>
+ * The wind speed, direction and turbulence intensity replace the values of the nominal
+ * {@link net.sf.openrocket.models.wind.PinkNoiseWindModel}, and every run uses its own
+ * wind seed.  The thrust, drag and mass scales are multipliers of the total motor thrust,
+ * the drag coefficients of the rocket and the structure mass (excluding motors) respectively.
+ */
+public class MonteCarloParameters implements Cloneable {
+
+	private Distribution windSpeed = null;
+	private Distribution windDirection = null;
+	private Distribution windTurbulence = null;
+	private Distribution launchRodAngle = null;
+	private Distribution launchRodDirection = null;
+	private Distribution thrustScale = null;
+	private Distribution dragScale = null;
+	private Distribution massScale = null;
+
+
+	/** Return the average wind speed distribution (m/s). */
+	public Distribution getWindSpeed() {
+		return windSpeed;
+	}
+
+	public void setWindSpeed(Distribution windSpeed) {
+		this.windSpeed = windSpeed;
+	}
+
+	/** Return the wind direction distribution (radians). */
+	public Distribution getWindDirection() {
+		return windDirection;
+	}
+
+	public void setWindDirection(Distribution windDirection) {
+		this.windDirection = windDirection;
+	}
+
+	/** Return the wind turbulence intensity distribution (standard deviation / average). */
+	public Distribution getWindTurbulence() {
+		return windTurbulence;
+	}
+
+	public void setWindTurbulence(Distribution windTurbulence) {
+		this.windTurbulence = windTurbulence;
+	}
+
+	/** Return the launch rod angle distribution (radians from vertical). */
+	public Distribution getLaunchRodAngle() {
+		return launchRodAngle;
+	}
+
+	public void setLaunchRodAngle(Distribution launchRodAngle) {
+		this.launchRodAngle = launchRodAngle;
+	}
+
+	/** Return the launch rod direction distribution (radians). */
+	public Distribution getLaunchRodDirection() {
+		return launchRodDirection;
+	}
+
+	public void setLaunchRodDirection(Distribution launchRodDirection) {
+		this.launchRodDirection = launchRodDirection;
+	}
+
+	/** Return the motor thrust multiplier distribution. */
+	public Distribution getThrustScale() {
+		return thrustScale;
+	}
+
+	public void setThrustScale(Distribution thrustScale) {
+		this.thrustScale = thrustScale;
+	}
+
+	/** Return the drag coefficient multiplier distribution. */
+	public Distribution getDragScale() {
+		return dragScale;
+	}
+
+	public void setDragScale(Distribution dragScale) {
+		this.dragScale = dragScale;
+	}
+
+	/** Return the structure mass multiplier distribution. */
+	public Distribution getMassScale() {
+		return massScale;
+	}
+
+	public void setMassScale(Distribution massScale) {
+		this.massScale = massScale;
+	}
+
+
+	@Override
+	public MonteCarloParameters clone() {
+		try {
+			return (MonteCarloParameters) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new BugException(e);
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import net.sf.openrocket.util.Statistics;
+
+/**
+ * The accumulated statistics of a Monte Carlo analysis.  Runs are added in index order,
+ * so the statistics are identical for any number of threads.
+ */
+public class MonteCarloResult implements Statistics {
+
+	private final SampleStatistics apogee = new SampleStatistics("Apogee");
+	private final SampleStatistics maxVelocity = new SampleStatistics("Max velocity");
+	private final SampleStatistics flightTime = new SampleStatistics("Flight time");
+	private final SampleStatistics groundHitVelocity = new SampleStatistics("Ground hit velocity");
+	private final LandingDispersion landing = new LandingDispersion();
+
+	private int runCount = 0;
+	private int failureCount = 0;
+	private boolean cancelled = false;
+
+
+	void add(MonteCarloRun run) {
+		runCount++;
+		if (!run.isSuccessful()) {
+			failureCount++;
+			return;
+		}
+		apogee.add(run.getApogee());
+		maxVelocity.add(run.getMaxVelocity());
+		flightTime.add(run.getFlightTime());
+		groundHitVelocity.add(run.getGroundHitVelocity());
+		landing.add(run.getLandingX(), run.getLandingY());
+	}
+
+	void setCancelled(boolean cancelled) {
+		this.cancelled = cancelled;
+	}
+
+
+	/** Return the number of runs that have completed, successfully or not. */
+	public int getRunCount() {
+		return runCount;
+	}
+
+	/** Return the number of runs that failed or were cancelled. */
+	public int getFailureCount() {
+		return failureCount;
+	}
+
+	/** Return whether the analysis was cancelled before all runs completed. */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public SampleStatistics getApogee() {
+		return apogee;
+	}
+
+	public SampleStatistics getMaxVelocity() {
+		return maxVelocity;
+	}
+
+	public SampleStatistics getFlightTime() {
+		return flightTime;
+	}
+
+	public SampleStatistics getGroundHitVelocity() {
+		return groundHitVelocity;
+	}
+
+	public LandingDispersion getLanding() {
+		return landing;
+	}
+
+
+	@Override
+	public String getStatistics() {
+		return "Monte Carlo: " + runCount + " runs, " + failureCount + " failed\n" +
+				apogee.getStatistics() + "\n" +
+				maxVelocity.getStatistics() + "\n" +
+				flightTime.getStatistics() + "\n" +
+				groundHitVelocity.getStatistics() + "\n" +
+				landing.getStatistics();
+	}
+
+	@Override
+	public void resetStatistics() {
+		apogee.resetStatistics();
+		maxVelocity.resetStatistics();
+		flightTime.resetStatistics();
+		groundHitVelocity.resetStatistics();
+		landing.resetStatistics();
+		runCount = 0;
+		failureCount = 0;
+		cancelled = false;
+	}
+
+}
@@ -0,0 +1,156 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+
+/**
+ * The sampled parameters and the summary outcome of a single Monte Carlo run.  The
+ * flight data of the run itself is not retained.
+ */
+public class MonteCarloRun {
+
+	private final int index;
+
+	private final double windSpeed;
+	private final double windDirection;
+	private final double windTurbulence;
+	private final double launchRodAngle;
+	private final double launchRodDirection;
+	private final double thrustScale;
+	private final double dragScale;
+	private final double massScale;
+	private final int windSeed;
+	private final int simulationSeed;
+
+	private double apogee = Double.NaN;
+	private double maxVelocity = Double.NaN;
+	private double flightTime = Double.NaN;
+	private double groundHitVelocity = Double.NaN;
+	private double landingX = Double.NaN;
+	private double landingY = Double.NaN;
+	private Throwable error = null;
+
+
+	MonteCarloRun(int index, double windSpeed, double windDirection, double windTurbulence,
+			double launchRodAngle, double launchRodDirection,
+			double thrustScale, double dragScale, double massScale, int windSeed, int simulationSeed) {
+		this.index = index;
+		this.windSpeed = windSpeed;
+		this.windDirection = windDirection;
+		this.windTurbulence = windTurbulence;
+		this.launchRodAngle = launchRodAngle;
+		this.launchRodDirection = launchRodDirection;
+		this.thrustScale = thrustScale;
+		this.dragScale = dragScale;
+		this.massScale = massScale;
+		this.windSeed = windSeed;
+		this.simulationSeed = simulationSeed;
+	}
+
+
+	/**
+	 * Store the summary values of the simulated flight.
+	 */
+	void setFlightData(FlightData data) {
+		apogee = data.getMaxAltitude();
+		maxVelocity = data.getMaxVelocity();
+		flightTime = data.getFlightTime();
+		groundHitVelocity = data.getGroundHitVelocity();
+		if (data.getBranchCount() > 0) {
+			FlightDataBranch branch = data.getBranch(0);
+			landingX = branch.getLast(FlightDataType.TYPE_POSITION_X);
+			landingY = branch.getLast(FlightDataType.TYPE_POSITION_Y);
+		}
+	}
+
+	void setError(Throwable error) {
+		this.error = error;
+	}
+
+
+	/** Return the index of this run, starting from zero. */
+	public int getIndex() {
+		return index;
+	}
+
+	public double getWindSpeed() {
+		return windSpeed;
+	}
+
+	public double getWindDirection() {
+		return windDirection;
+	}
+
+	public double getWindTurbulence() {
+		return windTurbulence;
+	}
+
+	public double getLaunchRodAngle() {
+		return launchRodAngle;
+	}
+
+	public double getLaunchRodDirection() {
+		return launchRodDirection;
+	}
+
+	public double getThrustScale() {
+		return thrustScale;
+	}
+
+	public double getDragScale() {
+		return dragScale;
+	}
+
+	public double getMassScale() {
+		return massScale;
+	}
+
+	int getWindSeed() {
+		return windSeed;
+	}
+
+	int getSimulationSeed() {
+		return simulationSeed;
+	}
+
+	public double getApogee() {
+		return apogee;
+	}
+
+	public double getMaxVelocity() {
+		return maxVelocity;
+	}
+
+	public double getFlightTime() {
+		return flightTime;
+	}
+
+	public double getGroundHitVelocity() {
+		return groundHitVelocity;
+	}
+
+	/** Return the landing position of the main branch east of the launch site (m). */
+	public double getLandingX() {
+		return landingX;
+	}
+
+	/** Return the landing position of the main branch north of the launch site (m). */
+	public double getLandingY() {
+		return landingY;
+	}
+
+	/** Return the exception that ended the run, or <code>null</code> if it succeeded. */
+	public Throwable getError() {
+		return error;
+	}
+
+	public boolean isSuccessful() {
+		return error == null;
+	}
+
+	@Override
+	public String toString() {
+		return "MonteCarloRun[index=" + index + ", " + (isSuccessful() ? "apogee=" + apogee : error.toString()) + "]";
+	}
+}
@@ -0,0 +1,305 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+
+import net.sf.openrocket.masscalc.MassCalculator;
+import net.sf.openrocket.models.wind.PinkNoiseWindModel;
+import net.sf.openrocket.models.wind.WindModel;
+import net.sf.openrocket.simulation.BatchSimulationRunner;
+import net.sf.openrocket.simulation.SimulationConditions;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.util.MathUtil;
+
+/**
+ * A Monte Carlo dispersion analysis.  A number of flights are simulated from the same base
+ * {@link SimulationConditions}, each with parameters sampled from the distributions of a
+ * {@link MonteCarloParameters}, and the outcomes are accumulated into a {@link MonteCarloResult}.
+ * The flight data of the individual runs is discarded as soon as its summary values have
+ * been extracted.
+ * <p>
+ * Every run draws its parameters from its own random number generator, seeded from the
+ * analysis seed and the index of the run, and the runs are accumulated in index order.
+ * The results are therefore reproducible for a given seed regardless of the number of
+ * threads used.
+ */
+public class MonteCarloSimulation {
+
+	/** The number of runs submitted ahead of the accumulated run, per processor. */
+	private static final int PENDING_RUNS_PER_PROCESSOR = 4;
+	private static final int MIN_PENDING_RUNS = 16;
+
+	private final SimulationConditions baseConditions;
+	private final MonteCarloParameters parameters;
+	private final List<MonteCarloListener> listeners = new ArrayList<MonteCarloListener>();
+
+	private int runCount = 1000;
+	private long seed = 0;
+
+	private volatile boolean cancelled = false;
+
+	// The submitted runs in index order, guarded by this
+	private final Deque<Pending> pending = new ArrayDeque<Pending>();
+
+
+	/**
+	 * Sole constructor.
+	 *
+	 * @param baseConditions	the nominal simulation conditions.  These are cloned for each run
+	 * 							and are not modified.
+	 * @param parameters		the dispersed parameters.
+	 */
+	public MonteCarloSimulation(SimulationConditions baseConditions, MonteCarloParameters parameters) {
+		this.baseConditions = baseConditions.clone();
+		this.parameters = parameters.clone();
+		if (this.baseConditions.getMassCalculator() == null) {
+			this.baseConditions.setMassCalculator(new MassCalculator());
+		}
+	}
+
+
+	public int getRunCount() {
+		return runCount;
+	}
+
+	public void setRunCount(int runCount) {
+		if (runCount < 0) {
+			throw new IllegalArgumentException("runCount=" + runCount);
+		}
+		this.runCount = runCount;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public void addMonteCarloListener(MonteCarloListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeMonteCarloListener(MonteCarloListener listener) {
+		listeners.remove(listener);
+	}
+
+
+	/**
+	 * Cancel the analysis.  Runs that have not started are skipped and running simulations
+	 * are aborted at their next step.  A cancelled analysis does not run again until
+	 * {@link #reset()} is called, so a cancellation made before {@link #run()} starts is
+	 * not lost.
+	 */
+	public void cancel() {
+		List<Pending> running;
+		synchronized (this) {
+			cancelled = true;
+			running = new ArrayList<Pending>(pending);
+		}
+		for (Pending p : running) {
+			p.batch.cancel();
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Clear the cancelled state, so that the analysis can be run again.
+	 */
+	public synchronized void reset() {
+		cancelled = false;
+	}
+
+
+	/**
+	 * Run the analysis using one thread per available processor.
+	 *
+	 * @return	the accumulated result.
+	 * @throws InterruptedException	if interrupted while waiting for the runs.  The analysis is
+	 * 								cancelled in this case.
+	 */
+	public MonteCarloResult run() throws InterruptedException {
+		BatchSimulationRunner runner = new BatchSimulationRunner();
+		try {
+			return run(runner.getExecutor());
+		} finally {
+			runner.shutdown();
+		}
+	}
+
+	/**
+	 * Run the analysis on the given executor, waiting for all runs to complete.  At most
+	 * a few runs per processor are submitted ahead of the run being accumulated, so only
+	 * the flight data of those runs is held in memory.
+	 *
+	 * @param executor	the executor to run the simulations on.
+	 * @return			the accumulated result.
+	 * @throws InterruptedException	if interrupted while waiting for the runs.  The analysis is
+	 * 								cancelled in this case.
+	 */
+	public MonteCarloResult run(ExecutorService executor) throws InterruptedException {
+		final BatchSimulationRunner runner = new BatchSimulationRunner(executor);
+		final MassCalculator massCalculator = baseConditions.getMassCalculator();
+		final int window = Math.max(MIN_PENDING_RUNS, PENDING_RUNS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+		final MonteCarloResult result = new MonteCarloResult();
+
+		int next = 0;
+		try {
+			while (true) {
+				while (next < runCount && pendingCount() < window && submit(runner, next, massCalculator)) {
+					next++;
+				}
+
+				Pending p;
+				synchronized (this) {
+					p = pending.peekFirst();
+				}
+				if (p == null) {
+					break;
+				}
+
+				BatchSimulationRunner.Result r = p.batch.get(0);
+				synchronized (this) {
+					pending.removeFirst();
+				}
+				if (r.isSuccessful()) {
+					p.run.setFlightData(r.getFlightData());
+				} else {
+					p.run.setError(r.getError());
+				}
+				result.add(p.run);
+				for (MonteCarloListener l : listeners) {
+					l.runCompleted(p.run, result);
+				}
+			}
+		} catch (InterruptedException e) {
+			cancel();
+			synchronized (this) {
+				pending.clear();
+			}
+			throw e;
+		}
+
+		result.setCancelled(cancelled);
+		return result;
+	}
+
+	private synchronized int pendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * Sample the parameters of a run and submit it, unless the analysis has been cancelled.
+	 *
+	 * @return	whether the run was submitted.
+	 */
+	private boolean submit(BatchSimulationRunner runner, int index, MassCalculator massCalculator) {
+		MonteCarloRun run = sampleRun(index);
+		SimulationConditions conditions = createConditions(run, massCalculator);
+		synchronized (this) {
+			if (cancelled) {
+				return false;
+			}
+			pending.addLast(new Pending(run, runner.runConditions(Collections.singletonList(conditions))));
+			return true;
+		}
+	}
+
+	/**
+	 * Sample the parameters of a run.
+	 */
+	private MonteCarloRun sampleRun(int index) {
+		Random rnd = new Random(runSeed(seed, index));
+		WindModel baseWind = baseConditions.getWindModel();
+
+		// The sampling order is fixed so runs are reproducible
+		double windSpeed = sample(parameters.getWindSpeed(), rnd,
+				(baseWind instanceof PinkNoiseWindModel) ? ((PinkNoiseWindModel) baseWind).getAverage() : 0);
+		double windDirection = sample(parameters.getWindDirection(), rnd,
+				(baseWind instanceof PinkNoiseWindModel) ? ((PinkNoiseWindModel) baseWind).getDirection() : 0);
+		double windTurbulence = sample(parameters.getWindTurbulence(), rnd,
+				(baseWind instanceof PinkNoiseWindModel) ? ((PinkNoiseWindModel) baseWind).getTurbulenceIntensity() : 0);
+		double rodAngle = sample(parameters.getLaunchRodAngle(), rnd, baseConditions.getLaunchRodAngle());
+		double rodDirection = sample(parameters.getLaunchRodDirection(), rnd, baseConditions.getLaunchRodDirection());
+		double thrustScale = sample(parameters.getThrustScale(), rnd, 1);
+		double dragScale = sample(parameters.getDragScale(), rnd, 1);
+		double massScale = sample(parameters.getMassScale(), rnd, 1);
+		int windSeed = rnd.nextInt();
+		int simulationSeed = rnd.nextInt();
+
+		windSpeed = Math.max(windSpeed, 0);
+		windTurbulence = Math.max(windTurbulence, 0);
+		rodAngle = MathUtil.clamp(rodAngle, -SimulationOptions.MAX_LAUNCH_ROD_ANGLE, SimulationOptions.MAX_LAUNCH_ROD_ANGLE);
+		thrustScale = Math.max(thrustScale, 0);
+		dragScale = Math.max(dragScale, 0);
+		massScale = Math.max(massScale, MathUtil.EPSILON);
+
+		return new MonteCarloRun(index, windSpeed, windDirection, windTurbulence,
+				rodAngle, rodDirection, thrustScale, dragScale, massScale, windSeed, simulationSeed);
+	}
+
+	/**
+	 * Create the simulation conditions of a sampled run.
+	 */
+	private SimulationConditions createConditions(MonteCarloRun run, MassCalculator massCalculator) {
+		SimulationConditions conditions = baseConditions.clone();
+		conditions.setRandomSeed(run.getSimulationSeed());
+		conditions.setLaunchRodAngle(run.getLaunchRodAngle());
+		conditions.setLaunchRodDirection(run.getLaunchRodDirection());
+
+		PinkNoiseWindModel wind = new PinkNoiseWindModel(run.getWindSeed());
+		wind.setAverage(run.getWindSpeed());
+		wind.setDirection(run.getWindDirection());
+		wind.setTurbulenceIntensity(run.getWindTurbulence());
+		conditions.setWindModel(wind);
+
+		if (run.getMassScale() != 1) {
+			conditions.setMassCalculator(new ScaledMassCalculator(massCalculator, run.getMassScale()));
+		}
+		conditions.getSimulationListenerList().add(new DispersionListener(run.getThrustScale(), run.getDragScale()));
+		return conditions;
+	}
+
+
+	private static double sample(Distribution distribution, Random rnd, double nominal) {
+		if (distribution == null) {
+			return nominal;
+		}
+		return distribution.sample(rnd);
+	}
+
+	/**
+	 * Return the random seed of a single run.  This mixes the analysis seed and the run index
+	 * using the SplitMix64 finalizer, so that the seeds of consecutive runs are unrelated.
+	 */
+	static long runSeed(long seed, int index) {
+		long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+
+	/**
+	 * A submitted run and the batch simulating it.
+	 */
+	private static final class Pending {
+		private final MonteCarloRun run;
+		private final BatchSimulationRunner.Batch batch;
+
+		private Pending(MonteCarloRun run, BatchSimulationRunner.Batch batch) {
+			this.run = run;
+			this.batch = batch;
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import net.sf.openrocket.util.Statistics;
+
+/**
+ * A streaming accumulator of the count, mean, standard deviation and extremes of a
+ * sequence of values.  Values are not stored, so the memory use is independent of the
+ * number of samples.  NaN values are ignored.
+ * <p>
+ * The mean and variance are updated using Welford's algorithm.  The result depends on
+ * the order in which values are added, so values should be added in a fixed order
+ * when reproducible results are required.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class SampleStatistics implements Statistics {
+
+	private final String name;
+
+	private long count = 0;
+	private double mean = 0;
+	private double m2 = 0;
+	private double min = Double.NaN;
+	private double max = Double.NaN;
+
+
+	public SampleStatistics(String name) {
+		this.name = name;
+	}
+
+
+	/**
+	 * Add a value to the statistics.
+	 *
+	 * @param value		the value to add, NaN values are ignored.
+	 */
+	public void add(double value) {
+		if (Double.isNaN(value)) {
+			return;
+		}
+		count++;
+		double delta = value - mean;
+		mean += delta / count;
+		m2 += delta * (value - mean);
+		if (count == 1) {
+			min = value;
+			max = value;
+		} else {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+	}
+
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/** Return the mean value, or NaN if no values have been added. */
+	public double getMean() {
+		return (count == 0) ? Double.NaN : mean;
+	}
+
+	/** Return the sample variance, or NaN if less than two values have been added. */
+	public double getVariance() {
+		return (count < 2) ? Double.NaN : m2 / (count - 1);
+	}
+
+	/** Return the sample standard deviation, or NaN if less than two values have been added. */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/** Return the minimum value, or NaN if no values have been added. */
+	public double getMin() {
+		return min;
+	}
+
+	/** Return the maximum value, or NaN if no values have been added. */
+	public double getMax() {
+		return max;
+	}
+
+
+	@Override
+	public String getStatistics() {
+		return name + ": n=" + count + " mean=" + getMean() + " stddev=" + getStandardDeviation() +
+				" min=" + min + " max=" + max;
+	}
+
+	@Override
+	public void resetStatistics() {
+		count = 0;
+		mean = 0;
+		m2 = 0;
+		min = Double.NaN;
+		max = Double.NaN;
+	}
+
+}
@@ -0,0 +1,37 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import net.sf.openrocket.masscalc.MassCalculator;
+import net.sf.openrocket.masscalc.RigidBody;
+import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.simulation.SimulationStatus;
+import net.sf.openrocket.util.Coordinate;
+
+/**
+ * A mass calculator that scales the structure mass and inertia computed by a shared
+ * calculator, leaving the motor mass unchanged.  The shared calculator keeps its caches
+ * between the runs of a Monte Carlo analysis.
+ */
+class ScaledMassCalculator extends MassCalculator {
+
+	private final MassCalculator delegate;
+	private final double scale;
+
+	ScaledMassCalculator(MassCalculator delegate, double scale) {
+		this.delegate = delegate;
+		this.scale = scale;
+	}
+
+	@Override
+	public RigidBody getStructureMass(FlightConfiguration config) {
+		RigidBody structure = delegate.getStructureMass(config);
+		Coordinate cm = structure.getCenterOfMass();
+		return new RigidBody(cm.setWeight(cm.weight * scale),
+				structure.getIxx() * scale, structure.getIyy() * scale, structure.getIzz() * scale);
+	}
+
+	@Override
+	public RigidBody getMotorMass(SimulationStatus status) {
+		return delegate.getMotorMass(status);
+	}
+
+}
@@ -0,0 +1,168 @@
+package net.sf.openrocket.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+
+/**
+ * A registry that dispatches a role (for example "save this component" or "compute
+ * the aerodynamic forces of this component") to a class named after the component
+ * class.  For a component class <code>Foo</code> the class <code>pack.FooSuffix</code>
+ * is used, or if it does not exist, the class named after the nearest superclass of
+ * <code>Foo</code>.
+ * <p>
+ * This performs the same lookup as {@link Reflection#findMethod(String, Class, String, String, Class...)}
+ * and {@link Reflection#construct(String, RocketComponent, String, Object...)}, but
+ * the lookup is performed only once per component class and the result is invoked
+ * through a cached method handle.
+ */
+public final class ComponentDispatcher {
+
+	private final String description;
+	private final ClassValue<MethodHandle> handles;
+
+	private ComponentDispatcher(String description, ClassValue<MethodHandle> handles) {
+		this.description = description;
+		this.handles = handles;
+	}
+
+
+	/**
+	 * Create a dispatcher that invokes a static method of the role class.  The first
+	 * parameter of the method is the component.
+	 *
+	 * @param pack		the package of the role classes.
+	 * @param suffix	the suffix appended to the component class name.
+	 * @param method	the name of the static method.
+	 * @param params	the parameter types of the method, the first one being the component type.
+	 * @return			the dispatcher.
+	 */
+	public static ComponentDispatcher forMethod(final String pack, final String suffix,
+			final String method, final Class<?>... params) {
+		if (params.length == 0) {
+			throw new IllegalArgumentException("the method must take the component as the first parameter");
+		}
+		final Class<?>[] types = params.clone();
+
+		return new ComponentDispatcher(pack + ".*" + suffix + "." + method + "(" + Arrays.toString(types) + ")",
+				new ClassValue<MethodHandle>() {
+					@Override
+					protected MethodHandle computeValue(Class<?> componentClass) {
+						for (Class<?> c = componentClass; c != null && c != Object.class; c = c.getSuperclass()) {
+							Class<?> roleClass = findRoleClass(pack, c, suffix);
+							if (roleClass == null) {
+								continue;
+							}
+							try {
+								java.lang.reflect.Method m = roleClass.getMethod(method, types);
+								if (Modifier.isStatic(m.getModifiers())) {
+									return adapt(MethodHandles.publicLookup().unreflect(m));
+								}
+							} catch (NoSuchMethodException ignore) {
+							} catch (IllegalAccessException e) {
+								throw new BugException("Could not access method " + method + " of " + roleClass, e);
+							}
+						}
+						return null;
+					}
+				});
+	}
+
+
+	/**
+	 * Create a dispatcher that constructs an instance of the role class using a
+	 * public constructor taking the component as its only parameter.
+	 *
+	 * @param pack		the package of the role classes.
+	 * @param suffix	the suffix appended to the component class name.
+	 * @return			the dispatcher.
+	 */
+	public static ComponentDispatcher forConstructor(final String pack, final String suffix) {
+		return new ComponentDispatcher(pack + ".*" + suffix + " constructor",
+				new ClassValue<MethodHandle>() {
+					@Override
+					protected MethodHandle computeValue(Class<?> componentClass) {
+						for (Class<?> c = componentClass; c != null && c != Object.class; c = c.getSuperclass()) {
+							Class<?> roleClass = findRoleClass(pack, c, suffix);
+							if (roleClass == null || Modifier.isAbstract(roleClass.getModifiers())) {
+								continue;
+							}
+							for (Constructor<?> constructor : roleClass.getConstructors()) {
+								Class<?>[] parameterTypes = constructor.getParameterTypes();
+								if (parameterTypes.length == 1 && parameterTypes[0].isAssignableFrom(componentClass)) {
+									try {
+										return adapt(MethodHandles.publicLookup().unreflectConstructor(constructor));
+									} catch (IllegalAccessException e) {
+										throw new BugException("Could not access constructor " + constructor, e);
+									}
+								}
+							}
+						}
+						return null;
+					}
+				});
+	}
+
+
+	private static Class<?> findRoleClass(String pack, Class<?> componentClass, String suffix) {
+		try {
+			return Class.forName(pack + "." + componentClass.getSimpleName() + suffix);
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Adapt a method handle to the type (Object, Object[])Object, where the first
+	 * argument is the component and the array contains the remaining arguments.
+	 */
+	private static MethodHandle adapt(MethodHandle handle) {
+		int count = handle.type().parameterCount();
+		return handle.asType(MethodType.genericMethodType(count)).asSpreader(Object[].class, count - 1);
+	}
+
+
+	/**
+	 * Return whether a role class has been found for the component.
+	 */
+	public boolean isSupported(RocketComponent component) {
+		return handles.get(component.getClass()) != null;
+	}
+
+
+	/**
+	 * Invoke the role for a component.  Exceptions thrown by the invoked method are
+	 * propagated as in {@link Reflection#handleWrappedException(Exception)}.
+	 *
+	 * @param component		the component, passed as the first argument.
+	 * @param args			the remaining arguments.
+	 * @return				the return value of the method, or the constructed object.
+	 * @throws BugException	if no role class is found for the component.
+	 */
+	public Object invoke(RocketComponent component, Object... args) {
+		MethodHandle handle = handles.get(component.getClass());
+		if (handle == null) {
+			throw new BugException("Unable to find " + description + " for component " + component);
+		}
+		try {
+			return (Object) handle.invokeExact((Object) component, args);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new BugException("Invocation of " + description + " failed for component " + component, e);
+		}
+	}
+
+
+	@Override
+	public String toString() {
+		return "ComponentDispatcher[" + description + "]";
+	}
+}
@@ -0,0 +1,187 @@
+package net.sf.openrocket.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class of the caches that are persisted in a binary file between runs.  This
+ * class handles the file header, the loading and the atomic saving of the cache file,
+ * while the subclasses hold the entries and read and write them.
+ * <p>
+ * The cache file starts with a magic number, a format version and an optional tag,
+ * such as the locale or the OpenRocket version the cache is valid for.  A cache file
+ * with a different header or that cannot be read is ignored, leaving the cache empty.
+ * The whole file is read in a single sequential read.  The cache is saved to a
+ * temporary file that then replaces the cache file, so an interrupted save never
+ * leaves a partially written cache behind.
+ * <p>
+ * The methods of this class synchronize on the cache, so subclasses are thread-safe
+ * as long as they synchronize their own methods as well.
+ */
+public abstract class PersistentCache {
+	private static final Logger log = LoggerFactory.getLogger(PersistentCache.class);
+
+	private final File cacheFile;
+	private final int magic;
+	private final int version;
+	private final String description;
+
+	private boolean modified = false;
+
+	/**
+	 * Sole constructor.  The cache is empty until {@link #load()} is called.
+	 *
+	 * @param cacheFile		the file the cache is stored in.
+	 * @param magic			the magic number at the start of the cache file.
+	 * @param version		the version of the cache file format.
+	 * @param description	the description of the cache used in log messages, e.g. "motor cache".
+	 */
+	protected PersistentCache(File cacheFile, int magic, int version, String description) {
+		this.cacheFile = cacheFile;
+		this.magic = magic;
+		this.version = version;
+		this.description = description;
+	}
+
+
+	/**
+	 * Load the cache from the cache file.  If the file does not exist or cannot be read,
+	 * the cache is left empty.
+	 */
+	public synchronized void load() {
+		clearEntries();
+		modified = false;
+		if (!cacheFile.isFile()) {
+			return;
+		}
+
+		int count;
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(cacheFile.toPath())));
+			if (in.readInt() != magic || in.readInt() != version) {
+				log.info("Ignoring " + description + " " + cacheFile + " of an unsupported version");
+				return;
+			}
+			String tag = getTag();
+			if (tag != null) {
+				String fileTag = in.readUTF();
+				if (!fileTag.equals(tag)) {
+					log.info("Ignoring " + description + " " + cacheFile + " written for " + fileTag);
+					return;
+				}
+			}
+			count = readEntries(in);
+		} catch (IOException | RuntimeException e) {
+			log.warn("Unable to read " + description + " " + cacheFile + ": " + e);
+			clearEntries();
+			return;
+		}
+		log.debug("Read " + description + " " + cacheFile + " with " + count + " entries");
+	}
+
+
+	/**
+	 * Save the cache to the cache file.  The file is only written if {@link #needsSave()}
+	 * returns <code>true</code>.
+	 */
+	public synchronized void save() {
+		if (!needsSave()) {
+			return;
+		}
+
+		File dir = cacheFile.getAbsoluteFile().getParentFile();
+		File tmp = new File(dir, cacheFile.getName() + ".tmp");
+		try {
+			if (!dir.isDirectory() && !dir.mkdirs()) {
+				throw new IOException("Unable to create directory " + dir);
+			}
+			int count;
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+				out.writeInt(magic);
+				out.writeInt(version);
+				String tag = getTag();
+				if (tag != null) {
+					out.writeUTF(tag);
+				}
+				count = writeEntries(out);
+			}
+			if (cacheFile.exists() && !cacheFile.delete()) {
+				throw new IOException("Unable to replace " + cacheFile);
+			}
+			if (!tmp.renameTo(cacheFile)) {
+				throw new IOException("Unable to rename " + tmp + " to " + cacheFile);
+			}
+			modified = false;
+			log.debug("Wrote " + description + " " + cacheFile + " with " + count + " entries");
+		} catch (IOException e) {
+			log.warn("Unable to write " + description + " " + cacheFile + ": " + e);
+			tmp.delete();
+		}
+	}
+
+
+	/**
+	 * Mark the cache as modified, so it is written on the next save.  Must be called
+	 * while holding the lock of the cache.
+	 */
+	protected void setModified() {
+		modified = true;
+	}
+
+
+	/**
+	 * Return whether the cache has to be written on save.  The default implementation
+	 * returns whether the cache has been modified since it was loaded or saved.
+	 * Called while holding the lock of the cache.
+	 */
+	protected boolean needsSave() {
+		return modified;
+	}
+
+
+	/**
+	 * Return the tag written after the file format version, or <code>null</code> for
+	 * no tag.  A cache file with a different tag is ignored.  The default implementation
+	 * returns <code>null</code>.
+	 */
+	protected String getTag() {
+		return null;
+	}
+
+
+	/**
+	 * Remove all the entries read from the cache file.  Called while holding the lock
+	 * of the cache, also when reading the cache file fails.
+	 */
+	protected abstract void clearEntries();
+
+	/**
+	 * Read the entries following the header of the cache file.  Called while holding
+	 * the lock of the cache.
+	 *
+	 * @param in	the stream to read from.
+	 * @return		the number of entries read.
+	 * @throws IOException	if the entries cannot be read.
+	 */
+	protected abstract int readEntries(DataInputStream in) throws IOException;
+
+	/**
+	 * Write the entries following the header of the cache file.  Called while holding
+	 * the lock of the cache.
+	 *
+	 * @param out	the stream to write to.
+	 * @return		the number of entries written.
+	 * @throws IOException	if the entries cannot be written.
+	 */
+	protected abstract int writeEntries(DataOutputStream out) throws IOException;
+
+}
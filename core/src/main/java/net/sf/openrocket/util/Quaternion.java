@@ -85,14 +85,28 @@ public class Quaternion {
 	 * @return			the quaternion corresponding to the rotation vector
 	 */
 	public static Quaternion rotation(Coordinate rotation) {
-		double length = rotation.length();
+		return rotation(rotation.x, rotation.y, rotation.z);
+	}
+	
+	/**
+	 * Create a rotation quaternion corresponding to the rotation vector (x,y,z).  This is
+	 * equivalent to {@link #rotation(Coordinate)} but does not require a temporary
+	 * <code>Coordinate</code> object.
+	 * 
+	 * @param x		the x component of the rotation vector
+	 * @param y		the y component of the rotation vector
+	 * @param z		the z component of the rotation vector
+	 * @return		the quaternion corresponding to the rotation vector
+	 */
+	public static Quaternion rotation(double x, double y, double z) {
+		double length = MathUtil.safeSqrt(x * x + y * y + z * z);
 		if (length < 0.000001) {
 			return new Quaternion(1, 0, 0, 0);
 		}
 		double sin = Math.sin(length / 2);
 		double cos = Math.cos(length / 2);
 		return new Quaternion(cos,
-				sin * rotation.x / length, sin * rotation.y / length, sin * rotation.z / length);
+				sin * x / length, sin * y / length, sin * z / length);
 	}
 	
 	/**
@@ -295,8 +309,63 @@ public class Quaternion {
 				a * z + b * y - c * x + d * w,
 				coord.weight);
 	}
-	
-	
+
+
+	/**
+	 * Perform a coordinate rotation of the vector (cx,cy,cz) using this unit quaternion,
+	 * storing the x, y and z components of the result in <code>result</code>.  This is
+	 * equivalent to {@link #rotate(Coordinate)} but does not allocate any objects.
+	 * <p>
+	 * This method assumes that the norm of this quaternion is one.
+	 *
+	 * @param cx		the x component of the vector to rotate.
+	 * @param cy		the y component of the vector to rotate.
+	 * @param cz		the z component of the vector to rotate.
+	 * @param result	an array of at least three elements to store the rotated vector in.
+	 */
+	public void rotate(double cx, double cy, double cz, double[] result) {
+		double a, b, c, d;
+
+		assert (Math.abs(norm2() - 1) < 0.00001) : "Quaternion not unit length: " + this;
+
+		a = -x * cx - y * cy - z * cz; // w
+		b = w * cx + y * cz - z * cy; // x i
+		c = w * cy - x * cz + z * cx; // y j
+		d = w * cz + x * cy - y * cx; // z k
+
+		result[0] = -a * x + b * w - c * z + d * y;
+		result[1] = -a * y + b * z + c * w - d * x;
+		result[2] = -a * z - b * y + c * x + d * w;
+	}
+
+	/**
+	 * Perform an inverse coordinate rotation of the vector (cx,cy,cz) using this unit
+	 * quaternion, storing the x, y and z components of the result in <code>result</code>.
+	 * This is equivalent to {@link #invRotate(Coordinate)} but does not allocate any objects.
+	 * <p>
+	 * This method assumes that the norm of this quaternion is one.
+	 *
+	 * @param cx		the x component of the vector to rotate.
+	 * @param cy		the y component of the vector to rotate.
+	 * @param cz		the z component of the vector to rotate.
+	 * @param result	an array of at least three elements to store the rotated vector in.
+	 */
+	public void invRotate(double cx, double cy, double cz, double[] result) {
+		double a, b, c, d;
+
+		assert (Math.abs(norm2() - 1) < 0.00001) : "Quaternion not unit length: " + this;
+
+		a = +x * cx + y * cy + z * cz;
+		b = w * cx - y * cz + z * cy;
+		c = w * cy + x * cz - z * cx;
+		d = w * cz - x * cy + y * cx;
+
+		result[0] = a * x + b * w + c * z - d * y;
+		result[1] = a * y - b * z + c * w + d * x;
+		result[2] = a * z + b * y - c * x + d * w;
+	}
+
+
 	/**
 	 * Rotate the coordinate (0,0,1) using this quaternion.  The result is returned
 	 * as a Coordinate.  This method is equivalent to calling
@@ -1,6 +1,6 @@
 package net.sf.openrocket.util;
 
-import java.util.ArrayList;
+import java.util.List;
 import java.io.FileOutputStream;
 import java.util.Map;
 import java.util.Random;
@@ -1705,7 +1705,7 @@ public class TestRockets {
 
 		// find the body and fins
 		final InstanceMap imap = rocket.getSelectedConfiguration().getActiveInstances();
-	    for(Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry: imap.entrySet() ) {		
+	    for(Map.Entry<RocketComponent, List<InstanceContext>> entry: imap.entrySet() ) {		
 			RocketComponent c = entry.getKey();
 			if (c instanceof TrapezoidFinSet) {
 				final TrapezoidFinSet fins = (TrapezoidFinSet) c;
@@ -0,0 +1,65 @@
+package net.sf.openrocket.util;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.rocketcomponent.FlightConfigurationId;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.SimulationConditions;
+import net.sf.openrocket.simulation.SimulationOptions;
+
+/**
+ * Simulations of the {@link TestRockets} with fixed options, for use in tests and
+ * benchmarks.  The options are set explicitly, since the testing preferences do not
+ * provide usable defaults.
+ */
+public class TestSimulations {
+
+	private TestSimulations() {
+	}
+
+	/**
+	 * Return the first flight configuration of the rocket that has motors, or the
+	 * selected configuration if none has.
+	 */
+	public static FlightConfiguration getMotorConfiguration(Rocket rocket) {
+		for (FlightConfigurationId id : rocket.getIds()) {
+			FlightConfiguration config = rocket.getFlightConfiguration(id);
+			if (config.hasMotors()) {
+				return config;
+			}
+		}
+		return rocket.getSelectedConfiguration();
+	}
+
+	/**
+	 * Create a simulation of the rocket's motor configuration.  The simulation uses
+	 * a 0.01 s time step, a vertical 1 m launch rod, a 2 m/s wind with 0.2 m/s
+	 * deviation, the ISA atmosphere and a fixed random seed.  Callers may change
+	 * the options of the returned simulation.
+	 */
+	public static Simulation createSimulation(Rocket rocket) {
+		Simulation simulation = new Simulation(rocket);
+		simulation.setFlightConfigurationId(getMotorConfiguration(rocket).getId());
+
+		SimulationOptions opts = simulation.getOptions();
+		opts.setTimeStep(0.01);
+		opts.setMaximumStepAngle(3 * Math.PI / 180);
+		opts.setLaunchRodLength(1);
+		opts.setLaunchRodAngle(0);
+		opts.setWindSpeedAverage(2);
+		opts.setWindSpeedDeviation(0.2);
+		opts.setISAAtmosphere(true);
+		opts.setRandomSeed(42);
+		return simulation;
+	}
+
+	/**
+	 * Return the simulation conditions of the simulation's current options.
+	 */
+	public static SimulationConditions createConditions(Simulation simulation) {
+		SimulationConditions conditions = simulation.getOptions().toSimulationConditions();
+		conditions.setSimulation(simulation);
+		return conditions;
+	}
+
+}
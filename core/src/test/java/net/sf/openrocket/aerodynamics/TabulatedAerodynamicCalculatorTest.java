@@ -0,0 +1,227 @@
+package net.sf.openrocket.aerodynamics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+
+import net.sf.openrocket.ServicesForTesting;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.util.TestRockets;
+import net.sf.openrocket.util.TestSimulations;
+
+public class TabulatedAerodynamicCalculatorTest {
+	
+	private static Injector injector;
+	
+	@BeforeClass
+	public static void setup() {
+		Module applicationModule = new ServicesForTesting();
+		Module pluginModule = new PluginModule();
+		
+		injector = Guice.createInjector(applicationModule, pluginModule);
+		Application.setInjector(injector);
+	}
+	
+	private static FlightConditions randomConditions(FlightConfiguration config, Random rnd) {
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setMach(0.05 + rnd.nextDouble() * 1.2);
+		conditions.setAOA(rnd.nextDouble() * 0.3);
+		conditions.setTheta(rnd.nextDouble() * 2 * Math.PI);
+		conditions.setRollRate(rnd.nextGaussian() * 10);
+		conditions.setPitchRate(rnd.nextGaussian());
+		conditions.setYawRate(rnd.nextGaussian());
+		return conditions;
+	}
+	
+	@Test
+	public void testMatchesBarrowman() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		BarrowmanCalculator barrowman = new BarrowmanCalculator();
+		TabulatedAerodynamicCalculator tabulated = new TabulatedAerodynamicCalculator();
+		
+		Random rnd = new Random(1);
+		for (int i = 0; i < 500; i++) {
+			FlightConditions conditions = randomConditions(config, rnd);
+			AerodynamicForces expected = barrowman.getAerodynamicForces(config, conditions, null);
+			AerodynamicForces actual = tabulated.getAerodynamicForces(config, conditions, null);
+			
+			assertEquals(expected.getCN(), actual.getCN(), 0.01 * Math.abs(expected.getCN()) + 0.01);
+			assertEquals(expected.getCm(), actual.getCm(), 0.01 * Math.abs(expected.getCm()) + 0.1);
+			assertEquals(expected.getCD(), actual.getCD(), 0.01 * Math.abs(expected.getCD()) + 0.01);
+			assertEquals(expected.getCroll(), actual.getCroll(), 0.05 * Math.abs(expected.getCroll()) + 0.01);
+			assertEquals(expected.getCP().x, actual.getCP().x, 0.001);
+		}
+		assertEquals(500, tabulated.getErrorReport().getTabulatedCalls());
+		assertEquals(0, tabulated.getErrorReport().getDirectCalls());
+	}
+	
+	@Test
+	public void testOutsideGrid() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		TabulatedAerodynamicCalculator tabulated = new TabulatedAerodynamicCalculator();
+		
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setMach(4.0);
+		AerodynamicForces expected = new BarrowmanCalculator().getAerodynamicForces(config, conditions, null);
+		AerodynamicForces actual = tabulated.getAerodynamicForces(config, conditions, null);
+		assertEquals(expected.getCD(), actual.getCD(), 0);
+		assertEquals(1, tabulated.getErrorReport().getDirectCalls());
+		assertEquals(0, tabulated.getErrorReport().getGridPoints());
+	}
+	
+	@Test
+	public void testErrorReport() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		TabulatedAerodynamicCalculator tabulated = new TabulatedAerodynamicCalculator();
+		tabulated.setErrorSampleInterval(10);
+		
+		Random rnd = new Random(2);
+		for (int i = 0; i < 100; i++) {
+			tabulated.getAerodynamicForces(config, randomConditions(config, rnd), null);
+		}
+		TabulatedAerodynamicCalculator.ErrorReport report = tabulated.getErrorReport();
+		assertEquals(10, report.getSamples());
+		assertTrue(report.getGridPoints() > 0);
+		assertTrue(report.getMaxCNError() < 0.05);
+		assertTrue(report.getRMSCDError() < 0.01);
+		
+		// A new instance keeps the sampling interval but not the statistics
+		TabulatedAerodynamicCalculator copy = tabulated.newInstance();
+		assertEquals(10, copy.getErrorSampleInterval());
+		assertEquals(0, copy.getErrorReport().getSamples());
+	}
+	
+	@Test
+	public void testRocketChangeClearsTables() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		BarrowmanCalculator barrowman = new BarrowmanCalculator();
+		TabulatedAerodynamicCalculator tabulated = new TabulatedAerodynamicCalculator();
+		
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setMach(0.3);
+		conditions.setAOA(0.1);
+		tabulated.getAerodynamicForces(config, conditions, null);
+		
+		BodyTube body = (BodyTube) rocket.getChild(0).getChild(1);
+		body.setLength(body.getLength() * 1.5);
+		
+		AerodynamicForces expected = barrowman.getAerodynamicForces(config, conditions, null);
+		AerodynamicForces actual = tabulated.getAerodynamicForces(config, conditions, null);
+		assertEquals(expected.getCm(), actual.getCm(), 0.01 * Math.abs(expected.getCm()));
+		assertEquals(expected.getCD(), actual.getCD(), 0.01 * expected.getCD());
+	}
+	
+	@Test
+	public void testTablesSharedBetweenInstances() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		TabulatedAerodynamicCalculator first = new TabulatedAerodynamicCalculator();
+		
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setMach(0.3);
+		conditions.setAOA(0.1);
+		first.getAerodynamicForces(config, conditions, null);
+		int gridPoints = first.getErrorReport().getGridPoints();
+		assertTrue(gridPoints > 0);
+		
+		// A new instance and a copy of the rocket reuse the computed grid points
+		TabulatedAerodynamicCalculator second = first.newInstance();
+		second.getAerodynamicForces(config, conditions, null);
+		assertEquals(gridPoints, second.getErrorReport().getGridPoints());
+		
+		Rocket copy = rocket.copyWithOriginalID();
+		FlightConfiguration copyConfig = copy.getSelectedConfiguration();
+		FlightConditions copyConditions = new FlightConditions(copyConfig);
+		copyConditions.setMach(0.3);
+		copyConditions.setAOA(0.1);
+		TabulatedAerodynamicCalculator third = new TabulatedAerodynamicCalculator();
+		third.getAerodynamicForces(copyConfig, copyConditions, null);
+		assertEquals(gridPoints, third.getErrorReport().getGridPoints());
+		
+		// A different grid uses separate tables
+		TabulatedAerodynamicCalculator.Grid g = TabulatedAerodynamicCalculator.Grid.DEFAULT;
+		TabulatedAerodynamicCalculator fine = new TabulatedAerodynamicCalculator(
+				new TabulatedAerodynamicCalculator.Grid(g.getMachStep() / 2, g.getMaxMach(), g.getAOAStep(),
+						g.getThetaDivisions(), g.getRollStep(), g.getMaxRoll(), g.getReynoldsStep(),
+						g.getMinReynolds(), g.getMaxReynolds()));
+		assertEquals(0, fine.getErrorReport().getGridPoints());
+		fine.getAerodynamicForces(config, conditions, null);
+		assertTrue(fine.getErrorReport().getGridPoints() > 0);
+		assertEquals(gridPoints, first.getErrorReport().getGridPoints());
+	}
+	
+	@Test
+	public void testConcurrentInstances() throws Exception {
+		final Rocket rocket = TestRockets.makeEstesAlphaIII();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int n = 0; n < 4; n++) {
+				final long seed = n;
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						FlightConfiguration config = rocket.getSelectedConfiguration().clone();
+						BarrowmanCalculator barrowman = new BarrowmanCalculator();
+						TabulatedAerodynamicCalculator tabulated = new TabulatedAerodynamicCalculator();
+						Random rnd = new Random(seed);
+						for (int i = 0; i < 200; i++) {
+							FlightConditions conditions = randomConditions(config, rnd);
+							AerodynamicForces expected = barrowman.getAerodynamicForces(config, conditions, null);
+							AerodynamicForces actual = tabulated.getAerodynamicForces(config, conditions, null);
+							assertEquals(expected.getCN(), actual.getCN(), 0.01 * Math.abs(expected.getCN()) + 0.01);
+							assertEquals(expected.getCD(), actual.getCD(), 0.01 * Math.abs(expected.getCD()) + 0.01);
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> f : futures) {
+				f.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testSimulationErrorReport() throws Exception {
+		Simulation simulation = TestSimulations.createSimulation(TestRockets.makeEstesAlphaIII());
+		SimulationOptions opts = simulation.getOptions();
+		opts.setTabulatedAerodynamics(true);
+		opts.setAerodynamicErrorSampleInterval(10);
+		simulation.simulate();
+		
+		TabulatedAerodynamicCalculator.ErrorReport report = simulation.getAerodynamicErrorReport();
+		assertNotNull(report);
+		assertTrue(report.getSamples() > 0);
+		assertTrue(report.getTabulatedCalls() >= 10 * report.getSamples());
+		assertTrue(report.getMaxCDError() < 0.05);
+	}
+	
+}
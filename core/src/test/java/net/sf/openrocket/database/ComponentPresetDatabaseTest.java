@@ -0,0 +1,249 @@
+package net.sf.openrocket.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+import net.sf.openrocket.ServicesForTesting;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.preset.ComponentPreset;
+import net.sf.openrocket.preset.ComponentPresetFactory;
+import net.sf.openrocket.preset.TypedPropertyMap;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.startup.Preferences;
+
+public class ComponentPresetDatabaseTest {
+
+	@BeforeClass
+	public static void setup() {
+		Module prefsOverride = new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(Preferences.class).toInstance(new FavoritePreferences());
+			}
+		};
+		Application.setInjector(Guice.createInjector(Modules.override(new ServicesForTesting()).with(prefsOverride),
+				new PluginModule()));
+	}
+
+	private static ComponentPreset preset(ComponentPreset.Type type, String manufacturer, String partNo, double length) throws Exception {
+		TypedPropertyMap presetspec = new TypedPropertyMap();
+		presetspec.put(ComponentPreset.TYPE, type);
+		presetspec.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer(manufacturer));
+		presetspec.put(ComponentPreset.PARTNO, partNo);
+		presetspec.put(ComponentPreset.LENGTH, length);
+		presetspec.put(ComponentPreset.OUTER_DIAMETER, 0.025);
+		presetspec.put(ComponentPreset.THICKNESS, 0.001);
+		return ComponentPresetFactory.create(presetspec);
+	}
+
+	private static List<ComponentPreset> presets() throws Exception {
+		return Arrays.asList(
+				preset(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-50", 0.3),
+				preset(ComponentPreset.Type.TUBE_COUPLER, "Estes", "JT-50", 0.05),
+				preset(ComponentPreset.Type.BODY_TUBE, "Apogee", "10101", 0.4),
+				preset(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-20", 0.3),
+				preset(ComponentPreset.Type.TUBE_COUPLER, "Apogee", "10102", 0.05),
+				// Same part with different dimensions
+				preset(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-50", 0.6));
+	}
+
+	private static void assertSorted(List<ComponentPreset> presets) {
+		for (int i = 1; i < presets.size(); i++) {
+			assertTrue(presets.get(i - 1).compareTo(presets.get(i)) <= 0);
+		}
+	}
+
+	@Test
+	public void testAddAll() throws Exception {
+		ComponentPresetDatabase db = new ComponentPresetDatabase();
+		final List<ComponentPreset> events = new ArrayList<ComponentPreset>();
+		final int[] eventCount = { 0 };
+		db.addDatabaseListener(new DatabaseListener<ComponentPreset>() {
+			@Override
+			public void elementAdded(ComponentPreset element, Database<ComponentPreset> source) {
+				events.add(element);
+				eventCount[0]++;
+			}
+
+			@Override
+			public void elementsAdded(Collection<ComponentPreset> elements, Database<ComponentPreset> source) {
+				events.addAll(elements);
+				eventCount[0]++;
+			}
+
+			@Override
+			public void elementRemoved(ComponentPreset element, Database<ComponentPreset> source) {
+			}
+		});
+
+		List<ComponentPreset> presets = presets();
+		assertTrue(db.addAll(presets));
+		assertEquals(6, db.size());
+		assertEquals(1, eventCount[0]);
+		assertEquals(6, events.size());
+		assertSorted(db.listAll());
+
+		// Duplicates are not added again
+		assertFalse(db.addAll(presets));
+		assertFalse(db.addAll(Arrays.asList(preset(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-20", 0.3))));
+		assertEquals(6, db.size());
+		assertEquals(1, eventCount[0]);
+
+		// Duplicates within the added presets
+		db = new ComponentPresetDatabase();
+		List<ComponentPreset> doubled = new ArrayList<ComponentPreset>(presets);
+		doubled.addAll(presets());
+		db.addAll(doubled);
+		assertEquals(6, db.size());
+	}
+
+	@Test
+	public void testAddAllMatchesAdd() throws Exception {
+		ComponentPresetDatabase bulk = new ComponentPresetDatabase();
+		bulk.addAll(presets());
+		ComponentPresetDatabase single = new ComponentPresetDatabase();
+		for (ComponentPreset p : presets()) {
+			single.add(p);
+		}
+		assertEquals(new HashSet<ComponentPreset>(single.listAll()), new HashSet<ComponentPreset>(bulk.listAll()));
+		assertEquals(single.listForType(ComponentPreset.Type.BODY_TUBE).size(), bulk.listForType(ComponentPreset.Type.BODY_TUBE).size());
+	}
+
+	@Test
+	public void testListenersSeeAddedPresets() throws Exception {
+		final ComponentPresetDatabase db = new ComponentPresetDatabase();
+		final int[] seen = { -1, -1 };
+		db.addDatabaseListener(new DatabaseListener<ComponentPreset>() {
+			@Override
+			public void elementAdded(ComponentPreset element, Database<ComponentPreset> source) {
+				seen[0] = db.listForType(ComponentPreset.Type.BODY_TUBE).size();
+			}
+
+			@Override
+			public void elementsAdded(Collection<ComponentPreset> elements, Database<ComponentPreset> source) {
+				seen[1] = db.listForType(ComponentPreset.Type.BODY_TUBE).size();
+			}
+
+			@Override
+			public void elementRemoved(ComponentPreset element, Database<ComponentPreset> source) {
+			}
+		});
+
+		// Build the index before adding
+		assertEquals(0, db.listForType(ComponentPreset.Type.BODY_TUBE).size());
+		db.add(preset(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-5", 0.2));
+		assertEquals(1, seen[0]);
+
+		db.addAll(presets());
+		assertEquals(5, seen[1]);
+	}
+
+	@Test
+	public void testListForType() throws Exception {
+		ComponentPresetDatabase db = new ComponentPresetDatabase();
+		db.addAll(presets());
+
+		List<ComponentPreset> tubes = db.listForType(ComponentPreset.Type.BODY_TUBE);
+		assertEquals(4, tubes.size());
+		for (ComponentPreset p : tubes) {
+			assertEquals(ComponentPreset.Type.BODY_TUBE, p.getType());
+		}
+		assertSorted(tubes);
+		assertEquals(0, db.listForType(ComponentPreset.Type.NOSE_CONE).size());
+
+		List<ComponentPreset> both = db.listForTypes(ComponentPreset.Type.BODY_TUBE, ComponentPreset.Type.TUBE_COUPLER,
+				ComponentPreset.Type.BODY_TUBE);
+		assertEquals(db.listAll(), both);
+
+		// The index is updated when presets are added or removed
+		db.add(preset(ComponentPreset.Type.BODY_TUBE, "Apogee", "10103", 0.4));
+		assertEquals(5, db.listForType(ComponentPreset.Type.BODY_TUBE).size());
+		for (Iterator<ComponentPreset> iterator = db.iterator(); iterator.hasNext();) {
+			if (iterator.next().getType() == ComponentPreset.Type.BODY_TUBE) {
+				iterator.remove();
+			}
+		}
+		assertEquals(0, db.listForType(ComponentPreset.Type.BODY_TUBE).size());
+		assertEquals(2, db.listForType(ComponentPreset.Type.TUBE_COUPLER).size());
+	}
+
+	@Test
+	public void testFind() throws Exception {
+		ComponentPresetDatabase db = new ComponentPresetDatabase();
+		db.addAll(presets());
+
+		List<ComponentPreset> found = db.find("Estes", "BT-50");
+		assertEquals(2, found.size());
+		for (ComponentPreset p : found) {
+			assertEquals("BT-50", p.getPartNo());
+		}
+		assertEquals(1, db.find("Apogee", "10102").size());
+		assertEquals(0, db.find("Estes", "10102").size());
+		assertEquals(0, db.find("Unknown", "BT-50").size());
+	}
+
+	@Test
+	public void testFavorites() throws Exception {
+		ComponentPresetDatabase db = new ComponentPresetDatabase();
+		db.addAll(presets());
+		assertEquals(0, db.listForType(ComponentPreset.Type.BODY_TUBE, true).size());
+
+		ComponentPreset bt20 = db.find("Estes", "BT-20").get(0);
+		ComponentPreset apogee = db.find("Apogee", "10101").get(0);
+		db.setFavorite(bt20, ComponentPreset.Type.BODY_TUBE, true);
+		db.setFavorite(apogee, ComponentPreset.Type.BODY_TUBE, true);
+		assertEquals(Arrays.asList(apogee, bt20), db.listForType(ComponentPreset.Type.BODY_TUBE, true));
+		assertEquals(0, db.listForType(ComponentPreset.Type.TUBE_COUPLER, true).size());
+
+		// Favorites of a type only include presets of that type
+		ComponentPreset coupler = db.find("Apogee", "10102").get(0);
+		db.setFavorite(coupler, ComponentPreset.Type.BODY_TUBE, true);
+		assertEquals(2, db.listForType(ComponentPreset.Type.BODY_TUBE, true).size());
+
+		db.setFavorite(bt20, ComponentPreset.Type.BODY_TUBE, false);
+		assertEquals(Arrays.asList(apogee), db.listForType(ComponentPreset.Type.BODY_TUBE, true));
+	}
+
+	public static class FavoritePreferences extends ServicesForTesting.PreferencesForTesting {
+		private final Map<ComponentPreset.Type, Set<String>> favorites =
+				new EnumMap<ComponentPreset.Type, Set<String>>(ComponentPreset.Type.class);
+
+		@Override
+		public void setComponentFavorite(ComponentPreset preset, ComponentPreset.Type type, boolean favorite) {
+			if (favorite) {
+				getComponentFavorites(type).add(preset.preferenceKey());
+			} else {
+				getComponentFavorites(type).remove(preset.preferenceKey());
+			}
+		}
+
+		@Override
+		public Set<String> getComponentFavorites(ComponentPreset.Type type) {
+			if (!favorites.containsKey(type)) {
+				favorites.put(type, new HashSet<String>());
+			}
+			return favorites.get(type);
+		}
+	}
+
+}
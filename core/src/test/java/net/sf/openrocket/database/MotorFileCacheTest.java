@@ -0,0 +1,175 @@
+package net.sf.openrocket.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.sf.openrocket.database.motor.MotorFileCache;
+import net.sf.openrocket.file.motor.GeneralMotorLoader;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+
+public class MotorFileCacheTest {
+
+	private File dir;
+	private File cacheFile;
+
+	@Before
+	public void createDirectory() throws IOException {
+		dir = Files.createTempDirectory("motorcache").toFile();
+		cacheFile = new File(dir, "cache.motors");
+	}
+
+	@After
+	public void deleteDirectory() {
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	private File copyResource(String name) throws IOException {
+		File file = new File(dir, new File(name).getName());
+		try (InputStream is = MotorFileCacheTest.class.getResourceAsStream(name);
+				OutputStream os = new FileOutputStream(file)) {
+			assertNotNull("Problem in unit test, cannot find " + name, is);
+			is.transferTo(os);
+		}
+		return file;
+	}
+
+	private static List<ThrustCurveMotor> parse(File file) throws IOException {
+		List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>();
+		try (InputStream is = new FileInputStream(file)) {
+			for (ThrustCurveMotor.Builder b : new GeneralMotorLoader().load(is, file.getName())) {
+				motors.add(b.build());
+			}
+		}
+		return motors;
+	}
+
+	private void put(MotorFileCache cache, File file) throws IOException {
+		cache.put(file, file.length(), file.lastModified(), parse(file));
+	}
+
+	@Test
+	public void testCachedFiles() throws IOException {
+		File file1 = copyResource("/motor/test1.eng");
+		File file2 = copyResource("/motor/test2.rse");
+
+		MotorFileCache cache = new MotorFileCache(cacheFile);
+		cache.load();
+		assertNull(cache.get(file1));
+		put(cache, file1);
+		put(cache, file2);
+		cache.save();
+		assertTrue(cacheFile.isFile());
+
+		cache = new MotorFileCache(cacheFile);
+		cache.load();
+		List<ThrustCurveMotor> expected = parse(file1);
+		List<ThrustCurveMotor> motors = cache.get(file1);
+		assertEquals(expected.size(), motors.size());
+		for (int i = 0; i < motors.size(); i++) {
+			assertEquals(expected.get(i).getDigest(), motors.get(i).getDigest());
+			assertEquals(expected.get(i).getDesignation(), motors.get(i).getDesignation());
+			assertArrayEquals(expected.get(i).getThrustPoints(), motors.get(i).getThrustPoints(), 0);
+		}
+		assertEquals(parse(file2).size(), cache.get(file2).size());
+	}
+
+	@Test
+	public void testChangedFile() throws IOException {
+		File file = copyResource("/motor/test1.eng");
+		MotorFileCache cache = new MotorFileCache(cacheFile);
+		put(cache, file);
+		cache.save();
+
+		// Modification time changed
+		assertTrue(file.setLastModified(file.lastModified() - 10000));
+		cache = new MotorFileCache(cacheFile);
+		cache.load();
+		assertNull(cache.get(file));
+
+		// Size changed
+		put(cache, file);
+		cache.save();
+		long lastModified = file.lastModified();
+		try (OutputStream os = new FileOutputStream(file, true)) {
+			os.write(";\n".getBytes());
+		}
+		assertTrue(file.setLastModified(lastModified));
+		cache = new MotorFileCache(cacheFile);
+		cache.load();
+		assertNull(cache.get(file));
+	}
+
+	@Test
+	public void testUnusedFilesDropped() throws IOException {
+		File file1 = copyResource("/motor/test1.eng");
+		File file2 = copyResource("/motor/test2.rse");
+		MotorFileCache cache = new MotorFileCache(cacheFile);
+		put(cache, file1);
+		put(cache, file2);
+		cache.save();
+
+		// Only the first file is looked up
+		cache = new MotorFileCache(cacheFile);
+		cache.load();
+		assertNotNull(cache.get(file1));
+		cache.save();
+
+		cache = new MotorFileCache(cacheFile);
+		cache.load();
+		assertNotNull(cache.get(file1));
+		assertNull(cache.get(file2));
+	}
+
+	@Test
+	public void testEmptyFile() throws IOException {
+		File file = new File(dir, "empty.eng");
+		file.createNewFile();
+		MotorFileCache cache = new MotorFileCache(cacheFile);
+		cache.put(file, file.length(), file.lastModified(), Collections.<ThrustCurveMotor> emptyList());
+		cache.save();
+
+		cache = new MotorFileCache(cacheFile);
+		cache.load();
+		assertEquals(0, cache.get(file).size());
+	}
+
+	@Test
+	public void testInvalidCache() throws IOException {
+		File file = copyResource("/motor/test1.eng");
+		try (OutputStream os = new FileOutputStream(cacheFile)) {
+			os.write("not a motor cache".getBytes());
+		}
+		MotorFileCache cache = new MotorFileCache(cacheFile);
+		cache.load();
+		assertNull(cache.get(file));
+
+		// The invalid cache is replaced
+		put(cache, file);
+		cache.save();
+		cache = new MotorFileCache(cacheFile);
+		cache.load();
+		assertNotNull(cache.get(file));
+	}
+
+}
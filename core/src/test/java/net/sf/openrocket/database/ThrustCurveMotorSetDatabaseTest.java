@@ -0,0 +1,189 @@
+package net.sf.openrocket.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.sf.openrocket.database.motor.ThrustCurveMotorSet;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.file.motor.MotorDatabaseFile;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.util.Coordinate;
+
+public class ThrustCurveMotorSetDatabaseTest {
+
+	private static List<ThrustCurveMotor> motors;
+
+	@BeforeClass
+	public static void readMotors() throws Exception {
+		InputStream is = ThrustCurveMotorSetDatabaseTest.class.getResourceAsStream("/datafiles/thrustcurves/thrustcurves.motors");
+		assertNotNull("Problem in unit test, cannot find thrustcurves.motors", is);
+		try {
+			motors = MotorDatabaseFile.readMotors(MotorDatabaseFile.read(is));
+		} finally {
+			is.close();
+		}
+	}
+
+	private static ThrustCurveMotor createMotor(String manufacturer, String designation, String digest,
+			Motor.Type type, double diameter) {
+		return new ThrustCurveMotor.Builder()
+				.setManufacturer(Manufacturer.getManufacturer(manufacturer))
+				.setDesignation(designation)
+				.setDescription("Desc")
+				.setMotorType(type)
+				.setStandardDelays(new double[] {})
+				.setDiameter(diameter)
+				.setLength(0.07)
+				.setTimePoints(new double[] { 0, 1, 2 })
+				.setThrustPoints(new double[] { 0, 1, 0 })
+				.setCGPoints(new Coordinate[] { Coordinate.NUL, Coordinate.NUL, Coordinate.NUL })
+				.setDigest(digest)
+				.build();
+	}
+
+	@Test
+	public void testSetsMatchLinearGrouping() {
+		ThrustCurveMotorSetDatabase db = new ThrustCurveMotorSetDatabase();
+		List<ThrustCurveMotorSet> linear = new ArrayList<ThrustCurveMotorSet>();
+		for (ThrustCurveMotor m : motors) {
+			db.addMotor(m);
+
+			ThrustCurveMotorSet match = null;
+			for (int i = linear.size() - 1; i >= 0 && match == null; i--) {
+				if (linear.get(i).matches(m)) {
+					match = linear.get(i);
+				}
+			}
+			if (match == null) {
+				match = new ThrustCurveMotorSet();
+				linear.add(match);
+			}
+			match.addMotor(m);
+		}
+
+		List<ThrustCurveMotorSet> sets = db.getMotorSets();
+		assertEquals(linear.size(), sets.size());
+		for (int i = 0; i < sets.size(); i++) {
+			assertEquals(linear.get(i).getMotors(), sets.get(i).getMotors());
+			assertEquals(linear.get(i).getType(), sets.get(i).getType());
+		}
+	}
+
+	@Test
+	public void testFindMatchesFullScan() {
+		ThrustCurveMotorSetDatabase db = new ThrustCurveMotorSetDatabase();
+		for (ThrustCurveMotor m : motors) {
+			db.addMotor(m);
+		}
+
+		for (int i = 0; i < motors.size(); i += 37) {
+			ThrustCurveMotor m = motors.get(i);
+			String manufacturer = m.getManufacturer().getSimpleName();
+
+			assertEquals(scan(db, null, null, manufacturer, m.getDesignation(), m.getDiameter(), m.getLength()),
+					db.findMotors(null, null, manufacturer, m.getDesignation(), m.getDiameter(), m.getLength()));
+			assertEquals(scan(db, null, m.getMotorType(), null, m.getCommonName(), Double.NaN, Double.NaN),
+					db.findMotors(null, m.getMotorType(), null, m.getCommonName(), Double.NaN, Double.NaN));
+			assertEquals(scan(db, null, null, manufacturer, null, Double.NaN, Double.NaN),
+					db.findMotors(null, null, manufacturer, null, Double.NaN, Double.NaN));
+			assertEquals(scan(db, null, null, null, null, m.getDiameter() + 0.004, Double.NaN),
+					db.findMotors(null, null, null, null, m.getDiameter() + 0.004, Double.NaN));
+			assertEquals(scan(db, null, null, null, null, Double.NaN, m.getLength() - 0.004),
+					db.findMotors(null, null, null, null, Double.NaN, m.getLength() - 0.004));
+
+			List<ThrustCurveMotor> found = db.findMotors(m.getDigest(), null, manufacturer, m.getDesignation(),
+					m.getDiameter(), m.getLength());
+			// Duplicate motors are dropped by the sets, so m itself may not be present
+			assertTrue(found.size() > 0);
+			for (ThrustCurveMotor f : found) {
+				assertEquals(m.getDigest(), f.getDigest());
+			}
+		}
+
+		assertEquals(0, db.findMotors(null, null, "No such manufacturer", null, Double.NaN, Double.NaN).size());
+		assertEquals(0, db.findMotors(null, null, null, "No such motor", Double.NaN, Double.NaN).size());
+	}
+
+	@Test
+	public void testDigestPrecedence() {
+		ThrustCurveMotorSetDatabase db = new ThrustCurveMotorSetDatabase();
+		ThrustCurveMotor a = createMotor("A", "F12X", "digestA", Motor.Type.SINGLE, 0.024);
+		ThrustCurveMotor b = createMotor("A", "F12X", "digestB", Motor.Type.SINGLE, 0.024);
+		ThrustCurveMotor c = createMotor("B", "G40W", "digestC", Motor.Type.RELOAD, 0.029);
+		db.addMotor(a);
+		db.addMotor(b);
+		db.addMotor(c);
+
+		// Digest and description
+		List<ThrustCurveMotor> found = db.findMotors(new String("digestB"), null, "A", "F12X", Double.NaN, Double.NaN);
+		assertEquals(1, found.size());
+		assertSame(b, found.get(0));
+
+		// Digest only
+		found = db.findMotors("digestC", null, "A", "F12X", Double.NaN, Double.NaN);
+		assertEquals(1, found.size());
+		assertSame(c, found.get(0));
+
+		// Description only
+		found = db.findMotors("unknown", null, "A", "f12x", Double.NaN, Double.NaN);
+		assertEquals(2, found.size());
+
+		found = db.findMotors(null, Motor.Type.RELOAD, null, null, Double.NaN, Double.NaN);
+		assertEquals(1, found.size());
+		assertSame(c, found.get(0));
+
+		found = db.findMotors(null, null, null, null, 0.032, 0.07);
+		assertEquals(1, found.size());
+		assertSame(c, found.get(0));
+	}
+
+	@Test
+	public void testTypeChange() {
+		ThrustCurveMotorSetDatabase db = new ThrustCurveMotorSetDatabase();
+		db.addMotor(createMotor("A", "F12X", "digestA", Motor.Type.UNKNOWN, 0.024));
+		assertEquals(1, db.findMotors(null, Motor.Type.UNKNOWN, null, "F12X", Double.NaN, Double.NaN).size());
+
+		db.addMotor(createMotor("A", "F12X", "digestB", Motor.Type.SINGLE, 0.024));
+		assertEquals(1, db.getMotorSets().size());
+		assertEquals(0, db.findMotors(null, Motor.Type.UNKNOWN, null, "F12X", Double.NaN, Double.NaN).size());
+		assertEquals(2, db.findMotors(null, Motor.Type.SINGLE, null, "F12X", Double.NaN, Double.NaN).size());
+	}
+
+	/**
+	 * Find the motors matching the description by scanning the whole database.
+	 */
+	private static List<ThrustCurveMotor> scan(ThrustCurveMotorSetDatabase db, String digest, Motor.Type type,
+			String manufacturer, String designation, double diameter, double length) {
+		List<ThrustCurveMotor> result = new ArrayList<ThrustCurveMotor>();
+		for (ThrustCurveMotorSet set : db.getMotorSets()) {
+			for (ThrustCurveMotor m : set.getMotors()) {
+				if (type != null && type != set.getType())
+					continue;
+				if (manufacturer != null && !m.getManufacturer().matches(manufacturer))
+					continue;
+				if (designation != null &&
+						!designation.equalsIgnoreCase(m.getDesignation()) &&
+						!designation.equalsIgnoreCase(m.getCommonName()))
+					continue;
+				if (!Double.isNaN(diameter) && (Math.abs(diameter - m.getDiameter()) > 0.005))
+					continue;
+				if (!Double.isNaN(length) && (Math.abs(length - m.getLength()) > 0.005))
+					continue;
+				result.add(m);
+			}
+		}
+		return result;
+	}
+
+}
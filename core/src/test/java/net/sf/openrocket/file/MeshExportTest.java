@@ -0,0 +1,110 @@
+package net.sf.openrocket.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import net.sf.openrocket.mesh.ComponentMesh;
+import net.sf.openrocket.mesh.ComponentTessellator;
+import net.sf.openrocket.mesh.MeshCache;
+import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.rocketcomponent.InstanceContext;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+public class MeshExportTest extends BaseTestCase {
+
+	private static int countTriangles(FlightConfiguration configuration, MeshCache cache) {
+		int count = 0;
+		for (RocketComponent c : configuration.getRocket()) {
+			if (!cache.getTessellator().isSupported(c) || !configuration.getActiveInstances().containsKey(c)) {
+				continue;
+			}
+			for (InstanceContext context : configuration.getActiveInstances().get(c)) {
+				if (context.active) {
+					count += cache.getMesh(c).getTriangleCount();
+				}
+			}
+		}
+		return count;
+	}
+
+	private static int countLines(String text, String prefix) {
+		int count = 0;
+		for (String line : text.split("\n")) {
+			if (line.startsWith(prefix)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void testExportSTL() throws IOException {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration configuration = rocket.getSelectedConfiguration();
+		MeshCache cache = new MeshCache(new ComponentTessellator(16));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MeshExport.exportSTL(out, configuration, cache);
+		byte[] bytes = out.toByteArray();
+
+		int triangles = countTriangles(configuration, cache);
+		assertTrue(triangles > 0);
+		assertEquals(84 + 50 * triangles, bytes.length);
+		assertEquals(triangles, ByteBuffer.wrap(bytes, 80, 4).order(ByteOrder.LITTLE_ENDIAN).getInt());
+
+		// The rocket extends along the x axis in millimeters from the nose cone tip,
+		// the motor mount may extend beyond the aerodynamic length
+		float minX = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE;
+		ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < triangles; i++) {
+			for (int v = 0; v < 3; v++) {
+				float x = buffer.getFloat(84 + 50 * i + 12 + 12 * v);
+				minX = Math.min(minX, x);
+				maxX = Math.max(maxX, x);
+			}
+		}
+		assertEquals(0, minX, 1e-3);
+		assertTrue(maxX > configuration.getLength() * 1000 - 1);
+		assertTrue(maxX < configuration.getLength() * 1000 + 10);
+	}
+
+	@Test
+	public void testExportOBJ() throws IOException {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration configuration = rocket.getSelectedConfiguration();
+		MeshCache cache = new MeshCache(new ComponentTessellator(16));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MeshExport.exportOBJ(out, configuration, cache);
+		String text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+
+		assertEquals(countTriangles(configuration, cache), countLines(text, "f "));
+		assertEquals(countLines(text, "v "), countLines(text, "vn "));
+		assertEquals(countLines(text, "v "), countLines(text, "vt "));
+		assertTrue(text.contains("o Nose_Cone_1\n"));
+
+		// Every face refers to an existing vertex
+		int vertices = countLines(text, "v ");
+		for (String line : text.split("\n")) {
+			if (line.startsWith("f ")) {
+				for (String vertex : line.substring(2).split(" ")) {
+					int index = Integer.parseInt(vertex.substring(0, vertex.indexOf('/')));
+					assertTrue(index >= 1 && index <= vertices);
+				}
+			}
+		}
+		assertTrue(cache.getMesh(rocket.getChild(0).getChild(0)).getMesh(ComponentMesh.Surface.OUTSIDE).getTriangleCount() > 0);
+	}
+}
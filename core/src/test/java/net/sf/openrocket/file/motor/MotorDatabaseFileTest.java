@@ -0,0 +1,168 @@
+package net.sf.openrocket.file.motor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sf.openrocket.motor.ThrustCurveMotor;
+
+public class MotorDatabaseFileTest {
+
+	private static List<ThrustCurveMotor> loadMotors() throws IOException {
+		List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>();
+		GeneralMotorLoader loader = new GeneralMotorLoader();
+		for (String name : new String[] { "/motor/test1.eng", "/motor/test2.rse", "/motor/test3.rse" }) {
+			InputStream is = MotorDatabaseFileTest.class.getResourceAsStream(name);
+			assertNotNull("Problem in unit test, cannot find " + name, is);
+			for (ThrustCurveMotor.Builder b : loader.load(is, name)) {
+				motors.add(b.build());
+			}
+			is.close();
+		}
+		return motors;
+	}
+
+	private static byte[] write(List<ThrustCurveMotor> motors) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MotorDatabaseFile.write(motors, out);
+		return out.toByteArray();
+	}
+
+	private static void assertMotorEquals(ThrustCurveMotor expected, ThrustCurveMotor actual) {
+		assertSame(expected.getManufacturer(), actual.getManufacturer());
+		assertEquals(expected.getMotorType(), actual.getMotorType());
+		assertEquals(expected.getCode(), actual.getCode());
+		assertEquals(expected.getCommonName(), actual.getCommonName());
+		assertEquals(expected.getDesignation(), actual.getDesignation());
+		assertEquals(expected.getDescription(), actual.getDescription());
+		assertEquals(expected.getDigest(), actual.getDigest());
+		assertEquals(expected.getCaseInfo(), actual.getCaseInfo());
+		assertEquals(expected.getPropellantInfo(), actual.getPropellantInfo());
+		assertEquals(expected.isAvailable(), actual.isAvailable());
+		assertEquals(expected.getDiameter(), actual.getDiameter(), 0);
+		assertEquals(expected.getLength(), actual.getLength(), 0);
+		assertEquals(expected.getInitialMass(), actual.getInitialMass(), 0);
+		assertEquals(expected.getMaxThrustEstimate(), actual.getMaxThrustEstimate(), 0);
+		assertEquals(expected.getBurnTimeEstimate(), actual.getBurnTimeEstimate(), 0);
+		assertEquals(expected.getAverageThrustEstimate(), actual.getAverageThrustEstimate(), 0);
+		assertEquals(expected.getTotalImpulseEstimate(), actual.getTotalImpulseEstimate(), 0);
+		assertEquals(expected.getUnitIxx(), actual.getUnitIxx(), 0);
+		assertArrayEquals(expected.getStandardDelays(), actual.getStandardDelays(), 0);
+		assertArrayEquals(expected.getTimePoints(), actual.getTimePoints(), 0);
+		assertArrayEquals(expected.getThrustPoints(), actual.getThrustPoints(), 0);
+		assertArrayEquals(expected.getCGPoints(), actual.getCGPoints());
+		assertEquals(expected.getThrust(0.5), actual.getThrust(0.5), 0);
+	}
+
+	@Test
+	public void testReadWrite() throws IOException {
+		List<ThrustCurveMotor> motors = loadMotors();
+		byte[] bytes = write(motors);
+
+		List<ThrustCurveMotor> read = MotorDatabaseFile.readMotors(MotorDatabaseFile.read(new ByteArrayInputStream(bytes)));
+		assertEquals(motors.size(), read.size());
+		for (int i = 0; i < motors.size(); i++) {
+			assertMotorEquals(motors.get(i), read.get(i));
+		}
+	}
+
+	@Test
+	public void testMap() throws IOException {
+		List<ThrustCurveMotor> motors = loadMotors();
+		File file = File.createTempFile("motors", "." + MotorDatabaseFile.EXTENSION);
+		try {
+			try (OutputStream out = new FileOutputStream(file)) {
+				MotorDatabaseFile.write(motors, out);
+			}
+			List<ThrustCurveMotor> read = MotorDatabaseFile.readMotors(MotorDatabaseFile.map(file));
+			assertEquals(motors.size(), read.size());
+			for (int i = 0; i < motors.size(); i++) {
+				assertMotorEquals(motors.get(i), read.get(i));
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testSerializeLazyMotor() throws Exception {
+		List<ThrustCurveMotor> motors = loadMotors();
+		List<ThrustCurveMotor> read = MotorDatabaseFile.readMotors(ByteBuffer.wrap(write(motors)));
+
+		// The curve of a motor not yet decoded must be serialized as well
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+			oos.writeObject(read.get(0));
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+			assertMotorEquals(motors.get(0), (ThrustCurveMotor) ois.readObject());
+		}
+	}
+
+	@Test
+	public void testInvalidFile() throws IOException {
+		byte[] bytes = write(loadMotors());
+
+		// Unsupported version
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.clone());
+		buffer.putInt(4, MotorDatabaseFile.VERSION + 1);
+		try {
+			MotorDatabaseFile.readMotors(buffer);
+			fail("Unsupported version accepted");
+		} catch (IOException expected) {
+		}
+
+		// Wrong magic
+		buffer = ByteBuffer.wrap(bytes.clone());
+		buffer.putInt(0, 0);
+		try {
+			MotorDatabaseFile.readMotors(buffer);
+			fail("Invalid file accepted");
+		} catch (IOException expected) {
+		}
+
+		// Truncated
+		byte[] truncated = new byte[bytes.length - 8];
+		System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+		try {
+			MotorDatabaseFile.readMotors(ByteBuffer.wrap(truncated));
+			fail("Truncated file accepted");
+		} catch (IOException expected) {
+		}
+	}
+
+	@Test
+	public void testBuiltInDatabase() throws IOException {
+		InputStream is = MotorDatabaseFileTest.class.getResourceAsStream("/datafiles/thrustcurves/thrustcurves." + MotorDatabaseFile.EXTENSION);
+		assertNotNull("Problem in unit test, cannot find the built-in motor database", is);
+		List<ThrustCurveMotor> motors;
+		try {
+			motors = MotorDatabaseFile.readMotors(MotorDatabaseFile.read(is));
+		} finally {
+			is.close();
+		}
+		assertEquals(1878, motors.size());
+		for (ThrustCurveMotor m : motors) {
+			assertEquals(m.getTimePoints().length, m.getSampleSize());
+			assertEquals(m.getCGPoints().length, m.getSampleSize());
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+package net.sf.openrocket.file.openrocket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class FlightDataBlockTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final int n = 500;
+		double[] time = new double[n];
+		double[] altitude = new double[n];
+		double[] special = new double[n];
+		for (int i = 0; i < n; i++) {
+			time[i] = i * 0.01;
+			altitude[i] = 100 * Math.sin(i * 0.01) + 1.0e-3;
+			special[i] = (i % 3 == 0) ? Double.NaN : (i % 3 == 1) ? Double.POSITIVE_INFINITY : -i;
+		}
+		int[] rows = new int[n];
+		for (int i = 0; i < n; i++) {
+			rows[i] = i;
+		}
+
+		byte[] block = FlightDataBlock.encode(new double[][] { time, altitude, special }, rows);
+		assertEquals(n, FlightDataBlock.getRowCount(block));
+		assertTrue(block.length < n * 3 * 8);
+
+		double[][] values = FlightDataBlock.decode(block, 3);
+		assertEquals(3, values.length);
+		for (int i = 0; i < n; i++) {
+			assertEquals(time[i], values[0][i], Math.abs(time[i]) * 2.0e-5);
+			assertEquals(altitude[i], values[1][i], Math.abs(altitude[i]) * 2.0e-5);
+			assertEquals(special[i], values[2][i], 0);
+		}
+		assertArrayEquals(values[1], FlightDataBlock.decodeColumn(block, 1), 0);
+	}
+
+	@Test
+	public void testSelectedRows() throws IOException {
+		double[] column = { 1, 2, 3, 4, 5, 6 };
+		byte[] block = FlightDataBlock.encode(new double[][] { column }, new int[] { 0, 2, 5 });
+		assertEquals(3, FlightDataBlock.getRowCount(block));
+		assertArrayEquals(new double[] { 1, 3, 6 }, FlightDataBlock.decodeColumn(block, 0), 0);
+	}
+
+	@Test
+	public void testEmptyBlock() throws IOException {
+		byte[] block = FlightDataBlock.encode(new double[][] { new double[0], new double[0] }, new int[0]);
+		assertEquals(0, FlightDataBlock.getRowCount(block));
+		assertEquals(0, FlightDataBlock.decode(block, 2)[1].length);
+	}
+
+	@Test(expected = IOException.class)
+	public void testWrongColumnCount() throws IOException {
+		byte[] block = FlightDataBlock.encode(new double[][] { { 1, 2 } }, new int[] { 0, 1 });
+		FlightDataBlock.decode(block, 2);
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedBlock() throws IOException {
+		byte[] block = FlightDataBlock.encode(new double[][] { { 1, 2, 3 } }, new int[] { 0, 1, 2 });
+		FlightDataBlock.decode(Arrays.copyOf(block, block.length - 2), 1);
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidBlock() throws IOException {
+		FlightDataBlock.getRowCount(new byte[] { 1, 2, 3 });
+	}
+
+	@Test(expected = IOException.class)
+	public void testOverflowingRowCount() throws IOException {
+		byte[] block = FlightDataBlock.encode(new double[][] { { 1, 2, 3 } }, new int[] { 0, 1, 2 });
+		setRowCount(block, Integer.MAX_VALUE);
+		FlightDataBlock.decode(block, 1);
+	}
+
+	@Test(expected = IOException.class)
+	public void testRowCountLargerThanColumns() throws IOException {
+		byte[] block = FlightDataBlock.encode(new double[][] { { 1, 2, 3 } }, new int[] { 0, 1, 2 });
+		setRowCount(block, 100000000);
+		FlightDataBlock.getRowCount(block);
+	}
+
+	private static void setRowCount(byte[] block, int rows) {
+		// The row count follows the magic number, version and column count
+		ByteBuffer.wrap(block).putInt(9, rows);
+	}
+
+}
@@ -1,7 +1,10 @@
 package net.sf.openrocket.file.openrocket;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
@@ -12,15 +15,24 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import net.sf.openrocket.ServicesForTesting;
+import net.sf.openrocket.aerodynamics.TabulatedAerodynamicCalculator;
 import net.sf.openrocket.database.ComponentPresetDao;
 import net.sf.openrocket.database.ComponentPresetDatabase;
 import net.sf.openrocket.database.motor.MotorDatabase;
 import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
 import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.document.StorageOptions;
+import net.sf.openrocket.document.attachments.ZipFileAttachment;
 import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.GeneralRocketSaver;
 import net.sf.openrocket.file.RocketLoadException;
 import net.sf.openrocket.file.motor.GeneralMotorLoader;
 import net.sf.openrocket.l10n.DebugTranslator;
@@ -29,10 +41,19 @@ import net.sf.openrocket.motor.Manufacturer;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.simulation.SimulationStepperType;
 import net.sf.openrocket.simulation.extension.impl.ScriptingExtension;
+import net.sf.openrocket.simulation.extension.SimulationExtension;
 import net.sf.openrocket.simulation.extension.impl.ScriptingUtil;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.DecalNotFoundException;
+import net.sf.openrocket.util.FileUtils;
 import net.sf.openrocket.util.TestRockets;
 
 import org.junit.After;
@@ -168,6 +189,181 @@ public class OpenRocketSaverTest {
 	}
 	
 	
+	@Test
+	public void testSimulatorSaveLoad() {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v107_withSimulationExtension("TESTING");
+		SimulationOptions opts = rocketDoc.getSimulations().get(0).getOptions();
+		opts.setStepperType(SimulationStepperType.DORMAND_PRINCE);
+		opts.setErrorTolerance(2.5e-6);
+		File file = saveRocket(rocketDoc, new StorageOptions());
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		SimulationOptions loaded = rocketDocLoaded.getSimulations().get(0).getOptions();
+		assertEquals(SimulationStepperType.DORMAND_PRINCE, loaded.getStepperType());
+		assertEquals(2.5e-6, loaded.getErrorTolerance(), 1e-12);
+	}
+	
+	@Test
+	public void testTabulatedAerodynamicsSaveLoad() {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v107_withSimulationExtension("TESTING");
+		SimulationOptions options = rocketDoc.getSimulations().get(0).getOptions();
+		options.setTabulatedAerodynamics(true);
+		File file = saveRocket(rocketDoc, new StorageOptions());
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		SimulationOptions loaded = rocketDocLoaded.getSimulations().get(0).getOptions();
+		assertTrue(loaded.isTabulatedAerodynamics());
+		assertEquals(TabulatedAerodynamicCalculator.Grid.DEFAULT, loaded.getAerodynamicTableGrid());
+		assertEquals(0, loaded.getAerodynamicErrorSampleInterval());
+		
+		// A custom grid and error sampling are stored as calculator attributes
+		options.setAerodynamicTableGrid(new TabulatedAerodynamicCalculator.Grid(
+				0.1, 2.5, Math.PI / 90, 12, 0.1, 1.5, 0.1, 5, 8));
+		options.setAerodynamicErrorSampleInterval(50);
+		file = saveRocket(rocketDoc, new StorageOptions());
+		rocketDocLoaded = loadRocket(file.getPath());
+		loaded = rocketDocLoaded.getSimulations().get(0).getOptions();
+		assertTrue(loaded.isTabulatedAerodynamics());
+		assertEquals(options.getAerodynamicTableGrid(), loaded.getAerodynamicTableGrid());
+		assertEquals(50, loaded.getAerodynamicErrorSampleInterval());
+	}
+	
+	@Test
+	public void testFlightDataLoadedOnDemand() {
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(TestRockets.makeEstesAlphaIII());
+		FlightDataBranch branch = new FlightDataBranch("Sustainer", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		for (int i = 0; i <= 20; i++) {
+			double t = i * 0.1;
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, t);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, 100 - 100 * (t - 1) * (t - 1));
+		}
+		branch.addEvent(new FlightEvent(FlightEvent.Type.APOGEE, 1.0));
+		FlightData data = new FlightData(branch);
+		rocketDoc.addSimulation(new Simulation(rocketDoc.getRocket(), Simulation.Status.UPTODATE, "Simulation",
+				new SimulationOptions(), Collections.<SimulationExtension> emptyList(), data));
+		
+		StorageOptions options = new StorageOptions();
+		options.setSimulationTimeSkip(0);
+		File file = saveRocket(rocketDoc, options);
+		
+		// The data points are parsed only when the branches are accessed
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		FlightData loaded = rocketDocLoaded.getSimulations().get(0).getSimulatedData();
+		assertTrue(loaded.isBranchCreationPending());
+		assertEquals(100, loaded.getMaxAltitude(), 1e-9);
+		assertEquals(2.0, loaded.getFlightTime(), 1e-9);
+		assertEquals(0.1, rocketDocLoaded.getDefaultStorageOptions().getSimulationTimeSkip(), 1e-9);
+		assertTrue(loaded.isBranchCreationPending());
+		
+		assertEquals(1, loaded.getBranchCount());
+		assertFalse(loaded.isBranchCreationPending());
+		FlightDataBranch loadedBranch = loaded.getBranch(0);
+		assertFalse(loadedBranch.isMutable());
+		assertArrayEquals(branch.getValues(FlightDataType.TYPE_ALTITUDE), loadedBranch.getValues(FlightDataType.TYPE_ALTITUDE), 1e-9);
+		assertEquals(1.0, loadedBranch.getFirstEvent(FlightEvent.Type.APOGEE).getTime(), 1e-9);
+		
+		// Loading the data points immediately gives the same data
+		GeneralRocketLoader loader = new GeneralRocketLoader(file);
+		loader.setLoadFlightDataOnDemand(false);
+		try {
+			rocketDocLoaded = loader.load();
+		} catch (RocketLoadException e) {
+			fail("RocketLoadException while loading file " + file + " : " + e.getMessage());
+		}
+		loaded = rocketDocLoaded.getSimulations().get(0).getSimulatedData();
+		assertFalse(loaded.isBranchCreationPending());
+		assertEquals(0.1, rocketDocLoaded.getDefaultStorageOptions().getSimulationTimeSkip(), 1e-9);
+		assertArrayEquals(branch.getValues(FlightDataType.TYPE_ALTITUDE), loaded.getBranch(0).getValues(FlightDataType.TYPE_ALTITUDE), 1e-9);
+	}
+	
+	
+	@Test
+	public void testBinaryFlightDataSaveLoad() throws Exception {
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(TestRockets.makeEstesAlphaIII());
+		FlightDataBranch branch = new FlightDataBranch("Sustainer", FlightDataType.TYPE_TIME,
+				FlightDataType.TYPE_ALTITUDE, FlightDataType.TYPE_VELOCITY_Z);
+		for (int i = 0; i <= 200; i++) {
+			double t = i * 0.01;
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, t);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, 100 - 100 * (t - 1) * (t - 1));
+			branch.setValue(FlightDataType.TYPE_VELOCITY_Z, -200 * (t - 1));
+		}
+		branch.addEvent(new FlightEvent(FlightEvent.Type.APOGEE, 1.0));
+		FlightData data = new FlightData(branch);
+		rocketDoc.addSimulation(new Simulation(rocketDoc.getRocket(), Simulation.Status.UPTODATE, "Simulation",
+				new SimulationOptions(), Collections.<SimulationExtension> emptyList(), data));
+		
+		StorageOptions options = new StorageOptions();
+		options.setSimulationTimeSkip(0);
+		options.setBinaryFlightData(true);
+		File file = File.createTempFile(TMP_DIR.getName(), ".ork");
+		file.deleteOnExit();
+		new GeneralRocketSaver().save(file, rocketDoc, options);
+		
+		// The document is the first entry and refers to the data stored uncompressed after it
+		String entryName = OpenRocketSaver.FLIGHT_DATA_DIRECTORY + "branch1.bin";
+		byte[] block;
+		ZipFile zipFile = new ZipFile(file);
+		try {
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			assertEquals("rocket.ork", entries.nextElement().getName());
+			String xml = new String(FileUtils.readBytes(zipFile.getInputStream(zipFile.getEntry("rocket.ork"))), "UTF-8");
+			assertTrue(xml.contains("data=\"" + entryName + "\""));
+			assertFalse(xml.contains("<datapoint>"));
+			
+			ZipEntry entry = zipFile.getEntry(entryName);
+			assertNotNull(entry);
+			assertEquals(ZipEntry.STORED, entry.getMethod());
+			assertEquals(entry.getSize(), entry.getCompressedSize());
+			block = FileUtils.readBytes(zipFile.getInputStream(entry));
+		} finally {
+			zipFile.close();
+		}
+		assertEquals(201, FlightDataBlock.getRowCount(block));
+		
+		// The attachment reads the same entry from the local file
+		ZipFileAttachment attachment = new ZipFileAttachment(entryName, file.toURI().toURL());
+		assertArrayEquals(block, FileUtils.readBytes(attachment.getBytes()));
+		try {
+			new ZipFileAttachment("flightdata/missing.bin", file.toURI().toURL()).getBytes();
+			fail("Missing entry was read");
+		} catch (DecalNotFoundException e) {
+			// Expected
+		}
+		
+		// Loading the data on demand decodes the data points when the branch is accessed
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		assertTrue(rocketDocLoaded.getDefaultStorageOptions().isBinaryFlightData());
+		FlightData loaded = rocketDocLoaded.getSimulations().get(0).getSimulatedData();
+		assertTrue(loaded.isBranchCreationPending());
+		assertEquals(0.01, rocketDocLoaded.getDefaultStorageOptions().getSimulationTimeSkip(), 1e-9);
+		assertEquals(1, loaded.getBranchCount());
+		assertBranchValues(branch, loaded.getBranch(0));
+		assertEquals(1.0, loaded.getBranch(0).getFirstEvent(FlightEvent.Type.APOGEE).getTime(), 1e-9);
+		
+		// Loading the data points immediately gives the same data
+		GeneralRocketLoader loader = new GeneralRocketLoader(file);
+		loader.setLoadFlightDataOnDemand(false);
+		rocketDocLoaded = loader.load();
+		loaded = rocketDocLoaded.getSimulations().get(0).getSimulatedData();
+		assertFalse(loaded.isBranchCreationPending());
+		assertTrue(rocketDocLoaded.getDefaultStorageOptions().isBinaryFlightData());
+		assertBranchValues(branch, loaded.getBranch(0));
+	}
+	
+	private static void assertBranchValues(FlightDataBranch expected, FlightDataBranch actual) {
+		assertEquals(expected.getLength(), actual.getLength());
+		for (FlightDataType type : expected.getTypes()) {
+			// The values are stored with 16 bits of mantissa
+			double[] e = expected.getValues(type);
+			double[] a = actual.getValues(type);
+			for (int i = 0; i < e.length; i++) {
+				assertEquals(e[i], a[i], Math.abs(e[i]) * 2.0e-5);
+			}
+		}
+	}
+	
+	
 	/*
 	 * Test how accurate estimatedFileSize is.
 	 * 
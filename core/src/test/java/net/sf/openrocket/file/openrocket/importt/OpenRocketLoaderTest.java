@@ -0,0 +1,106 @@
+package net.sf.openrocket.file.openrocket.importt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+import net.sf.openrocket.ServicesForTesting;
+import net.sf.openrocket.database.ComponentPresetDao;
+import net.sf.openrocket.database.ComponentPresetDatabase;
+import net.sf.openrocket.database.motor.MotorDatabase;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.StorageOptions;
+import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.RocketLoadException;
+import net.sf.openrocket.file.openrocket.OpenRocketSaver;
+import net.sf.openrocket.l10n.DebugTranslator;
+import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.masscalc.MassCalculator;
+import net.sf.openrocket.masscalc.RigidBody;
+import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.util.TestRockets;
+
+/**
+ * Tests of loading OpenRocket files, saving the documents with {@link OpenRocketSaver}
+ * and loading them back.
+ */
+public class OpenRocketLoaderTest {
+
+	private static Injector injector;
+
+	@BeforeClass
+	public static void setup() {
+		Module applicationModule = new ServicesForTesting();
+		Module pluginModule = new PluginModule();
+
+		Module dbOverrides = new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(ComponentPresetDao.class).toInstance(new ComponentPresetDatabase());
+				bind(MotorDatabase.class).toInstance(new ThrustCurveMotorSetDatabase());
+				bind(Translator.class).toInstance(new DebugTranslator(null));
+			}
+		};
+
+		injector = Guice.createInjector(Modules.override(applicationModule).with(dbOverrides), pluginModule);
+		Application.setInjector(injector);
+	}
+
+	@Test
+	public void testRocketUpdatedAfterLoad() throws Exception {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v108_withBoosters();
+		Rocket rocket = rocketDoc.getRocket();
+		OpenRocketDocument rocketDocLoaded = load(save(rocketDoc, new StorageOptions()));
+		Rocket loaded = rocketDocLoaded.getRocket();
+
+		// The rocket is loaded with events disabled and updated once afterwards
+		assertTrue(loaded.isEventsEnabled());
+		assertEquals(rocket.getStageCount(), loaded.getStageCount());
+		RigidBody structure = MassCalculator.calculateStructure(rocket.getSelectedConfiguration());
+		RigidBody loadedStructure = MassCalculator.calculateStructure(loaded.getSelectedConfiguration());
+		assertEquals(structure.getMass(), loadedStructure.getMass(), 1e-9);
+		assertEquals(structure.getCM().x, loadedStructure.getCM().x, 1e-9);
+
+		int modID = loaded.getModID();
+		loaded.getChild(0).setName("Renamed");
+		assertTrue(modID != loaded.getModID());
+	}
+
+
+	/*
+	 * Utility Functions
+	 */
+
+	private static File save(OpenRocketDocument rocketDoc, StorageOptions options) throws IOException {
+		File file = File.createTempFile("OpenRocketLoaderTest", ".ork");
+		file.deleteOnExit();
+		OutputStream out = new FileOutputStream(file);
+		try {
+			new OpenRocketSaver().save(out, rocketDoc, options);
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private static OpenRocketDocument load(File file) throws RocketLoadException {
+		return new GeneralRocketLoader(file).load();
+	}
+
+}
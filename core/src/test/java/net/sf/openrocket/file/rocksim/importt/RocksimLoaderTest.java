@@ -17,6 +17,8 @@ import net.sf.openrocket.file.DocumentLoadingContext;
 import net.sf.openrocket.file.RocketLoadException;
 import net.sf.openrocket.rocketcomponent.AxialStage;
 import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.ComponentChangeEvent;
+import net.sf.openrocket.rocketcomponent.ComponentChangeListener;
 import net.sf.openrocket.rocketcomponent.LaunchLug;
 import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.util.BaseTestCase;
@@ -214,6 +216,38 @@ public class RocksimLoaderTest extends BaseTestCase {
         }
     }
 
+    /**
+     * The rocket must not fire a change event for every component read from the file, but only be updated
+     * once the whole design has been loaded.
+     */
+    @org.junit.Test
+    public void testEventsSuppressedWhileLoading() throws Exception {
+        InputStream stream = RocksimLoaderTest.class.getResourceAsStream("/rocksim/rocksimTestRocket3.rkt");
+        Assert.assertNotNull("Could not open rocksimTestRocket3.rkt", stream);
+        try {
+            OpenRocketDocument doc = OpenRocketDocumentFactory.createEmptyRocket();
+            Rocket rocket = doc.getRocket();
+            final int[] events = new int[1];
+            rocket.addComponentChangeListener(new ComponentChangeListener() {
+                @Override
+                public void componentChanged(ComponentChangeEvent e) {
+                    events[0]++;
+                }
+            });
+            DocumentLoadingContext context = new DocumentLoadingContext();
+            context.setOpenRocketDocument(doc);
+            context.setMotorFinder(new DatabaseMotorFinder());
+            new RocksimLoader().loadFromStream(context, new BufferedInputStream(stream));
+
+            Assert.assertTrue(rocket.isEventsEnabled());
+            Assert.assertEquals(3, rocket.getStageCount());
+            Assert.assertEquals(1, events[0]);
+        }
+        finally {
+            stream.close();
+        }
+    }
+
     public static OpenRocketDocument loadRocksimRocket3(RocksimLoader theLoader) throws IOException, RocketLoadException {
 // thzero - begin
         InputStream stream = RocksimLoaderTest.class.getResourceAsStream("/rocksim/rocksimTestRocket3.rkt");
@@ -1,6 +1,8 @@
 package net.sf.openrocket.masscalc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.util.List;
 
@@ -1145,4 +1147,48 @@ public class MassCalculatorTest extends BaseTestCase {
  
 	}
 	
+	@Test
+	public void testCachedCalculationsMatch() {
+		Rocket rocket = TestRockets.makeFalcon9Heavy();
+		FlightConfiguration config = rocket.getFlightConfiguration(new FlightConfigurationId(TestRockets.FALCON_9H_FCID_1));
+		config.setAllStages();
+		SimulationStatus status = new SimulationStatus(config, new SimulationConditions());
+		for (MotorClusterState motorState : status.getMotors()) {
+			motorState.ignite(0.5);
+		}
+		
+		MassCalculator calculator = new MassCalculator();
+		for (double time : new double[] { 0.0, 0.7, 1.3, 5.0 }) {
+			status.setSimulationTime(time);
+			assertRigidBodyEquals(MassCalculator.calculateMotor(status), calculator.getMotorMass(status));
+		}
+		
+		RigidBody structure = calculator.getStructureMass(config);
+		assertRigidBodyEquals(MassCalculator.calculateStructure(config), structure);
+		assertSame(structure, calculator.getStructureMass(config));
+		
+		// Changing the active stages uses a separate cache entry
+		config.setOnlyStage(TestRockets.FALCON_9H_BOOSTER_STAGE_NUMBER);
+		assertRigidBodyEquals(MassCalculator.calculateStructure(config), calculator.getStructureMass(config));
+		assertRigidBodyEquals(MassCalculator.calculateMotor(status), calculator.getMotorMass(status));
+		config.setAllStages();
+		assertSame(structure, calculator.getStructureMass(config));
+		
+		// A mass change invalidates the cache
+		final AxialStage payloadStage = (AxialStage) rocket.getChild(0);
+		payloadStage.getChild(0).setMassOverridden(true);
+		payloadStage.getChild(0).setOverrideMass(1.0);
+		RigidBody modified = calculator.getStructureMass(config);
+		assertNotSame(structure, modified);
+		assertRigidBodyEquals(MassCalculator.calculateStructure(config), modified);
+	}
+	
+	private static void assertRigidBodyEquals(RigidBody expected, RigidBody actual) {
+		assertEquals(expected.getCM(), actual.getCM());
+		assertEquals(expected.getMass(), actual.getMass(), 0);
+		assertEquals(expected.getIxx(), actual.getIxx(), 0);
+		assertEquals(expected.getIyy(), actual.getIyy(), 0);
+		assertEquals(expected.getIzz(), actual.getIzz(), 0);
+	}
+	
 }
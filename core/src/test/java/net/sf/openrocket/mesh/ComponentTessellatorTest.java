@@ -0,0 +1,204 @@
+package net.sf.openrocket.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.sf.openrocket.mesh.ComponentMesh.Surface;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.NoseCone;
+import net.sf.openrocket.rocketcomponent.Parachute;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.Transition;
+import net.sf.openrocket.rocketcomponent.TrapezoidFinSet;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+
+public class ComponentTessellatorTest extends BaseTestCase {
+	private static final int LOD = 40;
+
+	private final ComponentTessellator tessellator = new ComponentTessellator(LOD);
+
+	/**
+	 * Return the volume enclosed by the meshes, which must together form a closed
+	 * surface with the triangles facing outwards.
+	 */
+	private static double volume(Mesh... meshes) {
+		double volume = 0;
+		for (Mesh m : meshes) {
+			float[] v = m.getVertices();
+			int[] idx = m.getIndices();
+			for (int i = 0; i < idx.length; i += 3) {
+				int a = idx[i] * 3, b = idx[i + 1] * 3, c = idx[i + 2] * 3;
+				volume += (v[a] * (v[b + 1] * v[c + 2] - v[b + 2] * v[c + 1]) +
+						v[a + 1] * (v[b + 2] * v[c] - v[b] * v[c + 2]) +
+						v[a + 2] * (v[b] * v[c + 1] - v[b + 1] * v[c])) / 6;
+			}
+		}
+		return volume;
+	}
+
+	/**
+	 * Check that each triangle is non-degenerate and wound consistently with its
+	 * vertex normals.
+	 */
+	private static void assertOriented(Mesh m) {
+		float[] v = m.getVertices();
+		float[] n = m.getNormals();
+		int[] idx = m.getIndices();
+		for (int i = 0; i < idx.length; i += 3) {
+			int a = idx[i] * 3, b = idx[i + 1] * 3, c = idx[i + 2] * 3;
+			double ux = v[b] - v[a], uy = v[b + 1] - v[a + 1], uz = v[b + 2] - v[a + 2];
+			double wx = v[c] - v[a], wy = v[c + 1] - v[a + 1], wz = v[c + 2] - v[a + 2];
+			double fx = uy * wz - uz * wy, fy = uz * wx - ux * wz, fz = ux * wy - uy * wx;
+			assertTrue("Degenerate triangle " + i / 3, fx * fx + fy * fy + fz * fz > 0);
+			double dot = 0;
+			for (int k : new int[] { a, b, c }) {
+				dot += fx * n[k] + fy * n[k + 1] + fz * n[k + 2];
+			}
+			assertTrue("Triangle " + i / 3 + " is wound against its normals", dot > 0);
+		}
+	}
+
+	private static double polygonFactor() {
+		return LOD / 2.0 * Math.sin(2 * Math.PI / LOD);
+	}
+
+	@Test
+	public void testBodyTubeEnclosesWall() {
+		BodyTube tube = new BodyTube(0.3, 0.02, 0.001);
+		ComponentMesh mesh = tessellator.tessellate(tube);
+
+		for (Surface s : Surface.values()) {
+			assertOriented(mesh.getMesh(s));
+		}
+		assertEquals(2 * LOD, mesh.getMesh(Surface.OUTSIDE).getTriangleCount());
+		assertEquals(2 * LOD, mesh.getMesh(Surface.INSIDE).getTriangleCount());
+		assertEquals(4 * LOD, mesh.getMesh(Surface.EDGES).getTriangleCount());
+
+		double expected = polygonFactor() * (0.02 * 0.02 - 0.019 * 0.019) * 0.3;
+		double actual = volume(mesh.getMesh(Surface.OUTSIDE), mesh.getMesh(Surface.INSIDE), mesh.getMesh(Surface.EDGES));
+		assertEquals(expected, actual, expected * 1e-4);
+	}
+
+	@Test
+	public void testTransitionEnclosesWall() {
+		Transition t = new Transition();
+		t.setType(Transition.Shape.CONICAL);
+		t.setForeRadiusAutomatic(false);
+		t.setAftRadiusAutomatic(false);
+		t.setForeRadius(0.02);
+		t.setAftRadius(0.03);
+		t.setLength(0.1);
+		t.setThickness(0.002);
+		ComponentMesh mesh = tessellator.tessellate(t);
+
+		for (Surface s : Surface.values()) {
+			assertOriented(mesh.getMesh(s));
+		}
+
+		// Volume of the outer frustum minus the inner frustum
+		double outer = (0.02 * 0.02 + 0.02 * 0.03 + 0.03 * 0.03) / 3;
+		double inner = (0.018 * 0.018 + 0.018 * 0.028 + 0.028 * 0.028) / 3;
+		double expected = polygonFactor() * (outer - inner) * 0.1;
+		double actual = volume(mesh.getMesh(Surface.OUTSIDE), mesh.getMesh(Surface.INSIDE), mesh.getMesh(Surface.EDGES));
+		assertEquals(expected, actual, expected * 1e-4);
+	}
+
+	@Test
+	public void testNoseConeTip() {
+		for (Transition.Shape shape : Transition.Shape.values()) {
+			NoseCone nose = new NoseCone(shape, 0.1, 0.02);
+			Mesh outside = tessellator.tessellate(nose).getMesh(Surface.OUTSIDE);
+			assertOriented(outside);
+
+			// No vertex lies beyond the base radius and the tip is on the axis
+			float[] v = outside.getVertices();
+			boolean tip = false;
+			for (int i = 0; i < v.length; i += 3) {
+				double r = Math.hypot(v[i + 1], v[i + 2]);
+				assertTrue(r <= 0.02 + 1e-6);
+				tip |= (v[i] == 0 && r == 0);
+			}
+			assertTrue(shape.toString(), tip);
+		}
+	}
+
+	@Test
+	public void testFinSetEnclosesFin() {
+		TrapezoidFinSet fins = new TrapezoidFinSet(3, 0.06, 0.03, 0.02, 0.05);
+		fins.setThickness(0.003);
+		fins.setTabHeight(0);
+		fins.setTabLength(0);
+
+		for (double cant : new double[] { 0, 0.1 }) {
+			fins.setCantAngle(cant);
+			ComponentMesh mesh = tessellator.tessellate(fins);
+			for (Surface s : Surface.values()) {
+				assertOriented(mesh.getMesh(s));
+			}
+			assertEquals(2, mesh.getMesh(Surface.OUTSIDE).getTriangleCount());
+			assertEquals(2, mesh.getMesh(Surface.INSIDE).getTriangleCount());
+			assertEquals(8, mesh.getMesh(Surface.EDGES).getTriangleCount());
+
+			double expected = (0.06 + 0.03) / 2 * 0.05 * 0.003;
+			double actual = volume(mesh.getMesh(Surface.OUTSIDE), mesh.getMesh(Surface.INSIDE), mesh.getMesh(Surface.EDGES));
+			assertEquals(expected, actual, expected * 1e-4);
+		}
+	}
+
+	@Test
+	public void testTriangulateConcavePolygon() {
+		// L-shaped outline given clockwise, with a repeated point
+		Coordinate[] outline = {
+				new Coordinate(0, 0), new Coordinate(0, 2), new Coordinate(1, 2), new Coordinate(1, 1),
+				new Coordinate(1, 1), new Coordinate(2, 1), new Coordinate(2, 0) };
+		Coordinate[] polygon = ComponentTessellator.toPolygon(outline);
+		assertEquals(6, polygon.length);
+
+		int[] triangles = ComponentTessellator.triangulate(polygon);
+		assertEquals(3 * 4, triangles.length);
+		double area = 0;
+		for (int i = 0; i < triangles.length; i += 3) {
+			Coordinate a = polygon[triangles[i]], b = polygon[triangles[i + 1]], c = polygon[triangles[i + 2]];
+			double cross = (b.x - a.x) * (c.y - a.y) - (b.y - a.y) * (c.x - a.x);
+			assertTrue(cross > 0);
+			area += cross / 2;
+		}
+		assertEquals(3, area, 1e-10);
+	}
+
+	@Test
+	public void testMassObjectIsClosed() {
+		Parachute chute = new Parachute();
+		chute.setLength(0.05);
+		chute.setRadius(0.01);
+		Mesh outside = tessellator.tessellate(chute).getMesh(Surface.OUTSIDE);
+		assertOriented(outside);
+
+		double volume = volume(outside);
+		assertTrue(volume > 0);
+		assertTrue(volume < Math.PI * 0.01 * 0.01 * 0.05);
+	}
+
+	@Test
+	public void testGeometryKey() {
+		BodyTube tube = new BodyTube(0.3, 0.02, 0.001);
+		Object key = tessellator.getGeometryKey(tube);
+		assertEquals(key, tessellator.getGeometryKey(tube.copy()));
+		assertEquals(key, new ComponentTessellator(LOD).getGeometryKey(tube));
+		assertFalse(key.equals(new ComponentTessellator(LOD * 2).getGeometryKey(tube)));
+
+		tube.setLength(0.25);
+		assertFalse(key.equals(tessellator.getGeometryKey(tube)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedComponent() {
+		Rocket rocket = new Rocket();
+		assertFalse(tessellator.isSupported(rocket));
+		tessellator.tessellate(rocket);
+	}
+}
@@ -0,0 +1,119 @@
+package net.sf.openrocket.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+public class MeshCacheTest extends BaseTestCase {
+
+	private static List<RocketComponent> supported(Rocket rocket, MeshCache cache) {
+		List<RocketComponent> list = new ArrayList<RocketComponent>();
+		for (RocketComponent c : rocket) {
+			if (cache.getTessellator().isSupported(c)) {
+				list.add(c);
+			}
+		}
+		return list;
+	}
+
+	private static Map<String, ComponentMesh> meshes(Rocket rocket, MeshCache cache) {
+		Map<String, ComponentMesh> map = new HashMap<String, ComponentMesh>();
+		for (RocketComponent c : supported(rocket, cache)) {
+			map.put(c.getID(), cache.getMesh(c));
+		}
+		return map;
+	}
+
+	private static BodyTube findBodyTube(Rocket rocket) {
+		for (RocketComponent c : rocket) {
+			if (c instanceof BodyTube) {
+				return (BodyTube) c;
+			}
+		}
+		throw new IllegalArgumentException("No body tube");
+	}
+
+	@Test
+	public void testOnlyModifiedComponentsTessellated() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		MeshCache cache = new MeshCache(new ComponentTessellator(20));
+		int count = supported(rocket, cache).size();
+
+		Map<String, ComponentMesh> first = meshes(rocket, cache);
+		assertEquals(count, cache.getTessellationCount());
+		assertEquals(count, cache.size());
+
+		// Unmodified rocket
+		Map<String, ComponentMesh> second = meshes(rocket, cache);
+		assertEquals(count, cache.getTessellationCount());
+		assertEquals(first, second);
+
+		BodyTube body = findBodyTube(rocket);
+		body.setLength(body.getLength() + 0.05);
+		Map<String, ComponentMesh> third = meshes(rocket, cache);
+		assertEquals(count + 1, cache.getTessellationCount());
+		for (RocketComponent c : supported(rocket, cache)) {
+			if (c == body) {
+				assertNotSame(first.get(c.getID()), third.get(c.getID()));
+			} else {
+				assertSame(first.get(c.getID()), third.get(c.getID()));
+			}
+		}
+	}
+
+	@Test
+	public void testMeshesReusedAfterUndo() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		MeshCache cache = new MeshCache(new ComponentTessellator(20));
+		int count = supported(rocket, cache).size();
+		Map<String, ComponentMesh> first = meshes(rocket, cache);
+
+		document.addUndoPosition("Modify body");
+		BodyTube body = findBodyTube(rocket);
+		body.setLength(body.getLength() + 0.05);
+		meshes(rocket, cache);
+		assertEquals(count + 1, cache.getTessellationCount());
+
+		// Undo replaces the component objects, but only the body tube geometry changes
+		document.undo();
+		Map<String, ComponentMesh> restored = meshes(rocket, cache);
+		assertEquals(count + 2, cache.getTessellationCount());
+		assertEquals(first.keySet(), restored.keySet());
+		for (String id : first.keySet()) {
+			if (!id.equals(body.getID())) {
+				assertSame(first.get(id), restored.get(id));
+			}
+		}
+	}
+
+	@Test
+	public void testRetain() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		MeshCache cache = new MeshCache(new ComponentTessellator(20));
+		meshes(rocket, cache);
+
+		BodyTube body = findBodyTube(rocket);
+		cache.retain(Collections.singleton(body));
+		assertEquals(1, cache.size());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,105 @@
+package net.sf.openrocket.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import net.sf.openrocket.optimization.general.Function;
+import net.sf.openrocket.optimization.general.OptimizationController;
+import net.sf.openrocket.optimization.general.OptimizationException;
+import net.sf.openrocket.optimization.general.ParallelExecutorCache;
+import net.sf.openrocket.optimization.general.Point;
+import net.sf.openrocket.optimization.general.multidim.DifferentialEvolutionOptimizer;
+
+public class TestDifferentialEvolutionOptimizer {
+
+	private static OptimizationController control(final int maxSteps, final double minStepSize) {
+		return new OptimizationController() {
+			private int steps = 0;
+
+			@Override
+			public boolean stepTaken(Point oldPoint, double oldValue, Point newPoint, double newValue, double stepSize) {
+				assertTrue(newValue <= oldValue);
+				steps++;
+				return steps < maxSteps && stepSize >= minStepSize;
+			}
+		};
+	}
+
+	private static DifferentialEvolutionOptimizer optimizer(Function function, int threads) {
+		ParallelExecutorCache cache = new ParallelExecutorCache(threads);
+		cache.setFunction(function);
+		return new DifferentialEvolutionOptimizer(cache, 20, new Random(1234));
+	}
+
+	@Test
+	public void testQuadratic() throws OptimizationException {
+		final Point optimum = new Point(0.3, 0.7, 0.2);
+		DifferentialEvolutionOptimizer optimizer = optimizer(new Function() {
+			@Override
+			public double evaluate(Point p) {
+				return p.sub(optimum).length2();
+			}
+		}, 2);
+
+		optimizer.optimize(new Point(optimum.dim(), 0.5), control(500, 0.0001));
+		assertEquals(optimum.dim(), optimizer.getOptimumPoint().dim());
+		assertEquals(0, optimizer.getOptimumPoint().sub(optimum).length(), 0.005);
+		assertEquals(optimizer.getOptimumPoint().sub(optimum).length2(), optimizer.getOptimumValue(), 0);
+	}
+
+	@Test
+	public void testGlobalOptimum() throws OptimizationException {
+		// A local minimum at the initial point and the global minimum elsewhere
+		final Point local = new Point(0.2, 0.2);
+		final Point global = new Point(0.85, 0.75);
+		DifferentialEvolutionOptimizer optimizer = optimizer(new Function() {
+			@Override
+			public double evaluate(Point p) {
+				return Math.min(p.sub(local).length2() + 0.1, 4 * p.sub(global).length2());
+			}
+		}, 2);
+
+		optimizer.optimize(local, control(500, 0.0001));
+		assertEquals(0, optimizer.getOptimumPoint().sub(global).length(), 0.005);
+	}
+
+	@Test
+	public void testInitialPointOutsideRange() throws OptimizationException {
+		final Point optimum = new Point(0.9, 0.1);
+		DifferentialEvolutionOptimizer optimizer = optimizer(new Function() {
+			@Override
+			public double evaluate(Point p) {
+				assertTrue(p.get(0) >= 0 && p.get(0) <= 1 && p.get(1) >= 0 && p.get(1) <= 1);
+				return p.sub(optimum).length2();
+			}
+		}, 1);
+
+		optimizer.optimize(new Point(1.5, -0.5), control(300, 0.0001));
+		assertEquals(0, optimizer.getOptimumPoint().sub(optimum).length(), 0.005);
+	}
+
+	@Test
+	public void testParallelEvaluation() throws OptimizationException {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		DifferentialEvolutionOptimizer optimizer = optimizer(new Function() {
+			@Override
+			public double evaluate(Point p) throws InterruptedException {
+				int n = running.incrementAndGet();
+				maxRunning.accumulateAndGet(n, Math::max);
+				Thread.sleep(5);
+				running.decrementAndGet();
+				return p.length2();
+			}
+		}, 4);
+
+		optimizer.optimize(new Point(2, 0.5), control(3, 0));
+		assertTrue("Evaluations were not run in parallel", maxRunning.get() > 1);
+	}
+
+}
@@ -0,0 +1,214 @@
+package net.sf.openrocket.optimization.rocketoptimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.sf.openrocket.aerodynamics.TabulatedAerodynamicCalculator;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.optimization.general.Point;
+import net.sf.openrocket.optimization.rocketoptimization.domains.IdentitySimulationDomain;
+import net.sf.openrocket.optimization.rocketoptimization.goals.MaximizationGoal;
+import net.sf.openrocket.optimization.rocketoptimization.modifiers.GenericComponentModifier;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.unit.UnitGroup;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+public class TestOptimizationEvaluationCache extends BaseTestCase {
+
+	private File cacheFile;
+
+	@Before
+	public void createFile() throws IOException {
+		cacheFile = File.createTempFile("optimization", ".evaluations");
+		cacheFile.delete();
+	}
+
+	@After
+	public void deleteFile() {
+		cacheFile.delete();
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+		OptimizationEvaluationCache cache = new OptimizationEvaluationCache(cacheFile, 2);
+		cache.put("a", 1.0);
+		cache.put("b", 2.0);
+
+		// Using "a" makes "b" the least recently used entry
+		assertEquals(1.0, cache.get("a"), 0);
+		cache.put("c", 3.0);
+
+		assertEquals(2, cache.size());
+		assertEquals(1.0, cache.get("a"), 0);
+		assertNull(cache.get("b"));
+		assertEquals(3.0, cache.get("c"), 0);
+	}
+
+	@Test
+	public void testSaveAndLoad() {
+		OptimizationEvaluationCache cache = new OptimizationEvaluationCache(cacheFile, 2);
+		cache.put("a", 1.0);
+		cache.put("b", Double.NaN);
+		cache.get("a");
+		cache.save();
+
+		OptimizationEvaluationCache loaded = new OptimizationEvaluationCache(cacheFile, 2);
+		loaded.load();
+		assertEquals(2, loaded.size());
+		assertEquals(Double.NaN, loaded.get("b"), 0);
+
+		// The use order is preserved, so "a" is evicted first after using "b"
+		loaded.put("c", 3.0);
+		assertNull(loaded.get("a"));
+		assertEquals(3.0, loaded.get("c"), 0);
+	}
+
+	@Test
+	public void testInvalidFileIgnored() throws IOException {
+		try (OutputStream os = new FileOutputStream(cacheFile)) {
+			os.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 });
+		}
+
+		OptimizationEvaluationCache cache = new OptimizationEvaluationCache(cacheFile);
+		cache.load();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testSimulationDigest() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		Simulation simulation = new Simulation(rocket);
+		String digest = OptimizationEvaluationCache.getSimulationDigest(simulation);
+
+		// The name and a copy of the rocket do not change the digest
+		Simulation copy = simulation.duplicateSimulation(rocket.copyWithOriginalID());
+		copy.setName("Copy");
+		assertEquals(digest, OptimizationEvaluationCache.getSimulationDigest(copy));
+
+		// Changing the rocket or the launch conditions does
+		BodyTube body = (BodyTube) copy.getRocket().getChild(0).getChild(1);
+		body.setLength(body.getLength() + 0.01);
+		assertFalse(digest.equals(OptimizationEvaluationCache.getSimulationDigest(copy)));
+
+		simulation.getOptions().setLaunchRodLength(simulation.getOptions().getLaunchRodLength() + 0.1);
+		assertFalse(digest.equals(OptimizationEvaluationCache.getSimulationDigest(simulation)));
+	}
+
+	@Test
+	public void testCacheReusedAfterRestart() throws Exception {
+		final Rocket rocket = TestRockets.makeEstesAlphaIII();
+		final Simulation simulation = new Simulation(rocket);
+		final BodyTube body = (BodyTube) rocket.getChild(0).getChild(1);
+		final int[] computed = { 0 };
+		OptimizableParameter length = new OptimizableParameter() {
+			@Override
+			public String getName() {
+				return "Body length";
+			}
+
+			@Override
+			public double computeValue(Simulation sim) {
+				computed[0]++;
+				return sim.getRocket().getChild(0).getChild(1).getLength();
+			}
+
+			@Override
+			public UnitGroup getUnitGroup() {
+				return UnitGroup.UNITS_LENGTH;
+			}
+		};
+
+		OptimizationEvaluationCache cache = new OptimizationEvaluationCache(cacheFile);
+
+		SimulationModifier modifier = new GenericComponentModifier("Length", "", body, UnitGroup.UNITS_LENGTH,
+				1.0, BodyTube.class, body.getID(), "Length");
+		modifier.setMinValue(0);
+		modifier.setMaxValue(0.5);
+		RocketOptimizationFunction function = new RocketOptimizationFunction(simulation, length,
+				new MaximizationGoal(), new IdentitySimulationDomain(), modifier);
+		function.setEvaluationCache(cache);
+		function.evaluate(new Point(0.2));
+		function.evaluate(new Point(0.5));
+		assertEquals(2, computed[0]);
+
+		// The optimization moves the base simulation to the best point found
+		modifier.modify(simulation, 0.5);
+		assertEquals(0.25, body.getLength(), 0);
+
+		// Restarting with different bounds evaluates the same lengths from the cache
+		modifier = new GenericComponentModifier("Length", "", body, UnitGroup.UNITS_LENGTH,
+				1.0, BodyTube.class, body.getID(), "Length");
+		modifier.setMinValue(0);
+		modifier.setMaxValue(1);
+		function = new RocketOptimizationFunction(simulation, length,
+				new MaximizationGoal(), new IdentitySimulationDomain(), modifier);
+		function.setEvaluationCache(cache);
+		assertEquals(-0.25, function.evaluate(new Point(0.25)), 0);
+		assertEquals(2, computed[0]);
+		function.evaluate(new Point(0.75));
+		assertEquals(3, computed[0]);
+	}
+
+	@Test
+	public void testCacheKeyIncludesAerodynamicCalculator() throws Exception {
+		final Rocket rocket = TestRockets.makeEstesAlphaIII();
+		final Simulation simulation = new Simulation(rocket);
+		final BodyTube body = (BodyTube) rocket.getChild(0).getChild(1);
+		final int[] computed = { 0 };
+		OptimizableParameter length = new OptimizableParameter() {
+			@Override
+			public String getName() {
+				return "Body length";
+			}
+
+			@Override
+			public double computeValue(Simulation sim) {
+				computed[0]++;
+				return sim.getRocket().getChild(0).getChild(1).getLength();
+			}
+
+			@Override
+			public UnitGroup getUnitGroup() {
+				return UnitGroup.UNITS_LENGTH;
+			}
+		};
+
+		SimulationModifier modifier = new GenericComponentModifier("Length", "", body, UnitGroup.UNITS_LENGTH,
+				1.0, BodyTube.class, body.getID(), "Length");
+		modifier.setMinValue(0);
+		modifier.setMaxValue(0.5);
+		RocketOptimizationFunction function = new RocketOptimizationFunction(simulation, length,
+				new MaximizationGoal(), new IdentitySimulationDomain(), modifier);
+		function.setEvaluationCache(new OptimizationEvaluationCache(cacheFile));
+		function.evaluate(new Point(0.2));
+		function.evaluate(new Point(0.2));
+		assertEquals(1, computed[0]);
+
+		simulation.getOptions().setTabulatedAerodynamics(true);
+		function.evaluate(new Point(0.2));
+		assertEquals(2, computed[0]);
+
+		simulation.getOptions().setAerodynamicTableGrid(new TabulatedAerodynamicCalculator.Grid(
+				0.1, 3.0, Math.PI / 180, 36, 0.05, 2.0, 0.05, 4, 9));
+		function.evaluate(new Point(0.2));
+		assertEquals(3, computed[0]);
+
+		simulation.getOptions().setAerodynamicErrorSampleInterval(100);
+		function.evaluate(new Point(0.2));
+		assertEquals(4, computed[0]);
+		function.evaluate(new Point(0.2));
+		assertEquals(4, computed[0]);
+	}
+}
@@ -4,6 +4,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+
 import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.jmock.auto.Mock;
@@ -139,6 +142,68 @@ public class TestRocketOptimizationFunction extends BaseTestCase {
 	}
 	
 	
+	@Test
+	public void testCachedEvaluation() throws InterruptedException, OptimizationException, IOException {
+		final Rocket rocket = new Rocket();
+		final Simulation simulation = new Simulation(rocket);
+		
+		final double pvalue = 9.81;
+		final double gvalue = 8.81;
+		
+		// @formatter:off
+		context.checking(new Expectations() {
+			{
+				allowing(modifier1).modify(with(simulation), with(any(Double.class)));
+				allowing(modifier1).modifySI(with(any(Simulation.class)), with(any(Double.class)));
+				allowing(modifier1).getName();
+				will(returnValue("modifier1"));
+				allowing(modifier1).getCurrentSIValue(simulation);
+				will(onConsecutiveCalls(returnValue(0.2), returnValue(0.2), returnValue(0.4)));
+				allowing(modifier2).modify(with(simulation), with(any(Double.class)));
+				allowing(modifier2).modifySI(with(any(Simulation.class)), with(any(Double.class)));
+				allowing(modifier2).getName();
+				will(returnValue("modifier2"));
+				allowing(modifier2).getCurrentSIValue(simulation);
+				will(returnValue(0.3));
+				allowing(domain).getDistanceToDomain(simulation);
+				will(returnValue(new Pair<Double, Value>(-1.0, null)));
+				allowing(parameter).getName();
+				will(returnValue("parameter"));
+				allowing(parameter).getUnitGroup();
+				will(returnValue(UnitGroup.UNITS_NONE));
+				exactly(2).of(parameter).computeValue(simulation);
+				will(returnValue(pvalue));
+				allowing(goal).getMinimizationParameter(pvalue);
+				will(returnValue(gvalue));
+			}
+		});
+		// @formatter:on
+		
+		RocketOptimizationFunction function = new RocketOptimizationFunction(simulation,
+				parameter, goal, domain, modifier1, modifier2) {
+			@Override
+			Simulation newSimulationInstance(Simulation sim) {
+				return sim;
+			}
+		};
+		File cacheFile = File.createTempFile("optimization", ".evaluations");
+		try {
+			OptimizationEvaluationCache cache = new OptimizationEvaluationCache(cacheFile);
+			function.setEvaluationCache(cache);
+			
+			// The second evaluation has the same modifier values and is taken from the cache
+			assertEquals(gvalue, function.evaluate(new Point(0.4, 0.7)), 0);
+			assertEquals(gvalue, function.evaluate(new Point(0.4, 0.7)), 0);
+			assertEquals(1, cache.size());
+			
+			// The third evaluation has a different modifier value and is computed
+			assertEquals(gvalue, function.evaluate(new Point(0.8, 0.7)), 0);
+			assertEquals(2, cache.size());
+		} finally {
+			cacheFile.delete();
+		}
+	}
+	
 	@Test
 	public void testOutsideDomain() throws InterruptedException, OptimizationException {
 		final Rocket rocket = new Rocket();
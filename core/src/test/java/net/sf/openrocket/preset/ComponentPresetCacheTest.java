@@ -0,0 +1,185 @@
+package net.sf.openrocket.preset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.sf.openrocket.database.Databases;
+import net.sf.openrocket.material.Material;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.rocketcomponent.ExternalComponent.Finish;
+import net.sf.openrocket.rocketcomponent.Transition.Shape;
+import net.sf.openrocket.util.BaseTestCase;
+
+public class ComponentPresetCacheTest extends BaseTestCase {
+
+	private File dir;
+	private File cacheFile;
+
+	@Before
+	public void createDirectory() throws IOException {
+		dir = Files.createTempDirectory("presetcache").toFile();
+		cacheFile = new File(dir, "cache.dat");
+	}
+
+	@After
+	public void deleteDirectory() {
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	private static List<ComponentPreset> presets() throws Exception {
+		TypedPropertyMap tube = new TypedPropertyMap();
+		tube.put(ComponentPreset.TYPE, ComponentPreset.Type.BODY_TUBE);
+		tube.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer("Estes"));
+		tube.put(ComponentPreset.PARTNO, "BT-50");
+		tube.put(ComponentPreset.DESCRIPTION, "Body tube");
+		tube.put(ComponentPreset.LEGACY, true);
+		tube.put(ComponentPreset.LENGTH, 0.3);
+		tube.put(ComponentPreset.OUTER_DIAMETER, 0.025);
+		tube.put(ComponentPreset.THICKNESS, 0.001);
+		tube.put(ComponentPreset.FINISH, Finish.SMOOTH);
+		tube.put(ComponentPreset.MATERIAL, Databases.findMaterial(Material.Type.BULK, "Cardboard"));
+		tube.put(ComponentPreset.IMAGE, new byte[] { 1, 2, 3 });
+
+		TypedPropertyMap nose = new TypedPropertyMap();
+		nose.put(ComponentPreset.TYPE, ComponentPreset.Type.NOSE_CONE);
+		nose.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer("Unknown manufacturer"));
+		nose.put(ComponentPreset.PARTNO, "NC-50");
+		nose.put(ComponentPreset.LENGTH, 0.1);
+		nose.put(ComponentPreset.SHAPE, Shape.OGIVE);
+		nose.put(ComponentPreset.AFT_OUTER_DIAMETER, 0.025);
+		nose.put(ComponentPreset.AFT_SHOULDER_DIAMETER, 0.023);
+		nose.put(ComponentPreset.AFT_SHOULDER_LENGTH, 0.02);
+		nose.put(ComponentPreset.FILLED, false);
+		nose.put(ComponentPreset.MASS, 0.01);
+
+		TypedPropertyMap chute = new TypedPropertyMap();
+		chute.put(ComponentPreset.TYPE, ComponentPreset.Type.PARACHUTE);
+		chute.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer("Estes"));
+		chute.put(ComponentPreset.PARTNO, "PK-12");
+		chute.put(ComponentPreset.DIAMETER, 0.3);
+		chute.put(ComponentPreset.SIDES, 6);
+		chute.put(ComponentPreset.LINE_COUNT, 6);
+		chute.put(ComponentPreset.LINE_LENGTH, 0.3);
+		// A material not in the database, created like the preset loaders do
+		chute.put(ComponentPreset.LINE_MATERIAL, Databases.findMaterial(Material.Type.LINE, "Custom line", 0.001));
+
+		return Arrays.asList(ComponentPresetFactory.create(tube), ComponentPresetFactory.create(nose),
+				ComponentPresetFactory.create(chute));
+	}
+
+	private static void assertPresetEquals(ComponentPreset expected, ComponentPreset actual) {
+		assertEquals(expected, actual);
+		assertEquals(expected.getProperties().keySet(), actual.getProperties().keySet());
+		for (TypedKey<?> key : expected.getProperties().keySet()) {
+			if (key == ComponentPreset.IMAGE) {
+				assertArrayEquals(expected.get(ComponentPreset.IMAGE), actual.get(ComponentPreset.IMAGE));
+			} else {
+				assertEquals(key.getName(), expected.get(key), actual.get(key));
+			}
+		}
+	}
+
+	@Test
+	public void testCachedPresets() throws Exception {
+		List<ComponentPreset> presets = presets();
+		String digest = ComponentPresetCache.digest(new byte[] { 1 });
+
+		ComponentPresetCache cache = new ComponentPresetCache(cacheFile);
+		cache.load();
+		assertNull(cache.get("presets.orc", digest));
+		cache.put("presets.orc", digest, presets);
+		cache.save();
+
+		cache = new ComponentPresetCache(cacheFile);
+		cache.load();
+		List<ComponentPreset> read = cache.get("presets.orc", digest);
+		assertEquals(presets.size(), read.size());
+		for (int i = 0; i < presets.size(); i++) {
+			assertPresetEquals(presets.get(i), read.get(i));
+		}
+		assertSame(presets.get(0).getManufacturer(), read.get(0).getManufacturer());
+		assertSame(presets.get(1).getManufacturer(), read.get(1).getManufacturer());
+		// Database materials are shared
+		assertSame(presets.get(0).get(ComponentPreset.MATERIAL), read.get(0).get(ComponentPreset.MATERIAL));
+	}
+
+	@Test
+	public void testChangedFile() throws Exception {
+		String digest = ComponentPresetCache.digest(new byte[] { 1 });
+		String changed = ComponentPresetCache.digest(new byte[] { 2 });
+		assertNotEquals(digest, changed);
+
+		ComponentPresetCache cache = new ComponentPresetCache(cacheFile);
+		cache.put("presets.orc", digest, presets());
+		cache.save();
+
+		cache = new ComponentPresetCache(cacheFile);
+		cache.load();
+		assertNull(cache.get("presets.orc", changed));
+		assertNull(cache.get("other.orc", digest));
+	}
+
+	@Test
+	public void testUnusedFilesDropped() throws Exception {
+		String digest = ComponentPresetCache.digest(new byte[] { 1 });
+		ComponentPresetCache cache = new ComponentPresetCache(cacheFile);
+		cache.put("presets1.orc", digest, presets());
+		cache.put("presets2.orc", digest, presets());
+		cache.save();
+
+		cache = new ComponentPresetCache(cacheFile);
+		cache.load();
+		assertNotNull(cache.get("presets1.orc", digest));
+		cache.save();
+
+		cache = new ComponentPresetCache(cacheFile);
+		cache.load();
+		assertNotNull(cache.get("presets1.orc", digest));
+		assertNull(cache.get("presets2.orc", digest));
+	}
+
+	@Test
+	public void testInvalidCache() throws Exception {
+		String digest = ComponentPresetCache.digest(new byte[] { 1 });
+		ComponentPresetCache cache = new ComponentPresetCache(cacheFile);
+		cache.put("presets.orc", digest, presets());
+		cache.save();
+
+		// Truncated cache
+		byte[] bytes = Files.readAllBytes(cacheFile.toPath());
+		try (OutputStream os = new FileOutputStream(cacheFile)) {
+			os.write(bytes, 0, bytes.length - 10);
+		}
+		cache = new ComponentPresetCache(cacheFile);
+		cache.load();
+		assertNull(cache.get("presets.orc", digest));
+
+		// Not a cache
+		try (OutputStream os = new FileOutputStream(cacheFile)) {
+			os.write("not a preset cache".getBytes());
+		}
+		cache = new ComponentPresetCache(cacheFile);
+		cache.load();
+		assertNull(cache.get("presets.orc", digest));
+	}
+
+}
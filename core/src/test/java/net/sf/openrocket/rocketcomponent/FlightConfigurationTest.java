@@ -3,8 +3,12 @@ package net.sf.openrocket.rocketcomponent;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -560,6 +564,68 @@ public class FlightConfigurationTest extends BaseTestCase {
 		assertThat(components.get(1).getName(), equalTo("Core Stage Body"));
 
 	}
-}
 
+	@Test
+	public void testActiveInstancesCache() {
+		final Rocket rocket = TestRockets.makeBeta();
+		final FlightConfiguration config = rocket.getSelectedConfiguration();
+		config.setAllStages();
+
+		final InstanceMap first = config.getActiveInstances();
+		assertSame("unchanged rocket should reuse the instance map", first, config.getActiveInstances());
 
+		int count = 0;
+		for (List<InstanceContext> contexts : first.values()) {
+			count += contexts.size();
+		}
+		assertThat(first.getInstanceList().size(), equalTo(count));
+
+		// non-functional changes do not affect the instances
+		rocket.getChild(0).setName("renamed stage");
+		assertSame(first, config.getActiveInstances());
+
+		// position changes do
+		final RocketComponent body = rocket.getChild(0).getChild(1);
+		body.setAxialOffset(body.getAxialOffset() + 0.01);
+		final InstanceMap moved = config.getActiveInstances();
+		assertNotSame(first, moved);
+
+		// and so do stage changes
+		config.clearStage(1);
+		final InstanceMap staged = config.getActiveInstances();
+		assertNotSame(moved, staged);
+		assertTrue(staged.size() < moved.size());
+	}
+
+	@Test
+	public void testActiveInstancesUnmodifiable() {
+		final Rocket rocket = TestRockets.makeEstesAlphaIII();
+		final InstanceMap instances = rocket.getSelectedConfiguration().getActiveInstances();
+		assertFalse(instances.isMutable());
+
+		final RocketComponent body = rocket.getChild(0).getChild(1);
+		try {
+			instances.remove(body);
+			fail("instance map should be unmodifiable");
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			instances.keySet().clear();
+			fail("instance map keys should be unmodifiable");
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			instances.get(body).clear();
+			fail("instance lists should be unmodifiable");
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			instances.entrySet().iterator().next().setValue(null);
+			fail("instance map entries should be unmodifiable");
+		} catch (UnsupportedOperationException e) {
+		}
+		assertSame(instances, rocket.getSelectedConfiguration().getActiveInstances());
+		assertEquals(1, instances.count(body));
+	}
+
+}
@@ -0,0 +1,171 @@
+package net.sf.openrocket.rocketcomponent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.masscalc.MassCalculator;
+import net.sf.openrocket.rocketcomponent.position.AxialMethod;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.TestRockets;
+
+public class RocketSnapshotTest extends BaseTestCase {
+	private static final double EPSILON = MathUtil.EPSILON;
+
+	private static RocketComponent find(Rocket rocket, String name) {
+		for (RocketComponent c : rocket) {
+			if (c.getName().equals(name)) {
+				return c;
+			}
+		}
+		throw new IllegalArgumentException("No component " + name);
+	}
+
+	@Test
+	public void testDerivedSnapshotSharesUnmodifiedComponents() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		RocketSnapshot first = RocketSnapshot.of(rocket);
+		int count = first.getComponentCount();
+		assertEquals(count, first.getCopiedComponentCount());
+
+		BodyTube body = (BodyTube) find(rocket, "Body Tube");
+		body.setLength(0.3);
+		RocketSnapshot second = first.derive(rocket, Collections.singleton(body.getID()));
+
+		// Only the rocket and the body tube are copied
+		assertEquals(count, second.getComponentCount());
+		assertEquals(2, second.getCopiedComponentCount());
+		String finsId = find(rocket, "3 Fin Set").getID();
+		String noseId = find(rocket, "Nose Cone").getID();
+		assertSame(first.getComponentCopy(finsId), second.getComponentCopy(finsId));
+		assertSame(first.getComponentCopy(noseId), second.getComponentCopy(noseId));
+		assertNotSame(first.getComponentCopy(body.getID()), second.getComponentCopy(body.getID()));
+
+		assertEquals(0.20, ((BodyTube) first.toRocket().findComponent(body.getID())).getLength(), EPSILON);
+		assertEquals(0.30, ((BodyTube) second.toRocket().findComponent(body.getID())).getLength(), EPSILON);
+	}
+
+	@Test
+	public void testRestoredRocketEqualsOriginal() {
+		Rocket rocket = TestRockets.makeFalcon9Heavy();
+		RocketSnapshot snapshot = RocketSnapshot.of(rocket);
+		Rocket restored = snapshot.toRocket();
+
+		assertNotSame(rocket, restored);
+		assertEquals(rocket.getModID(), snapshot.getModID());
+		assertEquals(rocket.getStageCount(), restored.getStageCount());
+		for (RocketComponent c : rocket) {
+			RocketComponent r = restored.findComponent(c.getID());
+			assertNotSame(c, r);
+			assertEquals(c.getClass(), r.getClass());
+			assertEquals(c.getName(), r.getName());
+			assertEquals(c.getChildCount(), r.getChildCount());
+			assertEquals(c.getStageNumber(), r.getStageNumber());
+			assertEquals(c.getAxialOffset(AxialMethod.ABSOLUTE), r.getAxialOffset(AxialMethod.ABSOLUTE), EPSILON);
+		}
+
+		assertEquals(MassCalculator.calculateLaunch(rocket.getSelectedConfiguration()).getMass(),
+				MassCalculator.calculateLaunch(restored.getSelectedConfiguration()).getMass(), EPSILON);
+	}
+
+	@Test
+	public void testChangedStructureCopied() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		RocketSnapshot first = RocketSnapshot.of(rocket);
+
+		BodyTube body = (BodyTube) find(rocket, "Body Tube");
+		LaunchLug lug = new LaunchLug();
+		body.addChild(lug);
+		RocketSnapshot second = first.derive(rocket, Collections.<String> emptySet());
+
+		assertEquals(first.getComponentCount() + 1, second.getComponentCount());
+		assertTrue(second.toRocket().findComponent(lug.getID()) instanceof LaunchLug);
+		assertEquals(null, first.toRocket().findComponent(lug.getID()));
+	}
+
+	@Test
+	public void testDocumentUndoRedo() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+
+		document.addUndoPosition("Modify nose");
+		((NoseCone) find(rocket, "Nose Cone")).setLength(0.1);
+		document.addUndoPosition("Modify body");
+		((BodyTube) find(rocket, "Body Tube")).setLength(0.3);
+		document.addUndoPosition("Add lug");
+		int bodyChildren = find(rocket, "Body Tube").getChildCount();
+		find(rocket, "Body Tube").addChild(new LaunchLug());
+
+		document.undo();
+		assertEquals(0.1, ((NoseCone) find(rocket, "Nose Cone")).getLength(), EPSILON);
+		assertEquals(0.3, ((BodyTube) find(rocket, "Body Tube")).getLength(), EPSILON);
+		assertEquals(bodyChildren, find(rocket, "Body Tube").getChildCount());
+
+		document.undo();
+		assertEquals(0.1, ((NoseCone) find(rocket, "Nose Cone")).getLength(), EPSILON);
+		assertEquals(0.2, ((BodyTube) find(rocket, "Body Tube")).getLength(), EPSILON);
+
+		document.undo();
+		assertEquals(0.07, ((NoseCone) find(rocket, "Nose Cone")).getLength(), EPSILON);
+		assertFalse(document.isUndoAvailable());
+
+		document.redo();
+		document.redo();
+		assertEquals(0.1, ((NoseCone) find(rocket, "Nose Cone")).getLength(), EPSILON);
+		assertEquals(0.3, ((BodyTube) find(rocket, "Body Tube")).getLength(), EPSILON);
+		assertEquals(0.4, find(rocket, "Body Tube").getAxialOffset(AxialMethod.ABSOLUTE) +
+				find(rocket, "Body Tube").getLength(), EPSILON);
+
+		// Modifying after undo discards the redo information and continues from the loaded state
+		document.undo();
+		document.addUndoPosition("Modify nose again");
+		((NoseCone) find(rocket, "Nose Cone")).setLength(0.05);
+		document.undo();
+		assertEquals(0.1, ((NoseCone) find(rocket, "Nose Cone")).getLength(), EPSILON);
+		assertEquals(0.2, ((BodyTube) find(rocket, "Body Tube")).getLength(), EPSILON);
+		document.redo();
+		assertEquals(0.05, ((NoseCone) find(rocket, "Nose Cone")).getLength(), EPSILON);
+		assertEquals(0.2, ((BodyTube) find(rocket, "Body Tube")).getLength(), EPSILON);
+		assertFalse(document.isRedoAvailable());
+	}
+
+	@Test
+	public void testDocumentUndoAfterFrozenChanges() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+
+		// The thawed event only names the last modified component
+		document.addUndoPosition("Modify nose and body");
+		rocket.freeze();
+		try {
+			((NoseCone) find(rocket, "Nose Cone")).setLength(0.1);
+			((BodyTube) find(rocket, "Body Tube")).setLength(0.3);
+		} finally {
+			rocket.thaw();
+		}
+		document.addUndoPosition("Rename nose");
+		find(rocket, "Nose Cone").setName("Renamed");
+
+		document.undo();
+		assertEquals(0.1, ((NoseCone) find(rocket, "Nose Cone")).getLength(), EPSILON);
+		assertEquals(0.3, ((BodyTube) find(rocket, "Body Tube")).getLength(), EPSILON);
+
+		document.undo();
+		assertEquals(0.07, ((NoseCone) find(rocket, "Nose Cone")).getLength(), EPSILON);
+		assertEquals(0.2, ((BodyTube) find(rocket, "Body Tube")).getLength(), EPSILON);
+
+		document.redo();
+		assertEquals(0.1, ((NoseCone) find(rocket, "Nose Cone")).getLength(), EPSILON);
+		assertEquals(0.3, ((BodyTube) find(rocket, "Body Tube")).getLength(), EPSILON);
+	}
+
+}
@@ -0,0 +1,122 @@
+package net.sf.openrocket.rocketcomponent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import net.sf.openrocket.masscalc.MassCalculator;
+import net.sf.openrocket.masscalc.RigidBody;
+import net.sf.openrocket.rocketcomponent.position.AxialMethod;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.TestRockets;
+
+public class RocketWorkingCopyTest extends BaseTestCase {
+	private static final double EPSILON = MathUtil.EPSILON;
+
+	private static RocketComponent find(Rocket rocket, String name) {
+		for (RocketComponent c : rocket) {
+			if (c.getName().equals(name)) {
+				return c;
+			}
+		}
+		throw new IllegalArgumentException("No component " + name);
+	}
+
+	@Test
+	public void testModifiedComponentsRestored() {
+		Rocket original = TestRockets.makeEstesAlphaIII();
+		RocketWorkingCopy copy = new RocketWorkingCopy(original);
+
+		Rocket rocket = copy.reset();
+		assertNotSame(original, rocket);
+		NoseCone nose = (NoseCone) find(rocket, "Nose Cone");
+		BodyTube body = (BodyTube) find(rocket, "Body Tube");
+		RocketComponent fins = find(rocket, "3 Fin Set");
+		RocketComponent stage = find(rocket, "Stage");
+
+		nose.setLength(0.1);
+		body.setLength(0.3);
+		assertEquals(0.07, ((NoseCone) find(original, "Nose Cone")).getLength(), EPSILON);
+
+		assertSame(rocket, copy.reset());
+		NoseCone restoredNose = (NoseCone) find(rocket, "Nose Cone");
+		BodyTube restoredBody = (BodyTube) find(rocket, "Body Tube");
+		assertNotSame(nose, restoredNose);
+		assertNotSame(body, restoredBody);
+		assertEquals(0.07, restoredNose.getLength(), EPSILON);
+		assertEquals(0.20, restoredBody.getLength(), EPSILON);
+		assertEquals(nose.getID(), restoredNose.getID());
+
+		// Unmodified components are kept and moved to the restored parent
+		assertSame(fins, find(rocket, "3 Fin Set"));
+		assertSame(stage, find(rocket, "Stage"));
+		assertSame(restoredBody, fins.getParent());
+		assertSame(stage, restoredBody.getParent());
+		assertEquals(1, stage.getChildPosition(restoredBody));
+		assertEquals(0.07, restoredBody.getAxialOffset(AxialMethod.ABSOLUTE), EPSILON);
+
+		// Nothing modified since the last reset
+		assertSame(restoredNose, find(copy.reset(), "Nose Cone"));
+	}
+
+	@Test
+	public void testMarkedComponentRestored() {
+		Rocket original = TestRockets.makeEstesAlphaIII();
+		RocketWorkingCopy copy = new RocketWorkingCopy(original);
+		Rocket rocket = copy.reset();
+
+		Parachute chute = (Parachute) find(rocket, "Parachute");
+		copy.markModified(chute.getID());
+		chute.getDeploymentConfigurations().getDefault().setDeployDelay(4.0);
+		assertEquals(0.0, ((Parachute) find(original, "Parachute")).getDeploymentConfigurations().getDefault().getDeployDelay(), EPSILON);
+
+		rocket = copy.reset();
+		assertEquals(0.0, ((Parachute) find(rocket, "Parachute")).getDeploymentConfigurations().getDefault().getDeployDelay(), EPSILON);
+	}
+
+	@Test
+	public void testStructuralChangesCopied() {
+		Rocket original = TestRockets.makeEstesAlphaIII();
+		RocketWorkingCopy copy = new RocketWorkingCopy(original);
+
+		// Changes of the stages copy the whole rocket
+		Rocket rocket = copy.reset();
+		find(rocket, "Stage").setName("Modified");
+		Rocket reset = copy.reset();
+		assertNotSame(rocket, reset);
+		assertEquals("Stage", find(reset, "Stage").getName());
+
+		// As do changes of the tree structure
+		rocket = reset;
+		RocketComponent body = find(rocket, "Body Tube");
+		body.removeChild(find(rocket, "Parachute"));
+		reset = copy.reset();
+		assertNotSame(rocket, reset);
+		assertEquals(original.getChild(0).getChild(1).getChildCount(), find(reset, "Body Tube").getChildCount());
+	}
+
+	@Test
+	public void testMassAfterReset() {
+		Rocket original = TestRockets.makeEstesAlphaIII();
+		RocketWorkingCopy copy = new RocketWorkingCopy(original);
+		Rocket rocket = copy.reset();
+		RigidBody before = MassCalculator.calculateLaunch(rocket.getSelectedConfiguration());
+
+		((BodyTube) find(rocket, "Body Tube")).setLength(0.4);
+		((InnerTube) find(rocket, "Motor Mount Tube")).setLength(0.1);
+		RigidBody modified = MassCalculator.calculateLaunch(rocket.getSelectedConfiguration());
+		assertNotEquals(before.getMass(), modified.getMass(), EPSILON);
+
+		rocket = copy.reset();
+		RigidBody after = MassCalculator.calculateLaunch(rocket.getSelectedConfiguration());
+		RigidBody expected = MassCalculator.calculateLaunch(original.copyWithOriginalID().getSelectedConfiguration());
+		assertEquals(expected.getMass(), after.getMass(), EPSILON);
+		assertEquals(expected.getCM().x, after.getCM().x, EPSILON);
+		assertEquals(before.getCM().x, after.getCM().x, EPSILON);
+	}
+
+}
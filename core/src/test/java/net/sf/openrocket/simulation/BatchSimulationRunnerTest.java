@@ -0,0 +1,135 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+import net.sf.openrocket.util.TestSimulations;
+
+public class BatchSimulationRunnerTest extends BaseTestCase {
+
+	private static Simulation createSimulation(Rocket rocket, double windSpeed) {
+		Simulation sim = TestSimulations.createSimulation(rocket);
+		SimulationOptions opts = sim.getOptions();
+		opts.setWindSpeedAverage(windSpeed);
+		opts.setWindSpeedDeviation(0);
+		return sim;
+	}
+
+	@Test
+	public void testSimulationsMatchSerialRun() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		List<Simulation> sims = new ArrayList<Simulation>();
+		for (int i = 0; i < 6; i++) {
+			sims.add(createSimulation(rocket, i));
+		}
+
+		BatchSimulationRunner runner = new BatchSimulationRunner(3);
+		try {
+			BatchSimulationRunner.Batch batch = runner.runSimulations(sims);
+			List<BatchSimulationRunner.Result> results = batch.getAll();
+			assertTrue(batch.isDone());
+			assertEquals(sims.size(), results.size());
+
+			for (int i = 0; i < sims.size(); i++) {
+				BatchSimulationRunner.Result result = results.get(i);
+				assertTrue(result.toString(), result.isSuccessful());
+				assertEquals(i, result.getIndex());
+				assertSame(sims.get(i), result.getSimulation());
+				assertSame(sims.get(i).getSimulatedData(), result.getFlightData());
+				assertTrue(result.getRunNanos() > 0);
+
+				Simulation serial = createSimulation(rocket, i);
+				serial.simulate();
+				assertEquals(serial.getSimulatedData().getMaxAltitude(), result.getFlightData().getMaxAltitude(), 1e-6);
+			}
+
+			// Completion order returns every result exactly once
+			Set<Integer> indices = new HashSet<Integer>();
+			BatchSimulationRunner.Result result;
+			while ((result = batch.take()) != null) {
+				assertTrue(indices.add(result.getIndex()));
+			}
+			assertEquals(sims.size(), indices.size());
+		} finally {
+			runner.shutdown();
+		}
+	}
+
+	@Test
+	public void testConditions() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		List<SimulationConditions> conditions = new ArrayList<SimulationConditions>();
+		for (int i = 0; i < 4; i++) {
+			Simulation sim = createSimulation(rocket, 2);
+			SimulationConditions cond = sim.getOptions().toSimulationConditions();
+			cond.setSimulation(sim);
+			conditions.add(cond);
+		}
+		int listeners = conditions.get(0).getSimulationListenerList().size();
+
+		BatchSimulationRunner runner = new BatchSimulationRunner(BatchSimulationRunner.newVirtualThreadExecutor());
+		try {
+			BatchSimulationRunner.Batch batch = runner.runConditions(conditions);
+			double apogee = Double.NaN;
+			for (BatchSimulationRunner.Result result : batch) {
+				assertTrue(result.toString(), result.isSuccessful());
+				assertNull(result.getSimulation());
+				assertNotNull(result.getConditions());
+				if (Double.isNaN(apogee)) {
+					apogee = result.getFlightData().getMaxAltitude();
+				}
+				assertEquals(apogee, result.getFlightData().getMaxAltitude(), 1e-6);
+			}
+			assertTrue(apogee > 10);
+
+			// The submitted conditions are not modified
+			assertEquals(listeners, conditions.get(0).getSimulationListenerList().size());
+		} finally {
+			runner.getExecutor().shutdown();
+		}
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		List<Simulation> sims = new ArrayList<Simulation>();
+		for (int i = 0; i < 20; i++) {
+			sims.add(createSimulation(rocket, 1));
+		}
+
+		BatchSimulationRunner runner = new BatchSimulationRunner(1);
+		try {
+			BatchSimulationRunner.Batch batch = runner.runSimulations(sims);
+			batch.cancel();
+			assertTrue(batch.isCancelled());
+
+			int cancelled = 0;
+			for (BatchSimulationRunner.Result result : batch) {
+				assertSame(sims.get(result.getIndex()), result.getSimulation());
+				if (result.isCancelled()) {
+					assertFalse(result.isSuccessful());
+					cancelled++;
+				}
+			}
+			assertTrue(batch.isDone());
+			assertTrue(cancelled > 0);
+		} finally {
+			runner.shutdown();
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.simulation.SimulationProfile.Section;
+import net.sf.openrocket.simulation.SimulationProfile.TimeStepLimit;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.system.SimulationProfiler;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+import net.sf.openrocket.util.TestSimulations;
+
+public class DormandPrinceSimulationStepperTest extends BaseTestCase {
+
+	private static SimulationConditions createConditions(SimulationStepperType type, double timeStep) {
+		Simulation sim = TestSimulations.createSimulation(TestRockets.makeEstesAlphaIII());
+		SimulationOptions opts = sim.getOptions();
+		opts.setTimeStep(timeStep);
+		opts.setStepperType(type);
+		return TestSimulations.createConditions(sim);
+	}
+
+	/**
+	 * Run a simulation of the C6-5 configuration and return a copy of its status at the
+	 * first step after the given simulation time.
+	 */
+	private static SimulationStatus captureCoastStatus(final double time) throws SimulationException {
+		Simulation sim = TestSimulations.createSimulation(TestRockets.makeEstesAlphaIII());
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_3);
+		SimulationConditions conditions = TestSimulations.createConditions(sim);
+		final SimulationStatus[] captured = new SimulationStatus[1];
+		conditions.getSimulationListenerList().add(new AbstractSimulationListener() {
+			@Override
+			public void postStep(SimulationStatus status) {
+				if (captured[0] == null && status.getSimulationTime() >= time) {
+					captured[0] = status.clone();
+				}
+			}
+		});
+		new BasicEventSimulationEngine().simulate(conditions);
+		assertNotNull(captured[0]);
+		return captured[0];
+	}
+
+	/**
+	 * Step from a copy of the status to the given simulation time, profiling the steps.
+	 */
+	private static SimulationStatus coast(SimulationStepper stepper, SimulationStatus start, double timeStep,
+			double endTime) throws SimulationException {
+		SimulationStatus copy = start.clone();
+		copy.setFlightData(new FlightDataBranch("test", FlightDataType.TYPE_TIME));
+		SimulationConditions conditions = copy.getSimulationConditions().clone();
+		conditions.setTimeStep(timeStep);
+		conditions.setErrorTolerance(DormandPrinceSimulationStepper.RECOMMENDED_ERROR_TOLERANCE);
+		copy.setSimulationConditions(conditions);
+		copy.setProfile(new SimulationProfile());
+
+		SimulationStatus status = stepper.initialize(copy);
+		while (status.getSimulationTime() < endTime) {
+			stepper.step(status, endTime - status.getSimulationTime());
+		}
+		assertEquals(endTime, status.getSimulationTime(), 1e-9);
+		return status;
+	}
+
+	@Test
+	public void testStepperSelection() throws Exception {
+		SimulationConditions conditions = createConditions(SimulationStepperType.DORMAND_PRINCE, 0.05);
+		conditions.getSimulationListenerList().add(SimulationProfiler.INSTANCE);
+		FlightData data = new BasicEventSimulationEngine().simulate(conditions);
+
+		SimulationProfile profile = data.getProfile();
+		long steps = profile.getStepCount(DormandPrinceSimulationStepper.class);
+		assertTrue(steps > 0);
+		assertEquals(0, profile.getStepCount(RK4SimulationStepper.class));
+
+		// Every step has exactly one limiting time step
+		long limits = 0;
+		for (TimeStepLimit l : TimeStepLimit.values()) {
+			limits += profile.getTimeStepLimitCount(l);
+		}
+		assertEquals(steps, limits);
+		assertEquals(0, profile.getTimeStepLimitCount(TimeStepLimit.PITCH_STEP_ANGLE));
+	}
+
+	@Test
+	public void testApogeeAccuracy() throws Exception {
+		FlightData reference = new BasicEventSimulationEngine().simulate(
+				createConditions(SimulationStepperType.RK4, 0.001));
+		FlightData rk4 = new BasicEventSimulationEngine().simulate(
+				createConditions(SimulationStepperType.RK4, 0.05));
+		FlightData dp = new BasicEventSimulationEngine().simulate(
+				createConditions(SimulationStepperType.DORMAND_PRINCE, 0.05));
+
+		double rk4Error = Math.abs(rk4.getMaxAltitude() - reference.getMaxAltitude());
+		double dpError = Math.abs(dp.getMaxAltitude() - reference.getMaxAltitude());
+		assertEquals(reference.getMaxAltitude(), dp.getMaxAltitude(), 0.005 * reference.getMaxAltitude());
+		assertTrue("DP error " + dpError + " RK4 error " + rk4Error, dpError <= rk4Error + 0.1);
+		assertEquals(reference.getTimeToApogee(), dp.getTimeToApogee(), 0.05);
+	}
+
+	/**
+	 * Both steppers coast from the same status for 2.5 seconds.  The Dormand-Prince
+	 * stepper at the recommended error tolerance reuses the last stage of each step and
+	 * needs fewer evaluations of the derivatives than the RK4 stepper at the recommended
+	 * time step, while ending at least as close to a reference computed with a 1 ms time
+	 * step.
+	 */
+	@Test
+	public void testFewerEvaluationsThanRK4() throws Exception {
+		SimulationStatus start = captureCoastStatus(2.5);
+		SimulationStatus reference = coast(new RK4SimulationStepper(), start, 0.001, 5.0);
+		SimulationStatus rk4 = coast(new RK4SimulationStepper(), start, RK4SimulationStepper.RECOMMENDED_TIME_STEP, 5.0);
+		SimulationStatus dp = coast(new DormandPrinceSimulationStepper(), start, RK4SimulationStepper.RECOMMENDED_TIME_STEP, 5.0);
+
+		double rk4Error = rk4.getRocketPosition().sub(reference.getRocketPosition()).length();
+		double dpError = dp.getRocketPosition().sub(reference.getRocketPosition()).length();
+		assertTrue("DP error " + dpError + " RK4 error " + rk4Error, dpError <= rk4Error);
+
+		long rk4Evaluations = rk4.getProfile().getCount(Section.AERODYNAMICS);
+		long dpEvaluations = dp.getProfile().getCount(Section.AERODYNAMICS);
+		assertTrue(dpEvaluations + " < " + rk4Evaluations, dpEvaluations < rk4Evaluations);
+	}
+
+	@Test
+	public void testErrorTolerance() throws Exception {
+		SimulationConditions loose = createConditions(SimulationStepperType.DORMAND_PRINCE, 0.05);
+		loose.setErrorTolerance(1e-3);
+		loose.getSimulationListenerList().add(SimulationProfiler.INSTANCE);
+		SimulationConditions tight = createConditions(SimulationStepperType.DORMAND_PRINCE, 0.05);
+		tight.setErrorTolerance(1e-6);
+		tight.getSimulationListenerList().add(SimulationProfiler.INSTANCE);
+
+		long looseSteps = new BasicEventSimulationEngine().simulate(loose).getProfile()
+				.getStepCount(DormandPrinceSimulationStepper.class);
+		long tightSteps = new BasicEventSimulationEngine().simulate(tight).getProfile()
+				.getStepCount(DormandPrinceSimulationStepper.class);
+		assertTrue(looseSteps + " < " + tightSteps, looseSteps < tightSteps);
+	}
+
+}
@@ -0,0 +1,151 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.DoubleBuffer;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sf.openrocket.util.BaseTestCase;
+
+public class FlightDataBranchTest extends BaseTestCase {
+
+	@Test
+	public void testColumnStorage() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		assertEquals(0, branch.getLength());
+		assertEquals(Double.NaN, branch.getLast(FlightDataType.TYPE_TIME), 0);
+
+		// Enough points to grow the columns several times
+		final int n = 1000;
+		for (int i = 0; i < n; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, i);
+			if (i % 2 == 0) {
+				branch.setValue(FlightDataType.TYPE_ALTITUDE, -i);
+			}
+			if (i == 500) {
+				branch.setValue(FlightDataType.TYPE_MASS, 3);
+			}
+		}
+
+		assertEquals(n, branch.getLength());
+		assertEquals(n - 1, branch.getLast(FlightDataType.TYPE_TIME), 0);
+		assertEquals(0, branch.getMinimum(FlightDataType.TYPE_TIME), 0);
+		assertEquals(n - 1, branch.getMaximum(FlightDataType.TYPE_TIME), 0);
+		assertEquals(-998, branch.getMinimum(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(3, branch.getMaximum(FlightDataType.TYPE_MASS), 0);
+
+		// Unset values are NaN, including points before a type was added
+		assertEquals(Double.NaN, branch.getValue(FlightDataType.TYPE_ALTITUDE, 1), 0);
+		assertEquals(Double.NaN, branch.getValue(FlightDataType.TYPE_MASS, 499), 0);
+		assertEquals(3, branch.getValue(FlightDataType.TYPE_MASS, 500), 0);
+		assertEquals(Double.NaN, branch.getValue(FlightDataType.TYPE_MASS, 501), 0);
+
+		double[] time = branch.getValues(FlightDataType.TYPE_TIME);
+		assertEquals(n, time.length);
+		assertEquals(123, time[123], 0);
+		assertArrayEquals(new double[] { 10, 11, 12 }, branch.getValues(FlightDataType.TYPE_TIME, 10, 13), 0);
+		assertNull(branch.getValues(FlightDataType.TYPE_VELOCITY_Z));
+		assertEquals(Double.NaN, branch.getLast(FlightDataType.TYPE_VELOCITY_Z), 0);
+
+		List<Double> list = branch.get(FlightDataType.TYPE_ALTITUDE);
+		assertEquals(n, list.size());
+		assertEquals(-4.0, list.get(4), 0);
+		assertNull(branch.get(FlightDataType.TYPE_VELOCITY_Z));
+	}
+
+	@Test
+	public void testAddPoints() {
+		FlightDataBranch single = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		FlightDataBranch bulk = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		single.addPoint();
+		single.setValue(FlightDataType.TYPE_TIME, -1);
+		bulk.addPoint();
+		bulk.setValue(FlightDataType.TYPE_TIME, -1);
+
+		final int n = 200;
+		double[] time = new double[n];
+		double[] altitude = new double[n];
+		for (int i = 0; i < n; i++) {
+			time[i] = i;
+			altitude[i] = (i == 10) ? Double.NaN : 100 - i;
+			single.addPoint();
+			single.setValue(FlightDataType.TYPE_TIME, time[i]);
+			single.setValue(FlightDataType.TYPE_ALTITUDE, altitude[i]);
+		}
+		bulk.addPoints(new FlightDataType[] { FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE },
+				new double[][] { time, altitude });
+
+		assertEquals(single.getLength(), bulk.getLength());
+		for (FlightDataType type : single.getTypes()) {
+			assertArrayEquals(single.getValues(type), bulk.getValues(type), 0);
+			assertEquals(single.getMinimum(type), bulk.getMinimum(type), 0);
+			assertEquals(single.getMaximum(type), bulk.getMaximum(type), 0);
+		}
+		assertEquals(Double.NaN, bulk.getValue(FlightDataType.TYPE_ALTITUDE, 0), 0);
+	}
+
+	@Test
+	public void testListIsSnapshot() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME);
+		branch.addPoint();
+		branch.setValue(FlightDataType.TYPE_TIME, 1);
+
+		List<Double> list = branch.get(FlightDataType.TYPE_TIME);
+		branch.setValue(FlightDataType.TYPE_TIME, 2);
+		branch.addPoint();
+
+		assertEquals(1, list.size());
+		assertEquals(1.0, list.get(0), 0);
+		assertEquals(2, branch.get(FlightDataType.TYPE_TIME).size());
+	}
+
+	@Test
+	public void testBuffer() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME);
+		for (int i = 0; i < 3; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, i);
+		}
+
+		DoubleBuffer buffer = branch.getBuffer(FlightDataType.TYPE_TIME);
+		assertTrue(buffer.isReadOnly());
+		assertEquals(3, buffer.limit());
+		assertEquals(2.0, buffer.get(2), 0);
+		assertNull(branch.getBuffer(FlightDataType.TYPE_ALTITUDE));
+
+		// Points added later are not included
+		branch.addPoint();
+		assertEquals(3, buffer.limit());
+		assertEquals(4, branch.getBuffer(FlightDataType.TYPE_TIME).limit());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testBufferIsBounded() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME);
+		branch.addPoint();
+		branch.getBuffer(FlightDataType.TYPE_TIME).get(1);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testListIsUnmodifiable() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME);
+		branch.addPoint();
+		branch.immute();
+		branch.get(FlightDataType.TYPE_TIME).set(0, 1.0);
+	}
+
+	@Test
+	public void testEmptyBranch() {
+		FlightDataBranch branch = new FlightDataBranch();
+		assertEquals(0, branch.getLength());
+		assertEquals(FlightDataType.ALL_TYPES.length, branch.getTypes().length);
+		assertEquals(0, branch.get(FlightDataType.TYPE_TIME).size());
+		assertEquals(Double.NaN, branch.getMaximum(FlightDataType.TYPE_TIME), 0);
+	}
+}
@@ -0,0 +1,127 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.util.AllocationCounter;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.Quaternion;
+import net.sf.openrocket.util.TestRockets;
+import net.sf.openrocket.util.TestSimulations;
+
+public class RK4SimulationStepperTest extends BaseTestCase {
+
+	private static final int STEPS = 50;
+
+	private static SimulationConditions createConditions() {
+		return TestSimulations.createConditions(TestSimulations.createSimulation(TestRockets.makeEstesAlphaIII()));
+	}
+
+	/**
+	 * Run a simulation and return a copy of its status at the first step after the
+	 * given simulation time.
+	 */
+	private static SimulationStatus captureStatus(final double time) throws SimulationException {
+		SimulationConditions conditions = createConditions();
+		final SimulationStatus[] captured = new SimulationStatus[1];
+		conditions.getSimulationListenerList().add(new AbstractSimulationListener() {
+			@Override
+			public void postStep(SimulationStatus status) {
+				if (captured[0] == null && status.getSimulationTime() >= time) {
+					captured[0] = status.clone();
+				}
+			}
+		});
+		new BasicEventSimulationEngine().simulate(conditions);
+		assertNotNull(captured[0]);
+		return captured[0];
+	}
+
+	/**
+	 * Take a number of steps from a copy of the status, counting the allocations of
+	 * each step.
+	 */
+	private static SimulationStatus fly(RK4SimulationStepper stepper, SimulationStatus start,
+			AllocationCounter counter) throws SimulationException {
+		SimulationStatus copy = start.clone();
+		copy.setFlightData(new FlightDataBranch("test", FlightDataType.TYPE_TIME));
+		SimulationStatus status = stepper.initialize(copy);
+		for (int i = 0; i < STEPS; i++) {
+			counter.begin();
+			stepper.step(status, 1.0);
+			counter.end();
+		}
+		return status;
+	}
+
+	private static void assertCoordinateEquals(Coordinate expected, Coordinate actual) {
+		assertEquals(expected.x, actual.x, 0);
+		assertEquals(expected.y, actual.y, 0);
+		assertEquals(expected.z, actual.z, 0);
+	}
+
+	/**
+	 * The flight of the Alpha III must not change by the reuse of the integration
+	 * buffers.  The reference values were computed before the buffers were reused.
+	 */
+	@Test
+	public void testResultsUnchanged() throws Exception {
+		FlightData data = new BasicEventSimulationEngine().simulate(createConditions());
+		assertEquals(131.687513, data.getMaxAltitude(), 1e-4);
+		assertEquals(108.828169, data.getMaxVelocity(), 1e-4);
+		assertEquals(138.418924, data.getMaxAcceleration(), 1e-4);
+		assertEquals(42.742628, data.getFlightTime(), 1e-4);
+	}
+
+	@Test
+	public void testReusedStatusMatchesCloned() throws Exception {
+		SimulationStatus start = captureStatus(1.0);
+		AllocationCounter counter = new AllocationCounter("test");
+		SimulationStatus reused = fly(new RK4SimulationStepper(true), start, counter);
+		SimulationStatus cloned = fly(new RK4SimulationStepper(false), start, counter);
+
+		assertEquals(cloned.getSimulationTime(), reused.getSimulationTime(), 0);
+		assertCoordinateEquals(cloned.getRocketPosition(), reused.getRocketPosition());
+		assertCoordinateEquals(cloned.getRocketVelocity(), reused.getRocketVelocity());
+		assertCoordinateEquals(cloned.getRocketRotationVelocity(), reused.getRocketRotationVelocity());
+		Quaternion q1 = cloned.getRocketOrientationQuaternion();
+		Quaternion q2 = reused.getRocketOrientationQuaternion();
+		assertEquals(q1.getW(), q2.getW(), 0);
+		assertEquals(q1.getX(), q2.getX(), 0);
+		assertEquals(q1.getY(), q2.getY(), 0);
+		assertEquals(q1.getZ(), q2.getZ(), 0);
+	}
+
+	@Test
+	public void testReusedStatusAllocatesLess() throws Exception {
+		if (!AllocationCounter.isSupported()) {
+			// Allocations cannot be counted on this JVM
+			return;
+		}
+		SimulationStatus start = captureStatus(1.0);
+
+		AllocationCounter reused = new AllocationCounter("reused");
+		AllocationCounter cloned = new AllocationCounter("cloned");
+		reused.setEnabled(true);
+		cloned.setEnabled(true);
+		// Warm up both steppers before counting
+		AllocationCounter warmup = new AllocationCounter("warmup");
+		fly(new RK4SimulationStepper(true), start, warmup);
+		fly(new RK4SimulationStepper(false), start, warmup);
+
+		fly(new RK4SimulationStepper(true), start, reused);
+		fly(new RK4SimulationStepper(false), start, cloned);
+
+		assertEquals(STEPS, reused.getCount());
+		assertEquals(STEPS, cloned.getCount());
+		assertTrue(reused.getStatistics() + " / " + cloned.getStatistics(),
+				reused.getAllocatedBytes() < cloned.getAllocatedBytes());
+	}
+
+}
@@ -0,0 +1,115 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.SimulationProfile.Section;
+import net.sf.openrocket.simulation.SimulationProfile.TimeStepLimit;
+import net.sf.openrocket.simulation.listeners.system.SimulationProfiler;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+import net.sf.openrocket.util.TestSimulations;
+
+public class SimulationProfileTest extends BaseTestCase {
+
+	private static SimulationConditions createConditions() {
+		Simulation sim = TestSimulations.createSimulation(TestRockets.makeEstesAlphaIII());
+		sim.getOptions().setTimeStep(0.02);
+		return TestSimulations.createConditions(sim);
+	}
+
+	@Test
+	public void testNotProfiledByDefault() throws Exception {
+		FlightData data = new BasicEventSimulationEngine().simulate(createConditions());
+		assertNull(data.getProfile());
+	}
+
+	@Test
+	public void testProfile() throws Exception {
+		SimulationConditions conditions = createConditions();
+		conditions.getSimulationListenerList().add(SimulationProfiler.INSTANCE);
+		FlightData data = new BasicEventSimulationEngine().simulate(conditions);
+
+		SimulationProfile profile = data.getProfile();
+		assertNotNull(profile);
+		assertTrue(profile.getTotalTime() > 0);
+
+		long rk4Steps = profile.getStepCount(RK4SimulationStepper.class);
+		assertTrue(rk4Steps > 0);
+		assertTrue(profile.getStepCount(BasicLandingStepper.class) > 0);
+		assertEquals(profile.getStepCount(), rk4Steps + profile.getStepCount(BasicLandingStepper.class) +
+				profile.getStepCount(BasicTumbleStepper.class) + profile.getStepCount(GroundStepper.class));
+		assertEquals(profile.getStepCount(), data.getBranch(0).getLength() - 1, 1);
+
+		// Every RK4 step has exactly one limiting time step
+		long limits = 0;
+		for (TimeStepLimit l : TimeStepLimit.values()) {
+			limits += profile.getTimeStepLimitCount(l);
+		}
+		assertEquals(rk4Steps, limits);
+		assertTrue(profile.getTimeStepLimitCount(TimeStepLimit.LAUNCH_ROD) +
+				profile.getTimeStepLimitCount(TimeStepLimit.TIME_STEP) > 0);
+
+		// RK4 evaluates the aerodynamics four or five times per step
+		assertTrue(profile.getCount(Section.AERODYNAMICS) >= 4 * rk4Steps);
+		assertTrue(profile.getCount(Section.AERODYNAMICS) <= 5 * rk4Steps);
+		for (Section s : Section.values()) {
+			assertTrue(s.name(), profile.getCount(s) > 0);
+			assertTrue(s.name(), profile.getTime(s) > 0);
+		}
+
+		long sum = 0;
+		for (Section s : Section.values()) {
+			sum += profile.getTime(s);
+		}
+		assertTrue(sum <= profile.getTotalTime());
+
+		profile.resetStatistics();
+		assertEquals(0, profile.getStepCount());
+		assertEquals(0, profile.getTime(Section.AERODYNAMICS));
+	}
+
+	@Test
+	public void testFlightRecorderEvent() throws Exception {
+		File file = File.createTempFile("simulation", ".jfr");
+		try {
+			try (Recording recording = new Recording()) {
+				recording.enable("net.sf.openrocket.SimulationProfile");
+				recording.start();
+
+				SimulationConditions conditions = createConditions();
+				conditions.getSimulationListenerList().add(SimulationProfiler.INSTANCE);
+				new BasicEventSimulationEngine().simulate(conditions);
+
+				recording.stop();
+				recording.dump(file.toPath());
+			}
+
+			// The nested simulation computing the optimum ejection delay is profiled as well
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+			assertTrue(events.size() >= 1);
+			for (RecordedEvent event : events) {
+				assertEquals("net.sf.openrocket.SimulationProfile", event.getEventType().getName());
+				assertEquals("Estes Alpha III / Code Verification Rocket", event.getString("rocket"));
+				assertTrue(event.getLong("rk4Steps") > 0);
+				assertTrue(event.getDuration("aerodynamicsTime").toNanos() > 0);
+				assertTrue(event.getDuration().toNanos() > 0);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+}
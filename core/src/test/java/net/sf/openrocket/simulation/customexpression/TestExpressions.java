@@ -1,7 +1,14 @@
 package net.sf.openrocket.simulation.customexpression;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.SimulationConditions;
+import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.util.BaseTestCase;
 
 import org.junit.Test;
@@ -20,4 +27,57 @@ public class TestExpressions extends BaseTestCase {
 		//System.out.println(exp.getExpressionString());
 		
 	}
+	
+	@Test
+	public void testRepeatedEvaluation() {
+		OpenRocketDocument doc = OpenRocketDocumentFactory.createNewRocket();
+		SimulationStatus status = new SimulationStatus(doc.getRocket().getSelectedConfiguration(), new SimulationConditions());
+		FlightDataBranch data = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		status.setFlightData(data);
+		
+		CustomExpression exp = new CustomExpression(doc, "Test", "Tst", "m", "2*h + h[1]");
+		
+		addPoint(data, 0, 0);
+		addPoint(data, 2, 10);
+		assertEquals(2 * 10 + 5, exp.evaluateDouble(status), 1e-10);
+		
+		// The compiled expression must pick up new values
+		addPoint(data, 4, 30);
+		assertEquals(2 * 30 + 5, exp.evaluateDouble(status), 1e-10);
+		
+		// A new branch is bound correctly
+		FlightDataBranch other = new FlightDataBranch("other", FlightDataType.TYPE_ALTITUDE, FlightDataType.TYPE_TIME);
+		addPoint(other, 0, 100);
+		addPoint(other, 2, 200);
+		status.setFlightData(other);
+		assertEquals(2 * 200 + 150, exp.evaluateDouble(status), 1e-10);
+		
+		// A clone evaluates independently of the original
+		CustomExpression copy = (CustomExpression) exp.clone();
+		status.setFlightData(data);
+		assertEquals(2 * 30 + 5, copy.evaluateDouble(status), 1e-10);
+		
+		// Changing the expression recompiles it
+		exp.setExpression("t");
+		assertEquals(4, exp.evaluateDouble(status), 1e-10);
+		
+		exp.setExpression("2*");
+		assertTrue(Double.isNaN(exp.evaluateDouble(status)));
+	}
+	
+	@Test
+	public void testCheckExpression() {
+		OpenRocketDocument doc = OpenRocketDocumentFactory.createNewRocket();
+		
+		assertTrue(new CustomExpression(doc, "Test", "Tst", "m", "2*h + sin(t)").checkExpression());
+		assertTrue(new CustomExpression(doc, "Test", "Tst", "m", "h[1] + mean(h[0:t])").checkExpression());
+		assertFalse(new CustomExpression(doc, "Test", "Tst", "m", "2*undefined").checkExpression());
+		assertFalse(new CustomExpression(doc, "Test", "Tst", "m", "nofunction(h)").checkExpression());
+	}
+	
+	private static void addPoint(FlightDataBranch data, double time, double altitude) {
+		data.addPoint();
+		data.setValue(FlightDataType.TYPE_TIME, time);
+		data.setValue(FlightDataType.TYPE_ALTITUDE, altitude);
+	}
 }
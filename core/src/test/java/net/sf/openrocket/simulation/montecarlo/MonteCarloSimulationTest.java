@@ -0,0 +1,185 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.simulation.SimulationConditions;
+import net.sf.openrocket.util.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+import net.sf.openrocket.util.TestSimulations;
+
+public class MonteCarloSimulationTest extends BaseTestCase {
+
+	private static SimulationConditions createConditions() {
+		Simulation sim = TestSimulations.createSimulation(TestRockets.makeEstesAlphaIII());
+		sim.getOptions().setTimeStep(0.02);
+		return TestSimulations.createConditions(sim);
+	}
+
+	private static MonteCarloParameters createParameters() {
+		MonteCarloParameters params = new MonteCarloParameters();
+		params.setWindSpeed(Distribution.normal(3, 1));
+		params.setWindDirection(Distribution.uniform(0, 2 * Math.PI));
+		params.setLaunchRodAngle(Distribution.normal(0, 0.05));
+		params.setThrustScale(Distribution.normal(1, 0.03));
+		params.setDragScale(Distribution.normal(1, 0.05));
+		params.setMassScale(Distribution.normal(1, 0.02));
+		return params;
+	}
+
+	@Test
+	public void testReproducibleAcrossThreadCounts() throws Exception {
+		SimulationConditions conditions = createConditions();
+		MonteCarloParameters params = createParameters();
+
+		MonteCarloSimulation single = new MonteCarloSimulation(conditions, params);
+		single.setRunCount(8);
+		single.setSeed(1234);
+		final List<Integer> order = new ArrayList<Integer>();
+		single.addMonteCarloListener(new MonteCarloListener() {
+			@Override
+			public void runCompleted(MonteCarloRun run, MonteCarloResult result) {
+				order.add(run.getIndex());
+				assertEquals(order.size(), result.getRunCount());
+			}
+		});
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		MonteCarloResult r1;
+		try {
+			r1 = single.run(executor);
+		} finally {
+			executor.shutdown();
+		}
+
+		MonteCarloSimulation parallel = new MonteCarloSimulation(conditions, params);
+		parallel.setRunCount(8);
+		parallel.setSeed(1234);
+		executor = Executors.newFixedThreadPool(4);
+		MonteCarloResult r2;
+		try {
+			r2 = parallel.run(executor);
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(8, r1.getRunCount());
+		assertEquals(0, r1.getFailureCount());
+		assertFalse(r1.isCancelled());
+		for (int i = 0; i < 8; i++) {
+			assertEquals(i, (int) order.get(i));
+		}
+
+		assertEquals(8, r1.getApogee().getCount());
+		assertTrue(r1.getApogee().getMean() > 10);
+		assertTrue(r1.getApogee().getStandardDeviation() > 0);
+		assertTrue(r1.getLanding().getMajorAxisDeviation() >= r1.getLanding().getMinorAxisDeviation());
+
+		// Identical statistics regardless of the number of threads
+		assertEquals(r1.getApogee().getMean(), r2.getApogee().getMean(), 0);
+		assertEquals(r1.getApogee().getVariance(), r2.getApogee().getVariance(), 0);
+		assertEquals(r1.getLanding().getMeanX(), r2.getLanding().getMeanX(), 0);
+		assertEquals(r1.getLanding().getCovariance(), r2.getLanding().getCovariance(), 0);
+
+		// A different seed gives different runs
+		parallel.setSeed(4321);
+		MonteCarloResult r3 = parallel.run();
+		assertNotEquals(r1.getApogee().getMean(), r3.getApogee().getMean(), 0);
+	}
+
+	@Test
+	public void testDispersionEffects() throws Exception {
+		SimulationConditions conditions = createConditions();
+
+		double nominal = runSingle(conditions, new MonteCarloParameters());
+
+		MonteCarloParameters params = new MonteCarloParameters();
+		params.setThrustScale(Distribution.fixed(1.1));
+		assertTrue(runSingle(conditions, params) > nominal);
+
+		params = new MonteCarloParameters();
+		params.setDragScale(Distribution.fixed(1.5));
+		assertTrue(runSingle(conditions, params) < nominal);
+
+		params = new MonteCarloParameters();
+		params.setMassScale(Distribution.fixed(1.2));
+		assertTrue(runSingle(conditions, params) < nominal);
+	}
+
+	private static double runSingle(SimulationConditions conditions, MonteCarloParameters params) throws Exception {
+		params.setWindSpeed(Distribution.fixed(0));
+		MonteCarloSimulation mc = new MonteCarloSimulation(conditions, params);
+		mc.setRunCount(1);
+		MonteCarloResult result = mc.run();
+		assertEquals(0, result.getFailureCount());
+		return result.getApogee().getMean();
+	}
+
+	@Test
+	public void testCancelBeforeRun() throws Exception {
+		MonteCarloSimulation mc = new MonteCarloSimulation(createConditions(), createParameters());
+		mc.setRunCount(4);
+		mc.cancel();
+
+		MonteCarloResult result = mc.run();
+		assertTrue(result.isCancelled());
+		assertEquals(0, result.getRunCount());
+
+		mc.reset();
+		result = mc.run();
+		assertFalse(result.isCancelled());
+		assertEquals(4, result.getRunCount());
+		assertEquals(0, result.getFailureCount());
+	}
+
+	@Test
+	public void testRunSeeds() {
+		assertEquals(MonteCarloSimulation.runSeed(5, 3), MonteCarloSimulation.runSeed(5, 3));
+		assertNotEquals(MonteCarloSimulation.runSeed(5, 3), MonteCarloSimulation.runSeed(5, 4));
+		assertNotEquals(MonteCarloSimulation.runSeed(5, 3), MonteCarloSimulation.runSeed(6, 3));
+	}
+
+	@Test
+	public void testSampleStatistics() {
+		SampleStatistics stats = new SampleStatistics("test");
+		assertEquals(Double.NaN, stats.getMean(), 0);
+		for (double v : new double[] { 2, 4, 4, 4, 5, 5, 7, 9, Double.NaN }) {
+			stats.add(v);
+		}
+		assertEquals(8, stats.getCount());
+		assertEquals(5, stats.getMean(), 1e-12);
+		assertEquals(32.0 / 7, stats.getVariance(), 1e-12);
+		assertEquals(2, stats.getMin(), 0);
+		assertEquals(9, stats.getMax(), 0);
+
+		stats.resetStatistics();
+		assertEquals(0, stats.getCount());
+		assertEquals(Double.NaN, stats.getMax(), 0);
+	}
+
+	@Test
+	public void testLandingDispersion() {
+		LandingDispersion landing = new LandingDispersion();
+		// Points along the line y = x
+		for (int i = -2; i <= 2; i++) {
+			landing.add(10 + i, 10 + i);
+		}
+		assertEquals(5, landing.getCount());
+		assertEquals(10, landing.getMeanX(), 1e-12);
+		assertEquals(10, landing.getMeanY(), 1e-12);
+		assertEquals(2.5, landing.getCovariance(), 1e-12);
+		assertEquals(Math.sqrt(5), landing.getMajorAxisDeviation(), 1e-12);
+		assertEquals(0, landing.getMinorAxisDeviation(), 1e-6);
+		assertEquals(Math.PI / 4, landing.getMajorAxisDirection(), 1e-12);
+		assertEquals(Math.hypot(12, 12), landing.getMaxDistance(), 1e-12);
+	}
+}
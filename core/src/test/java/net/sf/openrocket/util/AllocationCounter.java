@@ -0,0 +1,149 @@
+package net.sf.openrocket.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * A counter of the number of bytes allocated on the heap by the current thread
+ * between calls to {@link #begin()} and {@link #end()}.  This is intended for
+ * verifying that hot loops, such as simulation steppers, do not produce excessive
+ * garbage.
+ * <p>
+ * The counting relies on the <code>com.sun.management.ThreadMXBean</code> extension
+ * of the JVM.  If it is not available, the counter is a no-op and
+ * {@link #isSupported()} returns <code>false</code>.  Enabling a counter turns on the
+ * thread allocation accounting of the whole JVM, which has a small cost, so this class
+ * is only intended for tests.
+ * <p>
+ * This class is not thread-safe; an instance should only be used from a single thread.
+ */
+public final class AllocationCounter implements Statistics {
+
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN;
+	static {
+		com.sun.management.ThreadMXBean bean = null;
+		try {
+			java.lang.management.ThreadMXBean b = ManagementFactory.getThreadMXBean();
+			if (b instanceof com.sun.management.ThreadMXBean &&
+					((com.sun.management.ThreadMXBean) b).isThreadAllocatedMemorySupported()) {
+				bean = (com.sun.management.ThreadMXBean) b;
+			}
+		} catch (Throwable ignore) {
+			bean = null;
+		}
+		THREAD_BEAN = bean;
+	}
+
+	private final String name;
+
+	private boolean enabled = false;
+	private long startBytes = -1;
+	private long allocatedBytes = 0;
+	private long count = 0;
+
+
+	/**
+	 * Create a new, disabled allocation counter.
+	 *
+	 * @param name	a descriptive name used in {@link #getStatistics()}.
+	 */
+	public AllocationCounter(String name) {
+		this.name = name;
+	}
+
+
+	/**
+	 * Return whether the JVM supports counting thread allocations.
+	 */
+	public static boolean isSupported() {
+		return THREAD_BEAN != null;
+	}
+
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enable or disable the counter.  Counting is only performed if it is both enabled
+	 * and supported by the JVM.  Enabling the counter enables the thread allocation
+	 * accounting of the JVM, which is left enabled when the counter is disabled.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled && isSupported();
+		if (this.enabled) {
+			THREAD_BEAN.setThreadAllocatedMemoryEnabled(true);
+		}
+		this.startBytes = -1;
+	}
+
+
+	/**
+	 * Mark the start of a measured section.
+	 */
+	public void begin() {
+		if (enabled) {
+			startBytes = currentThreadAllocatedBytes();
+		}
+	}
+
+	/**
+	 * Mark the end of a measured section, adding the bytes allocated since the previous
+	 * call to {@link #begin()} to the total.
+	 */
+	public void end() {
+		if (enabled && startBytes >= 0) {
+			allocatedBytes += currentThreadAllocatedBytes() - startBytes;
+			count++;
+			startBytes = -1;
+		}
+	}
+
+
+	/**
+	 * Return the total number of bytes allocated within measured sections.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Return the number of measured sections.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Return the average number of bytes allocated per measured section, or NaN if
+	 * nothing has been measured.
+	 */
+	public double getBytesPerCount() {
+		if (count == 0) {
+			return Double.NaN;
+		}
+		return ((double) allocatedBytes) / count;
+	}
+
+
+	@Override
+	public String getStatistics() {
+		if (count == 0) {
+			return name + ": no measurements";
+		}
+		return name + ": " + count + " sections, " + allocatedBytes + " bytes allocated, " +
+				Math.round(getBytesPerCount()) + " bytes/section";
+	}
+
+	@Override
+	public void resetStatistics() {
+		allocatedBytes = 0;
+		count = 0;
+		startBytes = -1;
+	}
+
+
+	private static long currentThreadAllocatedBytes() {
+		return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+}
@@ -0,0 +1,59 @@
+package net.sf.openrocket.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sf.openrocket.aerodynamics.barrowman.FinSetCalc;
+import net.sf.openrocket.aerodynamics.barrowman.SymmetricComponentCalc;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.NoseCone;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.TrapezoidFinSet;
+
+public class ComponentDispatcherTest extends BaseTestCase {
+
+	@Test
+	public void testConstructorFromSuperclass() {
+		ComponentDispatcher dispatcher = ComponentDispatcher.forConstructor("net.sf.openrocket.aerodynamics.barrowman", "Calc");
+		
+		// There is no NoseConeCalc or TrapezoidFinSetCalc, the superclass calculators are used
+		assertEquals(SymmetricComponentCalc.class, dispatcher.invoke(new NoseCone()).getClass());
+		BodyTube body = new BodyTube();
+		TrapezoidFinSet fins = new TrapezoidFinSet();
+		body.addChild(fins);
+		assertEquals(FinSetCalc.class, dispatcher.invoke(fins).getClass());
+	}
+	
+	@Test
+	public void testStaticMethod() {
+		ComponentDispatcher dispatcher = ComponentDispatcher.forMethod("net.sf.openrocket.file.openrocket.savers", "Saver",
+				"getElements", RocketComponent.class);
+		
+		BodyTube body = new BodyTube();
+		body.setName("Test tube");
+		assertTrue(dispatcher.isSupported(body));
+		List<?> elements = (List<?>) dispatcher.invoke(body);
+		assertTrue(elements.contains("<name>Test tube</name>"));
+	}
+	
+	@Test
+	public void testMissingRoleClass() {
+		ComponentDispatcher dispatcher = ComponentDispatcher.forMethod("net.sf.openrocket.file.openrocket.savers", "Saver",
+				"noSuchMethod", RocketComponent.class);
+		
+		BodyTube body = new BodyTube();
+		assertFalse(dispatcher.isSupported(body));
+		try {
+			dispatcher.invoke(body);
+			fail();
+		} catch (BugException ignore) {
+		}
+	}
+	
+}
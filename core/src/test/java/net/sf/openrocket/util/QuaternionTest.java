@@ -45,5 +45,40 @@ public class QuaternionTest {
 		
 	}
 	
-	
+	@Test
+	public void testRotationFromComponents() {
+		Coordinate rot = new Coordinate(0.3, -1.2, 0.7);
+		Quaternion q1 = Quaternion.rotation(rot);
+		Quaternion q2 = Quaternion.rotation(rot.x, rot.y, rot.z);
+		assertEquals(q1.getW(), q2.getW(), 0);
+		assertEquals(q1.getX(), q2.getX(), 0);
+		assertEquals(q1.getY(), q2.getY(), 0);
+		assertEquals(q1.getZ(), q2.getZ(), 0);
+		
+		Quaternion id = Quaternion.rotation(0, 0, 0);
+		assertEquals(1.0, id.getW(), 0);
+		assertEquals(0.0, id.getX(), 0);
+		assertEquals(0.0, id.getY(), 0);
+		assertEquals(0.0, id.getZ(), 0);
+	}
+
+	@Test
+	public void testRotateIntoArray() {
+		Quaternion q = Quaternion.rotation(0.3, -1.2, 0.7);
+		Coordinate c = new Coordinate(12.5, -3.25, 0.75);
+		double[] result = new double[3];
+
+		Coordinate r = q.rotate(c);
+		q.rotate(c.x, c.y, c.z, result);
+		assertEquals(r.x, result[0], 0);
+		assertEquals(r.y, result[1], 0);
+		assertEquals(r.z, result[2], 0);
+
+		r = q.invRotate(c);
+		q.invRotate(c.x, c.y, c.z, result);
+		assertEquals(r.x, result[0], 0);
+		assertEquals(r.y, result[1], 0);
+		assertEquals(r.z, result[2], 0);
+	}
+
 }
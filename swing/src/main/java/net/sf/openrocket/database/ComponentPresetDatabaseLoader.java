@@ -1,16 +1,20 @@
 package net.sf.openrocket.database;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.util.Collection;
 import java.util.List;
 
+import net.sf.openrocket.arch.SystemInfo;
 import net.sf.openrocket.file.iterator.DirectoryIterator;
 import net.sf.openrocket.file.iterator.FileIterator;
 import net.sf.openrocket.gui.util.SimpleFileFilter;
 import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.preset.ComponentPreset;
+import net.sf.openrocket.preset.ComponentPresetCache;
 import net.sf.openrocket.preset.xml.OpenRocketComponentLoader;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.util.BugException;
@@ -29,8 +33,10 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 	private final static Logger log = LoggerFactory.getLogger(ComponentPresetDatabaseLoader.class);
 	
 	private static final String SYSTEM_PRESET_DIR = "datafiles/presets";
+	private static final String CACHE_FILE = "ComponentPresetCache.dat";
 	private int fileCount = 0;
 	private int presetCount = 0;
+	private int cachedCount = 0;
 	
 	/** the database is immutable*/
 	private final ComponentPresetDatabase componentPresetDao = new ComponentPresetDatabase();
@@ -53,18 +59,24 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 	@Override
 	protected void loadDatabase() {
 		long startTime = System.currentTimeMillis();
-		loadPresetComponents();
-		loadUserComponents();
+		ComponentPresetCache cache = new ComponentPresetCache(new File(SystemInfo.getUserApplicationDirectory(), CACHE_FILE));
+		cache.load();
+		loadPresetComponents(cache);
+		loadUserComponents(cache);
+		cache.save();
 		long end = System.currentTimeMillis();
-		log.debug("Time to load presets: " + (end - startTime) + "ms " + presetCount + " loaded from " + fileCount + " files");
+		log.debug("Time to load presets: " + (end - startTime) + "ms " + presetCount + " loaded from " + fileCount + " files, "
+				+ cachedCount + " files from cache");
 		
 	}
 
 	/**
 	 * loads the user defined defined components into the database
 	 * uses the directory defined in the preferences
+	 * 
+	 * @param cache	the cache of loaded preset files
 	 */
-	private void loadUserComponents() {
+	private void loadUserComponents(ComponentPresetCache cache) {
 		SimpleFileFilter orcFilter = new SimpleFileFilter("", false, "orc");
 		FileIterator iterator;
 		try {
@@ -78,7 +90,7 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 		}
 		while (iterator.hasNext()) {
 			Pair<String, InputStream> f = iterator.next();
-			Collection<ComponentPreset> presets = loadFile(f.getU(), f.getV());
+			Collection<ComponentPreset> presets = loadFile(f.getU(), f.getV(), cache);
 			componentPresetDao.addAll(presets);
 			fileCount++;
 			presetCount += presets.size();
@@ -88,8 +100,10 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 	/**
 	 * loads the default preset components into the database
 	 * uses the file directory from "datafiles/presets"
+	 * 
+	 * @param cache	the cache of loaded preset files
 	 */
-	private void loadPresetComponents() {
+	private void loadPresetComponents(ComponentPresetCache cache) {
 		log.info("Loading component presets from " + SYSTEM_PRESET_DIR);
 		FileIterator iterator = DirectoryIterator.findDirectory(SYSTEM_PRESET_DIR, new SimpleFileFilter("", false, "orc"));
 		
@@ -98,7 +112,7 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 
 		while (iterator.hasNext()) {
 			Pair<String, InputStream> f = iterator.next();
-			Collection<ComponentPreset> presets = loadFile(f.getU(), f.getV());
+			Collection<ComponentPreset> presets = loadFile(f.getU(), f.getV(), cache);
 			componentPresetDao.addAll(presets);
 			fileCount++;
 			presetCount += presets.size();
@@ -107,16 +121,39 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 	
 	/**
 	 * load components from a custom component file
-	 * uses an OpenRocketComponentLoader for the job
+	 * uses an OpenRocketComponentLoader for the job, unless the file
+	 * has not changed since it was cached
 	 * 
 	 * @param fileName	name of the file to be 
 	 * @param stream	the input stream to the file
+	 * @param cache		the cache of loaded preset files
 	 * @return	a collection of components preset from the file
 	 */
-	private Collection<ComponentPreset> loadFile(String fileName, InputStream stream) {
+	private Collection<ComponentPreset> loadFile(String fileName, InputStream stream, ComponentPresetCache cache) {
+		byte[] contents;
+		try {
+			contents = stream.readAllBytes();
+		} catch (IOException e) {
+			throw new BugException("Unable to read file: " + fileName, e);
+		} finally {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				log.debug("Unable to close file " + fileName, e);
+			}
+		}
+		
+		String digest = ComponentPresetCache.digest(contents);
+		Collection<ComponentPreset> presets = cache.get(fileName, digest);
+		if (presets != null) {
+			cachedCount++;
+			return presets;
+		}
+		
 		log.debug("loading from file: " + fileName);
 		OpenRocketComponentLoader loader = new OpenRocketComponentLoader();
-		Collection<ComponentPreset> presets = loader.load(stream, fileName);
+		presets = loader.load(new ByteArrayInputStream(contents), fileName);
+		cache.put(fileName, digest, presets);
 		return presets;
 		
 	}
@@ -5,23 +5,36 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import net.sf.openrocket.l10n.Translator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sf.openrocket.arch.SystemInfo;
+import net.sf.openrocket.database.motor.MotorFileCache;
 import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
 import net.sf.openrocket.file.iterator.DirectoryIterator;
 import net.sf.openrocket.file.iterator.FileIterator;
 import net.sf.openrocket.file.motor.GeneralMotorLoader;
+import net.sf.openrocket.file.motor.MotorDatabaseFile;
 import net.sf.openrocket.gui.util.SimpleFileFilter;
 import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.JarUtil;
 import net.sf.openrocket.util.Pair;
 
 import javax.swing.JOptionPane;
@@ -39,6 +52,8 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 
 	private static final String THRUSTCURVE_DIRECTORY = "datafiles/thrustcurves/";
 	private static final long STARTUP_DELAY = 0;
+	private static final String CACHE_FILE = "ThrustCurveCache.motors";
+	private static final int LOADING_THREADS = Math.min(8, Math.max(2, Runtime.getRuntime().availableProcessors()));
 	
 	private final ThrustCurveMotorSetDatabase database = new ThrustCurveMotorSetDatabase();
 	private int motorCount = 0;
@@ -53,7 +68,7 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 	
 	@Override
 	protected void loadDatabase() {
-		loadSerializedMotorDatabase();
+		loadBuiltInMotorDatabase();
 		loadUserDefinedMotors();
 	}
 
@@ -61,127 +76,217 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 	/**
 	 * Loads the user defined motors
 	 * the directories are defined in the preferences
+	 * 
+	 * The files are parsed in parallel, and files that have not changed since the
+	 * previous launch are read from the motor cache instead.
 	 */
 	private void loadUserDefinedMotors() {
-		GeneralMotorLoader loader = new GeneralMotorLoader();
-		SimpleFileFilter fileFilter = new SimpleFileFilter("", loader.getSupportedExtensions());
+		SimpleFileFilter fileFilter = new SimpleFileFilter("", new GeneralMotorLoader().getSupportedExtensions());
 		log.info("Starting reading user-defined motors");
+		List<File> files = new ArrayList<File>();
 		for (File file : ((SwingPreferences) Application.getPreferences()).getUserThrustCurveFiles()) {
 			if (file.isFile()) {
-				loadFile(loader, file);
+				files.add(file);
 			} else if (file.isDirectory()) {
-				loadDirectory(loader, fileFilter, file);
+				listDirectory(fileFilter, file, files);
 			} else {
 				log.warn("User-defined motor file " + file + " is neither file nor directory");
 			}
 		}
+		
+		MotorFileCache cache = new MotorFileCache(new File(SystemInfo.getUserApplicationDirectory(), CACHE_FILE));
+		cache.load();
+		loadFiles(files, cache);
+		cache.save();
 		log.info("Ending reading user-defined motors, motorCount=" + motorCount);
 	}
-
-
+	
+	
 	/**
-	 * Loads the default, with established serialized manufacturing and data
-	 * uses directory "datafiles/thrustcurves" for data  
+	 * lists the motor files of a directory and its subdirectories
+	 * 
+	 * @param fileFilter	the supported extensions of files
+	 * @param dir			the directory file object
+	 * @param files			the list to add the files to
 	 */
-	private void loadSerializedMotorDatabase() {
-		log.info("Starting reading serialized motor database");
-		FileIterator iterator = DirectoryIterator.findDirectory(THRUSTCURVE_DIRECTORY, new SimpleFileFilter("", false, "ser"));
-		while (iterator.hasNext()) {
-			Pair<String, InputStream> f = iterator.next();
-			loadSerialized(f);
+	private void listDirectory(SimpleFileFilter fileFilter, File dir, List<File> files) {
+		File[] list = dir.listFiles();
+		if (list == null) {
+			log.warn("Unable to read directory " + dir);
+			return;
+		}
+		for (File file : list) {
+			if (file.getName().startsWith(".")) {
+				continue;
+			}
+			if (file.isDirectory()) {
+				listDirectory(fileFilter, file, files);
+			} else if (fileFilter.accept(file)) {
+				files.add(file);
+			}
 		}
-		log.info("Ending reading serialized motor database, motorCount=" + motorCount);
 	}
 	
 	
 	/**
-	 * loads a serailized motor data from an stream
+	 * loads motor files into the database, parsing the files not in the cache with a
+	 * bounded number of threads
+	 * the motors are added to the database in the order of the files
 	 * 
-	 * @param f	the pair of a String with the filename (for logging) and the input stream
+	 * @param files		the motor files
+	 * @param cache		the cache of parsed motor files
 	 */
-	@SuppressWarnings("unchecked")
-	private void loadSerialized(Pair<String, InputStream> f) {
+	private void loadFiles(List<File> files, MotorFileCache cache) {
+		ExecutorService executor = Executors.newFixedThreadPool(LOADING_THREADS, new ThreadFactory() {
+			private int count = 0;
+			
+			@Override
+			public synchronized Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "MotorFileLoadingThread-" + (++count));
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
 		try {
-			log.debug("Reading motors from file " + f.getU());
-			ObjectInputStream ois = new ObjectInputStream(f.getV());
-			List<ThrustCurveMotor> motors = (List<ThrustCurveMotor>) ois.readObject();
-			addMotors(motors);
-		} catch (Exception ex) {
-			throw new BugException(ex);
+			List<Future<ParsedFile>> results = new ArrayList<Future<ParsedFile>>(files.size());
+			int cached = 0;
+			for (final File file : files) {
+				List<ThrustCurveMotor> motors = cache.get(file);
+				if (motors != null) {
+					results.add(CompletableFuture.completedFuture(new ParsedFile(file, motors)));
+					cached++;
+				} else {
+					results.add(executor.submit(new Callable<ParsedFile>() {
+						@Override
+						public ParsedFile call() {
+							return parseFile(file);
+						}
+					}));
+				}
+			}
+			log.debug("Loading " + files.size() + " user-defined motor files, " + cached + " from cache");
+			
+			for (Future<ParsedFile> result : results) {
+				ParsedFile f;
+				try {
+					f = result.get();
+				} catch (InterruptedException e) {
+					throw new BugException("Interrupted while loading motor files", e);
+				} catch (ExecutionException e) {
+					throw new BugException(e.getCause());
+				}
+				addParsedFile(f, cache);
+			}
+		} finally {
+			executor.shutdownNow();
 		}
 	}
 	
 	/**
-	 * loads a single motor file into the database using a simple file handler object
+	 * parses a single motor file, called concurrently for several files
 	 * 
-	 * @param loader	the motor loading handler object
 	 * @param file		the File to the file itself
+	 * @return			the motors of the file or the error that occurred
 	 */
-	private void loadFile(GeneralMotorLoader loader, File file) {
-		try {
-			log.debug("Loading motors from file " + file);
-			loadFile(
-					loader,
-					new Pair<String,InputStream>(
-							file.getName(),
-							new BufferedInputStream(new FileInputStream(file))));
+	private static ParsedFile parseFile(File file) {
+		log.debug("Loading motors from file " + file);
+		ParsedFile f = new ParsedFile(file);
+		try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+			for (ThrustCurveMotor.Builder builder : new GeneralMotorLoader().load(is, file.getName())) {
+				f.motors.add(builder.build());
+			}
+		} catch (IllegalArgumentException e) {
+			f.invalid = e;
 		} catch (IOException e) {
-			log.warn("IOException while reading " + file + ": " + e, e);
+			f.ioException = e;
 		}
+		return f;
 	}
 	
 	/**
-	 * loads a single motor file into the database using inputStream instead of file object
+	 * adds the motors of a parsed file into the database and the cache, or reports the error of the file
 	 * 
-	 * @param loader	an object to handle the loading
-	 * @param f			the pair of File name and its input stream
+	 * @param f			the parsed file
+	 * @param cache		the cache of parsed motor files
 	 */
-	private void loadFile(GeneralMotorLoader loader, Pair<String, InputStream> f) {
+	private void addParsedFile(ParsedFile f, MotorFileCache cache) {
+		if (f.ioException != null) {
+			log.warn("IOException while loading file " + f.file + ": " + f.ioException, f.ioException);
+			return;
+		}
+		
+		IllegalArgumentException invalid = f.invalid;
 		try {
-			List<ThrustCurveMotor.Builder> motors = loader.load(f.getV(), f.getU());
-			try {
-				addMotorsFromBuilders(motors);
-			}
-			catch (IllegalArgumentException e) {
-				Translator trans = Application.getTranslator();
-				String message = "<html><body><p style='width: 400px;'><i>" + e.getMessage() +
-						"</i>.<br><br>" + MessageFormat.format( trans.get("MotorDbLoaderDlg.message1"), f.getU()) +
-						"<br>" + trans.get("MotorDbLoaderDlg.message2") + "</p></body></html>";
-				JOptionPane.showMessageDialog(null,
-						message, trans.get("MotorDbLoaderDlg.title"), JOptionPane.WARNING_MESSAGE);
-			}
-			f.getV().close();
-		} catch (IOException e) {
-			log.warn("IOException while loading file " + f.getU() + ": " + e, e);
-			try {
-				f.getV().close();
-			} catch (IOException e1) {
-			}
+			addMotors(f.motors);
+		} catch (IllegalArgumentException e) {
+			invalid = e;
+		}
+		
+		if (invalid != null) {
+			Translator trans = Application.getTranslator();
+			String message = "<html><body><p style='width: 400px;'><i>" + invalid.getMessage() +
+					"</i>.<br><br>" + MessageFormat.format( trans.get("MotorDbLoaderDlg.message1"), f.file.getName()) +
+					"<br>" + trans.get("MotorDbLoaderDlg.message2") + "</p></body></html>";
+			JOptionPane.showMessageDialog(null,
+					message, trans.get("MotorDbLoaderDlg.title"), JOptionPane.WARNING_MESSAGE);
+		} else if (f.length >= 0) {
+			cache.put(f.file, f.length, f.lastModified, f.motors);
 		}
 	}
+
+
+	/**
+	 * Loads the built-in motor database files
+	 * uses directory "datafiles/thrustcurves" for data  
+	 */
+	private void loadBuiltInMotorDatabase() {
+		log.info("Starting reading built-in motor database");
+		FileIterator iterator = DirectoryIterator.findDirectory(THRUSTCURVE_DIRECTORY,
+				new SimpleFileFilter("", false, MotorDatabaseFile.EXTENSION));
+		while (iterator.hasNext()) {
+			Pair<String, InputStream> f = iterator.next();
+			loadMotorDatabaseFile(f);
+		}
+		log.info("Ending reading built-in motor database, motorCount=" + motorCount);
+	}
+	
 	
 	/**
-	 * loads an entire directory of motor files
+	 * loads a motor database file, mapping it into memory if it is on the file system
+	 * and reading it from the stream otherwise
 	 * 
-	 * @param loader 		a motor loading handler object
-	 * @param fileFilter	the supported extensions of files
-	 * @param file			the directory file object
+	 * @param f	the pair of a String with the filename and the input stream
 	 */
-	private void loadDirectory(GeneralMotorLoader loader, SimpleFileFilter fileFilter, File file) {
-		FileIterator iterator;
+	private void loadMotorDatabaseFile(Pair<String, InputStream> f) {
 		try {
-			iterator = new DirectoryIterator(file, fileFilter, true);
-		} catch (IOException e) {
-			log.warn("Unable to read directory " + file + ": " + e, e);
-			return;
-		}
-		while (iterator.hasNext()) {
-			loadFile(loader, iterator.next());
+			log.debug("Reading motors from file " + f.getU());
+			ByteBuffer buffer;
+			File file = findResourceFile(THRUSTCURVE_DIRECTORY + new File(f.getU()).getName());
+			if (file != null) {
+				buffer = MotorDatabaseFile.map(file);
+			} else {
+				buffer = MotorDatabaseFile.read(f.getV());
+			}
+			f.getV().close();
+			addMotors(MotorDatabaseFile.readMotors(buffer));
+		} catch (Exception ex) {
+			throw new BugException(ex);
 		}
 	}
-
-
 	
+	/**
+	 * Return the file of a system resource, or null if the resource is not a plain file
+	 * (for example if it is within a JAR file).
+	 */
+	private static File findResourceFile(String name) {
+		URL url = ClassLoader.getSystemResource(name);
+		if (url == null || !"file".equals(url.getProtocol())) {
+			return null;
+		}
+		File file = JarUtil.urlToFile(url);
+		return file.isFile() ? file : null;
+	}
 	
 	/**
 	 * adds a motor list into the database
@@ -194,18 +299,6 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 		}
 	}
 	
-	/**
-	 * builds the motors while building them
-	 * 
-	 * @param motorBuilders List of motor builders to be used for adding motor into the database
-	 */
-	private synchronized void addMotorsFromBuilders(List<ThrustCurveMotor.Builder> motorBuilders) {
-		for (ThrustCurveMotor.Builder m : motorBuilders) {
-			motorCount++;
-			database.addMotor(m.build());
-		}
-	}
-	
 	/**
 	 * Returns the loaded database.  If the database has not fully loaded,
 	 * this blocks until it is.
@@ -216,4 +309,32 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 		blockUntilLoaded();
 		return database;
 	}
+	
+	
+	/**
+	 * the result of parsing a motor file
+	 */
+	private static class ParsedFile {
+		private final File file;
+		// The size and modification time before parsing, or -1 if read from the cache
+		private final long length;
+		private final long lastModified;
+		private final List<ThrustCurveMotor> motors;
+		private IllegalArgumentException invalid = null;
+		private IOException ioException = null;
+		
+		private ParsedFile(File file) {
+			this.file = file;
+			this.length = file.length();
+			this.lastModified = file.lastModified();
+			this.motors = new ArrayList<ThrustCurveMotor>();
+		}
+		
+		private ParsedFile(File file, List<ThrustCurveMotor> motors) {
+			this.file = file;
+			this.length = -1;
+			this.lastModified = -1;
+			this.motors = motors;
+		}
+	}
 }
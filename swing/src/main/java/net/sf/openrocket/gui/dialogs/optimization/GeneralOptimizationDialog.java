@@ -116,6 +116,9 @@ public class GeneralOptimizationDialog extends JDialog {
 	private static final String GOAL_MINIMIZE = trans.get("goal.minimize");
 	private static final String GOAL_SEEK = trans.get("goal.seek");
 	
+	private static final String METHOD_LOCAL = trans.get("method.local");
+	private static final String METHOD_GLOBAL = trans.get("method.global");
+	
 	private static final String START_TEXT = trans.get("btn.start");
 	private static final String STOP_TEXT = trans.get("btn.stop");
 	
@@ -146,6 +149,8 @@ public class GeneralOptimizationDialog extends JDialog {
 	private final UnitSelector optimizationGoalUnitSelector;
 	private final DoubleModel optimizationSeekValue;
 	
+	private final JComboBox<String> optimizationMethodCombo;
+	
 	private final DoubleModel minimumStability;
 	private final DoubleModel maximumStability;
 	private final JCheckBox minimumStabilitySelected;
@@ -413,6 +418,20 @@ public class GeneralOptimizationDialog extends JDialog {
 		disableComponents.add(optimizationGoalUnitSelector);
 		sub.add(optimizationGoalUnitSelector, "width 20lp, wrap unrel");
 		
+		// // Optimization method
+		label = new JLabel(trans.get("lbl.optimizeMethod"));
+		tip = trans.get("lbl.optimizeMethod.ttip");
+		label.setToolTipText(tip);
+		disableComponents.add(label);
+		sub.add(label, "");
+		
+		optimizationMethodCombo = new JComboBox<>(new String[] { METHOD_LOCAL, METHOD_GLOBAL });
+		optimizationMethodCombo.setToolTipText(tip);
+		optimizationMethodCombo.setEditable(false);
+		optimizationMethodCombo.addActionListener(clearHistoryActionListener);
+		disableComponents.add(optimizationMethodCombo);
+		sub.add(optimizationMethodCombo, "growx, wrap unrel");
+		
 		panel.add(sub, "grow");
 		
 		// // Required stability sub-panel
@@ -714,8 +733,10 @@ public class GeneralOptimizationDialog extends JDialog {
 			
 		}
 		
+		boolean globalSearch = METHOD_GLOBAL.equals(optimizationMethodCombo.getSelectedItem());
+		
 		// Create and start the background worker
-		worker = new OptimizationWorker(simulation, parameter, goal, domain, modifiers) {
+		worker = new OptimizationWorker(simulation, parameter, goal, domain, globalSearch, modifiers) {
 			@Override
 			protected void done(OptimizationException exception) {
 				log.info("Optimization finished, exception=" + exception, exception);
@@ -778,14 +799,16 @@ public class GeneralOptimizationDialog extends JDialog {
 					bestValue = Double.NaN;
 				}
 				
-				// Update the simulation
+				// Update the simulation, which the evaluation threads copy while holding its lock
 				Simulation sim = getSelectedSimulation();
-				for (int i = 0; i < newPoint.dim(); i++) {
-					try {
-						selectedModifiers.get(i).modify(sim, newPoint.get(i));
-					} catch (OptimizationException e) {
-						throw new BugException( "Simulation modifier failed to modify the base simulation " +
-												"modifier=" + selectedModifiers.get(i), e);
+				synchronized (sim) {
+					for (int i = 0; i < newPoint.dim(); i++) {
+						try {
+							selectedModifiers.get(i).modify(sim, newPoint.get(i));
+						} catch (OptimizationException e) {
+							throw new BugException( "Simulation modifier failed to modify the base simulation " +
+													"modifier=" + selectedModifiers.get(i), e);
+						}
 					}
 				}
 				figure.updateFigure();
@@ -1,5 +1,6 @@
 package net.sf.openrocket.gui.dialogs.optimization;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -9,16 +10,18 @@ import javax.swing.SwingUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sf.openrocket.arch.SystemInfo;
 import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.optimization.general.FunctionOptimizer;
 import net.sf.openrocket.optimization.general.OptimizationController;
 import net.sf.openrocket.optimization.general.OptimizationException;
 import net.sf.openrocket.optimization.general.ParallelExecutorCache;
-import net.sf.openrocket.optimization.general.ParallelFunctionCache;
 import net.sf.openrocket.optimization.general.Point;
+import net.sf.openrocket.optimization.general.multidim.DifferentialEvolutionOptimizer;
 import net.sf.openrocket.optimization.general.multidim.MultidirectionalSearchOptimizer;
 import net.sf.openrocket.optimization.general.onedim.GoldenSectionSearchOptimizer;
 import net.sf.openrocket.optimization.rocketoptimization.OptimizableParameter;
+import net.sf.openrocket.optimization.rocketoptimization.OptimizationEvaluationCache;
 import net.sf.openrocket.optimization.rocketoptimization.OptimizationGoal;
 import net.sf.openrocket.optimization.rocketoptimization.RocketOptimizationFunction;
 import net.sf.openrocket.optimization.rocketoptimization.RocketOptimizationListener;
@@ -54,13 +57,19 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 	/** End optimization when step size is below this threshold */
 	private static final double STEP_SIZE_LIMIT = 0.005;
 	
+	/** The file of the evaluation cache in the user application directory */
+	private static final String CACHE_FILE = "OptimizationCache.evaluations";
+	
+	/** The evaluation cache shared by all optimization runs, loaded on first use */
+	private static OptimizationEvaluationCache evaluationCache = null;
+	
 	private final FunctionOptimizer optimizer;
 	private final RocketOptimizationFunction function;
 	
 	private final Simulation simulation;
 	private final SimulationModifier[] modifiers;
 	
-	private final ParallelFunctionCache cache;
+	private final ParallelExecutorCache cache;
 
 	private final LinkedBlockingQueue<FunctionEvaluationData> evaluationQueue = new LinkedBlockingQueue<>();
 	private final LinkedBlockingQueue<OptimizationStepData> stepQueue = new LinkedBlockingQueue<>();
@@ -75,24 +84,33 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 	 * @param parameter			the optimization parameter
 	 * @param goal				the optimization goal
 	 * @param domain			the optimization domain
+	 * @param globalSearch		whether to use the parallel global search algorithm instead of
+	 * 							a local search
 	 * @param modifiers			the simulation modifiers
 	 */
 	public OptimizationWorker(Simulation simulation, OptimizableParameter parameter,
-			OptimizationGoal goal, SimulationDomain domain, SimulationModifier... modifiers) {
+			OptimizationGoal goal, SimulationDomain domain, boolean globalSearch, SimulationModifier... modifiers) {
 		
 		this.simulation = simulation;
 		this.modifiers = modifiers.clone();
 		
 		function = new RocketOptimizationFunction(simulation, parameter, goal, domain, modifiers);
 		function.addRocketOptimizationListener(this);
+		function.setEvaluationCache(getEvaluationCache());
 		
-		cache = new ParallelExecutorCache(1);
-		cache.setFunction(function);
-		
-		if (modifiers.length == 1) {
-			optimizer = new GoldenSectionSearchOptimizer(cache);
+		if (globalSearch) {
+			// The whole population of a generation is evaluated concurrently on all processors
+			cache = new ParallelExecutorCache();
+			cache.setFunction(function);
+			optimizer = new DifferentialEvolutionOptimizer(cache);
 		} else {
-			optimizer = new MultidirectionalSearchOptimizer(cache);
+			cache = new ParallelExecutorCache(1);
+			cache.setFunction(function);
+			if (modifiers.length == 1) {
+				optimizer = new GoldenSectionSearchOptimizer(cache);
+			} else {
+				optimizer = new MultidirectionalSearchOptimizer(cache);
+			}
 		}
 	}
 	
@@ -112,6 +130,9 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 		} catch (OptimizationException e) {
 			this.optimizationException = e;
 		} finally {
+			// Release the evaluation threads and the rocket copies they hold
+			cache.getExecutor().shutdown();
+			function.getEvaluationCache().save();
 			SwingUtilities.invokeLater(() -> {
 				lastPurge = System.currentTimeMillis() + 24L * 3600L * 1000L;
 				processQueue();
@@ -120,6 +141,19 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 		}
 	}
 	
+	/**
+	 * Return the evaluation cache shared by all optimization runs, loading it from the
+	 * user application directory on first use.
+	 */
+	private static synchronized OptimizationEvaluationCache getEvaluationCache() {
+		if (evaluationCache == null) {
+			evaluationCache = new OptimizationEvaluationCache(new File(SystemInfo.getUserApplicationDirectory(), CACHE_FILE));
+			evaluationCache.load();
+		}
+		return evaluationCache;
+	}
+	
+	
 	/**
 	 * This method is called after the optimization has ended, either normally, when interrupted
 	 * or by throwing an exception.  This method is called on the EDT, like the done() method of SwingWorker.
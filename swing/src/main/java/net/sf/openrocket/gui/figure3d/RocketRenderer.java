@@ -5,6 +5,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -18,10 +19,9 @@ import com.jogamp.opengl.fixedfunc.GLLightingFunc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import net.sf.openrocket.gui.figure3d.geometry.ComponentRenderer;
-import net.sf.openrocket.gui.figure3d.geometry.DisplayListComponentRenderer;
 import net.sf.openrocket.gui.figure3d.geometry.Geometry;
 import net.sf.openrocket.gui.figure3d.geometry.Geometry.Surface;
+import net.sf.openrocket.gui.figure3d.geometry.MeshComponentRenderer;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.MotorConfiguration;
 import net.sf.openrocket.rocketcomponent.FlightConfiguration;
@@ -39,7 +39,7 @@ import net.sf.openrocket.util.Transformation;
 public abstract class RocketRenderer {
 	protected static final Logger log = LoggerFactory.getLogger(RocketRenderer.class);
 	
-	final ComponentRenderer cr = new DisplayListComponentRenderer();
+	final MeshComponentRenderer cr = new MeshComponentRenderer();
 	
 	private final float[] selectedEmissive = { 1, 0, 0, 1 };
 	private final float[] colorBlack = { 0, 0, 0, 1 };
@@ -176,14 +176,16 @@ public abstract class RocketRenderer {
 	private Collection<Geometry> getTreeGeometry( FlightConfiguration config){
 		// input
 		final InstanceMap imap = config.getActiveInstances();
+		// drop the meshes of removed components
+		cr.retainComponents(imap.keySet());
 
 		// output buffer
 		final Collection<Geometry> treeGeometry = new ArrayList<Geometry>();
 
-		for(Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry: imap.entrySet() ) {
+		for(Map.Entry<RocketComponent, List<InstanceContext>> entry: imap.entrySet() ) {
 			final RocketComponent comp = entry.getKey();
 			
-			final ArrayList<InstanceContext> contextList = entry.getValue();
+			final List<InstanceContext> contextList = entry.getValue();
 
 			for(InstanceContext context: contextList ) {
 				Geometry instanceGeometry = cr.getComponentGeometry( comp, context.transform );
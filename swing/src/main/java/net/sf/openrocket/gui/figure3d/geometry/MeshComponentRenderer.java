@@ -0,0 +1,122 @@
+package net.sf.openrocket.gui.figure3d.geometry;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+// thzero - begin
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.fixedfunc.GLMatrixFunc;
+import com.jogamp.opengl.fixedfunc.GLPointerFunc;
+// thzero - end
+
+import net.sf.openrocket.gui.figure3d.geometry.Geometry.Surface;
+import net.sf.openrocket.mesh.ComponentMesh;
+import net.sf.openrocket.mesh.Mesh;
+import net.sf.openrocket.mesh.MeshCache;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.InsideColorComponent;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+
+/**
+ * A component renderer drawing the tessellated component meshes from vertex arrays.
+ * The meshes are cached between figure updates, so only the components whose
+ * geometry has changed are tessellated again.  Components without a tessellated
+ * representation are drawn by the immediate mode renderer into display lists,
+ * which are compiled again on each figure update.
+ */
+public class MeshComponentRenderer extends DisplayListComponentRenderer {
+	private final MeshCache cache = new MeshCache();
+	private final Map<Mesh, MeshBuffers> buffers = new WeakHashMap<Mesh, MeshBuffers>();
+
+	/**
+	 * Remove the cached meshes of components no longer in the figure.
+	 *
+	 * @param components	the components in the figure.
+	 */
+	public void retainComponents(Collection<? extends RocketComponent> components) {
+		cache.retain(components);
+	}
+
+	@Override
+	protected void renderInstance(GL2 gl, RocketComponent c, Surface which) {
+		if (!cache.getTessellator().isSupported(c)) {
+			super.renderInstance(gl, c, which);
+			return;
+		}
+
+		Mesh mesh = cache.getMesh(c).getMesh(toMeshSurface(which));
+		if (mesh.isEmpty()) {
+			return;
+		}
+
+		// Mirror the right side fin texture to avoid e.g. mirrored decal text
+		boolean mirror = which == Surface.INSIDE && c instanceof FinSet &&
+				((InsideColorComponent) c).getInsideColorComponentHandler().isSeparateInsideOutside();
+		if (mirror) {
+			gl.glMatrixMode(GL.GL_TEXTURE);
+			gl.glPushMatrix();
+			gl.glScaled(-1, 1, 1);
+			gl.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+		}
+
+		MeshBuffers b = getBuffers(mesh);
+		gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+		gl.glEnableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+		gl.glVertexPointer(3, GL.GL_FLOAT, 0, b.vertices);
+		gl.glNormalPointer(GL.GL_FLOAT, 0, b.normals);
+		gl.glTexCoordPointer(2, GL.GL_FLOAT, 0, b.textureCoordinates);
+		gl.glDrawElements(GL.GL_TRIANGLES, b.indices.capacity(), GL.GL_UNSIGNED_INT, b.indices);
+		gl.glDisableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+		gl.glDisableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+		gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+
+		if (mirror) {
+			gl.glMatrixMode(GL.GL_TEXTURE);
+			gl.glPopMatrix();
+			gl.glMatrixMode(GLMatrixFunc.GL_MODELVIEW);
+		}
+	}
+
+	private MeshBuffers getBuffers(Mesh mesh) {
+		MeshBuffers b = buffers.get(mesh);
+		if (b == null) {
+			b = new MeshBuffers(mesh);
+			buffers.put(mesh, b);
+		}
+		return b;
+	}
+
+	private static ComponentMesh.Surface toMeshSurface(Surface which) {
+		switch (which) {
+		case INSIDE:
+			return ComponentMesh.Surface.INSIDE;
+		case EDGES:
+			return ComponentMesh.Surface.EDGES;
+		default:
+			return ComponentMesh.Surface.OUTSIDE;
+		}
+	}
+
+	/**
+	 * Direct buffers holding the arrays of a mesh for drawing.
+	 */
+	private static class MeshBuffers {
+		final FloatBuffer vertices;
+		final FloatBuffer normals;
+		final FloatBuffer textureCoordinates;
+		final IntBuffer indices;
+
+		MeshBuffers(Mesh mesh) {
+			vertices = Buffers.newDirectFloatBuffer(mesh.getVertices());
+			normals = Buffers.newDirectFloatBuffer(mesh.getNormals());
+			textureCoordinates = Buffers.newDirectFloatBuffer(mesh.getTextureCoordinates());
+			indices = Buffers.newDirectIntBuffer(mesh.getIndices());
+		}
+	}
+}
@@ -5,6 +5,7 @@ import java.awt.event.ActionListener;
 
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
+import javax.swing.JCheckBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -39,6 +40,8 @@ public class StorageOptionChooser extends JPanel {
 	
 	private JSpinner timeSpinner;
 	
+	private JCheckBox binaryCheckbox;
+	
 	private JLabel estimateLabel;
 	
 	
@@ -118,7 +121,16 @@ public class StorageOptionChooser extends JPanel {
 				trans.get("StorageOptChooser.lbl.longC2"));
 		buttonGroup.add(noneButton);
 		noneButton.addActionListener(actionUpdater);
-		this.add(noneButton, "spanx, wrap 20lp");
+		this.add(noneButton, "spanx, wrap para");
+		
+		//// Store data in compact binary format
+		binaryCheckbox = new JCheckBox(trans.get("StorageOptChooser.checkbox.Binarydata"));
+		//// <html>Store the simulated data in a compact binary format.<br>
+		//// This results in smaller files that load faster, but cannot be read by older versions.
+		binaryCheckbox.setToolTipText(trans.get("StorageOptChooser.checkbox.longE1") +
+				trans.get("StorageOptChooser.checkbox.longE2"));
+		binaryCheckbox.addActionListener(actionUpdater);
+		this.add(binaryCheckbox, "spanx, wrap 20lp");
 		
 		// Estimate is updated in loadOptions(opts)
 		estimateLabel = new JLabel("");
@@ -157,6 +169,8 @@ public class StorageOptionChooser extends JPanel {
 		timeSpinner.setValue(t);
 		artificialEvent = false;
 		
+		binaryCheckbox.setSelected(opts.isBinaryFlightData());
+		
 		updateEstimate();
 	}
 	
@@ -173,6 +187,7 @@ public class StorageOptionChooser extends JPanel {
 		}
 		
 		opts.setSimulationTimeSkip(t);
+		opts.setBinaryFlightData(binaryCheckbox.isSelected());
 		
 		opts.setExplicitlySet(true);
 	}
@@ -13,6 +13,7 @@ import java.awt.Stroke;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.nio.DoubleBuffer;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.regex.Matcher;
@@ -178,11 +179,11 @@ public class SimulationPlot {
 				int branchIndex = 0;
 				FlightDataBranch thisBranch = simulation.getSimulatedData().getBranch(branchIndex);
 				// Store data in provided units
-				List<Double> plotx = thisBranch.get(domainType);
-				List<Double> ploty = thisBranch.get(type);
+				DoubleBuffer plotx = thisBranch.getBuffer(domainType);
+				DoubleBuffer ploty = thisBranch.getBuffer(type);
 				XYSeries series = new XYSeries(seriesCount++, false, true);
 				series.setDescription(name);
-				int pointCount = plotx.size();
+				int pointCount = plotx.limit();
 				for (int j = 0; j < pointCount; j++) {
 					series.add(domainUnit.toUnit(plotx.get(j)), unit.toUnit(ploty.get(j)));
 				}
@@ -194,17 +195,17 @@ public class SimulationPlot {
 				FlightDataBranch thisBranch = simulation.getSimulatedData().getBranch(branchIndex);
 
 				// Get first time index used in secondary branch;
-				double firstSampleTime = thisBranch.get(FlightDataType.TYPE_TIME).get(0);
+				double firstSampleTime = thisBranch.getValue(FlightDataType.TYPE_TIME, 0);
 
 				XYSeries series = new XYSeries(seriesCount++, false, true);
 				series.setDescription(thisBranch.getBranchName() + ": " + name);
 
 				// Copy the first points from the primaryBranch.
-				List<Double> primaryT = primaryBranch.get(FlightDataType.TYPE_TIME);
-				List<Double> primaryx = primaryBranch.get(domainType);
-				List<Double> primaryy = primaryBranch.get(type);
+				DoubleBuffer primaryT = primaryBranch.getBuffer(FlightDataType.TYPE_TIME);
+				DoubleBuffer primaryx = primaryBranch.getBuffer(domainType);
+				DoubleBuffer primaryy = primaryBranch.getBuffer(type);
 
-				for (int j = 0; j < primaryT.size(); j++) {
+				for (int j = 0; j < primaryT.limit(); j++) {
 					if (primaryT.get(j) >= firstSampleTime) {
 						break;
 					}
@@ -212,10 +213,10 @@ public class SimulationPlot {
 				}
 
 				// Now copy all the data from the secondary branch
-				List<Double> plotx = thisBranch.get(domainType);
-				List<Double> ploty = thisBranch.get(type);
+				DoubleBuffer plotx = thisBranch.getBuffer(domainType);
+				DoubleBuffer ploty = thisBranch.getBuffer(type);
 
-				int pointCount = plotx.size();
+				int pointCount = plotx.limit();
 				for (int j = 0; j < pointCount; j++) {
 					series.add(domainUnit.toUnit(plotx.get(j)), unit.toUnit(ploty.get(j)));
 				}
@@ -449,8 +450,8 @@ public class SimulationPlot {
 		} else {
 
 			// Other domains are plotted as image annotations
-			List<Double> time = mainBranch.get(FlightDataType.TYPE_TIME);
-			List<Double> domain = mainBranch.get(config.getDomainAxisType());
+			double[] time = mainBranch.getValues(FlightDataType.TYPE_TIME);
+			double[] domain = mainBranch.getValues(config.getDomainAxisType());
 
 			LinearInterpolator domainInterpolator = new LinearInterpolator(time, domain);
 
@@ -465,7 +466,7 @@ public class SimulationPlot {
 				double xcoord = domainInterpolator.getValue(t);
 				for (int index = 0; index < config.getTypeCount(); index++) {
 					FlightDataType type = config.getType(index);
-					List<Double> range = mainBranch.get(type);
+					double[] range = mainBranch.getValues(type);
 
 					LinearInterpolator rangeInterpolator = new LinearInterpolator(time, range);
 					// Image annotations are not supported on the right-side axis
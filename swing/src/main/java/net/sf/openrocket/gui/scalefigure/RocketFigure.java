@@ -35,10 +35,10 @@ import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.util.BoundingBox;
 import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.ComponentDispatcher;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.LineStyle;
 import net.sf.openrocket.util.MathUtil;
-import net.sf.openrocket.util.Reflection;
 import net.sf.openrocket.util.Transformation;
 
 /**
@@ -55,6 +55,10 @@ public class RocketFigure extends AbstractScaleFigure {
 	
 	private static final String ROCKET_FIGURE_PACKAGE = "net.sf.openrocket.gui.rocketfigure";
 	private static final String ROCKET_FIGURE_SUFFIX = "Shapes";
+	private static final ComponentDispatcher SHAPES_SIDE = ComponentDispatcher.forMethod(ROCKET_FIGURE_PACKAGE,
+			ROCKET_FIGURE_SUFFIX, "getShapesSide", RocketComponent.class, Transformation.class);
+	private static final ComponentDispatcher SHAPES_BACK = ComponentDispatcher.forMethod(ROCKET_FIGURE_PACKAGE,
+			ROCKET_FIGURE_SUFFIX, "getShapesBack", RocketComponent.class, Transformation.class);
 	
 	public static final int VIEW_SIDE=0;
 	public static final int VIEW_BACK=1;
@@ -371,10 +375,10 @@ public class RocketFigure extends AbstractScaleFigure {
 		// allShapes is an output buffer -- it stores all the generated shapes
 		allShapes.clear();
 		
-		for(Entry<RocketComponent, ArrayList<InstanceContext>> entry: config.getActiveInstances().entrySet() ) {
+		for(Entry<RocketComponent, List<InstanceContext>> entry: config.getActiveInstances().entrySet() ) {
 			final RocketComponent comp = entry.getKey();
 			
-			final ArrayList<InstanceContext> contextList = entry.getValue();
+			final List<InstanceContext> contextList = entry.getValue();
 
 			for(InstanceContext context: contextList ) {
 				final Transformation currentTransform = this.axialRotation.applyTransformation(context.transform);
@@ -399,7 +403,7 @@ public class RocketFigure extends AbstractScaleFigure {
 			final RocketPanel.VIEW_TYPE viewType, 
 			final RocketComponent component, 
 			final Transformation transformation) {
-		Reflection.Method m;
+		ComponentDispatcher m;
 		
 		if(( component instanceof Rocket)||( component instanceof ComponentAssembly )){
 			// no-op; no shapes here
@@ -409,27 +413,25 @@ public class RocketFigure extends AbstractScaleFigure {
 		// Find the appropriate method
 		switch (viewType) {
 		case SideView:
-			m = Reflection.findMethod(ROCKET_FIGURE_PACKAGE, component, ROCKET_FIGURE_SUFFIX, "getShapesSide",
-					RocketComponent.class, Transformation.class);
+			m = SHAPES_SIDE;
 			break;
 		
 		case BackView:
-			m = Reflection.findMethod(ROCKET_FIGURE_PACKAGE, component, ROCKET_FIGURE_SUFFIX, "getShapesBack",
-					RocketComponent.class, Transformation.class);
+			m = SHAPES_BACK;
 			break;
 		
 		default:
 			throw new BugException("Unknown figure type = " + viewType);
 		}
 		
-		if (m == null) {
+		if (!m.isSupported(component)) {
 			Application.getExceptionHandler().handleErrorCondition("ERROR: Rocket figure paint method not found for "
 					+ component);
 			return allShapes;
 		}
 		
 	
-		RocketComponentShape[] returnValue =  (RocketComponentShape[]) m.invokeStatic(component, transformation);
+		RocketComponentShape[] returnValue =  (RocketComponentShape[]) m.invoke(component, transformation);
 		allShapes.addAll(Arrays.asList(returnValue));
 		return allShapes;
 	}
@@ -6,10 +6,12 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
 import javax.swing.JDialog;
@@ -27,6 +29,7 @@ import net.miginfocom.swing.MigLayout;
 import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.gui.SpinnerEditor;
+import net.sf.openrocket.gui.adaptors.BooleanModel;
 import net.sf.openrocket.gui.adaptors.DoubleModel;
 import net.sf.openrocket.gui.adaptors.EnumModel;
 import net.sf.openrocket.gui.components.BasicSlider;
@@ -37,8 +40,10 @@ import net.sf.openrocket.gui.components.UnitSelector;
 import net.sf.openrocket.gui.util.GUIUtil;
 import net.sf.openrocket.gui.util.Icons;
 import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.simulation.DormandPrinceSimulationStepper;
 import net.sf.openrocket.simulation.RK4SimulationStepper;
 import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.simulation.SimulationStepperType;
 import net.sf.openrocket.simulation.extension.SimulationExtension;
 import net.sf.openrocket.simulation.extension.SimulationExtensionProvider;
 import net.sf.openrocket.simulation.extension.SwingSimulationExtensionConfigurator;
@@ -56,6 +61,9 @@ class SimulationOptionsPanel extends JPanel {
 
 	private static final Translator trans = Application.getTranslator();
 	
+	/** The error tolerances selectable for the adaptive steppers. */
+	private static final double[] ERROR_TOLERANCES = { 1e-3, 1e-4, 1e-5, 1e-6, 1e-7 };
+	
 	private OpenRocketDocument document;
 	final Simulation simulation;
 	
@@ -99,6 +107,12 @@ class SimulationOptionsPanel extends JPanel {
 		label.setToolTipText(tip);
 		subsub.add(label, "growx, span 3, wrap");
 		
+		// // Use precomputed coefficient tables
+		JCheckBox tabulatedCheck = new JCheckBox(new BooleanModel(conditions, "TabulatedAerodynamics"));
+		tabulatedCheck.setText(trans.get("simedtdlg.checkbox.TabulatedAerodynamics"));
+		tabulatedCheck.setToolTipText(trans.get("simedtdlg.checkbox.ttip.TabulatedAerodynamics"));
+		subsub.add(tabulatedCheck, "skip 1, span 3, wrap");
+		
 		// Simulation method
 		tip = trans.get("simedtdlg.lbl.ttip.Simmethod1")
 				+ trans.get("simedtdlg.lbl.ttip.Simmethod2");
@@ -106,9 +120,48 @@ class SimulationOptionsPanel extends JPanel {
 		label.setToolTipText(tip);
 		subsub.add(label, "gapright para");
 		
-		label = new JLabel("6-DOF Runge-Kutta 4");
-		label.setToolTipText(tip);
-		subsub.add(label, "growx, span 3, wrap");
+		EnumModel<SimulationStepperType> stepperModel = new EnumModel<SimulationStepperType>(
+				conditions, "StepperType");
+		final JComboBox<SimulationStepperType> stepperCombo = new JComboBox<SimulationStepperType>(stepperModel);
+		subsub.add(stepperCombo, "span 3, wrap");
+		
+		// // Error tolerance:
+		final JLabel toleranceLabel = new JLabel(trans.get("simedtdlg.lbl.Errortolerance"));
+		toleranceLabel.setToolTipText(trans.get("simedtdlg.lbl.ttip.Errortolerance"));
+		subsub.add(toleranceLabel, "gapright para");
+		
+		final JComboBox<String> toleranceCombo = new JComboBox<String>();
+		toleranceCombo.setToolTipText(trans.get("simedtdlg.lbl.ttip.Errortolerance"));
+		for (double t : ERROR_TOLERANCES) {
+			toleranceCombo.addItem(toleranceToString(t));
+		}
+		if (indexOfTolerance(conditions.getErrorTolerance()) < 0) {
+			toleranceCombo.addItem(toleranceToString(conditions.getErrorTolerance()));
+		}
+		toleranceCombo.setSelectedItem(toleranceToString(conditions.getErrorTolerance()));
+		toleranceCombo.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				int index = toleranceCombo.getSelectedIndex();
+				if (index >= 0 && index < ERROR_TOLERANCES.length) {
+					conditions.setErrorTolerance(ERROR_TOLERANCES[index]);
+				}
+			}
+		});
+		subsub.add(toleranceCombo, "span 3, wrap");
+		
+		ActionListener stepperListener = new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				SimulationStepperType type = (SimulationStepperType) stepperCombo.getSelectedItem();
+				stepperCombo.setToolTipText(type.getDescription());
+				boolean adaptive = (type != SimulationStepperType.RK4);
+				toleranceLabel.setEnabled(adaptive);
+				toleranceCombo.setEnabled(adaptive);
+			}
+		};
+		stepperCombo.addActionListener(stepperListener);
+		stepperListener.actionPerformed(null);
 		
 		// // Geodetic calculation method:
 		label = new JLabel(trans.get("simedtdlg.lbl.GeodeticMethod"));
@@ -176,6 +229,9 @@ class SimulationOptionsPanel extends JPanel {
 				conditions.setGeodeticComputation(preferences.getEnum(
 						Preferences.GEODETIC_COMPUTATION,
 						GeodeticComputationStrategy.SPHERICAL));
+				conditions.setStepperType(SimulationStepperType.RK4);
+				conditions.setErrorTolerance(DormandPrinceSimulationStepper.RECOMMENDED_ERROR_TOLERANCE);
+				toleranceCombo.setSelectedItem(toleranceToString(conditions.getErrorTolerance()));
 			}
 		});
 		
@@ -406,4 +462,17 @@ class SimulationOptionsPanel extends JPanel {
 		return null;
 	}
 	
+	
+	private static int indexOfTolerance(double tolerance) {
+		for (int i = 0; i < ERROR_TOLERANCES.length; i++) {
+			if (toleranceToString(ERROR_TOLERANCES[i]).equals(toleranceToString(tolerance))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private static String toleranceToString(double tolerance) {
+		return String.format(Locale.ENGLISH, "%.0e", tolerance);
+	}
 }